@@ -16,6 +16,14 @@ repositories {
     mavenCentral()
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[jmh.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     // Logging
     implementation("org.slf4j:slf4j-api:2.0.9")
@@ -31,6 +39,10 @@ dependencies {
 
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmarks
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
@@ -39,4 +51,23 @@ application {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("generateTraffic") {
+    group = "application"
+    description = "Writes a synthetic S6a capture (pass options with -PgeneratorArgs=\"--rows=N --output=file\")."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("diameter.tools.TrafficGenerator")
+    args(providers.gradleProperty("generatorArgs").map { it.split(" ").filter(String::isNotBlank) }
+             .getOrElse(emptyList()))
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks (filter with -PjmhIncludes=<regex>, pass more JMH options with -PjmhArgs)."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // The GC profiler adds gc.alloc.rate.norm (bytes allocated per operation) next to every score.
+    args(providers.gradleProperty("jmhIncludes").getOrElse(".*"), "-prof", "gc")
+    args(providers.gradleProperty("jmhArgs").map { it.split(" ").filter(String::isNotBlank) }.getOrElse(emptyList()))
+}
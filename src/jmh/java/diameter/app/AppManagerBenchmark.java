@@ -0,0 +1,105 @@
+package diameter.app;
+
+import diameter.csv.parser.CsvParserImpl;
+import diameter.domain.factory.MessageFactoryImpl;
+import diameter.io.FileReader;
+import diameter.io.LineSource;
+import diameter.reporter.SummaryReporter;
+import diameter.transaction.RetentionPolicy;
+import diameter.transaction.TransactionManagerImpl;
+import diameter.validator.MessageValidatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the whole pipeline (parse, create, validate, correlate and report) over an in-memory capture of
+ * {@value #ROWS} rows, so ns/op and {@code gc.alloc.rate.norm} are per input row. The capture is encoded once, so
+ * reading costs no more than handing out the line buffers. Comparing {@code stageTimings} shows the cost of timing
+ * the stages. Run with {@code ./gradlew jmh -PjmhIncludes=AppManager}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AppManagerBenchmark {
+    private static final int      ROWS = 100_000;
+    private static final String[] ARGS = {"in-memory.csv"};
+
+    @Param({"0", "2"})
+    public int pipelineWorkers;
+
+    @Param({"false", "true"})
+    public boolean stageTimings;
+
+    private byte[][] lines;
+    private long     rowsReported;
+
+    @Setup
+    public void setUp() {
+        lines = new byte[ROWS + 1][];
+        lines[0] = ("message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,"
+                    + "result_code").getBytes(StandardCharsets.UTF_8);
+        for (int i = 1; i <= ROWS; i += 4) {
+            int session = i / 4;
+            lines[i] = line("AIR,true,air-" + session + ",mme1.example.com,example.com,001010123456789,,");
+            lines[i + 1] = line("ULR,true,ulr-" + session + ",mme1.example.com,example.com,001010123456789,00101,");
+            lines[i + 2] = line("AIA,false,air-" + session + ",hss1.example.com,example.com,,,2001");
+            lines[i + 3] = line("ULA,false,ulr-" + session + ",hss1.example.com,example.com,,,2001");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long processCapture() {
+        SummaryReporter reporter = (accumulator, result) -> rowsReported = accumulator.getTotal();
+
+        new AppManager(new InMemoryFileReader(lines), new CsvParserImpl(), new MessageFactoryImpl(),
+                       new TransactionManagerImpl(RetentionPolicy.DEFAULT), new MessageValidatorImpl(), reporter,
+                       RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withStageTimings(stageTimings))
+                .run(ARGS);
+
+        return rowsReported;
+    }
+
+    private static byte[] line(String line) {
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class InMemoryFileReader implements FileReader {
+        private final byte[][] lines;
+
+        private InMemoryFileReader(byte[][] lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public List<String> getLinesFromFile(String[] args) {
+            throw new UnsupportedOperationException("The capture is only available as a line source");
+        }
+
+        @Override
+        public LineSource getLineSource(String[] args) {
+            return consumer -> {
+                for (byte[] line : lines) {
+                    consumer.accept(line, 0, line.length);
+                }
+            };
+        }
+    }
+}
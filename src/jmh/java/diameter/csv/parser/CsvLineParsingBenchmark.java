@@ -0,0 +1,115 @@
+package diameter.csv.parser;
+
+import diameter.csv.CsvColumn;
+import diameter.csv.model.CsvRow;
+import diameter.domain.MessageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the byte-level tokenizer with the previous {@code String.split} line parser. The wide-row case carries
+ * trailing columns the parser does not project, which should cost close to nothing. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=CsvLineParsing}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CsvLineParsingBenchmark {
+    private static final String HEADER =
+            "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code";
+    private static final String WIDE_COLUMNS =
+            ",timestamp,probe_id,link_id,hop_by_hop_id,end_to_end_id,destination_host,destination_realm,command_flags";
+    private static final String WIDE_VALUES  =
+            ",1700000000000,probe-7,link-3,0x1a2b3c4d,0x5e6f7a8b,hss1.example.com,example.com,0x80";
+
+    @Param({
+            "AIR,true,mme1.example.com;1700000000;42,mme1.example.com,example.com,001010123456789,,",
+            "ULA,false,mme1.example.com;1700000000;43,hss1.example.com,example.com,,,2001"
+    })
+    public String line;
+
+    private CsvParserImpl           parser;
+    private CsvParserImpl           wideParser;
+    private CsvTokenizer            tokenizer;
+    private byte[]                  bytes;
+    private byte[]                  wideBytes;
+    private Map<CsvColumn, Integer> headerMap;
+
+    @Setup
+    public void setUp() {
+        parser = new CsvParserImpl();
+        parser.compileHeader(HEADER);
+        tokenizer = new CsvTokenizer();
+        bytes = line.getBytes(StandardCharsets.UTF_8);
+        wideParser = new CsvParserImpl();
+        wideParser.compileHeader(HEADER + WIDE_COLUMNS);
+        wideBytes = (line + WIDE_VALUES).getBytes(StandardCharsets.UTF_8);
+
+        headerMap = new EnumMap<>(CsvColumn.class);
+        String[] headers = HEADER.split(",", -1);
+        for (int i = 0; i < headers.length; i++) {
+            headerMap.put(CsvColumn.valueOf(headers[i].trim().toUpperCase()), i);
+        }
+    }
+
+    @Benchmark
+    public CsvRow tokenizer() {
+        parser.tokenizeLine(tokenizer, bytes, 0, bytes.length);
+        return parser.toRow(tokenizer);
+    }
+
+    @Benchmark
+    public CsvRow tokenizerWideRow() {
+        wideParser.tokenizeLine(tokenizer, wideBytes, 0, wideBytes.length);
+        return wideParser.toRow(tokenizer);
+    }
+
+    @Benchmark
+    public CsvRow stringSplit() {
+        String[] parts = line.split(",", -1);
+
+        MessageType.valueOf(get(parts, headerMap.get(CsvColumn.MESSAGE_TYPE)));
+        String isRequestStr = get(parts, headerMap.get(CsvColumn.IS_REQUEST));
+        if (!isRequestStr.equalsIgnoreCase("true") && !isRequestStr.equalsIgnoreCase("false")) {
+            throw new IllegalStateException(isRequestStr);
+        }
+
+        return new CsvRow(
+                MessageType.valueOf(get(parts, headerMap.get(CsvColumn.MESSAGE_TYPE))),
+                Boolean.parseBoolean(get(parts, headerMap.get(CsvColumn.IS_REQUEST))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.SESSION_ID))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.ORIGIN_HOST))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.ORIGIN_REALM))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.USER_NAME))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.VISITED_PLMN_ID))),
+                emptyToNull(get(parts, headerMap.get(CsvColumn.RESULT_CODE)))
+        );
+    }
+
+    private static String get(String[] parts, int idx) {
+        if (idx < 0 || idx >= parts.length) return "";
+        return parts[idx] == null ? "" : parts[idx].trim();
+    }
+
+    private static String emptyToNull(String s) {
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
@@ -0,0 +1,69 @@
+package diameter.domain.factory;
+
+import diameter.csv.model.CsvRow;
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds messages from parsed rows, one at a time and a pipeline batch at a time. Both should allocate exactly the
+ * message object per row. Run with {@code ./gradlew jmh -PjmhIncludes=MessageFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MessageFactoryBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    private final MessageFactory    factory  = new MessageFactoryImpl();
+    private final CsvRow[]          rows     = new CsvRow[BATCH_SIZE];
+    private final DiameterMessage[] messages = new DiameterMessage[BATCH_SIZE];
+    private       int               next     = 0;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            rows[i] = switch (i % 4) {
+                case 0 -> new CsvRow(MessageType.AIR, true, "sess-" + i, "mme1.example.com", "example.com",
+                                     "001010123456789", null, null);
+                case 1 -> new CsvRow(MessageType.AIA, false, "sess-" + i, "hss1.example.com", "example.com",
+                                     null, null, "2001");
+                case 2 -> new CsvRow(MessageType.ULR, true, "sess-" + i, "mme1.example.com", "example.com",
+                                     "001010123456789", "00101", null);
+                default -> new CsvRow(MessageType.ULA, false, "sess-" + i, "hss1.example.com", "example.com",
+                                      null, null, "2001");
+            };
+        }
+    }
+
+    @Benchmark
+    public DiameterMessage createOne() {
+        CsvRow row = rows[next];
+        next = (next + 1) & (BATCH_SIZE - 1);
+
+        return factory.tryCreateDiameterMessage(row);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public DiameterMessage[] createBatch() {
+        factory.tryCreateDiameterMessages(rows, 0, BATCH_SIZE, messages);
+
+        return messages;
+    }
+}
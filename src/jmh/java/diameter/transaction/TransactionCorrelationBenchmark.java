@@ -0,0 +1,73 @@
+package diameter.transaction;
+
+import diameter.domain.message.AIA;
+import diameter.domain.message.AIR;
+import diameter.domain.message.DiameterMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens and completes one transaction per operation while {@code openSessions} other transactions stay open, so the
+ * cost of the open-transaction table at that size shows up in ns/op and its per-transaction garbage in
+ * {@code gc.alloc.rate.norm}. Session-Ids are reused from a ring larger than the default duplicate-detection
+ * retention, so they never count as duplicates. The 10M case needs a large heap with {@code store=heap}. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=TransactionCorrelation}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TransactionCorrelationBenchmark {
+    private static final int RING_SIZE = 1 << 18;
+
+    @Param({"1000", "1000000", "10000000"})
+    public int openSessions;
+
+    @Param({"heap", "offheap"})
+    public String store;
+
+    private final DiameterMessage[]  requests = new DiameterMessage[RING_SIZE];
+    private final DiameterMessage[]  answers  = new DiameterMessage[RING_SIZE];
+    private       TransactionManager manager;
+    private       int                next     = 0;
+
+    @Setup
+    public void setUp() {
+        TransactionStore openTransactions = "offheap".equals(store)
+                                            ? new OffHeapTransactionStore(openSessions + RING_SIZE)
+                                            : new HeapTransactionStore();
+        manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT, openTransactions);
+
+        for (int i = 0; i < openSessions; i++) {
+            manager.handleDiameterMessage(new AIR("open-" + i, "mme1.example.com", "example.com", "user"));
+        }
+
+        for (int i = 0; i < RING_SIZE; i++) {
+            String sessionId = "sess-" + i;
+            requests[i] = new AIR(sessionId, "mme1.example.com", "example.com", "user");
+            answers[i] = new AIA(sessionId, "hss1.example.com", "example.com", "user", "2001");
+        }
+    }
+
+    @Benchmark
+    public TransactionStatus openAndComplete() {
+        int index = next;
+        next = (index + 1) & (RING_SIZE - 1);
+
+        manager.handleDiameterMessage(requests[index]);
+        return manager.handleDiameterMessage(answers[index]);
+    }
+}
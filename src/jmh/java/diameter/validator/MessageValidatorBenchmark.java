@@ -0,0 +1,66 @@
+package diameter.validator;
+
+import diameter.domain.message.AIA;
+import diameter.domain.message.AIR;
+import diameter.domain.message.DiameterMessage;
+import diameter.domain.message.ULA;
+import diameter.domain.message.ULR;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates valid messages one at a time and a pipeline batch at a time; the batch call should not allocate at all
+ * while every message is valid. Run with {@code ./gradlew jmh -PjmhIncludes=MessageValidator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MessageValidatorBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    private final MessageValidator   validator = new MessageValidatorImpl();
+    private final DiameterMessage[]  messages  = new DiameterMessage[BATCH_SIZE];
+    private final ValidationResult[] failures  = new ValidationResult[BATCH_SIZE];
+    private       int                next      = 0;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String sessionId = "sess-" + i;
+            messages[i] = switch (i % 4) {
+                case 0 -> new AIR(sessionId, "mme1.example.com", "example.com", "001010123456789");
+                case 1 -> new AIA(sessionId, "hss1.example.com", "example.com", null, "2001");
+                case 2 -> new ULR(sessionId, "mme1.example.com", "example.com", "001010123456789", "00101");
+                default -> new ULA(sessionId, "hss1.example.com", "example.com", null, "2001");
+            };
+        }
+    }
+
+    @Benchmark
+    public ValidationResult validateOne() {
+        DiameterMessage message = messages[next];
+        next = (next + 1) & (BATCH_SIZE - 1);
+
+        return validator.validate(message);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int validateBatch() {
+        return validator.validate(messages, 0, BATCH_SIZE, failures);
+    }
+}
@@ -1,26 +1,58 @@
 package diameter.app;
 
+import diameter.checkpoint.Checkpointable;
+import diameter.checkpoint.Checkpointer;
 import diameter.csv.parser.CsvParser;
-import diameter.exception.validation.DiameterMessageValidationException;
+import diameter.reporter.ProcessingAccumulator;
 import diameter.reporter.ProcessingResult;
+import diameter.reporter.StageTimings;
+import diameter.reporter.StageTimings.Stage;
 import diameter.reporter.SummaryReporter;
+import diameter.reporter.TransactionListener;
+import diameter.domain.MessageType;
 import diameter.domain.message.DiameterMessage;
 import diameter.domain.factory.MessageFactory;
 import diameter.csv.model.CsvRow;
-import diameter.exception.transaction.TransactionException;
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.exception.transaction.DuplicateTransactionException;
+import diameter.exception.transaction.UnexpectedTransactionAnswerException;
+import diameter.transaction.ParkedAnswerListener;
 import diameter.transaction.TransactionManager;
+import diameter.transaction.TransactionStatus;
+import diameter.io.DeadLetterWriter;
 import diameter.io.FileReader;
+import diameter.io.InputPosition;
+import diameter.io.LineSource;
+import diameter.io.ResumableFileReader;
+import diameter.io.ResumableLineSource;
+import diameter.logging.RateLimitedLogger;
+import diameter.monitoring.BatchCorrelateEvent;
+import diameter.monitoring.BatchPrepareEvent;
+import diameter.monitoring.BatchReadEvent;
+import diameter.monitoring.LiveMetrics;
+import diameter.monitoring.ValidationFailureEvent;
 import diameter.transaction.TransactionResult;
 import diameter.validator.MessageValidator;
 import diameter.validator.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.UnaryOperator;
 
 public final class AppManager {
-    private static final Logger LOG = LoggerFactory.getLogger(AppManager.class);
+    private static final Logger            LOG                = LoggerFactory.getLogger(AppManager.class);
+    private static final RateLimitedLogger VALIDATION_FAILURE = RateLimitedLogger.create(LOG, "Validation failure");
+    private static final int               BATCH_SIZE         = 4096;
+    private static final MessageType[]     MESSAGE_TYPES      = MessageType.values();
+    private static final Checkpointable    UNTRACKED_OUTPUT   = new UntrackedOutput();
 
     private final FileReader         fileReader;
     private final CsvParser          csvParser;
@@ -28,6 +60,13 @@ public final class AppManager {
     private final MessageValidator   validator;
     private final TransactionManager transactionManager;
     private final SummaryReporter    summaryReporter;
+    private final Checkpointer       checkpointer;
+    private final boolean            resume;
+    private final int                pipelineWorkers;
+    private final StageTimings       stageTimings;
+    private final boolean            reportStageTimings;
+    private final LiveMetrics        liveMetrics;
+    private final DeadLetterWriter   deadLetters;
 
     public AppManager(FileReader fileReader,
                       CsvParser csvParser,
@@ -35,12 +74,46 @@ public final class AppManager {
                       TransactionManager transactionManager,
                       MessageValidator validator,
                       SummaryReporter summaryReporter) {
+        this(fileReader, csvParser, messageFactory, transactionManager, validator, summaryReporter, RunOptions.DEFAULT);
+    }
+
+    public AppManager(FileReader fileReader,
+                      CsvParser csvParser,
+                      MessageFactory messageFactory,
+                      TransactionManager transactionManager,
+                      MessageValidator validator,
+                      SummaryReporter summaryReporter,
+                      RunOptions options) {
+        Checkpointer checkpointer = options.getCheckpointer();
+        LiveMetrics  liveMetrics  = options.getLiveMetrics();
+        if (checkpointer != null && !(transactionManager instanceof Checkpointable)) {
+            throw new CheckpointException(
+                    transactionManager.getClass().getSimpleName() + " does not support checkpoints");
+        }
+
+        if (checkpointer != null && !(fileReader instanceof ResumableFileReader)) {
+            throw new CheckpointException(fileReader.getClass().getSimpleName() + " cannot resume from a checkpoint");
+        }
+
         this.fileReader = fileReader;
         this.csvParser = csvParser;
         this.messageFactory = messageFactory;
         this.validator = validator;
         this.transactionManager = transactionManager;
         this.summaryReporter = summaryReporter;
+        this.checkpointer = checkpointer;
+        this.resume = options.isResume();
+        this.pipelineWorkers = options.getPipelineWorkers();
+        this.reportStageTimings = options.isTimeStages();
+        this.liveMetrics = liveMetrics;
+        this.deadLetters = options.getDeadLetters();
+        if (liveMetrics != null) {
+            this.stageTimings = liveMetrics.getStageTimings();
+            transactionManager.setLiveMetrics(liveMetrics);
+        }
+        else {
+            this.stageTimings = reportStageTimings ? new StageTimings() : null;
+        }
     }
 
     public void run(String[] args) {
@@ -50,56 +123,443 @@ public final class AppManager {
         }
 
         LOG.info("Processing CSV file: {}", args[0]);
-        List<CsvRow> rows = getCsvRows(args);
-        LOG.info("Parsed {} data rows from CSV", rows.size());
+        BatchCorrelator correlator = new BatchCorrelator();
+        transactionManager.setParkedAnswerListener(correlator);
+        if (checkpointer == null) {
+            handleMessagesToTransactions(fileReader.getLineSource(args), null, correlator);
+            return;
+        }
 
-        handleMessagesToTransactions(rows);
-    }
+        InputPosition resumeAt = InputPosition.START;
+        if (resume && checkpointer.exists()) {
+            resumeAt = checkpointer.restore(correlator.checkpointSections());
+            if (liveMetrics != null) {
+                liveMetrics.addRestoredTransactions(
+                        transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+            }
+        }
+        else if (resume) {
+            LOG.warn("No checkpoint to resume from, processing from the start");
+        }
 
-    private void handleMessagesToTransactions(List<CsvRow> csvRows) {
-        List<ProcessingResult> results = new ArrayList<>();
+        ResumableLineSource lines = ((ResumableFileReader) fileReader).getResumableLineSource(args, resumeAt);
+        handleMessagesToTransactions(lines, lines, correlator);
+    }
 
-        for (CsvRow csvRow : csvRows) {
-            results.add(processSingleRow(csvRow));
+    private void handleMessagesToTransactions(LineSource lines, ResumableLineSource positions,
+                                              BatchCorrelator correlator) {
+        StagedPipeline pipeline = new StagedPipeline(pipelineWorkers, BATCH_SIZE, this::prepare, correlator::correlate);
+        long startTime    = System.nanoTime();
+        long startGcPause = stageTimings == null ? 0 : StageTimings.gcPauseNanos();
+        pipeline.run((first, handoff) -> {
+            BatchWriter writer = new BatchWriter(first, handoff, positions);
+            csvParser.parse(stageTimings == null ? lines
+                            : TimedLineSource.wrap(lines, stageTimings, writer::getHandoffNanos), writer::add);
+            writer.finish();
+        });
+        if (stageTimings != null) {
+            stageTimings.setWallClockNanos(System.nanoTime() - startTime);
+            stageTimings.setGcPauseNanos(StageTimings.gcPauseNanos() - startGcPause);
         }
 
+        RateLimitedLogger.flushAll();
+        LOG.info("Parsed {} data rows from CSV", correlator.accumulator.getTotal());
+
         TransactionResult transactionResult = transactionManager.getTransactionResult();
+        correlator.settleParkedAnswers();
 
-        summaryReporter.report(results, transactionResult);
+        summaryReporter.report(correlator.accumulator, transactionResult);
+        if (reportStageTimings) {
+            summaryReporter.reportStageTimings(stageTimings);
+        }
     }
 
-    private ProcessingResult processSingleRow(CsvRow csvRow) {
+    // Runs on the pipeline workers: creates and validates every row, settling the rows that fail.
+    private void prepare(MessageBatch batch) {
+        BatchPrepareEvent event     = new BatchPrepareEvent();
+        long              startTime = stageTimings == null ? 0 : StageTimings.pauseFreeNanos();
+        long              createdTime;
+        int               invalid;
+        event.begin();
         try {
-            ProcessingResult retVal;
-            DiameterMessage  diameterMessage  = messageFactory.createDiameterMessage(csvRow);
-            ValidationResult validationResult = validator.validate(diameterMessage);
+            messageFactory.tryCreateDiameterMessages(batch.rows, 0, batch.size, batch.messages);
+            createdTime = stageTimings == null ? 0 : StageTimings.pauseFreeNanos();
+            invalid = validator.validate(batch.messages, 0, batch.size, batch.validationFailures);
+        }
+        catch (Exception e) {
+            // Some row throws; redo the batch one row at a time so only that row settles as an error.
+            Arrays.fill(batch.validationFailures, 0, batch.size, null);
+            for (int i = 0; i < batch.size; i++) {
+                batch.messages[i] = toValidMessage(batch, i);
+            }
+
+            // Creation and validation interleave row by row here, so the whole batch counts as creation.
+            if (stageTimings != null) {
+                stageTimings.record(Stage.CREATE, StageTimings.pauseFreeNanos() - startTime, batch.size);
+            }
+
+            event.commit(batch.size);
+            return;
+        }
+
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.messages[i] == null) {
+                batch.results[i] = ProcessingResult.validationFailure();
+            }
+        }
 
+        if (invalid > 0) {
+            for (int i = 0; i < batch.size; i++) {
+                ValidationResult validationResult = batch.validationFailures[i];
+                if (validationResult != null) {
+                    CsvRow csvRow = batch.rows[i];
+                    VALIDATION_FAILURE.warn("Validation failed for message: sessionId = {}, type = {}, errors = {}",
+                            csvRow.getSessionId(), csvRow.getMessageType(), validationResult.getErrors());
+                    ValidationFailureEvent.emitInvalidMessage(csvRow.getSessionId(), csvRow.getMessageType(),
+                                                              validationResult.getErrors());
+                    batch.messages[i] = null;
+                    batch.results[i] = ProcessingResult.validationFailure();
+                }
+            }
+        }
+
+        if (stageTimings != null) {
+            stageTimings.record(Stage.CREATE, createdTime - startTime, batch.size);
+            stageTimings.record(Stage.VALIDATE, StageTimings.pauseFreeNanos() - createdTime, batch.size);
+        }
+
+        event.commit(batch.size);
+    }
+
+    // Returns the message to correlate, or null when the row was already settled into a result.
+    private DiameterMessage toValidMessage(MessageBatch batch, int index) {
+        CsvRow csvRow = batch.rows[index];
+        try {
+            DiameterMessage diameterMessage = messageFactory.tryCreateDiameterMessage(csvRow);
+            if (diameterMessage == null) {
+                batch.results[index] = ProcessingResult.validationFailure();
+                return null;
+            }
+
+            ValidationResult validationResult = validator.validate(diameterMessage);
             if (!validationResult.isValid()) {
-                LOG.warn("Validation failed for message: sessionId = {}, type = {}, errors = {}",
+                VALIDATION_FAILURE.warn("Validation failed for message: sessionId = {}, type = {}, errors = {}",
                         csvRow.getSessionId(), csvRow.getMessageType(), validationResult.getErrors());
-                retVal = ProcessingResult.validationFailure();
+                ValidationFailureEvent.emitInvalidMessage(csvRow.getSessionId(), csvRow.getMessageType(),
+                                                          validationResult.getErrors());
+                batch.validationFailures[index] = validationResult;
+                batch.results[index] = ProcessingResult.validationFailure();
+                return null;
+            }
+
+            return diameterMessage;
+        }
+        catch (Exception e) {
+            batch.results[index] = ProcessingResult.error("Unexpected error: " + e.getMessage());
+            return null;
+        }
+    }
+
+
+    /**
+     * Fills batches with parsed rows on the reading stage. A batch is handed off when it is full or, when
+     * checkpointing, when it completes an interval of rows; such a batch carries the input position to checkpoint at.
+     */
+    private final class BatchWriter {
+        private final UnaryOperator<MessageBatch> handoff;
+        private final ResumableLineSource         positions;
+        private       MessageBatch                batch;
+        private       int                         rowsSinceCheckpoint = 0;
+        private       long                        handoffNanos        = 0;
+        private       BatchReadEvent              readEvent           = new BatchReadEvent();
+
+        private BatchWriter(MessageBatch first, UnaryOperator<MessageBatch> handoff, ResumableLineSource positions) {
+            this.batch = first;
+            this.handoff = handoff;
+            this.positions = positions;
+            readEvent.begin();
+        }
+
+        private void add(CsvRow csvRow, long lineNumber, byte[] buffer, int offset, int length) {
+            int index = batch.size++;
+            batch.rows[index] = csvRow;
+            batch.lineNumbers[index] = lineNumber;
+            if (deadLetters != DeadLetterWriter.NONE) {
+                batch.keepLine(index, buffer, offset, length);
+            }
+
+            boolean checkpointDue = positions != null && ++rowsSinceCheckpoint == checkpointer.getIntervalRows();
+            if (checkpointDue || batch.isFull()) {
+                seal(checkpointDue);
+            }
+        }
+
+        private void finish() {
+            if (batch.size > 0) {
+                seal(false);
+            }
+        }
+
+        private void seal(boolean checkpoint) {
+            if (checkpoint) {
+                batch.inputPosition = positions.getInputPosition();
+                batch.checkpoint = true;
+                rowsSinceCheckpoint = 0;
+            }
+
+            readEvent.commit(batch.size);
+            if (liveMetrics != null) {
+                liveMetrics.addParsedRows(batch.size);
+            }
+
+            if (stageTimings == null) {
+                batch = handoff.apply(batch);
             }
             else {
-                transactionManager.processDiameterMessage(diameterMessage);
-                retVal = ProcessingResult.success();
+                long startTime = StageTimings.pauseFreeNanos();
+                batch = handoff.apply(batch);
+                handoffNanos += StageTimings.pauseFreeNanos() - startTime;
             }
 
-            return retVal;
+            readEvent = new BatchReadEvent();
+            readEvent.begin();
         }
-        catch (DiameterMessageValidationException e) {
-            return ProcessingResult.validationFailure();
+
+        private long getHandoffNanos() {
+            return handoffNanos;
         }
-        catch (TransactionException e) {
-            return ProcessingResult.error(e.getMessage());
+    }
+
+    /**
+     * Hands the valid messages of each prepared batch to the transaction manager in one call, so a sharded manager
+     * pays one hand-off per shard and batch rather than per message, and records every row's outcome in row order.
+     * <p>
+     * When checkpointing, the accumulator is the checkpoint section holding the report state, followed by the
+     * transaction manager and the dead-letter and report outputs, and a checkpoint is written after each batch that
+     * completes an interval of rows. A summary reporter that is also a {@link TransactionListener} is told about every
+     * handled message.
+     * <p>
+     * A parked answer counts as valid until the transaction manager reports it as an orphan; it is then settled as an
+     * error after its batch, or after the run for the answers still parked at the end. While dead-lettering, the
+     * line of every parked answer is kept until then.
+     */
+    private final class BatchCorrelator implements ParkedAnswerListener {
+        private final ProcessingAccumulator           accumulator    = new ProcessingAccumulator();
+        private final DiameterMessage[]               messages       = new DiameterMessage[BATCH_SIZE];
+        private final TransactionStatus[]             statuses       = new TransactionStatus[BATCH_SIZE];
+        private final String[]                        failures       = new String[BATCH_SIZE];
+        private final long[]                          byType         = new long[MESSAGE_TYPES.length];
+        private final boolean                         deadLettering  = deadLetters != DeadLetterWriter.NONE;
+        private final Map<DiameterMessage, ParkedRow> parkedRows     = new IdentityHashMap<>();
+        private final Queue<DiameterMessage>          matchedAnswers = new ConcurrentLinkedQueue<>();
+        private final Queue<DiameterMessage>          orphanAnswers  = new ConcurrentLinkedQueue<>();
+        private final TransactionListener             listener       =
+                summaryReporter instanceof TransactionListener transactionListener ? transactionListener : null;
+
+        private void correlate(MessageBatch batch) {
+            BatchCorrelateEvent event     = new BatchCorrelateEvent();
+            long                startTime = stageTimings == null ? 0 : StageTimings.pauseFreeNanos();
+            int                 size      = 0;
+            event.begin();
+            for (int i = 0; i < batch.size; i++) {
+                if (batch.messages[i] != null) {
+                    messages[size++] = batch.messages[i];
+                }
+            }
+
+            try {
+                transactionManager.handleDiameterMessages(messages, 0, size, statuses);
+            }
+            catch (Exception e) {
+                // Some message throws; the messages handled before it keep their outcome, and the rest are redone one
+                // at a time so only the failing one settles as an error.
+                for (int j = 0; j < size; j++) {
+                    if (statuses[j] == null) {
+                        handleOne(j);
+                    }
+                }
+            }
+
+            int next = 0;
+            for (int i = 0; i < batch.size; i++) {
+                DiameterMessage diameterMessage = batch.messages[i];
+                if (diameterMessage == null) {
+                    accumulator.record(batch.results[i]);
+                    if (deadLettering) {
+                        deadLetter(batch, i, reasonOf(batch, i));
+                    }
+                }
+                else if (failures[next] != null) {
+                    accumulator.recordError(failures[next]);
+                    if (deadLettering) {
+                        deadLetter(batch, i, failures[next]);
+                    }
+                    next++;
+                }
+                else {
+                    record(statuses[next], diameterMessage, batch, i);
+                    next++;
+                }
+            }
+
+            settleParkedAnswers();
+            Arrays.fill(messages, 0, size, null);
+            Arrays.fill(statuses, 0, size, null);
+            Arrays.fill(failures, 0, size, null);
+            if (stageTimings != null) {
+                stageTimings.record(Stage.CORRELATE, StageTimings.pauseFreeNanos() - startTime, batch.size);
+            }
+
+            event.commit(batch.size);
+            if (liveMetrics != null) {
+                publish(batch);
+            }
+
+            if (batch.checkpoint) {
+                checkpointer.write(batch.inputPosition, checkpointSections());
+            }
         }
-        catch (Exception e) {
-            return ProcessingResult.error("Unexpected error: " + e.getMessage());
+
+        // Called from the transaction manager, on a shard thread when sharded; settled on the correlating thread.
+        @Override
+        public void onParkedAnswerSettled(DiameterMessage answer, TransactionStatus status) {
+            if (status == TransactionStatus.UNEXPECTED_ANSWER) {
+                orphanAnswers.add(answer);
+            }
+            else if (deadLettering) {
+                matchedAnswers.add(answer);
+            }
+        }
+
+        private void settleParkedAnswers() {
+            for (DiameterMessage answer = matchedAnswers.poll(); answer != null; answer = matchedAnswers.poll()) {
+                parkedRows.remove(answer);
+            }
+
+            for (DiameterMessage answer = orphanAnswers.poll(); answer != null; answer = orphanAnswers.poll()) {
+                ParkedRow parkedRow = parkedRows.remove(answer);
+                boolean   sampled   = !accumulator.isErrorSampleFull();
+                String    message   = sampled || parkedRow != null
+                                      ? UnexpectedTransactionAnswerException.message(answer.getSessionId()) : null;
+
+                accumulator.recordOrphanAnswer(sampled ? message : null);
+                if (parkedRow != null) {
+                    deadLetters.write(parkedRow.lineNumber, message, parkedRow.line, 0, parkedRow.line.length);
+                }
+            }
+        }
+
+        private void handleOne(int index) {
+            try {
+                statuses[index] = transactionManager.handleDiameterMessage(messages[index]);
+            }
+            catch (Exception e) {
+                failures[index] = "Unexpected error: " + e.getMessage();
+            }
+        }
+
+        // Adds the batch to the live metrics with one update per message type rather than one per message.
+        private void publish(MessageBatch batch) {
+            int invalid = 0;
+            for (int i = 0; i < batch.size; i++) {
+                byType[batch.rows[i].getMessageType().ordinal()]++;
+                if (batch.messages[i] == null) {
+                    invalid++;
+                }
+            }
+
+            for (MessageType messageType : MESSAGE_TYPES) {
+                liveMetrics.addMessages(messageType, byType[messageType.ordinal()]);
+            }
+
+            liveMetrics.addInvalidMessages(invalid);
+            Arrays.fill(byType, 0);
+        }
+
+        private void record(TransactionStatus status, DiameterMessage diameterMessage, MessageBatch batch, int index) {
+            accumulator.recordTransaction(diameterMessage.getMessageType(), status);
+            if (listener != null) {
+                listener.onTransaction(diameterMessage, status);
+            }
+
+            switch (status) {
+                case DUPLICATE, UNEXPECTED_ANSWER ->
+                        recordRejected(status, diameterMessage.getSessionId(), batch, index);
+                case PARKED -> recordParked(diameterMessage, batch, index);
+                default -> accumulator.recordSuccess();
+            }
+        }
+
+        private void recordParked(DiameterMessage answer, MessageBatch batch, int index) {
+            accumulator.recordSuccess();
+            if (deadLettering) {
+                int start = batch.lineStart(index);
+                parkedRows.put(answer, new ParkedRow(batch.lineNumbers[index],
+                                                     Arrays.copyOfRange(batch.lines, start, batch.lineEnds[index])));
+            }
+        }
+
+        // The error message is only built when the error sample or the dead-letter file keeps it.
+        private void recordRejected(TransactionStatus status, String sessionId, MessageBatch batch, int index) {
+            boolean sampled = !accumulator.isErrorSampleFull();
+            String  message = null;
+            if (sampled || deadLettering) {
+                message = status == TransactionStatus.DUPLICATE ? DuplicateTransactionException.message(sessionId)
+                          : UnexpectedTransactionAnswerException.message(sessionId);
+            }
+
+            accumulator.recordError(sampled ? message : null);
+            if (deadLettering) {
+                deadLetter(batch, index, message);
+            }
+        }
+
+        private String reasonOf(MessageBatch batch, int index) {
+            ValidationResult validationResult = batch.validationFailures[index];
+            if (validationResult != null) {
+                return String.join("; ", validationResult.getErrors());
+            }
+
+            String errorMessage = batch.results[index].getErrorMessage();
+            return errorMessage != null ? errorMessage : MessageFactory.typeMismatch(batch.rows[index]);
+        }
+
+        private void deadLetter(MessageBatch batch, int index, String reason) {
+            int start = batch.lineStart(index);
+            deadLetters.write(batch.lineNumbers[index], reason, batch.lines, start, batch.lineEnds[index] - start);
+        }
+
+        // Every output is a section, so a checkpoint keeps its layout whichever outputs a run writes to.
+        private Checkpointable[] checkpointSections() {
+            return new Checkpointable[]{accumulator, (Checkpointable) transactionManager, outputSection(deadLetters),
+                                        outputSection(summaryReporter)};
         }
     }
 
-    private List<CsvRow> getCsvRows(String[] args) {
-        List<String> csvContent = fileReader.getLinesFromFile(args);
-        return csvParser.parse(csvContent);
+    private static Checkpointable outputSection(Object output) {
+        return output instanceof Checkpointable checkpointable ? checkpointable : UNTRACKED_OUTPUT;
     }
-}
 
+    private static final class ParkedRow {
+        private final long   lineNumber;
+        private final byte[] line;
+
+        private ParkedRow(long lineNumber, byte[] line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    // Stands in for an output that cannot be checkpointed; its length is recorded as -1 and ignored on restore.
+    private static final class UntrackedOutput implements Checkpointable {
+        @Override
+        public void writeCheckpoint(DataOutput out) throws IOException {
+            out.writeLong(-1);
+        }
+
+        @Override
+        public void restoreCheckpoint(DataInput in) throws IOException {
+            in.readLong();
+        }
+    }
+}
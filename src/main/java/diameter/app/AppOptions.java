@@ -0,0 +1,98 @@
+package diameter.app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class AppOptions {
+    private static final String OPTION_PREFIX = "--";
+
+    private final Map<String, String> options;
+    private final String[]            arguments;
+
+    private AppOptions(Map<String, String> options, String[] arguments) {
+        this.options = options;
+        this.arguments = arguments;
+    }
+
+    public static AppOptions parse(String[] args) {
+        Map<String, String> options   = new HashMap<>();
+        List<String>        arguments = new ArrayList<>();
+
+        if (args != null) {
+            for (String arg : args) {
+                if (arg != null && arg.startsWith(OPTION_PREFIX) && arg.length() > OPTION_PREFIX.length()) {
+                    String option    = arg.substring(OPTION_PREFIX.length());
+                    int    separator = option.indexOf('=');
+
+                    if (separator < 0) {
+                        options.put(option, "true");
+                    }
+                    else {
+                        options.put(option.substring(0, separator), option.substring(separator + 1));
+                    }
+                }
+                else {
+                    arguments.add(arg);
+                }
+            }
+        }
+
+        return new AppOptions(options, arguments.toArray(new String[0]));
+    }
+
+    public String[] getArguments() {
+        return arguments.clone();
+    }
+
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    public String getString(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects an integer but was: " + value);
+        }
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects an integer but was: " + value);
+        }
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number but was: " + value);
+        }
+    }
+}
@@ -1,33 +1,219 @@
 package diameter.app;
 
+import diameter.checkpoint.Checkpointer;
+import diameter.csv.parser.CsvParser;
 import diameter.csv.parser.CsvParserImpl;
+import diameter.csv.parser.ParallelCsvParser;
 import diameter.domain.factory.MessageFactoryImpl;
+import diameter.io.DeadLetterWriter;
+import diameter.io.DeadLetterWriterImpl;
+import diameter.io.FileReader;
 import diameter.io.FileReaderImpl;
+import diameter.io.MappedFileReader;
+import diameter.monitoring.LiveMetrics;
+import diameter.monitoring.MetricsServer;
+import diameter.reporter.ReportFormat;
+import diameter.reporter.StreamingReporter;
+import diameter.reporter.SummaryReporter;
 import diameter.reporter.SummaryReporterImpl;
+import diameter.transaction.AnswerTimeouts;
+import diameter.transaction.HeapTransactionStore;
+import diameter.transaction.OffHeapTransactionStore;
+import diameter.transaction.RetentionPolicy;
+import diameter.transaction.ShardedTransactionManager;
+import diameter.transaction.SpillingTransactionStore;
+import diameter.transaction.TransactionManager;
 import diameter.transaction.TransactionManagerImpl;
+import diameter.transaction.TransactionStore;
 import diameter.validator.MessageValidatorImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
 public final class DiameterApp {
     private static final Logger LOG = LoggerFactory.getLogger(DiameterApp.class);
 
+    private static final String READER_STREAM  = "stream";
+    private static final String READER_MAPPED  = "mapped";
+    private static final String STORE_HEAP     = "heap";
+    private static final String STORE_OFF_HEAP = "offheap";
+    private static final String STORE_SPILL    = "spill";
+
+    private static final int DEFAULT_HEAP_SESSIONS    = 1_000_000;
+    private static final int DEFAULT_CHECKPOINT_EVERY = 1_000_000;
+
     public static void main(String[] args) {
         LOG.info("Diameter S6a Processor starting");
         long startTime = System.currentTimeMillis();
 
+        TransactionManager transactionManager = null;
+        CsvParser          csvParser          = null;
+        DeadLetterWriter   deadLetters        = DeadLetterWriter.NONE;
+        SummaryReporter    summaryReporter    = null;
+        MetricsServer      metricsServer      = null;
         try {
-            AppManager appManager = new AppManager(new FileReaderImpl(), new CsvParserImpl(), new MessageFactoryImpl(),
-                                                   TransactionManagerImpl.getInstance(), new MessageValidatorImpl(),
-                                                   new SummaryReporterImpl());
-            appManager.run(args);
+            AppOptions options = AppOptions.parse(args);
+            Checkpointer checkpointer = createCheckpointer(options);
+            // A resumed run continues the output files of the run that wrote the checkpoint.
+            boolean resumeOutputs = checkpointer != null && options.has("resume") && checkpointer.exists();
+            deadLetters = createDeadLetterWriter(options, resumeOutputs);
+            summaryReporter = createSummaryReporter(options, resumeOutputs);
+            transactionManager = createTransactionManager(options);
+
+            LiveMetrics liveMetrics = null;
+            if (options.has("metrics-port")) {
+                liveMetrics = new LiveMetrics();
+                metricsServer = MetricsServer.start(options.getString("metrics-address", MetricsServer.DEFAULT_ADDRESS),
+                                                    options.getInt("metrics-port", 0), liveMetrics);
+            }
+
+            DeadLetterWriter parserDeadLetters = liveMetrics == null ? deadLetters
+                                                 : liveMetrics.countingRejects(deadLetters);
+            csvParser = createCsvParser(options, parserDeadLetters);
+            RunOptions runOptions = RunOptions.DEFAULT.withCheckpoints(checkpointer, options.has("resume"))
+                                                      .withPipelineWorkers(options.getInt("pipeline-workers", 0))
+                                                      .withStageTimings(options.has("stage-timings"))
+                                                      .withLiveMetrics(liveMetrics)
+                                                      .withDeadLetters(deadLetters);
+            AppManager appManager = new AppManager(createFileReader(options), csvParser,
+                                                   new MessageFactoryImpl(), transactionManager,
+                                                   new MessageValidatorImpl(), summaryReporter, runOptions);
+            appManager.run(options.getArguments());
+            deadLetters.close();
+            if (summaryReporter instanceof StreamingReporter streamingReporter) {
+                streamingReporter.close();
+            }
 
             long duration = System.currentTimeMillis() - startTime;
             LOG.info("Diameter S6a Processor completed successfully in {}ms", duration);
         }
         catch (Exception e) {
             LOG.error("Diameter S6a Processor terminated with error: {}", e.getMessage(), e);
+            closeQuietly(deadLetters, "dead-letter file");
+            if (summaryReporter instanceof StreamingReporter streamingReporter) {
+                closeQuietly(streamingReporter, "report");
+            }
+
             System.exit(1);
         }
+        finally {
+            if (transactionManager instanceof ShardedTransactionManager sharded) {
+                sharded.close();
+            }
+
+            if (csvParser instanceof ParallelCsvParser parallelParser) {
+                parallelParser.close();
+            }
+
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+        }
+    }
+
+    private static FileReader createFileReader(AppOptions options) {
+        String reader = options.getString("reader", READER_STREAM);
+
+        return switch (reader) {
+            case READER_STREAM -> new FileReaderImpl();
+            case READER_MAPPED -> new MappedFileReader();
+            default -> throw new IllegalArgumentException("Unknown reader: " + reader);
+        };
+    }
+
+    private static TransactionManager createTransactionManager(AppOptions options) {
+        int shards = options.getInt("shards", 1);
+        if (shards <= 1 && !options.has("retention") && !options.has("store") && !options.has("answer-timeouts")
+                && !options.has("reorder-window")) {
+            return TransactionManagerImpl.getInstance();
+        }
+
+        RetentionPolicy            retentionPolicy = RetentionPolicy.parse(
+                options.getString("retention", RetentionPolicy.DEFAULT.toString()));
+        Supplier<TransactionStore> storeFactory    = createStoreFactory(options);
+        AnswerTimeouts             answerTimeouts  = options.has("answer-timeouts")
+                                                     ? AnswerTimeouts.parse(options.getString("answer-timeouts", ""))
+                                                     : AnswerTimeouts.NONE;
+        int                        reorderWindow   = options.getInt("reorder-window", 0);
+
+        return shards > 1
+               ? new ShardedTransactionManager(shards, retentionPolicy, storeFactory, answerTimeouts, reorderWindow)
+               : new TransactionManagerImpl(retentionPolicy, storeFactory.get(), answerTimeouts, reorderWindow);
+    }
+
+    private static Supplier<TransactionStore> createStoreFactory(AppOptions options) {
+        String store = options.getString("store", STORE_HEAP);
+
+        return switch (store) {
+            case STORE_HEAP -> HeapTransactionStore::new;
+            case STORE_OFF_HEAP -> OffHeapTransactionStore::new;
+            case STORE_SPILL -> {
+                int  heapSessions   = options.getInt("heap-sessions", DEFAULT_HEAP_SESSIONS);
+                Path spillDirectory = Path.of(options.getString("spill-dir", System.getProperty("java.io.tmpdir")));
+                yield () -> new SpillingTransactionStore(heapSessions, spillDirectory);
+            }
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        };
+    }
+
+    private static Checkpointer createCheckpointer(AppOptions options) {
+        if (!options.has("checkpoint")) {
+            if (options.has("resume")) {
+                throw new IllegalArgumentException("Option --resume requires --checkpoint");
+            }
+
+            return null;
+        }
+
+        // Checkpoints record a single input position and the state of one correlator.
+        if (READER_MAPPED.equals(options.getString("reader", READER_STREAM))) {
+            throw new IllegalArgumentException("Checkpoints are not supported with --reader=" + READER_MAPPED);
+        }
+
+        if (options.getInt("shards", 1) > 1 || options.getInt("reorder-window", 0) > 0) {
+            throw new IllegalArgumentException("Checkpoints are not supported with --shards or --reorder-window");
+        }
+
+        return new Checkpointer(Path.of(options.getString("checkpoint", "")),
+                                options.getInt("checkpoint-every", DEFAULT_CHECKPOINT_EVERY));
+    }
+
+    private static DeadLetterWriter createDeadLetterWriter(AppOptions options, boolean resume) {
+        if (!options.has("dead-letter")) {
+            return DeadLetterWriter.NONE;
+        }
+
+        return new DeadLetterWriterImpl(Path.of(options.getString("dead-letter", "")), resume);
+    }
+
+    private static SummaryReporter createSummaryReporter(AppOptions options, boolean resume) {
+        if (!options.has("report")) {
+            return new SummaryReporterImpl();
+        }
+
+        ReportFormat format = ReportFormat.parse(options.getString("report-format", "jsonl"));
+        return StreamingReporter.open(new SummaryReporterImpl(), options.getString("report", "-"), format,
+                                      options.has("report-transactions"), resume);
+    }
+
+    private static CsvParser createCsvParser(AppOptions options, DeadLetterWriter deadLetters) {
+        if (!READER_MAPPED.equals(options.getString("reader", READER_STREAM))) {
+            return new CsvParserImpl(deadLetters);
+        }
+
+        int parallelism = options.getInt("parse-threads", Runtime.getRuntime().availableProcessors());
+        return new ParallelCsvParser(new CsvParserImpl(deadLetters), new ForkJoinPool(parallelism));
+    }
+
+    private static void closeQuietly(AutoCloseable resource, String description) {
+        try {
+            resource.close();
+        }
+        catch (Exception e) {
+            LOG.warn("Failed to close {}: {}", description, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
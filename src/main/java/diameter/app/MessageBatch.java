@@ -0,0 +1,68 @@
+package diameter.app;
+
+import diameter.csv.model.CsvRow;
+import diameter.domain.message.DiameterMessage;
+import diameter.io.InputPosition;
+import diameter.reporter.ProcessingResult;
+import diameter.validator.ValidationResult;
+
+import java.util.Arrays;
+
+/**
+ * A reusable slice of consecutive data rows moving through the processing stages. The reader fills {@link #rows}
+ * and their line numbers, and the lines themselves when they are dead-lettered; preparation sets either the message
+ * to correlate or the settled result of every row, and correlation consumes both in row order.
+ */
+final class MessageBatch {
+    final CsvRow[]           rows;
+    final long[]             lineNumbers;
+    final int[]              lineEnds;
+    final DiameterMessage[]  messages;
+    final ProcessingResult[] results;
+    final ValidationResult[] validationFailures;
+    byte[]                   lines         = new byte[0];
+    int                      linesSize     = 0;
+    int                      size          = 0;
+    InputPosition            inputPosition = null;
+    boolean                  checkpoint    = false;
+    boolean                  endOfStream   = false;
+
+    MessageBatch(int capacity) {
+        rows = new CsvRow[capacity];
+        lineNumbers = new long[capacity];
+        lineEnds = new int[capacity];
+        messages = new DiameterMessage[capacity];
+        results = new ProcessingResult[capacity];
+        validationFailures = new ValidationResult[capacity];
+    }
+
+    boolean isFull() {
+        return size == rows.length;
+    }
+
+    /** Copies the line of the row at {@code index} after the line of the row before it. */
+    void keepLine(int index, byte[] buffer, int offset, int length) {
+        if (linesSize + length > lines.length) {
+            lines = Arrays.copyOf(lines, Math.max(lines.length * 2, linesSize + length));
+        }
+        System.arraycopy(buffer, offset, lines, linesSize, length);
+        linesSize += length;
+        lineEnds[index] = linesSize;
+    }
+
+    int lineStart(int index) {
+        return index == 0 ? 0 : lineEnds[index - 1];
+    }
+
+    void clear() {
+        Arrays.fill(rows, 0, size, null);
+        Arrays.fill(messages, 0, size, null);
+        Arrays.fill(results, 0, size, null);
+        Arrays.fill(validationFailures, 0, size, null);
+        linesSize = 0;
+        size = 0;
+        inputPosition = null;
+        checkpoint = false;
+        endOfStream = false;
+    }
+}
@@ -0,0 +1,100 @@
+package diameter.app;
+
+import diameter.checkpoint.Checkpointer;
+import diameter.io.DeadLetterWriter;
+import diameter.monitoring.LiveMetrics;
+
+/**
+ * Optional behaviour of an {@link AppManager} run. Immutable; every {@code with} method returns a copy with one
+ * setting changed, starting from {@link #DEFAULT}: no checkpoints, every stage on the calling thread, no stage timings,
+ * no live metrics and no dead letters.
+ */
+public final class RunOptions {
+    public static final RunOptions DEFAULT = new RunOptions(null, false, 0, false, null, DeadLetterWriter.NONE);
+
+    private final Checkpointer     checkpointer;
+    private final boolean          resume;
+    private final int              pipelineWorkers;
+    private final boolean          timeStages;
+    private final LiveMetrics      liveMetrics;
+    private final DeadLetterWriter deadLetters;
+
+    private RunOptions(Checkpointer checkpointer, boolean resume, int pipelineWorkers, boolean timeStages,
+                       LiveMetrics liveMetrics, DeadLetterWriter deadLetters) {
+        this.checkpointer = checkpointer;
+        this.resume = resume;
+        this.pipelineWorkers = pipelineWorkers;
+        this.timeStages = timeStages;
+        this.liveMetrics = liveMetrics;
+        this.deadLetters = deadLetters;
+    }
+
+    /**
+     * Writes a checkpoint through {@code checkpointer} every {@link Checkpointer#getIntervalRows()} data rows, and with
+     * {@code resume} continues from the last checkpoint when one exists. The transaction manager must then be
+     * {@link diameter.checkpoint.Checkpointable Checkpointable} and the file reader a
+     * {@link diameter.io.ResumableFileReader ResumableFileReader}. A dead-letter writer or summary reporter that is
+     * {@code Checkpointable} records its output's length in every checkpoint and, opened to resume, continues from it.
+     */
+    public RunOptions withCheckpoints(Checkpointer checkpointer, boolean resume) {
+        return new RunOptions(checkpointer, resume, pipelineWorkers, timeStages, liveMetrics, deadLetters);
+    }
+
+    /**
+     * With {@code pipelineWorkers} above zero, reading and parsing, message creation and validation, and correlation
+     * run as a staged pipeline with that many threads creating and validating messages; with zero, every stage runs
+     * on the calling thread.
+     */
+    public RunOptions withPipelineWorkers(int pipelineWorkers) {
+        return new RunOptions(checkpointer, resume, pipelineWorkers, timeStages, liveMetrics, deadLetters);
+    }
+
+    /**
+     * With {@code timeStages}, times every stage per batch and hands the timings to
+     * {@link diameter.reporter.SummaryReporter#reportStageTimings} after the summary.
+     */
+    public RunOptions withStageTimings(boolean timeStages) {
+        return new RunOptions(checkpointer, resume, pipelineWorkers, timeStages, liveMetrics, deadLetters);
+    }
+
+    /**
+     * Unless {@code liveMetrics} is {@code null}, counts rows, messages and transactions into it while the run
+     * progresses and times every stage into its {@link LiveMetrics#getStageTimings() stage timings}.
+     */
+    public RunOptions withLiveMetrics(LiveMetrics liveMetrics) {
+        return new RunOptions(checkpointer, resume, pipelineWorkers, timeStages, liveMetrics, deadLetters);
+    }
+
+    /**
+     * Writes every row that fails validation or correlation to {@code deadLetters}, from the correlating stage and in
+     * row order. Each row is written as the bytes it was read from, so the run keeps a copy of every line of a batch
+     * until the batch is correlated.
+     */
+    public RunOptions withDeadLetters(DeadLetterWriter deadLetters) {
+        return new RunOptions(checkpointer, resume, pipelineWorkers, timeStages, liveMetrics, deadLetters);
+    }
+
+    Checkpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    boolean isResume() {
+        return resume;
+    }
+
+    int getPipelineWorkers() {
+        return pipelineWorkers;
+    }
+
+    boolean isTimeStages() {
+        return timeStages;
+    }
+
+    LiveMetrics getLiveMetrics() {
+        return liveMetrics;
+    }
+
+    DeadLetterWriter getDeadLetters() {
+        return deadLetters;
+    }
+}
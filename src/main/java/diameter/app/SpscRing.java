@@ -0,0 +1,67 @@
+package diameter.app;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, preallocated single-producer/single-consumer ring. {@link #offer} and {@link #poll} never block and never
+ * allocate; the producer and consumer each publish their own index with a release store and re-read the other side's
+ * index only when their cached copy says the ring is full or empty.
+ */
+final class SpscRing<T> {
+    private final Object[]   slots;
+    private final int        mask;
+    private final AtomicLong head       = new AtomicLong();
+    private final AtomicLong tail       = new AtomicLong();
+    private       long       cachedHead = 0;
+    private       long       cachedTail = 0;
+
+    SpscRing(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a positive power of two but was: " + capacity);
+        }
+
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Producer side: appends {@code item}, or returns {@code false} when the ring is full.
+     */
+    boolean offer(T item) {
+        long position = tail.get();
+        if (position - cachedHead == slots.length) {
+            cachedHead = head.get();
+            if (position - cachedHead == slots.length) {
+                return false;
+            }
+        }
+
+        slots[(int) position & mask] = item;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side: removes and returns the oldest item, or {@code null} when the ring is empty.
+     */
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long position = head.get();
+        if (position == cachedTail) {
+            cachedTail = tail.get();
+            if (position == cachedTail) {
+                return null;
+            }
+        }
+
+        int index = (int) position & mask;
+        T   item  = (T) slots[index];
+        slots[index] = null;
+        head.lazySet(position + 1);
+        return item;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,277 @@
+package diameter.app;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs batches of rows through three stages: a reader thread that fills them, {@code workers} threads that prepare
+ * them, and the calling thread, which correlates them. Each worker owns a lane of three preallocated
+ * {@link SpscRing}s (reader to worker, worker to correlator, and correlator back to reader with emptied batches), so
+ * steady state allocates nothing and a stage that runs ahead stalls once every batch of its lane is in flight.
+ * Batches are dealt to lanes round-robin and collected in the same order, so correlation sees rows in input order
+ * and the messages of a session keep their order.
+ * <p>
+ * After handing off a batch marked as a checkpoint, the reader waits until it has been correlated, and so until its
+ * checkpoint has been written. Nothing the reader does for later lines, such as dead-lettering a line it cannot
+ * parse, lands in an output before the checkpoint records that output's length.
+ * <p>
+ * With zero workers every stage runs inline on the calling thread.
+ */
+final class StagedPipeline {
+    private static final Logger LOG              = LoggerFactory.getLogger(StagedPipeline.class);
+    private static final int    BATCHES_PER_LANE = 4;
+    private static final int    SPIN_LIMIT       = 64;
+    private static final int    YIELD_LIMIT      = 128;
+    private static final long   PARK_NANOS       = 50_000;
+
+    /**
+     * The reading stage: fills {@code first}, hands each full batch to {@code handoff} and continues with the empty
+     * batch it returns. Every row must have been handed off when it returns.
+     */
+    @FunctionalInterface
+    interface BatchSource {
+        void produce(MessageBatch first, UnaryOperator<MessageBatch> handoff);
+    }
+
+    private final int                    workers;
+    private final int                    batchSize;
+    private final Consumer<MessageBatch> prepareStage;
+    private final Consumer<MessageBatch> correlateStage;
+    private volatile boolean             aborted     = false;
+    private volatile Throwable           failure     = null;
+    private volatile long                correlated  = 0;
+    private          long                handedOff   = 0;
+    private          int                 readerLane  = 0;
+    private          MessageBatch        readerBatch = null;
+
+    StagedPipeline(int workers, int batchSize, Consumer<MessageBatch> prepareStage,
+                   Consumer<MessageBatch> correlateStage) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("Pipeline workers must not be negative but was: " + workers);
+        }
+
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.prepareStage = prepareStage;
+        this.correlateStage = correlateStage;
+    }
+
+    void run(BatchSource source) {
+        if (workers == 0) {
+            source.produce(new MessageBatch(batchSize), batch -> {
+                prepareStage.accept(batch);
+                correlateStage.accept(batch);
+                batch.clear();
+                return batch;
+            });
+            return;
+        }
+
+        Lane[]       lanes   = new Lane[workers];
+        List<Thread> threads = new ArrayList<>(workers + 1);
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = new Lane(batchSize);
+        }
+
+        for (int i = 0; i < workers; i++) {
+            Lane lane = lanes[i];
+            threads.add(start("pipeline-worker-" + i, () -> prepare(lane)));
+        }
+
+        threads.add(start("pipeline-reader", () -> read(source, lanes)));
+        LOG.debug("Started pipeline with {} workers", workers);
+
+        try {
+            correlate(lanes);
+        }
+        catch (CancellationException e) {
+            // A stage failed; its failure is rethrown below.
+        }
+        catch (RuntimeException | Error e) {
+            aborted = true;
+            join(threads);
+            throw e;
+        }
+
+        join(threads);
+        rethrowFailure();
+    }
+
+    private void read(BatchSource source, Lane[] lanes) {
+        try {
+            readerBatch = take(lanes[0].free);
+            source.produce(readerBatch, full -> {
+                boolean checkpoint = full.checkpoint;
+                put(lanes[readerLane].inbound, full);
+                handedOff++;
+                if (checkpoint) {
+                    awaitCorrelated(handedOff);
+                }
+
+                readerLane = (readerLane + 1) % lanes.length;
+                readerBatch = take(lanes[readerLane].free);
+                return readerBatch;
+            });
+        }
+        catch (Throwable t) {
+            if (aborted) {
+                return;
+            }
+
+            // Remembered without aborting, so the correlator drains what was read and stops at the end markers.
+            failure = t;
+        }
+
+        try {
+            // The batch in hand ends the stream on its lane; every other lane gets an end marker of its own.
+            for (int i = 0; i < lanes.length; i++) {
+                Lane         lane   = lanes[(readerLane + i) % lanes.length];
+                MessageBatch marker = i == 0 ? readerBatch : take(lane.free);
+                marker.endOfStream = true;
+                put(lane.inbound, marker);
+            }
+        }
+        catch (CancellationException e) {
+            // Aborted while shutting down; nothing is left to hand off.
+        }
+    }
+
+    private void prepare(Lane lane) {
+        try {
+            while (true) {
+                MessageBatch batch = take(lane.inbound);
+                if (!batch.endOfStream) {
+                    prepareStage.accept(batch);
+                }
+
+                put(lane.outbound, batch);
+                if (batch.endOfStream) {
+                    return;
+                }
+            }
+        }
+        catch (CancellationException e) {
+            // Aborted by another stage.
+        }
+        catch (Throwable t) {
+            abort(t);
+        }
+    }
+
+    private void correlate(Lane[] lanes) {
+        for (int i = 0; ; i = (i + 1) % lanes.length) {
+            MessageBatch batch = take(lanes[i].outbound);
+            if (batch.endOfStream) {
+                return;
+            }
+
+            correlateStage.accept(batch);
+            correlated++;
+            batch.clear();
+            put(lanes[i].free, batch);
+        }
+    }
+
+    // Only the correlating thread counts correlated batches, so the volatile increment cannot lose an update.
+    private void awaitCorrelated(long batches) {
+        for (int attempt = 0; correlated < batches; attempt++) {
+            idle(attempt);
+        }
+    }
+
+    private void abort(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+
+        aborted = true;
+    }
+
+    private void rethrowFailure() {
+        Throwable t = failure;
+        if (t == null) {
+            return;
+        }
+
+        if (t instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+
+        if (t instanceof Error error) {
+            throw error;
+        }
+
+        throw new IllegalStateException("Pipeline stage failed", t);
+    }
+
+    private <T> T take(SpscRing<T> ring) {
+        T item;
+        for (int attempt = 0; (item = ring.poll()) == null; attempt++) {
+            idle(attempt);
+        }
+
+        return item;
+    }
+
+    private <T> void put(SpscRing<T> ring, T item) {
+        for (int attempt = 0; !ring.offer(item); attempt++) {
+            idle(attempt);
+        }
+    }
+
+    private void idle(int attempt) {
+        if (aborted) {
+            throw new CancellationException("Pipeline aborted");
+        }
+
+        if (attempt < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        }
+        else if (attempt < YIELD_LIMIT) {
+            Thread.yield();
+        }
+        else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private static Thread start(String name, Runnable stage) {
+        Thread thread = new Thread(stage, name);
+        thread.setDaemon(true);
+        thread.start();
+
+        return thread;
+    }
+
+    private void join(List<Thread> threads) {
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pipeline stages", e);
+        }
+    }
+
+    private static final class Lane {
+        private final SpscRing<MessageBatch> inbound  = new SpscRing<>(BATCHES_PER_LANE);
+        private final SpscRing<MessageBatch> outbound = new SpscRing<>(BATCHES_PER_LANE);
+        private final SpscRing<MessageBatch> free     = new SpscRing<>(BATCHES_PER_LANE);
+
+        private Lane(int batchSize) {
+            for (int i = 0; i < BATCHES_PER_LANE; i++) {
+                free.offer(new MessageBatch(batchSize));
+            }
+        }
+    }
+}
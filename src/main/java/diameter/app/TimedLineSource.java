@@ -0,0 +1,120 @@
+package diameter.app;
+
+import diameter.io.ChunkedLineSource;
+import diameter.io.LineConsumer;
+import diameter.io.LineSource;
+import diameter.reporter.StageTimings;
+import diameter.reporter.StageTimings.Stage;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Splits the time of a pass over a line source between reading and parsing without a clock read per line. The pass
+ * is timed as a whole, and the consumer, which parses, is timed on one line in {@value #SAMPLE_INTERVAL} and scaled
+ * up to every line; reading is the rest, including pauses. Time the consumer spends handing batches downstream is
+ * subtracted, as those stages are timed on their own. A long pass is recorded every {@value #RECORD_INTERVAL} lines
+ * as it goes.
+ * <p>
+ * A chunked source stays chunked, with each chunk timed on its own, so the parallel parser still recognises it.
+ */
+final class TimedLineSource implements LineSource {
+    private static final int  SAMPLE_INTERVAL = 64;
+    private static final long PAUSE_NANOS     = 1_000_000;
+    private static final int  RECORD_INTERVAL = 1 << 16;
+
+    private final LineSource   lines;
+    private final StageTimings timings;
+    private final LongSupplier handoffNanos;
+
+    private TimedLineSource(LineSource lines, StageTimings timings, LongSupplier handoffNanos) {
+        this.lines = lines;
+        this.timings = timings;
+        this.handoffNanos = handoffNanos;
+    }
+
+    /**
+     * @param handoffNanos the running total of time spent handing batches downstream, read on the calling thread;
+     *                     chunks of a chunked source are parsed on other threads and never hand off
+     */
+    static LineSource wrap(LineSource lines, StageTimings timings, LongSupplier handoffNanos) {
+        if (!(lines instanceof ChunkedLineSource chunkedLines)) {
+            return new TimedLineSource(lines, timings, handoffNanos);
+        }
+
+        return (ChunkedLineSource) () -> {
+            List<LineSource> chunks = chunkedLines.getChunks();
+
+            return chunks.stream().map(chunk -> (LineSource) new TimedLineSource(chunk, timings, () -> 0)).toList();
+        };
+    }
+
+    @Override
+    public void forEachLine(LineConsumer consumer) {
+        SamplingConsumer sampler = new SamplingConsumer(consumer);
+
+        lines.forEachLine(sampler);
+        sampler.record();
+    }
+
+    @Override
+    public long getSkippedLines() {
+        return lines.getSkippedLines();
+    }
+
+    private final class SamplingConsumer implements LineConsumer {
+        private final LineConsumer consumer;
+        private final long         passHandoffStart = handoffNanos.getAsLong();
+        private final long         passStart        = StageTimings.pauseFreeNanos();
+        private       long         lines            = 0;
+        private       long         sampled          = 0;
+        private       long         sampledNanos     = 0;
+        private       long         recordedLines    = 0;
+        private       long         recordedReading  = 0;
+        private       long         recordedParsing  = 0;
+
+        private SamplingConsumer(LineConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(byte[] buffer, int offset, int length) {
+            // Never samples the first line: it is the header, which costs far more to compile than a row to parse.
+            if (++lines % SAMPLE_INTERVAL != 0) {
+                consumer.accept(buffer, offset, length);
+                return;
+            }
+
+            long handoffStart = handoffNanos.getAsLong();
+            long start        = System.nanoTime();
+            consumer.accept(buffer, offset, length);
+            long elapsed      = System.nanoTime() - start - (handoffNanos.getAsLong() - handoffStart);
+
+            // A line that took this long was held up by a GC pause or the scheduler; scaled up 64 times, it would
+            // swamp the estimate.
+            if (elapsed < PAUSE_NANOS) {
+                sampledNanos += elapsed;
+                sampled++;
+            }
+
+            if (lines % RECORD_INTERVAL == 0) {
+                record();
+            }
+        }
+
+        // Records the time since the last call, so the timings of a long pass are current while it runs. Neither
+        // stage's total ever goes down, as live metrics expose them as counters.
+        private void record() {
+            long elapsed = StageTimings.pauseFreeNanos() - passStart - (handoffNanos.getAsLong() - passHandoffStart);
+            long parsing = sampled == 0 ? 0 : (long) ((double) sampledNanos * lines / sampled);
+            parsing = Math.max(recordedParsing, Math.min(elapsed - recordedReading, parsing));
+            long reading = Math.max(recordedReading, elapsed - parsing);
+
+            timings.record(Stage.READ, reading - recordedReading, lines - recordedLines);
+            timings.record(Stage.PARSE, parsing - recordedParsing, lines - recordedLines);
+            recordedLines = lines;
+            recordedReading = reading;
+            recordedParsing = parsing;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package diameter.checkpoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A component whose state can be saved to a checkpoint and restored from it. {@link #restoreCheckpoint} is called on
+ * a freshly created instance and must read exactly what {@link #writeCheckpoint} wrote.
+ */
+public interface Checkpointable {
+    void writeCheckpoint(DataOutput out) throws IOException;
+
+    void restoreCheckpoint(DataInput in) throws IOException;
+
+    /**
+     * Called once every section is restored and the checksum of the checkpoint has been verified. A section that
+     * changes anything outside the process, such as truncating a file, does so here rather than while restoring.
+     */
+    default void checkpointRestored() throws IOException {
+    }
+}
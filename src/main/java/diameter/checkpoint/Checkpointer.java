@@ -0,0 +1,128 @@
+package diameter.checkpoint;
+
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.io.InputPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes and restores checkpoints of a batch run. A checkpoint file holds a magic number and format version, the
+ * input position processing stopped at (byte offset and line number), the sections of each {@link Checkpointable} in
+ * order, and a CRC-32 of all of it. Files are written to a sibling temporary file and moved into place, so a crash
+ * mid-write leaves the previous checkpoint intact. Sections are told they were restored only once the checksum
+ * matches.
+ */
+public final class Checkpointer {
+    private static final Logger LOG         = LoggerFactory.getLogger(Checkpointer.class);
+    private static final int    MAGIC       = 0x44533643;
+    private static final int    VERSION     = 5;
+    private static final int    BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final int  intervalRows;
+
+    public Checkpointer(Path path, int intervalRows) {
+        if (intervalRows < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive but was: " + intervalRows);
+        }
+
+        this.path = path;
+        this.intervalRows = intervalRows;
+    }
+
+    public int getIntervalRows() {
+        return intervalRows;
+    }
+
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    public void write(InputPosition inputPosition, Checkpointable... sections) {
+        Path  temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc       = new CRC32();
+
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(inputPosition.getOffset());
+            out.writeLong(inputPosition.getLineNumber());
+            for (Checkpointable section : sections) {
+                section.writeCheckpoint(out);
+            }
+
+            out.flush();
+            // The checksum covers everything above; it is written outside the checked stream.
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        catch (IOException e) {
+            throw new CheckpointException("Failed to write checkpoint " + path, e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            throw new CheckpointException("Failed to replace checkpoint " + path, e);
+        }
+
+        LOG.debug("Checkpoint written at input {}", inputPosition);
+    }
+
+    /**
+     * Restores every section from the checkpoint and returns the input position to continue reading from.
+     */
+    public InputPosition restore(Checkpointable... sections) {
+        CRC32 crc = new CRC32();
+
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc));
+            if (in.readInt() != MAGIC) {
+                throw new CheckpointException("Not a checkpoint file: " + path);
+            }
+
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new CheckpointException("Unsupported checkpoint version " + version + " in " + path);
+            }
+
+            long inputOffset = in.readLong();
+            long lineNumber  = in.readLong();
+            for (Checkpointable section : sections) {
+                section.restoreCheckpoint(in);
+            }
+
+            long expected = crc.getValue();
+            if (new DataInputStream(file).readLong() != expected) {
+                throw new CheckpointException("Corrupt checkpoint (checksum mismatch): " + path);
+            }
+
+            for (Checkpointable section : sections) {
+                section.checkpointRestored();
+            }
+
+            InputPosition inputPosition = new InputPosition(inputOffset, lineNumber);
+            LOG.info("Resuming from checkpoint {} at input {}", path, inputPosition);
+            return inputPosition;
+        }
+        catch (IOException e) {
+            throw new CheckpointException("Failed to read checkpoint " + path, e);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package diameter.csv;
 
 public enum CsvColumn {
-    MESSAGE_TYPE,
-    IS_REQUEST,
-    SESSION_ID,
-    ORIGIN_HOST,
-    ORIGIN_REALM,
-    USER_NAME,
-    VISITED_PLMN_ID,
-    RESULT_CODE
+    MESSAGE_TYPE(true),
+    IS_REQUEST(true),
+    SESSION_ID(true),
+    ORIGIN_HOST(true),
+    ORIGIN_REALM(true),
+    USER_NAME(true),
+    VISITED_PLMN_ID(true),
+    RESULT_CODE(true),
+    TIMESTAMP(false);
+
+    private final boolean required;
+
+    CsvColumn(boolean required) {
+        this.required = required;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
 }
 
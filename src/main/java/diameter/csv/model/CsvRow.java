@@ -1,6 +1,7 @@
 package diameter.csv.model;
 
 import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
 
 public final class CsvRow {
     private final MessageType messageType;
@@ -11,6 +12,7 @@ public final class CsvRow {
     private final String      userName;
     private final String      visitedPlmnId;
     private final String      resultCode;
+    private final long        timestamp;
 
     public CsvRow(
             MessageType messageType,
@@ -21,6 +23,21 @@ public final class CsvRow {
             String userName,
             String visitedPlmnId,
             String resultCode
+    ) {
+        this(messageType, isRequest, sessionId, originHost, originRealm, userName, visitedPlmnId, resultCode,
+             DiameterMessage.NO_TIMESTAMP);
+    }
+
+    public CsvRow(
+            MessageType messageType,
+            boolean isRequest,
+            String sessionId,
+            String originHost,
+            String originRealm,
+            String userName,
+            String visitedPlmnId,
+            String resultCode,
+            long timestamp
     ) {
         this.messageType = messageType;
         this.isRequest = isRequest;
@@ -30,6 +47,7 @@ public final class CsvRow {
         this.userName = userName;
         this.visitedPlmnId = visitedPlmnId;
         this.resultCode = resultCode;
+        this.timestamp = timestamp;
     }
 
     public MessageType getMessageType() {
@@ -63,4 +81,8 @@ public final class CsvRow {
     public String getResultCode() {
         return resultCode;
     }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
 }
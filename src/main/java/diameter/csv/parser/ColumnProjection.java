@@ -0,0 +1,43 @@
+package diameter.csv.parser;
+
+import diameter.csv.CsvColumn;
+
+/**
+ * The header compiled into a fixed plan: the field index of every {@link CsvColumn} and the number of leading fields
+ * a data line must provide. Columns after the last projected one are never tokenized.
+ */
+final class ColumnProjection {
+    static final int UNMAPPED = -1;
+
+    private final int[] fieldIndexByColumn;
+    private final int   requiredFieldCount;
+    private final int   headerFieldCount;
+
+    ColumnProjection(int[] fieldIndexByColumn, int headerFieldCount) {
+        this.fieldIndexByColumn = fieldIndexByColumn.clone();
+        this.headerFieldCount = headerFieldCount;
+
+        int maxIndex = UNMAPPED;
+        for (int index : fieldIndexByColumn) {
+            maxIndex = Math.max(maxIndex, index);
+        }
+
+        this.requiredFieldCount = maxIndex + 1;
+    }
+
+    int fieldIndex(CsvColumn column) {
+        return fieldIndexByColumn[column.ordinal()];
+    }
+
+    boolean isMapped(CsvColumn column) {
+        return fieldIndexByColumn[column.ordinal()] != UNMAPPED;
+    }
+
+    int getRequiredFieldCount() {
+        return requiredFieldCount;
+    }
+
+    int getHeaderFieldCount() {
+        return headerFieldCount;
+    }
+}
@@ -1,9 +1,17 @@
 package diameter.csv.parser;
 
 import diameter.csv.model.CsvRow;
+import diameter.io.LineSource;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CsvParser {
     List<CsvRow> parse(List<String> lines);
+
+    void parse(LineSource lines, RowConsumer rowConsumer);
+
+    default void parse(LineSource lines, Consumer<CsvRow> rowConsumer) {
+        parse(lines, (row, lineNumber, buffer, offset, length) -> rowConsumer.accept(row));
+    }
 }
@@ -1,21 +1,37 @@
 package diameter.csv.parser;
 
 import diameter.csv.CsvColumn;
-import diameter.domain.MessageType;
 import diameter.csv.model.CsvRow;
+import diameter.domain.message.DiameterMessage;
 import diameter.exception.csv.CsvValidationException;
+import diameter.io.DeadLetterWriter;
+import diameter.io.LineConsumer;
+import diameter.io.LineSource;
+import diameter.monitoring.ValidationFailureEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public class CsvParserImpl implements CsvParser {
-    private static final Logger LOG = LoggerFactory.getLogger(CsvParserImpl.class);
-    private static final String                  DELIMITER = ",";
-    private final        Map<CsvColumn, Integer> headerMap = new EnumMap<>(CsvColumn.class);
+    private static final Logger           LOG       = LoggerFactory.getLogger(CsvParserImpl.class);
+    private static final String           DELIMITER = ",";
+    private final        DeadLetterWriter deadLetters;
+    private              ColumnProjection projection;
+
+    public CsvParserImpl() {
+        this(DeadLetterWriter.NONE);
+    }
+
+    /**
+     * Creates a parser that hands every rejected data line to {@code deadLetters}, in input order.
+     */
+    public CsvParserImpl(DeadLetterWriter deadLetters) {
+        this.deadLetters = deadLetters;
+    }
 
     @Override
     public List<CsvRow> parse(List<String> lines) {
@@ -24,112 +40,179 @@ public class CsvParserImpl implements CsvParser {
             throw new CsvValidationException("CSV file is empty");
         }
 
-        headerMap.clear();
-        validateHeader(lines.getFirst());
-        LOG.debug("CSV header validated successfully: columns = {}", headerMap.keySet());
-
         List<CsvRow> rows = new ArrayList<>();
-        StringBuilder errorLogBuilder = new StringBuilder();
-        int skippedLines = 0;
+        parse(LineSource.fromLines(lines), rows::add);
 
-        for (int i = 1; i < lines.size(); i++) {
-            try {
-                String line = lines.get(i);
-                rows.add(parseLine(line));
-            }
-            catch (CsvValidationException e) {
-                errorLogBuilder.append(String.format("\t- Line %d: %s", i + 1, e.getMessage()));
-                skippedLines++;
-            }
+        return rows;
+    }
+
+    @Override
+    public void parse(LineSource lines, RowConsumer rowConsumer) {
+        StreamingLineHandler handler = new StreamingLineHandler(rowConsumer, lines.getSkippedLines());
+        lines.forEachLine(handler);
+
+        if (handler.lineNumber == 0) {
+            LOG.error("CSV parsing failed: file is empty or null");
+            throw new CsvValidationException("CSV file is empty");
         }
 
-        if (!errorLogBuilder.isEmpty()) {
-            LOG.warn("CSV parsing completed with {} errors:\n{}", skippedLines, errorLogBuilder);
+        logErrors(handler.errorLog);
+    }
+
+    void compileHeader(String headerLine) {
+        projection = validateHeader(headerLine);
+        LOG.debug("CSV header validated successfully: {} columns, {} projected", projection.getHeaderFieldCount(),
+                  projection.getRequiredFieldCount());
+    }
+
+    static void logErrors(ParseErrorLog errorLog) {
+        if (errorLog.hasErrors()) {
+            LOG.warn("CSV parsing completed with {} errors:\n{}", errorLog.getCount(), errorLog);
         }
+    }
 
-        return rows;
+    boolean isDeadLettering() {
+        return deadLetters != DeadLetterWriter.NONE;
     }
 
-    private CsvRow parseLine(String line) {
-        String[] parts = line == null ? new String[0] : line.split(DELIMITER, -1);
+    void reject(ParseErrorLog errorLog, long lineNumber, String reason, byte[] buffer, int offset, int length) {
+        errorLog.add(lineNumber, reason);
+        ValidationFailureEvent.emitRejectedLine(lineNumber, reason);
+        deadLetters.write(lineNumber, reason, buffer, offset, length);
+    }
 
-        validateLine(parts);
+    LineStatus tokenizeLine(CsvTokenizer tokenizer, byte[] buffer, int offset, int length) {
+        ColumnProjection plan       = projection;
+        int              fieldCount = tokenizer.tokenize(buffer, offset, length, plan.getRequiredFieldCount());
+        if (fieldCount < plan.getRequiredFieldCount()) {
+            return LineStatus.TOO_FEW_COLUMNS;
+        }
 
-        MessageType messageType   = MessageType.valueOf(get(parts, headerMap.get(CsvColumn.MESSAGE_TYPE)));
-        boolean     isRequest     = Boolean.parseBoolean(get(parts, headerMap.get(CsvColumn.IS_REQUEST)));
-        String      sessionId     = emptyToNull(get(parts, headerMap.get(CsvColumn.SESSION_ID)));
-        String      originHost    = emptyToNull(get(parts, headerMap.get(CsvColumn.ORIGIN_HOST)));
-        String      originRealm   = emptyToNull(get(parts, headerMap.get(CsvColumn.ORIGIN_REALM)));
-        String      userName      = emptyToNull(get(parts, headerMap.get(CsvColumn.USER_NAME)));
-        String      visitedPlmnId = emptyToNull(get(parts, headerMap.get(CsvColumn.VISITED_PLMN_ID)));
-        String      resultCode    = emptyToNull(get(parts, headerMap.get(CsvColumn.RESULT_CODE)));
+        if (tokenizer.getMessageType(plan.fieldIndex(CsvColumn.MESSAGE_TYPE)) == null) {
+            return LineStatus.INVALID_MESSAGE_TYPE;
+        }
+
+        if (tokenizer.getBoolean(plan.fieldIndex(CsvColumn.IS_REQUEST)) == null) {
+            return LineStatus.INVALID_IS_REQUEST;
+        }
+
+        if (plan.isMapped(CsvColumn.TIMESTAMP) && timestampOf(tokenizer, plan) == CsvTokenizer.INVALID_LONG) {
+            return LineStatus.INVALID_TIMESTAMP;
+        }
+
+        return LineStatus.VALID;
+    }
+
+    CsvRow toRow(CsvTokenizer tokenizer) {
+        ColumnProjection plan = projection;
 
         return new CsvRow(
-                messageType,
-                isRequest,
-                sessionId,
-                originHost,
-                originRealm,
-                userName,
-                visitedPlmnId,
-                resultCode
+                tokenizer.getMessageType(plan.fieldIndex(CsvColumn.MESSAGE_TYPE)),
+                tokenizer.getBoolean(plan.fieldIndex(CsvColumn.IS_REQUEST)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.SESSION_ID)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.ORIGIN_HOST)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.ORIGIN_REALM)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.USER_NAME)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.VISITED_PLMN_ID)),
+                tokenizer.getStringOrNull(plan.fieldIndex(CsvColumn.RESULT_CODE)),
+                plan.isMapped(CsvColumn.TIMESTAMP) ? timestampOf(tokenizer, plan) : DiameterMessage.NO_TIMESTAMP
         );
     }
 
-    private static String get(String[] parts, int idx) {
-        if (parts == null || idx < 0 || idx >= parts.length) return "";
-        return parts[idx] == null ? "" : parts[idx].trim();
+    private static long timestampOf(CsvTokenizer tokenizer, ColumnProjection plan) {
+        return tokenizer.getLong(plan.fieldIndex(CsvColumn.TIMESTAMP), DiameterMessage.NO_TIMESTAMP);
     }
 
-    private static String emptyToNull(String s) {
-        if (s == null) return null;
-        String t = s.trim();
-        return t.isEmpty() ? null : t;
+    String describe(LineStatus status, CsvTokenizer tokenizer) {
+        return switch (status) {
+            case VALID -> null;
+            case TOO_FEW_COLUMNS -> "Line has fewer columns than expected";
+            case INVALID_MESSAGE_TYPE ->
+                    "Invalid message_type: " + tokenizer.getString(projection.fieldIndex(CsvColumn.MESSAGE_TYPE));
+            case INVALID_IS_REQUEST ->
+                    "Invalid is_request value: " + tokenizer.getString(projection.fieldIndex(CsvColumn.IS_REQUEST));
+            case INVALID_TIMESTAMP ->
+                    "Invalid timestamp: " + tokenizer.getString(projection.fieldIndex(CsvColumn.TIMESTAMP));
+        };
     }
 
-    private void validateHeader(String headerLine) {
+    private ColumnProjection validateHeader(String headerLine) {
         if (headerLine == null || headerLine.isBlank()) {
             LOG.error("CSV header validation failed: header is missing or empty");
             throw new CsvValidationException("CSV header is missing or empty");
         }
 
-        String[] headers = headerLine.split(DELIMITER, -1);
+        String[]     headers            = headerLine.split(DELIMITER, -1);
+        int[]        fieldIndexByColumn = new int[CsvColumn.values().length];
+        List<String> ignoredColumns     = new ArrayList<>();
+        Arrays.fill(fieldIndexByColumn, ColumnProjection.UNMAPPED);
 
         for (int i = 0; i < headers.length; i++) {
-            try {
-                CsvColumn column = CsvColumn.valueOf(headers[i].trim().toUpperCase());
-                headerMap.put(column, i);
+            CsvColumn column = toColumn(headers[i]);
+
+            if (column == null) {
+                ignoredColumns.add(headers[i].trim());
             }
-            catch (IllegalArgumentException e) {
-                LOG.error("CSV header validation failed: unknown column '{}' at position {}", headers[i], i);
-                throw new CsvValidationException("Unknown CSV column: " + headers[i]);
+            else {
+                fieldIndexByColumn[column.ordinal()] = i;
             }
         }
 
         for (CsvColumn required : CsvColumn.values()) {
-            if (!headerMap.containsKey(required)) {
+            if (required.isRequired() && fieldIndexByColumn[required.ordinal()] == ColumnProjection.UNMAPPED) {
                 LOG.error("CSV header validation failed: missing required column '{}'", required);
                 throw new CsvValidationException("Missing required column: " + required);
             }
         }
-    }
 
-    private void validateLine(String[] parts) {
-        if (parts.length < headerMap.size()) {
-            throw new CsvValidationException("Line has fewer columns than expected");
+        if (!ignoredColumns.isEmpty()) {
+            LOG.info("Ignoring {} unrecognized CSV columns: {}", ignoredColumns.size(), ignoredColumns);
         }
 
-        String messageTypeStr = get(parts, headerMap.get(CsvColumn.MESSAGE_TYPE));
-        try {
-            MessageType.valueOf(messageTypeStr);
+        return new ColumnProjection(fieldIndexByColumn, headers.length);
+    }
+
+    private static CsvColumn toColumn(String header) {
+        String name = header.trim().toUpperCase();
+
+        for (CsvColumn column : CsvColumn.values()) {
+            if (column.name().equals(name)) {
+                return column;
+            }
         }
-        catch (Exception e) {
-            throw new CsvValidationException("Invalid message_type: " + messageTypeStr);
+
+        return null;
+    }
+
+    private final class StreamingLineHandler implements LineConsumer {
+        private final RowConsumer   rowConsumer;
+        private final long          skippedLines;
+        private final CsvTokenizer  tokenizer  = new CsvTokenizer();
+        private final ParseErrorLog errorLog   = new ParseErrorLog();
+        private       long          lineNumber = 0;
+
+        private StreamingLineHandler(RowConsumer rowConsumer, long skippedLines) {
+            this.rowConsumer = rowConsumer;
+            this.skippedLines = skippedLines;
         }
 
-        String isRequestStr = get(parts, headerMap.get(CsvColumn.IS_REQUEST));
-        if (!isRequestStr.equalsIgnoreCase("true") && !isRequestStr.equalsIgnoreCase("false")) {
-            throw new CsvValidationException("Invalid is_request value: " + isRequestStr);
+        @Override
+        public void accept(byte[] buffer, int offset, int length) {
+            lineNumber++;
+
+            if (lineNumber == 1) {
+                compileHeader(new String(buffer, offset, length, StandardCharsets.UTF_8));
+                lineNumber += skippedLines;
+                return;
+            }
+
+            LineStatus status = tokenizeLine(tokenizer, buffer, offset, length);
+            if (status == LineStatus.VALID) {
+                rowConsumer.accept(toRow(tokenizer), lineNumber, buffer, offset, length);
+            }
+            else {
+                reject(errorLog, lineNumber, describe(status, tokenizer), buffer, offset, length);
+            }
         }
     }
 }
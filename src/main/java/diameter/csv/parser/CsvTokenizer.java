@@ -0,0 +1,223 @@
+package diameter.csv.parser;
+
+import diameter.domain.MessageType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a raw UTF-8 line into comma-separated fields without copying it. Delimiters are found eight bytes at a
+ * time, field boundaries are recorded as trimmed offsets into the caller's buffer, and a {@code String} is only
+ * created when a field is read. Instances are reused line after line and are not thread-safe.
+ */
+final class CsvTokenizer {
+    static final         long          INVALID_LONG     = Long.MIN_VALUE;
+    private static final byte          DELIMITER        = ',';
+    private static final long          DELIMITERS       = 0x2C2C2C2C2C2C2C2CL;
+    private static final long          LOW_SEVEN_BITS   = 0x7F7F7F7F7F7F7F7FL;
+    private static final long          HIGH_BITS        = 0x8080808080808080L;
+    private static final VarHandle     LONG_VIEW        =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final int           INITIAL_CAPACITY = 16;
+    private static final int           MAX_LONG_DIGITS  = 18;
+    private static final MessageType[] MESSAGE_TYPES    = MessageType.values();
+    private static final byte[][]      MESSAGE_TYPE_NAMES;
+    private static final byte[]        TRUE             = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[]        FALSE            = "false".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        MESSAGE_TYPE_NAMES = new byte[MESSAGE_TYPES.length][];
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            MESSAGE_TYPE_NAMES[i] = MESSAGE_TYPES[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private byte[]  buffer;
+    private int[]   starts     = new int[INITIAL_CAPACITY];
+    private int[]   ends       = new int[INITIAL_CAPACITY];
+    private int     fieldCount = 0;
+    private boolean ascii      = true;
+
+    int tokenize(byte[] buffer, int offset, int length) {
+        return tokenize(buffer, offset, length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Records at most {@code maxFields} leading fields and stops scanning once they are found, so trailing columns
+     * cost nothing. Returns the number of fields recorded.
+     */
+    int tokenize(byte[] buffer, int offset, int length, int maxFields) {
+        this.buffer = buffer;
+
+        int  end        = offset + length;
+        int  fieldStart = offset;
+        int  count      = 0;
+        long highBits   = 0;
+        int  i          = offset;
+
+        for (; i + Long.BYTES <= end; i += Long.BYTES) {
+            long word = (long) LONG_VIEW.get(buffer, i);
+            highBits |= word;
+
+            // Exact zero-byte test on word ^ DELIMITERS: sets the high bit of every byte that held a delimiter.
+            long match = word ^ DELIMITERS;
+            long found = ~(((match & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | match | LOW_SEVEN_BITS);
+
+            while (found != 0) {
+                int position = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                record(count++, fieldStart, position);
+                fieldStart = position + 1;
+                found &= found - 1;
+
+                if (count == maxFields) {
+                    return finish(count, highBits);
+                }
+            }
+        }
+
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            highBits |= b & 0xFF;
+
+            if (b == DELIMITER) {
+                record(count++, fieldStart, i);
+                fieldStart = i + 1;
+
+                if (count == maxFields) {
+                    return finish(count, highBits);
+                }
+            }
+        }
+
+        record(count++, fieldStart, end);
+        return finish(count, highBits);
+    }
+
+    private int finish(int count, long highBits) {
+        fieldCount = count;
+        ascii = (highBits & HIGH_BITS) == 0;
+
+        return count;
+    }
+
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    boolean isEmpty(int field) {
+        return field >= fieldCount || starts[field] == ends[field];
+    }
+
+    String getString(int field) {
+        if (isEmpty(field)) {
+            return "";
+        }
+
+        // ISO-8859-1 decodes pure ASCII to the same string without UTF-8 validation.
+        return new String(buffer, starts[field], ends[field] - starts[field],
+                          ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    String getStringOrNull(int field) {
+        return isEmpty(field) ? null : getString(field);
+    }
+
+    MessageType getMessageType(int field) {
+        if (field >= fieldCount) {
+            return null;
+        }
+
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            if (equals(field, MESSAGE_TYPE_NAMES[i], false)) {
+                return MESSAGE_TYPES[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Parses a non-negative decimal integer; returns {@code emptyValue} for an empty field and {@link #INVALID_LONG}
+     * for anything else that is not one.
+     */
+    long getLong(int field, long emptyValue) {
+        if (isEmpty(field)) {
+            return emptyValue;
+        }
+
+        int start = starts[field];
+        int end   = ends[field];
+        if (end - start > MAX_LONG_DIGITS) {
+            return INVALID_LONG;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_LONG;
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    Boolean getBoolean(int field) {
+        if (field >= fieldCount) {
+            return null;
+        }
+
+        if (equals(field, TRUE, true)) {
+            return Boolean.TRUE;
+        }
+
+        return equals(field, FALSE, true) ? Boolean.FALSE : null;
+    }
+
+    private boolean equals(int field, byte[] expected, boolean ignoreCase) {
+        int start = starts[field];
+        if (ends[field] - start != expected.length) {
+            return false;
+        }
+
+        for (int i = 0; i < expected.length; i++) {
+            byte actual = buffer[start + i];
+            if (ignoreCase && actual >= 'A' && actual <= 'Z') {
+                actual = (byte) (actual | 0x20);
+            }
+
+            if (actual != expected[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void record(int field, int start, int end) {
+        if (field == starts.length) {
+            starts = Arrays.copyOf(starts, field * 2);
+            ends = Arrays.copyOf(ends, field * 2);
+        }
+
+        while (start < end && isWhitespace(buffer[start])) {
+            start++;
+        }
+
+        while (end > start && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+
+        starts[field] = start;
+        ends[field] = end;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+}
@@ -0,0 +1,9 @@
+package diameter.csv.parser;
+
+enum LineStatus {
+    VALID,
+    TOO_FEW_COLUMNS,
+    INVALID_MESSAGE_TYPE,
+    INVALID_IS_REQUEST,
+    INVALID_TIMESTAMP
+}
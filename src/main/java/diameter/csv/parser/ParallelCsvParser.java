@@ -0,0 +1,163 @@
+package diameter.csv.parser;
+
+import diameter.csv.model.CsvRow;
+import diameter.exception.csv.CsvValidationException;
+import diameter.io.ChunkedLineSource;
+import diameter.io.LineSource;
+import diameter.monitoring.ChunkParseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parses the chunks of a {@link ChunkedLineSource} on a fork-join pool and hands the rows to the consumer in their
+ * original order, on the calling thread. Any other line source is parsed sequentially by the delegate. Closing the
+ * parser shuts its pool down; the common pool ignores that.
+ */
+public class ParallelCsvParser implements CsvParser, AutoCloseable {
+    private static final Logger LOG      = LoggerFactory.getLogger(ParallelCsvParser.class);
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final CsvParserImpl delegate;
+    private final ForkJoinPool  pool;
+    private final int           maxChunksInFlight;
+
+    public ParallelCsvParser() {
+        this(new CsvParserImpl(), ForkJoinPool.commonPool());
+    }
+
+    public ParallelCsvParser(CsvParserImpl delegate, ForkJoinPool pool) {
+        this.delegate = delegate;
+        this.pool = pool;
+        this.maxChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    @Override
+    public List<CsvRow> parse(List<String> lines) {
+        return delegate.parse(lines);
+    }
+
+    @Override
+    public void parse(LineSource lines, RowConsumer rowConsumer) {
+        if (!(lines instanceof ChunkedLineSource chunkedLines)) {
+            delegate.parse(lines, rowConsumer);
+            return;
+        }
+
+        List<LineSource> chunks = chunkedLines.getChunks();
+        if (chunks.isEmpty()) {
+            LOG.error("CSV parsing failed: file is empty or null");
+            throw new CsvValidationException("CSV file is empty");
+        }
+
+        chunks.getFirst().forEachLine((buffer, offset, length) -> delegate.compileHeader(
+                new String(buffer, offset, length, StandardCharsets.UTF_8)));
+
+        ParseErrorLog                    errorLog   = new ParseErrorLog();
+        Deque<ForkJoinTask<ChunkResult>> inFlight   = new ArrayDeque<>();
+        long                             lineNumber = 1;
+        int                              nextChunk  = 1;
+
+        try {
+            while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+                while (nextChunk < chunks.size() && inFlight.size() < maxChunksInFlight) {
+                    LineSource chunk = chunks.get(nextChunk++);
+                    inFlight.addLast(pool.submit(() -> parseChunk(chunk)));
+                }
+
+                ChunkResult result = inFlight.removeFirst().join();
+                for (int i = 0; i < result.errorLines.size(); i++) {
+                    byte[] line = result.errorLineBytes.isEmpty() ? NO_BYTES : result.errorLineBytes.get(i);
+                    delegate.reject(errorLog, lineNumber + result.errorLines.get(i), result.errorMessages.get(i),
+                                    line, 0, line.length);
+                }
+
+                // The chunk numbers its rows from its own start until the lines before it are known.
+                int start = 0;
+                for (int i = 0; i < result.rows.size(); i++) {
+                    int end = result.rowEnds[i];
+                    rowConsumer.accept(result.rows.get(i), lineNumber + result.rowLines[i], result.rowBytes, start,
+                                       end - start);
+                    start = end;
+                }
+
+                lineNumber += result.lineCount;
+            }
+        }
+        finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+
+        CsvParserImpl.logErrors(errorLog);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private ChunkResult parseChunk(LineSource chunk) {
+        ChunkParseEvent event     = new ChunkParseEvent();
+        ChunkResult     result    = new ChunkResult();
+        CsvTokenizer    tokenizer = new CsvTokenizer();
+        boolean         copyLines = delegate.isDeadLettering();
+
+        event.begin();
+        chunk.forEachLine((buffer, offset, length) -> {
+            result.lineCount++;
+
+            LineStatus status = delegate.tokenizeLine(tokenizer, buffer, offset, length);
+            if (status == LineStatus.VALID) {
+                result.addRow(delegate.toRow(tokenizer), buffer, offset, copyLines ? length : 0);
+            }
+            else {
+                result.errorLines.add(result.lineCount);
+                result.errorMessages.add(delegate.describe(status, tokenizer));
+                if (copyLines) {
+                    result.errorLineBytes.add(Arrays.copyOfRange(buffer, offset, offset + length));
+                }
+            }
+        });
+
+        event.commit(result.lineCount, result.rows.size(), result.errorLines.size());
+        return result;
+    }
+
+    private static final class ChunkResult {
+        private final List<CsvRow> rows           = new ArrayList<>();
+        private final List<Long>   errorLines     = new ArrayList<>();
+        private final List<String> errorMessages  = new ArrayList<>();
+        private final List<byte[]> errorLineBytes = new ArrayList<>();
+        private       long[]       rowLines       = new long[256];
+        private       int[]        rowEnds        = new int[256];
+        private       byte[]       rowBytes       = NO_BYTES;
+        private       int          rowBytesSize   = 0;
+        private       long         lineCount      = 0;
+
+        /** Keeps the row with its line number in the chunk and the first {@code length} bytes of its line. */
+        private void addRow(CsvRow row, byte[] buffer, int offset, int length) {
+            int index = rows.size();
+            if (index == rowLines.length) {
+                rowLines = Arrays.copyOf(rowLines, index * 2);
+                rowEnds = Arrays.copyOf(rowEnds, index * 2);
+            }
+            if (rowBytesSize + length > rowBytes.length) {
+                rowBytes = Arrays.copyOf(rowBytes, Math.max(rowBytes.length * 2, rowBytesSize + length));
+            }
+            System.arraycopy(buffer, offset, rowBytes, rowBytesSize, length);
+            rowBytesSize += length;
+
+            rows.add(row);
+            rowLines[index] = lineCount;
+            rowEnds[index] = rowBytesSize;
+        }
+    }
+}
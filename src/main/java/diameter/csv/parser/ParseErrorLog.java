@@ -0,0 +1,41 @@
+package diameter.csv.parser;
+
+/**
+ * Counts parse errors and keeps the first {@value #MAX_ENTRIES} for the end-of-parse warning; the full list goes to
+ * the dead-letter file when one is configured.
+ */
+final class ParseErrorLog {
+    static final int MAX_ENTRIES = 100;
+
+    private final StringBuilder errors = new StringBuilder();
+    private       long          count  = 0;
+
+    void add(long lineNumber, String message) {
+        if (count < MAX_ENTRIES) {
+            if (count > 0) {
+                errors.append(System.lineSeparator());
+            }
+
+            errors.append(String.format("\t- Line %d: %s", lineNumber, message));
+        }
+
+        count++;
+    }
+
+    boolean hasErrors() {
+        return count > 0;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        if (count <= MAX_ENTRIES) {
+            return errors.toString();
+        }
+
+        return errors + System.lineSeparator() + "\t- ... " + (count - MAX_ENTRIES) + " more";
+    }
+}
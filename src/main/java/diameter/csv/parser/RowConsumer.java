@@ -0,0 +1,13 @@
+package diameter.csv.parser;
+
+import diameter.csv.model.CsvRow;
+
+/**
+ * Receives each parsed row with its 1-based line number and the line it was parsed from. The line is the parser's own
+ * buffer, so implementations must copy what they keep before returning. {@link ParallelCsvParser} only copies lines
+ * out of its chunks while it writes dead letters; otherwise the line is empty.
+ */
+@FunctionalInterface
+public interface RowConsumer {
+    void accept(CsvRow row, long lineNumber, byte[] buffer, int offset, int length);
+}
@@ -5,4 +5,28 @@ import diameter.domain.message.DiameterMessage;
 
 public interface MessageFactory {
     DiameterMessage createDiameterMessage(CsvRow csvRow);
+
+    /**
+     * Same as {@link #createDiameterMessage(CsvRow)}, but returns {@code null} instead of throwing when the row's
+     * is_request flag contradicts its message type.
+     */
+    DiameterMessage tryCreateDiameterMessage(CsvRow csvRow);
+
+    /**
+     * Batch form of {@link #tryCreateDiameterMessage(CsvRow)}: writes the message for each of {@code rows[from, to)},
+     * or {@code null} on a type mismatch, to the same index of {@code messages}. Throws like the single-row form, in
+     * which case the slots from the failing row on are left unwritten.
+     */
+    default void tryCreateDiameterMessages(CsvRow[] rows, int from, int to, DiameterMessage[] messages) {
+        for (int i = from; i < to; i++) {
+            messages[i] = tryCreateDiameterMessage(rows[i]);
+        }
+    }
+
+    /**
+     * Describes why {@link #tryCreateDiameterMessage(CsvRow)} returned {@code null} for {@code csvRow}.
+     */
+    static String typeMismatch(CsvRow csvRow) {
+        return "Type mismatch: " + csvRow.getMessageType() + " expected is_request=" + !csvRow.getIsRequest();
+    }
 }
@@ -18,47 +18,79 @@ public class MessageFactoryImpl implements MessageFactory {
                     row.getSessionId(),
                     row.getOriginHost(),
                     row.getOriginRealm(),
-                    row.getUserName()
+                    row.getUserName(),
+                    row.getTimestamp()
             )),
             MessageType.AIA, new MessageDefinition(false, row -> new AIA(
                     row.getSessionId(),
                     row.getOriginHost(),
                     row.getOriginRealm(),
                     row.getUserName(),
-                    row.getResultCode()
+                    row.getResultCode(),
+                    row.getTimestamp()
             )),
             MessageType.ULR, new MessageDefinition(true, row -> new ULR(
                     row.getSessionId(),
                     row.getOriginHost(),
                     row.getOriginRealm(),
                     row.getUserName(),
-                    row.getVisitedPlmnId()
+                    row.getVisitedPlmnId(),
+                    row.getTimestamp()
             )),
             MessageType.ULA, new MessageDefinition(false, row -> new ULA(
                     row.getSessionId(),
                     row.getOriginHost(),
                     row.getOriginRealm(),
                     row.getUserName(),
-                    row.getResultCode()
+                    row.getResultCode(),
+                    row.getTimestamp()
             ))
                                                                                         );
 
+    // Indexed by MessageType ordinal, so the per-row lookup is an array load rather than a map probe.
+    private static final MessageDefinition[] definitionsByType = new MessageDefinition[MessageType.values().length];
+
+    static {
+        messageDefinitions.forEach((type, definition) -> definitionsByType[type.ordinal()] = definition);
+    }
+
     @Override
     public DiameterMessage createDiameterMessage(CsvRow csvRow) {
+        DiameterMessage message = tryCreateDiameterMessage(csvRow);
+        if (message == null) {
+            throw new DiameterMessageValidationException(MessageFactory.typeMismatch(csvRow));
+        }
+
+        return message;
+    }
+
+    @Override
+    public DiameterMessage tryCreateDiameterMessage(CsvRow csvRow) {
+        return definitionOf(csvRow).create(csvRow);
+    }
+
+    @Override
+    public void tryCreateDiameterMessages(CsvRow[] rows, int from, int to, DiameterMessage[] messages) {
+        for (int i = from; i < to; i++) {
+            messages[i] = definitionOf(rows[i]).create(rows[i]);
+        }
+    }
+
+    private static MessageDefinition definitionOf(CsvRow csvRow) {
         if (csvRow == null || csvRow.getMessageType() == null) {
             LOG.error("Invalid input: csvRow or messageType is null");
             throw new IllegalArgumentException("CSV csvRow or message type cannot be null");
         }
 
         MessageType messageType = csvRow.getMessageType();
-        MessageDefinition definition = messageDefinitions.get(messageType);
+        MessageDefinition definition = definitionsByType[messageType.ordinal()];
 
         if (definition == null) {
             LOG.error("Unsupported message type: {}", messageType);
             throw new IllegalArgumentException("Unsupported message type: " + messageType);
         }
 
-        return definition.create(csvRow);
+        return definition;
     }
 
     private static class MessageDefinition {
@@ -72,8 +104,7 @@ public class MessageFactoryImpl implements MessageFactory {
 
         public DiameterMessage create(CsvRow row) {
             if (row.getIsRequest() != expectedRequest) {
-                throw new DiameterMessageValidationException(
-                        "Type mismatch: " + row.getMessageType() + " expected is_request=" + expectedRequest);
+                return null;
             }
 
             return constructor.apply(row);
@@ -10,5 +10,14 @@ public class AIA extends DiameterAnswer {
                String resultCode) {
         super(MessageType.AIA, sessionId, originHost, originRealm, userName, resultCode);
     }
+
+    public AIA(String sessionId,
+               String originHost,
+               String originRealm,
+               String userName,
+               String resultCode,
+               long timestamp) {
+        super(MessageType.AIA, sessionId, originHost, originRealm, userName, resultCode, timestamp);
+    }
 }
 
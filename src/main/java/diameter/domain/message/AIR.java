@@ -6,4 +6,8 @@ public class AIR extends DiameterRequest {
     public AIR(String sessionId, String originHost, String originRealm, String userName) {
         super(MessageType.AIR, sessionId, originHost, originRealm, userName);
     }
+
+    public AIR(String sessionId, String originHost, String originRealm, String userName, long timestamp) {
+        super(MessageType.AIR, sessionId, originHost, originRealm, userName, timestamp);
+    }
 }
\ No newline at end of file
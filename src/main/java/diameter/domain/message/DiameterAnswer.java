@@ -12,10 +12,24 @@ public abstract class DiameterAnswer extends DiameterMessage {
                              String originRealm,
                              String userName,
                              String resultCode) {
-        super(messageType, sessionId, originHost, originRealm, userName);
+        this(messageType, sessionId, originHost, originRealm, userName, resultCode, NO_TIMESTAMP);
+    }
+
+    protected DiameterAnswer(MessageType messageType,
+                             String sessionId,
+                             String originHost,
+                             String originRealm,
+                             String userName,
+                             String resultCode,
+                             long timestamp) {
+        super(messageType, sessionId, originHost, originRealm, userName, timestamp);
         this.resultCode = resultCode;
     }
 
+    public String getResultCode() {
+        return resultCode;
+    }
+
     @Override
     public void validate(ValidationResult result) {
         require(resultCode, "Result-Code is required", result);
@@ -4,22 +4,35 @@ import diameter.domain.MessageType;
 import diameter.validator.ValidationResult;
 
 public abstract class DiameterMessage {
+    public static final long NO_TIMESTAMP = -1;
+
     private final   MessageType messageType;
     protected final String      sessionId;
     protected final String      originHost;
     protected final String      originRealm;
     protected final String      userName;
+    private final   long        timestamp;
 
     public DiameterMessage(MessageType messageType,
                            String sessionId,
                            String originHost,
                            String originRealm,
                            String userName) {
+        this(messageType, sessionId, originHost, originRealm, userName, NO_TIMESTAMP);
+    }
+
+    public DiameterMessage(MessageType messageType,
+                           String sessionId,
+                           String originHost,
+                           String originRealm,
+                           String userName,
+                           long timestamp) {
         this.messageType = messageType;
         this.sessionId = sessionId;
         this.originHost = originHost;
         this.originRealm = originRealm;
         this.userName = userName;
+        this.timestamp = timestamp;
     }
 
     public abstract void validate(ValidationResult result);
@@ -51,4 +64,15 @@ public abstract class DiameterMessage {
     public String getUserName() {
         return userName;
     }
+
+    /**
+     * Epoch milliseconds from the input, or {@link #NO_TIMESTAMP} when the input has none.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean hasTimestamp() {
+        return timestamp != NO_TIMESTAMP;
+    }
 }
\ No newline at end of file
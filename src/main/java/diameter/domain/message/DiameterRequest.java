@@ -9,7 +9,16 @@ public abstract class DiameterRequest extends DiameterMessage {
                               String originHost,
                               String originRealm,
                               String userName) {
-        super(messageType, sessionId, originHost, originRealm, userName);
+        this(messageType, sessionId, originHost, originRealm, userName, NO_TIMESTAMP);
+    }
+
+    protected DiameterRequest(MessageType messageType,
+                              String sessionId,
+                              String originHost,
+                              String originRealm,
+                              String userName,
+                              long timestamp) {
+        super(messageType, sessionId, originHost, originRealm, userName, timestamp);
     }
 
     @Override
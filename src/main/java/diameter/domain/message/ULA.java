@@ -10,5 +10,14 @@ public class ULA extends DiameterAnswer {
                String resultCode) {
         super(MessageType.ULA, SessionId, originHost, originRealm, userName, resultCode);
     }
+
+    public ULA(String sessionId,
+               String originHost,
+               String originRealm,
+               String userName,
+               String resultCode,
+               long timestamp) {
+        super(MessageType.ULA, sessionId, originHost, originRealm, userName, resultCode, timestamp);
+    }
 }
 
@@ -11,7 +11,16 @@ public class ULR extends DiameterRequest {
                String originRealm,
                String userName,
                String visitedPlmnId) {
-        super(MessageType.ULR, sessionId, originHost, originRealm, userName);
+        this(sessionId, originHost, originRealm, userName, visitedPlmnId, NO_TIMESTAMP);
+    }
+
+    public ULR(String sessionId,
+               String originHost,
+               String originRealm,
+               String userName,
+               String visitedPlmnId,
+               long timestamp) {
+        super(MessageType.ULR, sessionId, originHost, originRealm, userName, timestamp);
         this.visitedPlmnId = visitedPlmnId;
     }
 
@@ -2,6 +2,10 @@ package diameter.exception.transaction;
 
 public class DuplicateTransactionException extends TransactionException {
     public DuplicateTransactionException(String sessionId) {
-        super("Transaction with session ID " + sessionId + " already exists");
+        super(message(sessionId));
+    }
+
+    public static String message(String sessionId) {
+        return "Transaction with session ID " + sessionId + " already exists";
     }
 }
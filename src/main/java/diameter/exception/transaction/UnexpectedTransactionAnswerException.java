@@ -2,6 +2,10 @@ package diameter.exception.transaction;
 
 public class UnexpectedTransactionAnswerException extends TransactionException {
     public UnexpectedTransactionAnswerException(String sessionId) {
-        super("No existing transaction for session ID " + sessionId);
+        super(message(sessionId));
+    }
+
+    public static String message(String sessionId) {
+        return "No existing transaction for session ID " + sessionId;
     }
 }
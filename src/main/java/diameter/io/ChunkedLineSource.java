@@ -0,0 +1,19 @@
+package diameter.io;
+
+import java.util.List;
+
+/**
+ * A line source split into independently readable, newline-aligned chunks in file order. The first chunk holds
+ * exactly the first line of the input, so a header can be read before the remaining chunks are processed in
+ * parallel.
+ */
+public interface ChunkedLineSource extends LineSource {
+    List<LineSource> getChunks();
+
+    @Override
+    default void forEachLine(LineConsumer consumer) {
+        for (LineSource chunk : getChunks()) {
+            chunk.forEachLine(consumer);
+        }
+    }
+}
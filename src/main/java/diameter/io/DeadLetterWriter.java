@@ -0,0 +1,23 @@
+package diameter.io;
+
+/**
+ * Receives the rejected input lines, with their 1-based line number and the reason: lines the parser rejects, and
+ * rows that fail validation or correlation later on. Lines arrive as the caller's own buffer, so implementations must
+ * copy or write them out before returning. The parser and the correlating stage may write from different threads.
+ */
+public interface DeadLetterWriter extends AutoCloseable {
+    DeadLetterWriter NONE = new DeadLetterWriter() {
+        @Override
+        public void write(long lineNumber, String reason, byte[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    void write(long lineNumber, String reason, byte[] buffer, int offset, int length);
+
+    @Override
+    void close();
+}
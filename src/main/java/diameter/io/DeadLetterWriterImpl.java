@@ -0,0 +1,190 @@
+package diameter.io;
+
+import diameter.checkpoint.Checkpointable;
+import diameter.exception.checkpoint.CheckpointException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams rejected lines to a CSV file with the columns {@code line_number,reason,line}; the reason and the original
+ * line are quoted, so the line can be recovered byte for byte. Output goes through a 1MB buffer and is gzipped when
+ * the file name ends with {@code .gz}. Memory use is constant however many lines are rejected. Writes are
+ * synchronized, as the parser and the correlating stage both write; rejects are rare enough for the lock to stay
+ * uncontended.
+ * <p>
+ * As a checkpoint section it records the length of the file, ending the current gzip member first so that the file
+ * is valid up to that length. A writer opened to resume truncates the file back to the length of the restored
+ * checkpoint and appends from there.
+ */
+public final class DeadLetterWriterImpl implements DeadLetterWriter, Checkpointable {
+    private static final Logger LOG         = LoggerFactory.getLogger(DeadLetterWriterImpl.class);
+    private static final int    BUFFER_SIZE = 1 << 20;
+    private static final byte[] HEADER      = "line_number,reason,line\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte   QUOTE       = '"';
+    private static final byte   COMMA       = ',';
+    private static final byte   LF          = '\n';
+
+    private final Path             path;
+    private final FileChannel      channel;
+    private       OutputStream     out          = null;
+    private       GZIPOutputStream gzipMember   = null;
+    private       boolean          resuming;
+    private       long             resumeLength = -1;
+    private       long             count        = 0;
+
+    public DeadLetterWriterImpl(Path path) {
+        this(path, false);
+    }
+
+    /**
+     * With {@code resume}, keeps the existing file, and nothing may be written until a checkpoint holding this writer
+     * is restored.
+     */
+    public DeadLetterWriterImpl(Path path, boolean resume) {
+        this.path = path;
+        this.resuming = resume;
+
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (!resume) {
+                channel.truncate(0);
+                output().write(HEADER);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to create dead-letter file: " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void write(long lineNumber, String reason, byte[] buffer, int offset, int length) {
+        try {
+            OutputStream stream = output();
+            stream.write(Long.toString(lineNumber).getBytes(StandardCharsets.US_ASCII));
+            stream.write(COMMA);
+            byte[] reasonBytes = String.valueOf(reason).getBytes(StandardCharsets.UTF_8);
+            writeQuoted(stream, reasonBytes, 0, reasonBytes.length);
+            stream.write(COMMA);
+            writeQuoted(stream, buffer, offset, length);
+            stream.write(LF);
+            count++;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to write dead-letter file: " + path, e);
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized void writeCheckpoint(DataOutput checkpoint) throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+
+        if (gzipMember != null) {
+            gzipMember.finish();
+            out = null;
+            gzipMember = null;
+        }
+
+        checkpoint.writeLong(channel.position());
+    }
+
+    @Override
+    public synchronized void restoreCheckpoint(DataInput checkpoint) throws IOException {
+        resumeLength = checkpoint.readLong();
+    }
+
+    @Override
+    public synchronized void checkpointRestored() throws IOException {
+        if (!resuming) {
+            throw new IllegalStateException("Dead-letter file was not opened to resume: " + path);
+        }
+
+        if (resumeLength < 0) {
+            throw new CheckpointException("Checkpoint was written without a dead-letter file");
+        }
+
+        if (channel.size() < resumeLength) {
+            throw new CheckpointException("Dead-letter file is shorter than at the checkpoint: " + path);
+        }
+
+        channel.truncate(resumeLength);
+        channel.position(resumeLength);
+        resuming = false;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (out != null) {
+                out.close();
+            }
+            else {
+                channel.close();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to close dead-letter file: " + path, e);
+        }
+
+        LOG.info("Wrote {} rejected rows to {}", count, path);
+    }
+
+    // Opens the output on first use after a checkpoint ended the previous gzip member; members written one after
+    // another read back as a single gzip stream.
+    private OutputStream output() throws IOException {
+        if (resuming) {
+            throw new IllegalStateException("Dead-letter file is waiting for its checkpoint to be restored: " + path);
+        }
+
+        if (out == null) {
+            OutputStream file = Channels.newOutputStream(channel);
+            if (isGzip(path)) {
+                gzipMember = new GZIPOutputStream(file, BUFFER_SIZE);
+                file = gzipMember;
+            }
+
+            out = new BufferedOutputStream(file, BUFFER_SIZE);
+        }
+
+        return out;
+    }
+
+    // Writes the bytes as a quoted CSV field, doubling embedded quotes; unquoted runs are copied in bulk.
+    private static void writeQuoted(OutputStream out, byte[] buffer, int offset, int length) throws IOException {
+        out.write(QUOTE);
+        int end      = offset + length;
+        int runStart = offset;
+        for (int i = offset; i < end; i++) {
+            if (buffer[i] == QUOTE) {
+                out.write(buffer, runStart, i + 1 - runStart);
+                runStart = i;
+            }
+        }
+
+        out.write(buffer, runStart, end - runStart);
+        out.write(QUOTE);
+    }
+
+    private static boolean isGzip(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().endsWith(".gz");
+    }
+}
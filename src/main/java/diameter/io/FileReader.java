@@ -4,4 +4,8 @@ import java.util.List;
 
 public interface FileReader {
     List<String> getLinesFromFile(String[] args);
+
+    default LineSource getLineSource(String[] args) {
+        return LineSource.fromLines(getLinesFromFile(args));
+    }
 }
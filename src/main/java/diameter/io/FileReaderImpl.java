@@ -1,11 +1,19 @@
 package diameter.io;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
-public class FileReaderImpl implements FileReader {
+public class FileReaderImpl implements ResumableFileReader {
+    private static final int  BUFFER_SIZE = 1 << 20;
+    private static final byte LF          = '\n';
+    private static final byte CR          = '\r';
+
     @Override
     public List<String> getLinesFromFile(String[] args) {
         Path csvPath = Path.of(args[0]);
@@ -17,5 +25,122 @@ public class FileReaderImpl implements FileReader {
             throw new RuntimeException("Failed to read CSV file: " + csvPath, e);
         }
     }
-}
 
+    @Override
+    public LineSource getLineSource(String[] args) {
+        return new FileLineSource(Path.of(args[0]), InputPosition.START);
+    }
+
+    @Override
+    public ResumableLineSource getResumableLineSource(String[] args, InputPosition resumeAt) {
+        if (resumeAt.getOffset() > 0 && resumeAt.getLineNumber() < 1) {
+            throw new IllegalArgumentException("Resume position must count the header line but was: " + resumeAt);
+        }
+
+        return new FileLineSource(Path.of(args[0]), resumeAt);
+    }
+
+    private static final class FileLineSource implements ResumableLineSource {
+        private final Path          csvPath;
+        private final InputPosition resumeAt;
+        private       long          position   = 0;
+        private       long          lineNumber = 0;
+
+        private FileLineSource(Path csvPath, InputPosition resumeAt) {
+            this.csvPath = csvPath;
+            this.resumeAt = resumeAt;
+        }
+
+        @Override
+        public long getPosition() {
+            return position;
+        }
+
+        @Override
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public long getSkippedLines() {
+            return resumeAt.getOffset() > 0 ? resumeAt.getLineNumber() - 1 : 0;
+        }
+
+        @Override
+        public void forEachLine(LineConsumer consumer) {
+            try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ);
+                 InputStream in = Channels.newInputStream(channel)) {
+                long resumeOffset = resumeAt.getOffset();
+                if (resumeOffset > 0) {
+                    // Only the header is read from the start; the remaining bytes before the offset are skipped.
+                    streamLines(in, 0, 1, consumer);
+                    channel.position(resumeOffset);
+                    lineNumber = resumeAt.getLineNumber();
+                    streamLines(in, resumeOffset, Long.MAX_VALUE, consumer);
+                }
+                else {
+                    streamLines(in, 0, Long.MAX_VALUE, consumer);
+                }
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Failed to read CSV file: " + csvPath, e);
+            }
+        }
+
+        private void streamLines(InputStream in, long startOffset, long maxLines, LineConsumer consumer)
+                throws IOException {
+            byte[] buffer      = new byte[BUFFER_SIZE];
+            long   bufferStart = startOffset;
+            long   lines       = 0;
+            int    lineStart   = 0;
+            int    end         = 0;
+            int    read;
+
+            while ((read = in.read(buffer, end, buffer.length - end)) != -1) {
+                int scanFrom = end;
+                end += read;
+
+                for (int i = scanFrom; i < end; i++) {
+                    if (buffer[i] == LF) {
+                        position = bufferStart + i + 1;
+                        lineNumber++;
+                        emitLine(buffer, lineStart, i, consumer);
+                        lineStart = i + 1;
+
+                        if (++lines == maxLines) {
+                            return;
+                        }
+                    }
+                }
+
+                int pending = end - lineStart;
+                if (pending == buffer.length) {
+                    byte[] grown = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, grown, 0, pending);
+                    buffer = grown;
+                }
+                else if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, pending);
+                }
+
+                bufferStart += lineStart;
+                lineStart = 0;
+                end = pending;
+            }
+
+            if (end > 0) {
+                position = bufferStart + end;
+                lineNumber++;
+                emitLine(buffer, 0, end, consumer);
+            }
+        }
+    }
+
+    private static void emitLine(byte[] buffer, int start, int end, LineConsumer consumer) {
+        if (end > start && buffer[end - 1] == CR) {
+            end--;
+        }
+
+        consumer.accept(buffer, start, end - start);
+    }
+}
@@ -0,0 +1,35 @@
+package diameter.io;
+
+/**
+ * A point in an input file to resume reading from: the byte offset just past a line, and that line's 1-based number
+ * counted from the header. Immutable.
+ */
+public final class InputPosition {
+    public static final InputPosition START = new InputPosition(0, 0);
+
+    private final long offset;
+    private final long lineNumber;
+
+    public InputPosition(long offset, long lineNumber) {
+        if (offset < 0 || lineNumber < 0) {
+            throw new IllegalArgumentException(
+                    "Input position must not be negative but was: offset " + offset + ", line " + lineNumber);
+        }
+
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "offset " + offset + ", line " + lineNumber;
+    }
+}
@@ -0,0 +1,6 @@
+package diameter.io;
+
+@FunctionalInterface
+public interface LineConsumer {
+    void accept(byte[] buffer, int offset, int length);
+}
@@ -0,0 +1,30 @@
+package diameter.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A lazily evaluated sequence of lines. Each call to {@link #forEachLine} streams the lines to the consumer in order;
+ * the buffer handed to the consumer is only valid for the duration of the call.
+ */
+@FunctionalInterface
+public interface LineSource {
+    void forEachLine(LineConsumer consumer);
+
+    /**
+     * Returns how many lines after the header the source leaves out, so the lines it streams keep their numbers in
+     * the whole file. A source that resumes part way through a file skips the lines before the resume point.
+     */
+    default long getSkippedLines() {
+        return 0;
+    }
+
+    static LineSource fromLines(List<String> lines) {
+        return consumer -> {
+            for (String line : lines) {
+                byte[] bytes = line == null ? new byte[0] : line.getBytes(StandardCharsets.UTF_8);
+                consumer.accept(bytes, 0, bytes.length);
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package diameter.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedFileReader implements FileReader {
+    private static final int  DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int  PROBE_SIZE         = 8 * 1024;
+    private static final byte LF                 = '\n';
+    private static final byte CR                 = '\r';
+
+    private final FileReaderImpl lineReader = new FileReaderImpl();
+    private final int            chunkSize;
+
+    public MappedFileReader() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public MappedFileReader(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public List<String> getLinesFromFile(String[] args) {
+        return lineReader.getLinesFromFile(args);
+    }
+
+    @Override
+    public ChunkedLineSource getLineSource(String[] args) {
+        Path csvPath = Path.of(args[0]);
+        return new MappedLineSource(csvPath);
+    }
+
+    private final class MappedLineSource implements ChunkedLineSource {
+        private final Path             csvPath;
+        private       List<LineSource> chunks;
+
+        private MappedLineSource(Path csvPath) {
+            this.csvPath = csvPath;
+        }
+
+        @Override
+        public List<LineSource> getChunks() {
+            if (chunks == null) {
+                chunks = splitIntoChunks();
+            }
+
+            return chunks;
+        }
+
+        private List<LineSource> splitIntoChunks() {
+            try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+                long             size   = channel.size();
+                List<LineSource> result = new ArrayList<>();
+
+                if (size == 0) {
+                    return result;
+                }
+
+                long start = 0;
+                long end   = lineEndAfter(channel, 0, size);
+                result.add(new MappedChunk(csvPath, start, end));
+
+                for (start = end; start < size; start = end) {
+                    end = start + chunkSize >= size ? size : lineEndAfter(channel, start + chunkSize, size);
+
+                    if (end - start > Integer.MAX_VALUE) {
+                        throw new IOException("Line too long to map near offset " + start);
+                    }
+
+                    result.add(new MappedChunk(csvPath, start, end));
+                }
+
+                return result;
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Failed to read CSV file: " + csvPath, e);
+            }
+        }
+    }
+
+    private static long lineEndAfter(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == LF) {
+                    return position + i + 1;
+                }
+            }
+
+            position += read;
+        }
+
+        return size;
+    }
+
+    private static final class MappedChunk implements LineSource {
+        private final Path csvPath;
+        private final long start;
+        private final long end;
+
+        private MappedChunk(Path csvPath, long start, long end) {
+            this.csvPath = csvPath;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void forEachLine(LineConsumer consumer) {
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Failed to map CSV file: " + csvPath, e);
+            }
+
+            byte[] line      = new byte[256];
+            int    limit     = mapped.limit();
+            int    lineStart = 0;
+
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && mapped.get(i) != LF) {
+                    continue;
+                }
+
+                int lineEnd = i;
+                if (lineEnd > lineStart && mapped.get(lineEnd - 1) == CR) {
+                    lineEnd--;
+                }
+
+                int length = lineEnd - lineStart;
+                if (i < limit || length > 0) {
+                    if (length > line.length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+
+                    mapped.get(lineStart, line, 0, length);
+                    consumer.accept(line, 0, length);
+                }
+
+                lineStart = i + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package diameter.io;
+
+/**
+ * A file reader that can stream a file from a position reported by one of its earlier line sources, so that a run
+ * can continue from a checkpoint.
+ */
+public interface ResumableFileReader extends FileReader {
+    /**
+     * Streams the header line and then every line after {@code resumeAt}, which must have been reported by
+     * {@link ResumableLineSource#getInputPosition()} for the same file; {@link InputPosition#START} streams it all.
+     */
+    ResumableLineSource getResumableLineSource(String[] args, InputPosition resumeAt);
+}
@@ -0,0 +1,22 @@
+package diameter.io;
+
+/**
+ * A line source over a file that reports how far it has read, so processing can later resume from that point. The
+ * header line is always emitted first, even when streaming resumes further into the file.
+ */
+public interface ResumableLineSource extends LineSource {
+    /**
+     * Returns the byte offset just past the line most recently handed to the consumer.
+     */
+    long getPosition();
+
+    /**
+     * Returns the 1-based number, counted from the start of the file, of the line most recently handed to the
+     * consumer.
+     */
+    long getLineNumber();
+
+    default InputPosition getInputPosition() {
+        return new InputPosition(getPosition(), getLineNumber());
+    }
+}
@@ -0,0 +1,135 @@
+package diameter.logging;
+
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Warns about one category of per-row problem without letting a bad input turn logging into the bottleneck. Each
+ * window lets the first {@code maxPerWindow} messages through; after that only every {@code sampleEvery}-th message
+ * is logged and the rest are counted. The next message that gets through is preceded by a rollup such as
+ * {@code "validation failure: 12,345 similar suppressed"}, and {@link #flushAll()} writes the rollups still pending
+ * at the end of a run.
+ * <p>
+ * Thread-safe and lock-free; a suppressed call costs a clock read and a few atomic updates.
+ */
+public final class RateLimitedLogger {
+    public static final int  DEFAULT_MAX_PER_WINDOW = 100;
+    public static final long DEFAULT_WINDOW_MILLIS  = 1_000;
+    public static final int  DEFAULT_SAMPLE_EVERY   = 10_000;
+
+    private static final List<RateLimitedLogger> INSTANCES = new CopyOnWriteArrayList<>();
+
+    private final Logger       logger;
+    private final String       category;
+    private final int          maxPerWindow;
+    private final long         windowNanos;
+    private final int          sampleEvery;
+    private final LongSupplier nanoClock;
+    private final AtomicLong   windowStart;
+    private final AtomicLong   permits;
+    private final AtomicLong   overBudget = new AtomicLong();
+    private final AtomicLong   suppressed = new AtomicLong();
+
+    RateLimitedLogger(Logger logger, String category, int maxPerWindow, long windowMillis, int sampleEvery,
+                      LongSupplier nanoClock) {
+        if (maxPerWindow < 0 || windowMillis < 1 || sampleEvery < 0) {
+            throw new IllegalArgumentException("Rate limits must not be negative and the window must be positive");
+        }
+
+        this.logger = logger;
+        this.category = category;
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.sampleEvery = sampleEvery;
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+        this.permits = new AtomicLong(maxPerWindow);
+    }
+
+    /**
+     * Creates a limiter with the default budget of 100 messages a second and one in 10,000 sampled beyond it.
+     */
+    public static RateLimitedLogger create(Logger logger, String category) {
+        return create(logger, category, DEFAULT_MAX_PER_WINDOW, DEFAULT_WINDOW_MILLIS, DEFAULT_SAMPLE_EVERY);
+    }
+
+    /**
+     * Creates a limiter; {@code sampleEvery} of 0 suppresses everything over the budget.
+     */
+    public static RateLimitedLogger create(Logger logger, String category, int maxPerWindow, long windowMillis,
+                                           int sampleEvery) {
+        RateLimitedLogger limiter =
+                new RateLimitedLogger(logger, category, maxPerWindow, windowMillis, sampleEvery, System::nanoTime);
+        INSTANCES.add(limiter);
+
+        return limiter;
+    }
+
+    /**
+     * Writes the pending rollup of every limiter created through {@link #create}.
+     */
+    public static void flushAll() {
+        for (RateLimitedLogger limiter : INSTANCES) {
+            limiter.flush();
+        }
+    }
+
+    public void warn(String format, Object argument) {
+        if (acquire()) {
+            logger.warn(format, argument);
+        }
+    }
+
+    public void warn(String format, Object first, Object second) {
+        if (acquire()) {
+            logger.warn(format, first, second);
+        }
+    }
+
+    public void warn(String format, Object first, Object second, Object third) {
+        if (acquire()) {
+            logger.warn(format, first, second, third);
+        }
+    }
+
+    /**
+     * Writes the rollup of the messages suppressed since the last one that got through, if any.
+     */
+    public void flush() {
+        long count = suppressed.getAndSet(0);
+        if (count > 0) {
+            logger.warn("{}: {} similar suppressed", category, String.format(Locale.ROOT, "%,d", count));
+        }
+    }
+
+    private boolean acquire() {
+        if (!logger.isWarnEnabled()) {
+            return false;
+        }
+
+        long now   = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            permits.set(maxPerWindow);
+        }
+
+        if (permits.getAndDecrement() > 0) {
+            flush();
+            return true;
+        }
+
+        if (sampleEvery > 0 && overBudget.incrementAndGet() % sampleEvery == 0) {
+            flush();
+            return true;
+        }
+
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
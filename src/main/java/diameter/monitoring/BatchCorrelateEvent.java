@@ -0,0 +1,35 @@
+package diameter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Correlating the valid messages of one batch into transactions and recording every row's outcome. A checkpoint
+ * written after the batch is not included.
+ */
+@Name("diameter.BatchCorrelate")
+@Label("Batch Correlate")
+@Category({"Diameter", "Pipeline"})
+@Description("Correlating the messages of one batch into transactions")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class BatchCorrelateEvent extends Event {
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Ends the event and commits it if it is enabled and took longer than its threshold.
+     */
+    public void commit(int rowCount) {
+        end();
+        if (shouldCommit()) {
+            rows = rowCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package diameter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creating and validating the messages of one batch, on a pipeline worker or inline.
+ */
+@Name("diameter.BatchPrepare")
+@Label("Batch Prepare")
+@Category({"Diameter", "Pipeline"})
+@Description("Creating and validating the messages of one batch of rows")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class BatchPrepareEvent extends Event {
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Ends the event and commits it if it is enabled and took longer than its threshold.
+     */
+    public void commit(int rowCount) {
+        end();
+        if (shouldCommit()) {
+            rows = rowCount;
+            commit();
+        }
+    }
+}
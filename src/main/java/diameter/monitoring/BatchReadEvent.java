@@ -0,0 +1,35 @@
+package diameter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Reading and parsing one batch of rows on the reading stage, from its first row until it is handed off. Time spent
+ * waiting for the next stage to take the batch is not included.
+ */
+@Name("diameter.BatchRead")
+@Label("Batch Read")
+@Category({"Diameter", "Pipeline"})
+@Description("Reading and parsing one batch of rows, up to its hand-off to message creation")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class BatchReadEvent extends Event {
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Ends the event and commits it if it is enabled and took longer than its threshold.
+     */
+    public void commit(int rowCount) {
+        end();
+        if (shouldCommit()) {
+            rows = rowCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package diameter.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Parsing one chunk of the input on a fork-join worker of the parallel parser.
+ */
+@Name("diameter.ChunkParse")
+@Label("Chunk Parse")
+@Category({"Diameter", "Pipeline"})
+@Description("Reading and parsing one chunk of the input in parallel")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class ChunkParseEvent extends Event {
+    @Label("Lines")
+    long lines;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Rejected Lines")
+    int rejected;
+
+    /**
+     * Ends the event and commits it if it is enabled and took longer than its threshold.
+     */
+    public void commit(long lineCount, int rowCount, int rejectedCount) {
+        end();
+        if (shouldCommit()) {
+            lines = lineCount;
+            rows = rowCount;
+            rejected = rejectedCount;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import diameter.io.DeadLetterWriter;
+import diameter.reporter.StageTimings;
+import diameter.reporter.StageTimings.Stage;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a run in progress, for scraping while it runs. Every counter is a {@link LongAdder}, so the processing
+ * threads update them without locks or contention and a scrape only sums them, never blocking a writer. Rows and
+ * messages are added once per batch; transactions are counted by the transaction manager as they happen. Stage times
+ * are the live {@link StageTimings} of the run. The one gauge, open transactions, is derived from the transaction
+ * counters, so a scrape never reads the transaction manager's own state.
+ */
+public final class LiveMetrics {
+    private static final MessageType[] MESSAGE_TYPES    = MessageType.values();
+    private static final double        NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final LongAdder    rowsParsed            = new LongAdder();
+    private final LongAdder    rowsRejected          = new LongAdder();
+    private final LongAdder[]  messagesByType        = adders(MESSAGE_TYPES.length);
+    private final LongAdder    invalidMessages       = new LongAdder();
+    private final LongAdder    openedTransactions    = new LongAdder();
+    private final LongAdder    completedTransactions = new LongAdder();
+    private final LongAdder    mismatchedAnswers     = new LongAdder();
+    private final LongAdder    timedOutTransactions  = new LongAdder();
+    private final StageTimings stageTimings          = new StageTimings();
+
+    public void addParsedRows(long count) {
+        rowsParsed.add(count);
+    }
+
+    public void addMessages(MessageType messageType, long count) {
+        messagesByType[messageType.ordinal()].add(count);
+    }
+
+    public void addInvalidMessages(long count) {
+        invalidMessages.add(count);
+    }
+
+    public void transactionOpened() {
+        openedTransactions.increment();
+    }
+
+    /**
+     * Counts the transactions a resumed run restored as still open as opened, so the open gauge starts from them.
+     */
+    public void addRestoredTransactions(long count) {
+        openedTransactions.add(count);
+    }
+
+    public void transactionCompleted() {
+        completedTransactions.increment();
+    }
+
+    public void answerMismatched() {
+        mismatchedAnswers.increment();
+    }
+
+    public void transactionTimedOut() {
+        timedOutTransactions.increment();
+    }
+
+    public StageTimings getStageTimings() {
+        return stageTimings;
+    }
+
+    /**
+     * Returns a dead-letter writer that counts every rejected line before passing it on.
+     */
+    public DeadLetterWriter countingRejects(DeadLetterWriter deadLetters) {
+        return new DeadLetterWriter() {
+            @Override
+            public void write(long lineNumber, String reason, byte[] buffer, int offset, int length) {
+                rowsRejected.increment();
+                deadLetters.write(lineNumber, reason, buffer, offset, length);
+            }
+
+            @Override
+            public void close() {
+                deadLetters.close();
+            }
+        };
+    }
+
+    /**
+     * Formats the current values in the Prometheus text exposition format.
+     */
+    public String format() {
+        StringBuilder out      = new StringBuilder(4096);
+        long          parsed   = rowsParsed.sum();
+        long          rejected = rowsRejected.sum();
+
+        counter(out, "diameter_rows_read_total", "Data rows read from the input", parsed + rejected);
+        counter(out, "diameter_rows_parsed_total", "Data rows parsed into messages", parsed);
+        counter(out, "diameter_rows_rejected_total", "Data rows the CSV parser rejected", rejected);
+
+        header(out, "diameter_messages_total", "Parsed messages by message type");
+        for (MessageType messageType : MESSAGE_TYPES) {
+            sample(out, "diameter_messages_total", "type", messageType.name(),
+                   messagesByType[messageType.ordinal()].sum());
+        }
+        counter(out, "diameter_messages_invalid_total", "Messages that failed validation", invalidMessages.sum());
+
+        // A transaction is counted opened before it completes or times out, so reading those two first keeps the
+        // open count from going negative while transactions are handled concurrently.
+        long timedOut  = timedOutTransactions.sum();
+        long completed = completedTransactions.sum();
+        long opened    = openedTransactions.sum();
+        header(out, "diameter_transactions_total", "Transactions by what happened to them");
+        sample(out, "diameter_transactions_total", "event", "opened", opened);
+        sample(out, "diameter_transactions_total", "event", "completed", completed);
+        sample(out, "diameter_transactions_total", "event", "timed_out", timedOut);
+        header(out, "diameter_transactions_open", "Transactions waiting for their answer", "gauge");
+        out.append("diameter_transactions_open ").append(opened - completed - timedOut).append('\n');
+        counter(out, "diameter_answers_mismatched_total", "Answers whose type does not match their request",
+                mismatchedAnswers.sum());
+
+        header(out, "diameter_stage_seconds_total", "Time spent in each processing stage");
+        for (Stage stage : Stage.values()) {
+            sample(out, "diameter_stage_seconds_total", "stage", stage.getComponent(),
+                   String.format(Locale.ROOT, "%.6f", stageTimings.getNanos(stage) / NANOS_PER_SECOND));
+        }
+        header(out, "diameter_stage_rows_total", "Rows handled by each processing stage");
+        for (Stage stage : Stage.values()) {
+            sample(out, "diameter_stage_rows_total", "stage", stage.getComponent(), stageTimings.getRows(stage));
+        }
+
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String help) {
+        header(out, name, help, "counter");
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String labelValue, Object value) {
+        out.append(name).append('{').append(label).append("=\"").append(labelValue).append("\"} ").append(value)
+           .append('\n');
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+}
@@ -0,0 +1,96 @@
+package diameter.monitoring;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves {@link LiveMetrics} at {@code /metrics} in the Prometheus text format from the JDK's built-in HTTP server.
+ * Scrapes are answered on the server's own thread and only read the counters.
+ */
+public final class MetricsServer implements AutoCloseable {
+    public static final String DEFAULT_ADDRESS = "127.0.0.1";
+
+    private static final Logger LOG          = LoggerFactory.getLogger(MetricsServer.class);
+    private static final String PATH         = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int    HTTP_OK      = 200;
+    private static final int    NOT_ALLOWED  = 405;
+    private static final int    NO_BODY      = -1;
+
+    private final HttpServer server;
+
+    private MetricsServer(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts serving on {@code port} of the loopback interface; port {@code 0} picks a free one.
+     */
+    public static MetricsServer start(int port, LiveMetrics metrics) {
+        return start(DEFAULT_ADDRESS, port, metrics);
+    }
+
+    /**
+     * Starts serving on {@code port} of the interface with {@code address}, or of every interface for
+     * {@code 0.0.0.0}; port {@code 0} picks a free one.
+     */
+    public static MetricsServer start(String address, int port, LiveMetrics metrics) {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid metrics port: " + port);
+        }
+
+        InetSocketAddress socketAddress = new InetSocketAddress(address, port);
+        if (socketAddress.isUnresolved()) {
+            throw new IllegalArgumentException("Invalid metrics address: " + address);
+        }
+
+        try {
+            HttpServer server = HttpServer.create(socketAddress, 0);
+            server.createContext(PATH, exchange -> respond(exchange, metrics));
+            server.start();
+            LOG.info("Serving metrics on {}:{} at {}", address, server.getAddress().getPort(), PATH);
+
+            return new MetricsServer(server);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the metrics server on " + address + ":" + port, e);
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, LiveMetrics metrics) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(NOT_ALLOWED, NO_BODY);
+                return;
+            }
+
+            byte[] body = metrics.format().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * An answer that completed its transaction. Disabled by default, as there is one per answer.
+ */
+@Name("diameter.TransactionCompleted")
+@Label("Transaction Completed")
+@Category({"Diameter", "Transactions"})
+@Description("An answer that completed its transaction")
+@Enabled(false)
+@StackTrace(false)
+public final class TransactionCompletedEvent extends Event {
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Request Type")
+    String requestType;
+
+    @Label("Origin-Host")
+    String originHost;
+
+    @Label("Has Latency")
+    @Description("Whether both request and answer carry a timestamp")
+    boolean hasLatency;
+
+    @Label("Answer Latency")
+    @Description("Message time from request to answer")
+    @Timespan(Timespan.MILLISECONDS)
+    long latency;
+
+    public static void emit(String sessionId, MessageType requestType, DiameterMessage answer, long openedAt) {
+        TransactionCompletedEvent event = new TransactionCompletedEvent();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.requestType = requestType.name();
+            event.originHost = answer.getOriginHost();
+            event.hasLatency = answer.hasTimestamp() && openedAt != DiameterMessage.NO_TIMESTAMP;
+            event.latency = event.hasLatency ? answer.getTimestamp() - openedAt : 0;
+            event.commit();
+        }
+    }
+}
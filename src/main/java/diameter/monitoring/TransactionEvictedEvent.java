@@ -0,0 +1,44 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A transaction or parked answer given up on: a request whose answer did not arrive within its timeout, or an early
+ * answer whose request did not arrive within the reorder window. Disabled by default.
+ */
+@Name("diameter.TransactionEvicted")
+@Label("Transaction Evicted")
+@Category({"Diameter", "Transactions"})
+@Description("A request that timed out or an early answer that fell out of the reorder window")
+@Enabled(false)
+@StackTrace(false)
+public final class TransactionEvictedEvent extends Event {
+    public static final String TIMED_OUT     = "Timed out";
+    public static final String ORPHAN_ANSWER = "Orphan answer";
+
+    @Label("Reason")
+    String reason;
+
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Message Type")
+    String messageType;
+
+    public static void emit(String reason, String sessionId, MessageType messageType) {
+        TransactionEvictedEvent event = new TransactionEvictedEvent();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.sessionId = sessionId;
+            event.messageType = messageType.name();
+            event.commit();
+        }
+    }
+}
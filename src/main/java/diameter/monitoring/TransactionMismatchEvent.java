@@ -0,0 +1,41 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An answer whose type does not match the request of its open transaction. Disabled by default, as a bad input can
+ * produce one per answer.
+ */
+@Name("diameter.TransactionMismatch")
+@Label("Transaction Mismatch")
+@Category({"Diameter", "Transactions"})
+@Description("An answer whose type does not match the request of its transaction")
+@Enabled(false)
+@StackTrace(false)
+public final class TransactionMismatchEvent extends Event {
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Expected Answer")
+    String expectedAnswer;
+
+    @Label("Actual Answer")
+    String actualAnswer;
+
+    public static void emit(String sessionId, MessageType expectedAnswer, MessageType actualAnswer) {
+        TransactionMismatchEvent event = new TransactionMismatchEvent();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.expectedAnswer = String.valueOf(expectedAnswer);
+            event.actualAnswer = actualAnswer.name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request that opened a transaction. Disabled by default, as there is one per request.
+ */
+@Name("diameter.TransactionOpened")
+@Label("Transaction Opened")
+@Category({"Diameter", "Transactions"})
+@Description("A request that opened a transaction")
+@Enabled(false)
+@StackTrace(false)
+public final class TransactionOpenedEvent extends Event {
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Request Type")
+    String requestType;
+
+    public static void emit(String sessionId, MessageType requestType) {
+        TransactionOpenedEvent event = new TransactionOpenedEvent();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.requestType = requestType.name();
+            event.commit();
+        }
+    }
+}
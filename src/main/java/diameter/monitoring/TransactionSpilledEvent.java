@@ -0,0 +1,42 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An open transaction moved off the heap because open transactions exceed the heap budget. Disabled by default, as
+ * once over budget every new transaction spills one.
+ */
+@Name("diameter.TransactionSpilled")
+@Label("Transaction Spilled")
+@Category({"Diameter", "Transactions"})
+@Description("An open transaction spilled to disk to stay within the heap budget")
+@Enabled(false)
+@StackTrace(false)
+public final class TransactionSpilledEvent extends Event {
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Request Type")
+    String requestType;
+
+    @Label("Spilled Transactions")
+    @Description("Open transactions on disk after this one was spilled")
+    int spilled;
+
+    public static void emit(String sessionId, MessageType requestType, int spilledCount) {
+        TransactionSpilledEvent event = new TransactionSpilledEvent();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.requestType = requestType.name();
+            event.spilled = spilledCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * A row that failed validation: a line the parser rejected, or a message the validator found invalid. Disabled by
+ * default, as a malformed input can produce one per row.
+ */
+@Name("diameter.ValidationFailure")
+@Label("Validation Failure")
+@Category({"Diameter", "Validation"})
+@Description("A line the CSV parser rejected or a message that failed validation")
+@Enabled(false)
+@StackTrace(false)
+public final class ValidationFailureEvent extends Event {
+    private static final long NO_LINE_NUMBER = 0;
+
+    @Label("Component")
+    String component;
+
+    @Label("Line Number")
+    @Description("Line of the input file, or 0 for a message that failed validation")
+    long lineNumber;
+
+    @Label("Session-Id")
+    String sessionId;
+
+    @Label("Message Type")
+    String messageType;
+
+    @Label("Reason")
+    String reason;
+
+    public static void emitRejectedLine(long lineNumber, String reason) {
+        ValidationFailureEvent event = new ValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.component = "CsvParser";
+            event.lineNumber = lineNumber;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+
+    public static void emitInvalidMessage(String sessionId, MessageType messageType, List<String> errors) {
+        ValidationFailureEvent event = new ValidationFailureEvent();
+        if (event.shouldCommit()) {
+            event.component = "MessageValidator";
+            event.lineNumber = NO_LINE_NUMBER;
+            event.sessionId = sessionId;
+            event.messageType = String.valueOf(messageType);
+            event.reason = String.join("; ", errors);
+            event.commit();
+        }
+    }
+}
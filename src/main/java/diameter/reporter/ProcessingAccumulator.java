@@ -0,0 +1,197 @@
+package diameter.reporter;
+
+import diameter.checkpoint.Checkpointable;
+import diameter.domain.MessageType;
+import diameter.transaction.TransactionStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Running totals of row outcomes, replacing a {@link ProcessingResult} per row. Recording an outcome is O(1) and
+ * allocates nothing once the error sample is full; the sample keeps the first error messages in the order they were
+ * recorded. Accumulators filled by different threads can be merged afterwards. Not thread-safe.
+ */
+public final class ProcessingAccumulator implements Checkpointable {
+    public static final int DEFAULT_ERROR_SAMPLE_SIZE = 1_000;
+
+    private final int          maxErrorSample;
+    private final List<String> errorSample    = new ArrayList<>();
+    private final long[]       messagesByType = new long[MessageType.values().length];
+    private final long[]       statusCounts   = new long[TransactionStatus.values().length];
+    private       long         total          = 0;
+    private       long         valid          = 0;
+    private       long         errors         = 0;
+
+    public ProcessingAccumulator() {
+        this(DEFAULT_ERROR_SAMPLE_SIZE);
+    }
+
+    public ProcessingAccumulator(int maxErrorSample) {
+        if (maxErrorSample < 0) {
+            throw new IllegalArgumentException("Error sample size must not be negative but was: " + maxErrorSample);
+        }
+
+        this.maxErrorSample = maxErrorSample;
+    }
+
+    public void recordSuccess() {
+        total++;
+        valid++;
+    }
+
+    public void recordValidationFailure() {
+        total++;
+    }
+
+    /**
+     * Records an error row. Once {@link #isErrorSampleFull()} the message is only counted, so callers may pass
+     * {@code null} instead of building it.
+     */
+    public void recordError(String message) {
+        total++;
+        errors++;
+        if (errorSample.size() < maxErrorSample) {
+            errorSample.add(message);
+        }
+    }
+
+    /**
+     * Turns a row recorded as a successful {@link TransactionStatus#PARKED} answer into an error row once the answer
+     * turns out to be an orphan; its status counts as {@link TransactionStatus#UNEXPECTED_ANSWER} from then on.
+     */
+    public void recordOrphanAnswer(String message) {
+        valid--;
+        errors++;
+        if (errorSample.size() < maxErrorSample) {
+            errorSample.add(message);
+        }
+
+        statusCounts[TransactionStatus.PARKED.ordinal()]--;
+        statusCounts[TransactionStatus.UNEXPECTED_ANSWER.ordinal()]++;
+    }
+
+    /**
+     * Counts a message that reached the transaction manager by its type and the status it was handled with; the row
+     * outcome is recorded separately.
+     */
+    public void recordTransaction(MessageType messageType, TransactionStatus status) {
+        messagesByType[messageType.ordinal()]++;
+        statusCounts[status.ordinal()]++;
+    }
+
+    public void record(ProcessingResult result) {
+        if (result.isValid()) {
+            recordSuccess();
+        }
+        else if (result.getErrorMessage() == null) {
+            recordValidationFailure();
+        }
+        else {
+            recordError(result.getErrorMessage());
+        }
+    }
+
+    /**
+     * Adds the totals of {@code other}, whose rows are taken to follow the rows recorded here.
+     */
+    public void merge(ProcessingAccumulator other) {
+        total += other.total;
+        valid += other.valid;
+        errors += other.errors;
+        for (int i = 0; i < messagesByType.length; i++) {
+            messagesByType[i] += other.messagesByType[i];
+        }
+
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+
+        for (int i = 0; i < other.errorSample.size() && errorSample.size() < maxErrorSample; i++) {
+            errorSample.add(other.errorSample.get(i));
+        }
+    }
+
+    public boolean isErrorSampleFull() {
+        return errorSample.size() >= maxErrorSample;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getValid() {
+        return valid;
+    }
+
+    public long getInvalid() {
+        return total - valid;
+    }
+
+    public long getErrorCount() {
+        return errors;
+    }
+
+    public long getMessageCount(MessageType messageType) {
+        return messagesByType[messageType.ordinal()];
+    }
+
+    public long getStatusCount(TransactionStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public List<String> getErrorSample() {
+        return Collections.unmodifiableList(errorSample);
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        out.writeLong(total);
+        out.writeLong(valid);
+        out.writeLong(errors);
+        writeCounts(out, messagesByType);
+        writeCounts(out, statusCounts);
+        out.writeInt(errorSample.size());
+        for (String message : errorSample) {
+            out.writeUTF(message);
+        }
+    }
+
+    @Override
+    public void restoreCheckpoint(DataInput in) throws IOException {
+        total = in.readLong();
+        valid = in.readLong();
+        errors = in.readLong();
+        readCounts(in, messagesByType);
+        readCounts(in, statusCounts);
+        errorSample.clear();
+        for (int count = in.readInt(); count > 0; count--) {
+            String message = in.readUTF();
+            if (errorSample.size() < maxErrorSample) {
+                errorSample.add(message);
+            }
+        }
+    }
+
+    private static void writeCounts(DataOutput out, long[] counts) throws IOException {
+        out.writeInt(counts.length);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    private static void readCounts(DataInput in, long[] counts) throws IOException {
+        int length = in.readInt();
+        if (length != counts.length) {
+            throw new IOException("Checkpoint has " + length + " counters where " + counts.length + " are expected");
+        }
+
+        for (int i = 0; i < length; i++) {
+            counts[i] = in.readLong();
+        }
+    }
+}
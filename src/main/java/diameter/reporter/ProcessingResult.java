@@ -1,6 +1,9 @@
 package diameter.reporter;
 
 public final class ProcessingResult {
+    private static final ProcessingResult SUCCESS            = new ProcessingResult(true, true, null);
+    private static final ProcessingResult VALIDATION_FAILURE = new ProcessingResult(false, false, null);
+
     private final boolean success;
     private final boolean valid;
     private final String  errorMessage;
@@ -12,11 +15,11 @@ public final class ProcessingResult {
     }
 
     public static ProcessingResult success() {
-        return new ProcessingResult(true, true, null);
+        return SUCCESS;
     }
 
     public static ProcessingResult validationFailure() {
-        return new ProcessingResult(false, false, null);
+        return VALIDATION_FAILURE;
     }
 
     public static ProcessingResult error(String message) {
@@ -0,0 +1,27 @@
+package diameter.reporter;
+
+public enum ReportFormat {
+    JSON_LINES("jsonl"),
+    CSV("csv");
+
+    private final String optionValue;
+
+    ReportFormat(String optionValue) {
+        this.optionValue = optionValue;
+    }
+
+    public static ReportFormat parse(String value) {
+        for (ReportFormat format : values()) {
+            if (format.optionValue.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown report format: " + value);
+    }
+
+    @Override
+    public String toString() {
+        return optionValue;
+    }
+}
@@ -0,0 +1,125 @@
+package diameter.reporter;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time spent in each processing stage and the rows it handled, next to the wall-clock time of the run and the GC
+ * pauses within it. Stages add their time once per batch, so timing costs a few clock reads per batch rather than
+ * per row. They time themselves with {@link #pauseFreeNanos()}, so a GC pause is not charged to whichever stage it
+ * happened to stop. Thread-safe, as the message stages record from every pipeline worker.
+ * <p>
+ * With pipeline workers the stages overlap and worker time adds up across threads, so shares of wall-clock time can
+ * sum to more than 100%; the stage closest to 100% is the bottleneck.
+ */
+public final class StageTimings {
+    public enum Stage {
+        READ("FileReader"),
+        PARSE("CsvParser"),
+        CREATE("MessageFactory"),
+        VALIDATE("MessageValidator"),
+        CORRELATE("TransactionManager");
+
+        private final String component;
+
+        Stage(String component) {
+            this.component = component;
+        }
+
+        public String getComponent() {
+            return component;
+        }
+    }
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NANOS_PER_MILLI  = 1_000_000L;
+
+    // Collectors that stop the application; concurrent cycles (G1 "Concurrent GC", ZGC and Shenandoah "Cycles") run
+    // alongside it and would be counted twice.
+    private static final List<GarbageCollectorMXBean> PAUSING_COLLECTORS =
+            ManagementFactory.getGarbageCollectorMXBeans().stream()
+                             .filter(collector -> !collector.getName().contains("Concurrent")
+                                                  && !collector.getName().contains("Cycles"))
+                             .toList();
+
+    private final AtomicLongArray nanos          = new AtomicLongArray(Stage.values().length);
+    private final AtomicLongArray rows           = new AtomicLongArray(Stage.values().length);
+    private volatile long         wallClockNanos = 0;
+    private volatile long         gcPauseNanos   = 0;
+
+    /**
+     * Returns the time GC has paused this JVM so far, with the millisecond resolution the collectors report.
+     */
+    public static long gcPauseNanos() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : PAUSING_COLLECTORS) {
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+
+        return millis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * Returns a nanosecond clock that stands still during GC pauses.
+     */
+    public static long pauseFreeNanos() {
+        return System.nanoTime() - gcPauseNanos();
+    }
+
+    /**
+     * Adds a batch's time and rows to the stage. A negative time counts as zero: {@link #pauseFreeNanos()} subtracts
+     * pauses at millisecond resolution, so a short batch that a pause fell into can come out below zero, and the
+     * totals must never go down.
+     */
+    public void record(Stage stage, long elapsedNanos, long rowCount) {
+        nanos.addAndGet(stage.ordinal(), Math.max(0, elapsedNanos));
+        rows.addAndGet(stage.ordinal(), rowCount);
+    }
+
+    public void setWallClockNanos(long wallClockNanos) {
+        this.wallClockNanos = wallClockNanos;
+    }
+
+    public long getWallClockNanos() {
+        return wallClockNanos;
+    }
+
+    public void setGcPauseNanos(long gcPauseNanos) {
+        this.gcPauseNanos = gcPauseNanos;
+    }
+
+    public long getGcPauseNanos() {
+        return gcPauseNanos;
+    }
+
+    public long getNanos(Stage stage) {
+        return nanos.get(stage.ordinal());
+    }
+
+    public long getRows(Stage stage) {
+        return rows.get(stage.ordinal());
+    }
+
+    public long getRowsPerSecond(Stage stage) {
+        long elapsed = getNanos(stage);
+
+        return elapsed == 0 ? 0 : (long) ((double) getRows(stage) * NANOS_PER_SECOND / elapsed);
+    }
+
+    /**
+     * Returns the stage's time as a percentage of the wall-clock time.
+     */
+    public double getShare(Stage stage) {
+        return share(getNanos(stage));
+    }
+
+    public double getGcPauseShare() {
+        return share(gcPauseNanos);
+    }
+
+    private double share(long elapsedNanos) {
+        return wallClockNanos == 0 ? 0 : 100.0 * elapsedNanos / wallClockNanos;
+    }
+}
@@ -0,0 +1,387 @@
+package diameter.reporter;
+
+import diameter.checkpoint.Checkpointable;
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterAnswer;
+import diameter.domain.message.DiameterMessage;
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.transaction.AnswerLatencies;
+import diameter.transaction.LatencyHistogram;
+import diameter.transaction.TransactionResult;
+import diameter.transaction.TransactionStatus;
+
+import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Writes the summary as machine-readable records, as JSON Lines or CSV, after handing it to a delegate reporter for
+ * the log. Records are {@code summary}, one {@code message_type} per type, one {@code transaction_status} per status,
+ * and one {@code latency} per request type and peer, followed by one {@code stage_timings} record when stage timing is
+ * enabled. With {@code includeTransactions}, every handled message is also streamed as a {@code transaction} record
+ * (session id, type, peer, result code and status) while processing runs.
+ * <p>
+ * CSV rows share the columns {@code record,session_id,message_type,peer,result_code,status,name,value}; a record with
+ * several counters becomes one row per counter. Output goes through a 64K-char buffer and each record is built in a
+ * reused {@link StringBuilder}. Not thread-safe.
+ * <p>
+ * As a checkpoint section, a reporter writing to a file records the file's length; one opened to resume truncates
+ * the file back to the length of the restored checkpoint and appends from there.
+ */
+public final class StreamingReporter implements SummaryReporter, TransactionListener, Checkpointable, AutoCloseable {
+    private static final int    BUFFER_SIZE   = 1 << 16;
+    private static final String CSV_HEADER    = "record,session_id,message_type,peer,result_code,status,name,value";
+    private static final int    NO_COLUMN     = -1;
+    private static final int    TYPE_COLUMN   = 2;
+    private static final int    PEER_COLUMN   = 3;
+    private static final int    STATUS_COLUMN = 5;
+    private static final int    NAME_COLUMN   = 6;
+
+    private static final String[] SUMMARY_NAMES = {"total_messages", "valid_messages", "invalid_messages",
+            "completed_transactions", "incomplete_transactions", "timed_out_transactions", "orphan_answers",
+            "processing_errors"};
+    private static final String[] LATENCY_NAMES = {"count", "p50", "p99", "p99.9", "max"};
+    private static final String[] STAGE_NAMES   = stageNames();
+
+    private final SummaryReporter delegate;
+    private final Writer          out;
+    private final FileChannel     channel;
+    private final boolean         closeOutput;
+    private final ReportFormat    format;
+    private final boolean         includeTransactions;
+    private final StringBuilder   record       = new StringBuilder(256);
+    private       char[]          chars        = new char[256];
+    private       boolean         resuming;
+    private       long            resumeLength = -1;
+
+    public StreamingReporter(SummaryReporter delegate, OutputStream out, boolean closeOutput, ReportFormat format,
+                             boolean includeTransactions) {
+        this(delegate, out, null, closeOutput, format, includeTransactions, false);
+    }
+
+    private StreamingReporter(SummaryReporter delegate, OutputStream out, FileChannel channel, boolean closeOutput,
+                              ReportFormat format, boolean includeTransactions, boolean resume) {
+        this.delegate = delegate;
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.channel = channel;
+        this.closeOutput = closeOutput;
+        this.format = format;
+        this.includeTransactions = includeTransactions;
+        this.resuming = resume;
+
+        if (format == ReportFormat.CSV && !resume) {
+            record.append(CSV_HEADER).append('\n');
+            flushRecord();
+        }
+    }
+
+    /**
+     * Creates a reporter writing to {@code target}, or to standard output when it is {@code "-"}.
+     */
+    public static StreamingReporter open(SummaryReporter delegate, String target, ReportFormat format,
+                                         boolean includeTransactions) {
+        return open(delegate, target, format, includeTransactions, false);
+    }
+
+    /**
+     * With {@code resume}, keeps an existing report file, and nothing may be written until a checkpoint holding the
+     * reporter is restored. Standard output cannot be taken back, so a resumed report there starts afresh.
+     */
+    public static StreamingReporter open(SummaryReporter delegate, String target, ReportFormat format,
+                                         boolean includeTransactions, boolean resume) {
+        if ("-".equals(target)) {
+            return new StreamingReporter(delegate, System.out, false, format, includeTransactions);
+        }
+
+        try {
+            FileChannel channel = FileChannel.open(Path.of(target), StandardOpenOption.CREATE,
+                                                   StandardOpenOption.WRITE);
+            if (!resume) {
+                channel.truncate(0);
+            }
+
+            return new StreamingReporter(delegate, Channels.newOutputStream(channel), channel, true, format,
+                                         includeTransactions, resume);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to create report file: " + target, e);
+        }
+    }
+
+    @Override
+    public void onTransaction(DiameterMessage message, TransactionStatus status) {
+        if (!includeTransactions) {
+            return;
+        }
+
+        String resultCode = message instanceof DiameterAnswer answer ? answer.getResultCode() : null;
+        if (format == ReportFormat.CSV) {
+            record.append("transaction,");
+            appendCsv(message.getSessionId()).append(',').append(message.getMessageType()).append(',');
+            appendCsv(message.getOriginHost()).append(',');
+            appendCsv(resultCode).append(',').append(status).append(",,\n");
+        }
+        else {
+            record.append("{\"record\":\"transaction\",\"session_id\":");
+            appendJson(message.getSessionId()).append(",\"message_type\":\"").append(message.getMessageType());
+            record.append("\",\"peer\":");
+            appendJson(message.getOriginHost()).append(",\"result_code\":");
+            appendJson(resultCode).append(",\"status\":\"").append(status).append("\"}\n");
+        }
+
+        flushRecord();
+    }
+
+    @Override
+    public void report(ProcessingAccumulator accumulator, TransactionResult transactionResult) {
+        delegate.report(accumulator, transactionResult);
+
+        writeCounters("summary", NO_COLUMN, null, SUMMARY_NAMES, accumulator.getTotal(), accumulator.getValid(),
+                      accumulator.getInvalid(), transactionResult.getNumberOfCompleteTransactions(),
+                      transactionResult.getNumberOfIncompleteTransactions(),
+                      transactionResult.getNumberOfTimedOutTransactions(),
+                      transactionResult.getNumberOfOrphanAnswers(), accumulator.getErrorCount());
+
+        String[] messages = {"messages"};
+        for (MessageType type : MessageType.values()) {
+            writeCounters("message_type", TYPE_COLUMN, type.name(), messages, accumulator.getMessageCount(type));
+        }
+
+        String[] count = {"count"};
+        for (TransactionStatus status : TransactionStatus.values()) {
+            writeCounters("transaction_status", STATUS_COLUMN, status.name(), count,
+                          accumulator.getStatusCount(status));
+        }
+
+        AnswerLatencies latencies = transactionResult.getAnswerLatencies();
+        latencies.getByRequestType().forEach((type, histogram) -> writeLatency(TYPE_COLUMN, type.name(), histogram));
+        latencies.getByPeer().forEach((peer, histogram) -> writeLatency(PEER_COLUMN, peer, histogram));
+
+        try {
+            out.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to write report", e);
+        }
+    }
+
+    @Override
+    public void reportStageTimings(StageTimings stageTimings) {
+        delegate.reportStageTimings(stageTimings);
+
+        StageTimings.Stage[] stages   = StageTimings.Stage.values();
+        long[]               counters = new long[STAGE_NAMES.length];
+        counters[0] = stageTimings.getWallClockNanos();
+        counters[1] = stageTimings.getGcPauseNanos();
+        for (int i = 0; i < stages.length; i++) {
+            counters[2 + 2 * i] = stageTimings.getNanos(stages[i]);
+            counters[3 + 2 * i] = stageTimings.getRows(stages[i]);
+        }
+
+        writeCounters("stage_timings", NO_COLUMN, null, STAGE_NAMES, counters);
+        try {
+            out.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to write report", e);
+        }
+    }
+
+    @Override
+    public void writeCheckpoint(DataOutput checkpoint) throws IOException {
+        out.flush();
+        checkpoint.writeLong(channel == null ? -1 : channel.position());
+    }
+
+    @Override
+    public void restoreCheckpoint(DataInput checkpoint) throws IOException {
+        resumeLength = checkpoint.readLong();
+    }
+
+    @Override
+    public void checkpointRestored() throws IOException {
+        if (channel == null) {
+            return;
+        }
+
+        if (!resuming) {
+            throw new IllegalStateException("Report file was not opened to resume");
+        }
+
+        if (resumeLength < 0) {
+            throw new CheckpointException("Checkpoint was written without a report file");
+        }
+
+        if (channel.size() < resumeLength) {
+            throw new CheckpointException("Report file is shorter than at the checkpoint");
+        }
+
+        channel.truncate(resumeLength);
+        channel.position(resumeLength);
+        resuming = false;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (closeOutput) {
+                out.close();
+            }
+            else {
+                out.flush();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to close report", e);
+        }
+    }
+
+    private void writeLatency(int column, String value, LatencyHistogram histogram) {
+        writeCounters("latency", column, value, LATENCY_NAMES, histogram.getCount(),
+                      histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                      histogram.getValueAtPercentile(99.9), histogram.getMax());
+    }
+
+    // Writes one record of counters, keyed by the value of a CSV column: one JSON line, or a CSV row per counter.
+    private void writeCounters(String name, int column, String value, String[] names, long... counters) {
+        if (format == ReportFormat.CSV) {
+            for (int i = 0; i < names.length; i++) {
+                record.append(name);
+                for (int c = 1; c < NAME_COLUMN; c++) {
+                    record.append(',');
+                    if (c == column) {
+                        appendCsv(value);
+                    }
+                }
+
+                record.append(',').append(names[i]).append(',').append(counters[i]).append('\n');
+            }
+        }
+        else {
+            record.append("{\"record\":\"").append(name).append('"');
+            if (column != NO_COLUMN) {
+                record.append(",\"").append(columnName(column)).append("\":");
+                appendJson(value);
+            }
+
+            for (int i = 0; i < names.length; i++) {
+                record.append(",\"").append(names[i]).append("\":").append(counters[i]);
+            }
+
+            record.append("}\n");
+        }
+
+        flushRecord();
+    }
+
+    private static String[] stageNames() {
+        StageTimings.Stage[] stages = StageTimings.Stage.values();
+        String[]             names  = new String[2 + 2 * stages.length];
+        names[0] = "wall_clock_ns";
+        names[1] = "gc_pause_ns";
+        for (int i = 0; i < stages.length; i++) {
+            String stage = stages[i].name().toLowerCase(Locale.ROOT);
+            names[2 + 2 * i] = stage + "_ns";
+            names[3 + 2 * i] = stage + "_rows";
+        }
+
+        return names;
+    }
+
+    private static String columnName(int column) {
+        return switch (column) {
+            case TYPE_COLUMN -> "message_type";
+            case PEER_COLUMN -> "peer";
+            case STATUS_COLUMN -> "status";
+            default -> throw new IllegalArgumentException("Unknown column: " + column);
+        };
+    }
+
+    private StringBuilder appendCsv(String value) {
+        if (value == null) {
+            return record;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            return record.append(value);
+        }
+
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            record.append(c);
+            if (c == '"') {
+                record.append('"');
+            }
+        }
+
+        return record.append('"');
+    }
+
+    private StringBuilder appendJson(String value) {
+        if (value == null) {
+            return record.append("null");
+        }
+
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> record.append("\\\"");
+                case '\\' -> record.append("\\\\");
+                case '\n' -> record.append("\\n");
+                case '\r' -> record.append("\\r");
+                case '\t' -> record.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        record.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        record.append(c);
+                    }
+                }
+            }
+        }
+
+        return record.append('"');
+    }
+
+    // Copies through a reused array, as Writer.append(CharSequence) would allocate a String per record.
+    private void flushRecord() {
+        if (resuming) {
+            throw new IllegalStateException("Report file is waiting for its checkpoint to be restored");
+        }
+
+        int length = record.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+
+        record.getChars(0, length, chars, 0);
+        try {
+            out.write(chars, 0, length);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to write report", e);
+        }
+
+        record.setLength(0);
+    }
+}
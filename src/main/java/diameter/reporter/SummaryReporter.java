@@ -5,5 +5,21 @@ import diameter.transaction.TransactionResult;
 import java.util.List;
 
 public interface SummaryReporter {
-    void report(List<ProcessingResult> results, TransactionResult transactionResult);
+    void report(ProcessingAccumulator accumulator, TransactionResult transactionResult);
+
+    /**
+     * Reports per-row results by accumulating them first; every error message is kept.
+     */
+    default void report(List<ProcessingResult> results, TransactionResult transactionResult) {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator(results.size());
+        results.forEach(accumulator::record);
+
+        report(accumulator, transactionResult);
+    }
+
+    /**
+     * Reports where the run spent its time; called after {@link #report} when stage timing is enabled.
+     */
+    default void reportStageTimings(StageTimings stageTimings) {
+    }
 }
@@ -1,28 +1,51 @@
 package diameter.reporter;
 
+import diameter.transaction.AnswerLatencies;
+import diameter.transaction.LatencyHistogram;
 import diameter.transaction.TransactionResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
 
 public class SummaryReporterImpl implements SummaryReporter {
-    private static final Logger LOG = LoggerFactory.getLogger(SummaryReporterImpl.class);
+    private static final Logger LOG             = LoggerFactory.getLogger(SummaryReporterImpl.class);
+    private static final long   NANOS_PER_MILLI = 1_000_000;
 
     @Override
-    public void report(List<ProcessingResult> results, TransactionResult transactionResult) {
-        long total      = results.size();
-        long valid      = results.stream().filter(ProcessingResult::isValid).count();
+    public void report(ProcessingAccumulator accumulator, TransactionResult transactionResult) {
+        long total      = accumulator.getTotal();
+        long valid      = accumulator.getValid();
         long invalid    = total - valid;
         int  completed  = transactionResult.getNumberOfCompleteTransactions();
         int  incomplete = transactionResult.getNumberOfIncompleteTransactions();
+        int  timedOut   = transactionResult.getNumberOfTimedOutTransactions();
+        int  orphans    = transactionResult.getNumberOfOrphanAnswers();
 
-        logSummary(total, valid, invalid, completed, incomplete);
-        logErrors(results);
+        logSummary(total, valid, invalid, completed, incomplete, timedOut, orphans);
+        logLatencies(transactionResult.getAnswerLatencies());
+        logErrors(accumulator);
     }
 
-    private static void logSummary(long total, long valid, long invalid, int completed, int incomplete) {
+    @Override
+    public void reportStageTimings(StageTimings stageTimings) {
+        StringBuilder output = new StringBuilder(String.format("Stage timings (wall clock %dms):",
+                                                               stageTimings.getWallClockNanos() / NANOS_PER_MILLI));
+        for (StageTimings.Stage stage : StageTimings.Stage.values()) {
+            output.append(String.format(Locale.ROOT, "\n\t- %s: total=%dms, rows=%d, rows/s=%d, share=%.1f%%",
+                                        stage.getComponent(), stageTimings.getNanos(stage) / NANOS_PER_MILLI,
+                                        stageTimings.getRows(stage), stageTimings.getRowsPerSecond(stage),
+                                        stageTimings.getShare(stage)));
+        }
+
+        output.append(String.format(Locale.ROOT, "\n\t- GC pauses: total=%dms, share=%.1f%%",
+                                    stageTimings.getGcPauseNanos() / NANOS_PER_MILLI, stageTimings.getGcPauseShare()));
+        LOG.info(output.toString());
+    }
+
+    private static void logSummary(long total, long valid, long invalid, int completed, int incomplete,
+                                   int timedOut, int orphans) {
         String output = String.format(
             "Summary Report:\n" +
             "\t- Total messages: %d\n" +
@@ -32,17 +55,45 @@ public class SummaryReporterImpl implements SummaryReporter {
             "\t- Incomplete transactions: %d", total, valid, invalid, completed, incomplete
         );
 
+        // Timeouts and the reorder window are opt-in; without them the report keeps its original shape.
+        if (timedOut > 0) {
+            output += String.format("\n\t- Timed-out transactions: %d", timedOut);
+        }
+
+        if (orphans > 0) {
+            output += String.format("\n\t- Orphan answers: %d", orphans);
+        }
+
         LOG.info(output);
     }
 
-    private static void logErrors(List<ProcessingResult> results) {
-        List<String> errors = results.stream()
-                                     .map(ProcessingResult::getErrorMessage)
-                                     .filter(Objects::nonNull)
-                                     .toList();
+    private static void logLatencies(AnswerLatencies latencies) {
+        if (latencies.isEmpty()) {
+            return;
+        }
+
+        StringBuilder output = new StringBuilder("Answer latency (ms):");
+        latencies.getByRequestType().forEach((type, histogram) -> appendLatency(output, type.name(), histogram));
+        latencies.getByPeer().forEach((peer, histogram) -> appendLatency(output, "peer " + peer, histogram));
+
+        LOG.info(output.toString());
+    }
+
+    private static void appendLatency(StringBuilder output, String label, LatencyHistogram histogram) {
+        output.append(String.format("\n\t- %s: count=%d, p50=%d, p99=%d, p99.9=%d, max=%d", label, histogram.getCount(),
+                                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                                    histogram.getValueAtPercentile(99.9), histogram.getMax()));
+    }
+
+    private static void logErrors(ProcessingAccumulator accumulator) {
+        List<String> errors = accumulator.getErrorSample();
+        long         count  = accumulator.getErrorCount();
 
-        if (!errors.isEmpty()) {
-            StringBuilder errorLog = new StringBuilder("Processing errors:\n");
+        if (count > 0) {
+            StringBuilder errorLog = new StringBuilder(errors.size() == count
+                                                       ? "Processing errors:\n"
+                                                       : "Processing errors (first " + errors.size() + " of " + count
+                                                               + "):\n");
             errors.forEach(error -> errorLog.append("- ").append(error).append("\n"));
             LOG.warn(errorLog.toString());
         }
@@ -0,0 +1,13 @@
+package diameter.reporter;
+
+import diameter.domain.message.DiameterMessage;
+import diameter.transaction.TransactionStatus;
+
+/**
+ * Receives every message the transaction manager handled together with its outcome, on the correlating thread and in
+ * input order. A {@link SummaryReporter} that also implements this interface is registered automatically.
+ */
+@FunctionalInterface
+public interface TransactionListener {
+    void onTransaction(DiameterMessage message, TransactionStatus status);
+}
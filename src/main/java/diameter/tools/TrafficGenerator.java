@@ -0,0 +1,379 @@
+package diameter.tools;
+
+import diameter.app.AppOptions;
+import diameter.csv.CsvColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic S6a capture in the {@link CsvColumn} format for load and soak tests. Every new session is an AIR
+ * or ULR; most get their answer a random number of rows later (up to the reorder distance), so transactions
+ * interleave. Some answers can be made to arrive before their request, and some rows can be made invalid or reuse an
+ * earlier Session-Id. Hosts and realms cycle through the configured cardinalities.
+ * <p>
+ * Output is built byte by byte in a 1MB buffer without per-row objects, and only the answers still due are kept in
+ * memory, so file size is bounded by the disk alone. The same seed and options always produce the same file. Answers
+ * still pending when {@code --rows} is reached are dropped, so the row count is exact.
+ */
+public final class TrafficGenerator {
+    private static final Logger LOG            = LoggerFactory.getLogger(TrafficGenerator.class);
+    private static final int    BUFFER_SIZE    = 1 << 20;
+    private static final int    MAX_ROW_LENGTH = 512;
+    private static final long   ANSWER_FLAG    = 1L << 62;
+    private static final long   ULR_FLAG       = 1L << 61;
+    private static final long   SESSION_MASK   = ULR_FLAG - 1;
+    private static final int    INVALID_KINDS  = 4;
+    private static final int    MSIN_DIGITS    = 10;
+
+    private static final byte[] AIR         = ascii("AIR");
+    private static final byte[] AIA         = ascii("AIA");
+    private static final byte[] ULR         = ascii("ULR");
+    private static final byte[] ULA         = ascii("ULA");
+    private static final byte[] REQUEST     = ascii(",true,");
+    private static final byte[] ANSWER      = ascii(",false,");
+    private static final byte[] MME         = ascii("mme");
+    private static final byte[] HSS         = ascii("hss");
+    private static final byte[] REALM       = ascii("realm");
+    private static final byte[] DOMAIN      = ascii(".example.com");
+    private static final byte[] MCC_MNC     = ascii("00101");
+    private static final byte[] SUCCESS     = ascii("2001");
+    private static final byte[] BAD_TYPE    = ascii("XYZ");
+    private static final byte[] BAD_REQUEST = ascii(",maybe,");
+    private static final byte[] TOO_FEW     = ascii("AIR,true");
+
+    private final TrafficProfile   profile;
+    private final SplittableRandom random;
+    private final DeferredRows     deferred    = new DeferredRows();
+    private final byte[]           buffer      = new byte[BUFFER_SIZE];
+    private       int              position    = 0;
+    private       long             written     = 0;
+    private       long             nextSession = 0;
+    private       long             row         = 0;
+
+    TrafficGenerator(TrafficProfile profile) {
+        this.profile = profile;
+        this.random = new SplittableRandom(profile.seed);
+    }
+
+    /**
+     * Options are passed as {@code --name=value}: {@code output} (a file, or {@code -} for standard output),
+     * {@code rows}, {@code ulr-ratio}, {@code answer-ratio}, {@code reorder-distance}, {@code early-answer-ratio},
+     * {@code invalid-ratio}, {@code duplicate-ratio}, {@code hosts}, {@code realms}, {@code seed} and
+     * {@code timestamps}.
+     */
+    public static void main(String[] args) {
+        try {
+            AppOptions       options   = AppOptions.parse(args);
+            TrafficGenerator generator = new TrafficGenerator(TrafficProfile.from(options));
+            String           output    = options.getString("output", "-");
+
+            if ("-".equals(output)) {
+                generator.generate(System.out);
+                return;
+            }
+
+            long startTime = System.nanoTime();
+            try (OutputStream out = Files.newOutputStream(Path.of(output))) {
+                generator.generate(out);
+            }
+
+            double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+            LOG.info("Wrote {} rows ({} MB) to {} in {}s ({} MB/s)", generator.profile.rows,
+                     generator.written >> 20, output, String.format(Locale.ROOT, "%.1f", seconds),
+                     String.format(Locale.ROOT, "%.0f", (generator.written >> 20) / seconds));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            LOG.error("Traffic generation failed: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the header and {@code rows} data rows to {@code out} and returns the number of bytes written.
+     */
+    long generate(OutputStream out) throws IOException {
+        writeHeader();
+        for (row = 0; row < profile.rows; row++) {
+            if (deferred.isDue(row)) {
+                writeDeferred(deferred.pop());
+            }
+            else {
+                writeNewRow();
+            }
+
+            if (position > BUFFER_SIZE - MAX_ROW_LENGTH) {
+                drain(out);
+            }
+        }
+
+        drain(out);
+        out.flush();
+
+        return written;
+    }
+
+    private void writeHeader() {
+        CsvColumn[] columns = profile.timestamps ? CsvColumn.values()
+                                                 : Arrays.stream(CsvColumn.values())
+                                                         .filter(CsvColumn::isRequired)
+                                                         .toArray(CsvColumn[]::new);
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                put((byte) ',');
+            }
+
+            put(ascii(columns[i].name().toLowerCase(Locale.ROOT)));
+        }
+
+        put((byte) '\n');
+    }
+
+    private void writeNewRow() {
+        double draw = random.nextDouble();
+        if (draw < profile.invalidRatio) {
+            writeInvalid(nextSession++);
+            return;
+        }
+
+        if (draw < profile.invalidRatio + profile.duplicateRatio && nextSession > 0) {
+            writeRequest(random.nextLong(nextSession), false);
+            return;
+        }
+
+        long    session = nextSession++;
+        boolean ulr     = random.nextDouble() < profile.ulrRatio;
+        if (random.nextDouble() >= profile.answerRatio) {
+            writeRequest(session, ulr);
+            return;
+        }
+
+        long due     = row + 1 + (profile.reorderDistance > 1 ? random.nextInt(profile.reorderDistance) : 0);
+        long payload = session | (ulr ? ULR_FLAG : 0);
+        if (random.nextDouble() < profile.earlyAnswerRatio) {
+            writeAnswer(session, ulr);
+            deferred.push(due, payload);
+        }
+        else {
+            writeRequest(session, ulr);
+            deferred.push(due, payload | ANSWER_FLAG);
+        }
+    }
+
+    private void writeDeferred(long payload) {
+        long    session = payload & SESSION_MASK;
+        boolean ulr     = (payload & ULR_FLAG) != 0;
+        if ((payload & ANSWER_FLAG) != 0) {
+            writeAnswer(session, ulr);
+        }
+        else {
+            writeRequest(session, ulr);
+        }
+    }
+
+    private void writeRequest(long session, boolean ulr) {
+        put(ulr ? ULR : AIR);
+        put(REQUEST);
+        putSessionId(session);
+        put((byte) ',');
+        putHost(MME, session);
+        put((byte) ',');
+        putRealm(session);
+        put((byte) ',');
+        putImsi(session);
+        put((byte) ',');
+        if (ulr) {
+            put(MCC_MNC);
+        }
+
+        put((byte) ',');
+        endRow();
+    }
+
+    private void writeAnswer(long session, boolean ulr) {
+        put(ulr ? ULA : AIA);
+        put(ANSWER);
+        putSessionId(session);
+        put((byte) ',');
+        putHost(HSS, session);
+        put((byte) ',');
+        putRealm(session);
+        put((byte) ',');
+        put((byte) ',');
+        put((byte) ',');
+        put(SUCCESS);
+        endRow();
+    }
+
+    // Rejected by the parser (too few columns, unknown type, bad is_request) or by validation (no Origin-Host).
+    private void writeInvalid(long session) {
+        int kind = random.nextInt(INVALID_KINDS);
+        if (kind == 0) {
+            put(TOO_FEW);
+            put((byte) '\n');
+            return;
+        }
+
+        put(kind == 1 ? BAD_TYPE : AIR);
+        put(kind == 2 ? BAD_REQUEST : REQUEST);
+        putSessionId(session);
+        put((byte) ',');
+        if (kind != 3) {
+            putHost(MME, session);
+        }
+
+        put((byte) ',');
+        putRealm(session);
+        put((byte) ',');
+        putImsi(session);
+        put((byte) ',');
+        put((byte) ',');
+        endRow();
+    }
+
+    private void endRow() {
+        if (profile.timestamps) {
+            put((byte) ',');
+            putNumber(TrafficProfile.DEFAULT_START_MILLIS + row);
+        }
+
+        put((byte) '\n');
+    }
+
+    private void putSessionId(long session) {
+        putHost(MME, session);
+        put((byte) ';');
+        putNumber(session);
+    }
+
+    private void putHost(byte[] prefix, long session) {
+        put(prefix);
+        putNumber(session % profile.hosts);
+        put((byte) '.');
+        putRealm(session);
+    }
+
+    private void putRealm(long session) {
+        put(REALM);
+        putNumber(session / profile.hosts % profile.realms);
+        put(DOMAIN);
+    }
+
+    private void putImsi(long session) {
+        put(MCC_MNC);
+        long msin = session;
+        for (int i = MSIN_DIGITS - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + msin % 10);
+            msin /= 10;
+        }
+
+        position += MSIN_DIGITS;
+    }
+
+    private void putNumber(long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+
+        long rest = value;
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+
+        position += digits;
+    }
+
+    private void put(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void put(byte value) {
+        buffer[position++] = value;
+    }
+
+    private void drain(OutputStream out) throws IOException {
+        out.write(buffer, 0, position);
+        written += position;
+        position = 0;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Rows scheduled for later, as a binary min-heap of due row numbers over parallel primitive arrays.
+     */
+    private static final class DeferredRows {
+        private long[] due      = new long[1024];
+        private long[] payloads = new long[1024];
+        private int    size     = 0;
+
+        private boolean isDue(long row) {
+            return size > 0 && due[0] <= row;
+        }
+
+        private void push(long dueRow, long payload) {
+            if (size == due.length) {
+                due = Arrays.copyOf(due, size * 2);
+                payloads = Arrays.copyOf(payloads, size * 2);
+            }
+
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (due[parent] <= dueRow) {
+                    break;
+                }
+
+                due[index] = due[parent];
+                payloads[index] = payloads[parent];
+                index = parent;
+            }
+
+            due[index] = dueRow;
+            payloads[index] = payload;
+        }
+
+        private long pop() {
+            long result  = payloads[0];
+            long lastDue = due[--size];
+            long last    = payloads[size];
+            int  index   = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+
+                if (child + 1 < size && due[child + 1] < due[child]) {
+                    child++;
+                }
+
+                if (lastDue <= due[child]) {
+                    break;
+                }
+
+                due[index] = due[child];
+                payloads[index] = payloads[child];
+                index = child;
+            }
+
+            due[index] = lastDue;
+            payloads[index] = last;
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package diameter.tools;
+
+import diameter.app.AppOptions;
+
+/**
+ * The shape of the traffic {@link TrafficGenerator} writes. Ratios are probabilities between 0 and 1.
+ */
+final class TrafficProfile {
+    static final long   DEFAULT_ROWS             = 1_000_000;
+    static final double DEFAULT_ULR_RATIO        = 0.3;
+    static final double DEFAULT_ANSWER_RATIO     = 0.95;
+    static final int    DEFAULT_REORDER_DISTANCE = 16;
+    static final int    DEFAULT_HOSTS            = 8;
+    static final int    DEFAULT_REALMS           = 2;
+    static final long   DEFAULT_SEED             = 42;
+    static final long   DEFAULT_START_MILLIS     = 1_700_000_000_000L;
+
+    final long    rows;
+    final double  ulrRatio;
+    final double  answerRatio;
+    final int     reorderDistance;
+    final double  earlyAnswerRatio;
+    final double  invalidRatio;
+    final double  duplicateRatio;
+    final int     hosts;
+    final int     realms;
+    final long    seed;
+    final boolean timestamps;
+
+    private TrafficProfile(AppOptions options) {
+        this.rows = options.getLong("rows", DEFAULT_ROWS);
+        this.ulrRatio = ratio(options, "ulr-ratio", DEFAULT_ULR_RATIO);
+        this.answerRatio = ratio(options, "answer-ratio", DEFAULT_ANSWER_RATIO);
+        this.reorderDistance = options.getInt("reorder-distance", DEFAULT_REORDER_DISTANCE);
+        this.earlyAnswerRatio = ratio(options, "early-answer-ratio", 0);
+        this.invalidRatio = ratio(options, "invalid-ratio", 0);
+        this.duplicateRatio = ratio(options, "duplicate-ratio", 0);
+        this.hosts = options.getInt("hosts", DEFAULT_HOSTS);
+        this.realms = options.getInt("realms", DEFAULT_REALMS);
+        this.seed = options.getLong("seed", DEFAULT_SEED);
+        this.timestamps = options.has("timestamps");
+
+        if (rows < 0 || reorderDistance < 0 || hosts < 1 || realms < 1) {
+            throw new IllegalArgumentException("Rows and reorder distance must not be negative, and hosts and realms "
+                                               + "must be positive");
+        }
+    }
+
+    static TrafficProfile from(AppOptions options) {
+        return new TrafficProfile(options);
+    }
+
+    private static double ratio(AppOptions options, String name, double defaultValue) {
+        double value = options.getDouble(name, defaultValue);
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException("Option --" + name + " must be between 0 and 1 but was: " + value);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,114 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Request-to-answer latency histograms of completed transactions, by request type and by answering peer (the
+ * answer's Origin-Host). Histograms are created on first use per type or peer; recording into an existing one does
+ * not allocate. At most {@link #MAX_PEERS} peers get a histogram of their own, so memory and checkpoint size stay
+ * bounded however many hosts answer; later peers share the {@code other} histogram. Not thread-safe.
+ */
+public final class AnswerLatencies {
+    static final         int           MAX_PEERS     = 64;
+    static final         String        OTHER_PEERS   = "other";
+    private static final String        UNKNOWN_PEER  = "unknown";
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+
+    private final LatencyHistogram[]            byRequestType = new LatencyHistogram[MESSAGE_TYPES.length];
+    private final Map<String, LatencyHistogram> byPeer        = new HashMap<>();
+
+    public void record(MessageType requestType, String peer, long latencyMillis) {
+        histogramOf(requestType).record(latencyMillis);
+        histogramOf(peer == null ? UNKNOWN_PEER : peer).record(latencyMillis);
+    }
+
+    public void add(AnswerLatencies other) {
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            if (other.byRequestType[i] != null) {
+                histogramOf(MESSAGE_TYPES[i]).add(other.byRequestType[i]);
+            }
+        }
+
+        other.byPeer.forEach((peer, histogram) -> histogramOf(peer).add(histogram));
+    }
+
+    public AnswerLatencies copy() {
+        AnswerLatencies copy = new AnswerLatencies();
+        copy.add(this);
+
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        return byPeer.isEmpty();
+    }
+
+    public Map<MessageType, LatencyHistogram> getByRequestType() {
+        Map<MessageType, LatencyHistogram> retVal = new EnumMap<>(MessageType.class);
+        for (int i = 0; i < MESSAGE_TYPES.length; i++) {
+            if (byRequestType[i] != null) {
+                retVal.put(MESSAGE_TYPES[i], byRequestType[i]);
+            }
+        }
+
+        return Collections.unmodifiableMap(retVal);
+    }
+
+    public Map<String, LatencyHistogram> getByPeer() {
+        return Collections.unmodifiableMap(new TreeMap<>(byPeer));
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        Map<MessageType, LatencyHistogram> byType = getByRequestType();
+        out.writeInt(byType.size());
+        for (Map.Entry<MessageType, LatencyHistogram> entry : byType.entrySet()) {
+            out.writeByte(entry.getKey().ordinal());
+            entry.getValue().writeTo(out);
+        }
+
+        out.writeInt(byPeer.size());
+        for (Map.Entry<String, LatencyHistogram> entry : byPeer.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        for (int types = in.readInt(); types > 0; types--) {
+            histogramOf(MESSAGE_TYPES[in.readByte()]).readFrom(in);
+        }
+
+        for (int peers = in.readInt(); peers > 0; peers--) {
+            histogramOf(in.readUTF()).readFrom(in);
+        }
+    }
+
+    private LatencyHistogram histogramOf(MessageType requestType) {
+        LatencyHistogram histogram = byRequestType[requestType.ordinal()];
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            byRequestType[requestType.ordinal()] = histogram;
+        }
+
+        return histogram;
+    }
+
+    private LatencyHistogram histogramOf(String peer) {
+        LatencyHistogram histogram = byPeer.get(peer);
+        if (histogram == null) {
+            String key = byPeer.size() < MAX_PEERS ? peer : OTHER_PEERS;
+            histogram = byPeer.computeIfAbsent(key, ignored -> new LatencyHistogram());
+        }
+
+        return histogram;
+    }
+}
@@ -0,0 +1,75 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * How long a request of each type may wait for its answer, in milliseconds of message time. Request types without
+ * a timeout never expire.
+ */
+public final class AnswerTimeouts {
+    public static final  AnswerTimeouts NONE       = new AnswerTimeouts(new EnumMap<>(MessageType.class));
+    private static final long           NO_TIMEOUT = -1;
+
+    private final long[] timeoutByType = new long[MessageType.values().length];
+
+    private AnswerTimeouts(Map<MessageType, Long> timeouts) {
+        Arrays.fill(timeoutByType, NO_TIMEOUT);
+        timeouts.forEach((type, timeout) -> timeoutByType[type.ordinal()] = timeout);
+    }
+
+    public static AnswerTimeouts of(Map<MessageType, Long> timeoutMillisByType) {
+        timeoutMillisByType.forEach((type, timeout) -> {
+            if (type == null || timeout == null || timeout < 1) {
+                throw new IllegalArgumentException("Invalid answer timeout for " + type + ": " + timeout);
+            }
+        });
+
+        return new AnswerTimeouts(timeoutMillisByType);
+    }
+
+    /**
+     * Parses a comma-separated list of {@code <MessageType>:<millis>}, e.g. {@code AIR:5000,ULR:10000}.
+     */
+    public static AnswerTimeouts parse(String value) {
+        Map<MessageType, Long> timeouts = new EnumMap<>(MessageType.class);
+
+        for (String entry : value.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid answer timeout: " + entry);
+            }
+
+            try {
+                timeouts.put(MessageType.valueOf(entry.substring(0, separator).trim()),
+                             Long.parseLong(entry.substring(separator + 1).trim()));
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid answer timeout: " + entry);
+            }
+        }
+
+        return of(timeouts);
+    }
+
+    public boolean hasTimeout(MessageType requestType) {
+        return timeoutByType[requestType.ordinal()] != NO_TIMEOUT;
+    }
+
+    public long getTimeoutMillis(MessageType requestType) {
+        return timeoutByType[requestType.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        for (long timeout : timeoutByType) {
+            if (timeout != NO_TIMEOUT) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package diameter.transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * The Session-Ids of evicted, completed transactions that are still remembered for duplicate detection, oldest
+ * first. Only the id is kept, never the transaction.
+ */
+final class CompletedSessions {
+    private static final Long NO_TIME = 0L;
+
+    private final RetentionPolicy             policy;
+    private final LongSupplier                clock;
+    private final LinkedHashMap<String, Long> completedAtBySessionId = new LinkedHashMap<>();
+
+    CompletedSessions(RetentionPolicy policy, LongSupplier clock) {
+        this.policy = policy;
+        this.clock = clock;
+    }
+
+    void add(String sessionId) {
+        switch (policy.getMode()) {
+            case NONE -> {
+            }
+            case LAST_N -> {
+                completedAtBySessionId.put(sessionId, NO_TIME);
+                if (completedAtBySessionId.size() > policy.getLimit()) {
+                    Iterator<String> eldest = completedAtBySessionId.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            case TIME_BOUNDED -> {
+                long now = clock.getAsLong();
+                expire(now);
+                completedAtBySessionId.put(sessionId, now);
+            }
+        }
+    }
+
+    boolean contains(String sessionId) {
+        if (policy.getMode() == RetentionPolicy.Mode.TIME_BOUNDED) {
+            expire(clock.getAsLong());
+        }
+
+        return completedAtBySessionId.containsKey(sessionId);
+    }
+
+    int size() {
+        return completedAtBySessionId.size();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(completedAtBySessionId.size());
+        for (Map.Entry<String, Long> entry : completedAtBySessionId.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        completedAtBySessionId.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            completedAtBySessionId.put(in.readUTF(), in.readLong());
+        }
+    }
+
+    private void expire(long now) {
+        long                              cutoff  = now - policy.getLimit();
+        Iterator<Map.Entry<String, Long>> entries = completedAtBySessionId.entrySet().iterator();
+
+        while (entries.hasNext() && entries.next().getValue() <= cutoff) {
+            entries.remove();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+import diameter.logging.RateLimitedLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TransactionManager} that any number of threads may call concurrently. Opening and completing a
+ * transaction are single atomic map operations, and the counters are striped {@link LongAdder}s. A completed
+ * transaction is removed, so memory is bounded by the open transactions; as with {@link RetentionPolicy#none()},
+ * completed Session-Ids are not remembered, and a request reusing one opens a new transaction.
+ * <p>
+ * Only monotonic counters are kept (opened and completed); the incomplete count is derived from them. Reading
+ * completed before opened means a snapshot taken while writers are active never shows a negative incomplete count,
+ * never shows a completion without its opening, and always satisfies {@code complete + incomplete == opened}. Once
+ * writers are quiescent the snapshot is exact.
+ */
+public class ConcurrentTransactionManager implements TransactionManager {
+    private static final Logger            LOG           = LoggerFactory.getLogger(ConcurrentTransactionManager.class);
+    private static final RateLimitedLogger TYPE_MISMATCH = RateLimitedLogger.create(LOG, "Type mismatch");
+
+    private final        Map<String, Transaction>      transactionsBySessionId = new ConcurrentHashMap<>();
+    private final        LongAdder                     openedTransactions      = new LongAdder();
+    private final        LongAdder                     completedTransactions   = new LongAdder();
+    private static final Map<MessageType, MessageType> answerByRequest         =
+            Map.of(MessageType.AIR, MessageType.AIA, MessageType.ULR, MessageType.ULA);
+
+    @Override
+    public TransactionStatus handleDiameterMessage(DiameterMessage diameterMessage) {
+        if (diameterMessage == null || diameterMessage.getSessionId() == null) {
+            LOG.error("Invalid message: message or sessionId is null");
+            throw new IllegalArgumentException("Message and session ID cannot be null");
+        }
+
+        TransactionStatus retVal;
+        if (diameterMessage.getIsRequest()) {
+            retVal = handleRequestMessage(diameterMessage);
+        }
+        else {
+            retVal = handleAnswerMessage(diameterMessage);
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public TransactionResult getTransactionResult() {
+        long completed = completedTransactions.sum();
+        long opened    = openedTransactions.sum();
+
+        return new TransactionResult((int) completed, (int) (opened - completed));
+    }
+
+    private TransactionStatus handleRequestMessage(DiameterMessage message) {
+        // Counted before the transaction becomes visible, so no answer can be counted ahead of its request.
+        Transaction created = new Transaction(message);
+        Transaction current = transactionsBySessionId.computeIfAbsent(message.getSessionId(), id -> {
+            openedTransactions.increment();
+            return created;
+        });
+
+        return current == created ? TransactionStatus.OPENED : TransactionStatus.DUPLICATE;
+    }
+
+    private TransactionStatus handleAnswerMessage(DiameterMessage message) {
+        String      sessionId   = message.getSessionId();
+        Transaction transaction = transactionsBySessionId.get(sessionId);
+        if (transaction == null) {
+            return TransactionStatus.UNEXPECTED_ANSWER;
+        }
+
+        if (answerByRequest.get(transaction.getRequest().getMessageType()) != message.getMessageType()) {
+            TYPE_MISMATCH.warn("Transaction type mismatch: sessionId = {}, expectedAnswer = {}, actualAnswer = {}",
+                    sessionId, answerByRequest.get(transaction.getRequest().getMessageType()), message.getMessageType());
+            return TransactionStatus.TYPE_MISMATCH;
+        }
+
+        // Only the answer that removes the transaction completes it; a repeated or racing answer finds it gone.
+        if (!transactionsBySessionId.remove(sessionId, transaction)) {
+            return TransactionStatus.UNEXPECTED_ANSWER;
+        }
+
+        transaction.setAnswer(message);
+        completedTransactions.increment();
+        return TransactionStatus.COMPLETED;
+    }
+}
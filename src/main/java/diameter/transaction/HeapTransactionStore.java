@@ -0,0 +1,54 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeapTransactionStore implements TransactionStore {
+    private final Map<String, OpenTransaction> transactionsBySessionId = new HashMap<>();
+
+    @Override
+    public boolean open(String sessionId, MessageType requestType, long openedAt) {
+        return transactionsBySessionId.putIfAbsent(sessionId, new OpenTransaction(requestType, openedAt)) == null;
+    }
+
+    @Override
+    public MessageType getRequestType(String sessionId) {
+        OpenTransaction transaction = transactionsBySessionId.get(sessionId);
+        return transaction == null ? null : transaction.requestType;
+    }
+
+    @Override
+    public long getOpenedAt(String sessionId) {
+        OpenTransaction transaction = transactionsBySessionId.get(sessionId);
+        return transaction == null ? DiameterMessage.NO_TIMESTAMP : transaction.openedAt;
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        return transactionsBySessionId.remove(sessionId) != null;
+    }
+
+    @Override
+    public int size() {
+        return transactionsBySessionId.size();
+    }
+
+    @Override
+    public void forEach(OpenTransactionVisitor visitor) {
+        transactionsBySessionId.forEach(
+                (sessionId, transaction) -> visitor.visit(sessionId, transaction.requestType, transaction.openedAt));
+    }
+
+    static final class OpenTransaction {
+        final MessageType requestType;
+        final long        openedAt;
+
+        OpenTransaction(MessageType requestType, long openedAt) {
+            this.requestType = requestType;
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package diameter.transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A fixed-size log-linear histogram of non-negative millisecond latencies, in the style of HdrHistogram. Values below
+ * 128 are counted exactly; above that every power-of-two range is split into 64 linear sub-buckets, so any value is
+ * reported within 1/64 (about 1.6%) of what was recorded. The counts array is allocated once and covers the whole
+ * {@code long} range, so {@link #record(long)} never allocates. Not thread-safe.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS       = 7;
+    private static final int SUB_BUCKET_COUNT      = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_BITS  = SUB_BUCKET_BITS - 1;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_BITS;
+    private static final int BUCKET_COUNT          = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+
+    private final long[] counts     = new long[BUCKET_COUNT];
+    private       long   totalCount = 0;
+    private       long   maxValue   = 0;
+
+    /**
+     * Records one latency; negative values (answers timestamped before their request) are recorded as zero.
+     */
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        if (clamped > maxValue) {
+            maxValue = clamped;
+        }
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the highest value equivalent to the recorded value at the given percentile (0-100), or 0 when the
+     * histogram is empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        // Rounded rather than ceiled, so 99.9% of 1000 is 999 despite floating-point error.
+        long target = Math.max(1, Math.round(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen   = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+
+        return maxValue;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+
+        return copy;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        int used = 0;
+        for (long count : counts) {
+            used += count > 0 ? 1 : 0;
+        }
+
+        out.writeLong(totalCount);
+        out.writeLong(maxValue);
+        out.writeInt(used);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    void readFrom(DataInput in) throws IOException {
+        totalCount = in.readLong();
+        maxValue = in.readLong();
+        for (int used = in.readInt(); used > 0; used--) {
+            counts[in.readShort()] = in.readLong();
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        // The top SUB_BUCKET_BITS bits of the value select the sub-bucket; everything below them is dropped.
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_HALF_BITS) + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int  shift    = (index >>> SUB_BUCKET_HALF_BITS) - 1;
+        long subValue = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        return ((subValue + 1) << shift) - 1;
+    }
+}
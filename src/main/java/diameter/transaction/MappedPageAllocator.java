@@ -0,0 +1,104 @@
+package diameter.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Allocates pages as memory-mapped regions of a temporary file, so their contents live in the page cache and can be
+ * written back to disk by the OS instead of occupying the heap or pinned direct memory. Released regions are reused
+ * for pages of the same size; the file is deleted when the allocator is closed or the JVM exits.
+ */
+final class MappedPageAllocator implements PageAllocator, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedPageAllocator.class);
+
+    private final Path                           file;
+    private final FileChannel                    channel;
+    private final Map<ByteBuffer, Long>          offsetByPage      = new IdentityHashMap<>();
+    private final Map<Integer, ArrayDeque<Long>> freeOffsetsBySize = new HashMap<>();
+    private       long                           fileBytes         = 0;
+
+    MappedPageAllocator(Path directory) {
+        try {
+            file = Files.createTempFile(directory, "open-transactions-", ".spill");
+            file.toFile().deleteOnExit();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                       StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill file in " + directory, e);
+        }
+
+        LOG.debug("Spill file for open transactions: {}", file);
+    }
+
+    @Override
+    public ByteBuffer allocate(int bytes) {
+        ArrayDeque<Long> free   = freeOffsetsBySize.get(bytes);
+        Long             reused = free == null ? null : free.poll();
+        long             offset = reused == null ? fileBytes : reused;
+
+        ByteBuffer page;
+        try {
+            page = channel.map(FileChannel.MapMode.READ_WRITE, offset, bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Cannot map " + bytes + " bytes of " + file, e);
+        }
+
+        if (reused == null) {
+            // Mapping past the end grows the file; the new region reads as zeros.
+            fileBytes += bytes;
+        }
+        else {
+            clear(page);
+        }
+
+        offsetByPage.put(page, offset);
+        return page;
+    }
+
+    @Override
+    public void release(ByteBuffer page) {
+        Long offset = offsetByPage.remove(page);
+        if (offset != null) {
+            freeOffsetsBySize.computeIfAbsent(page.capacity(), size -> new ArrayDeque<>()).add(offset);
+        }
+    }
+
+    long getFileBytes() {
+        return fileBytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to close spill file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void clear(ByteBuffer page) {
+        int position = 0;
+        for (; position + Long.BYTES <= page.capacity(); position += Long.BYTES) {
+            page.putLong(position, 0);
+        }
+
+        for (; position < page.capacity(); position++) {
+            page.put(position, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * An open-addressing (linear probing) table kept in direct memory, so millions of open sessions cost the heap only a
+ * handful of page objects and give the collector nothing to trace. The pages come from a {@link PageAllocator};
+ * {@link SpillingTransactionStore} backs them with a memory-mapped file instead.
+ * <p>
+ * Every slot is 24 bytes: the 64-bit Session-Id fingerprint, the request type packed with the address of the full
+ * Session-Id in an append-only key arena, and the request timestamp. Probing compares fingerprints first and
+ * verifies a fingerprint match against the stored key, so fingerprint collisions never merge two sessions. Removal
+ * uses backward-shift deletion (no tombstones); the arena is compacted once more than half of it belongs to removed
+ * keys.
+ */
+public final class OffHeapTransactionStore implements TransactionStore {
+    private static final int           SLOT_BYTES       = 24;
+    private static final int           SLOT_PAGE_SHIFT  = 20;
+    private static final int           SLOTS_PER_PAGE   = 1 << SLOT_PAGE_SHIFT;
+    private static final int           ARENA_PAGE_SHIFT = 20;
+    private static final int           ARENA_PAGE_BYTES = 1 << ARENA_PAGE_SHIFT;
+    private static final int           MIN_CAPACITY     = 1024;
+    private static final int           MAX_KEY_CHARS    = Short.MAX_VALUE;
+    private static final int           UTF16_FLAG       = 0x8000;
+    private static final long          ADDRESS_MASK     = (1L << 48) - 1;
+    private static final int           TYPE_SHIFT       = 56;
+    private static final MessageType[] MESSAGE_TYPES    = MessageType.values();
+
+    private final ToLongFunction<String> fingerprintFunction;
+    private final PageAllocator          pageAllocator;
+    private final List<ByteBuffer>       arenaPages   = new ArrayList<>();
+    private       ByteBuffer[]           slotPages;
+    private       int                    capacity;
+    private       int                    size         = 0;
+    private       int                    arenaOffset;
+    private       long                   arenaBytes   = 0;
+    private       long                   arenaGarbage = 0;
+
+    public OffHeapTransactionStore() {
+        this(MIN_CAPACITY);
+    }
+
+    public OffHeapTransactionStore(int expectedSessions) {
+        this(expectedSessions, OffHeapTransactionStore::defaultFingerprint);
+    }
+
+    OffHeapTransactionStore(int expectedSessions, ToLongFunction<String> fingerprintFunction) {
+        this(expectedSessions, fingerprintFunction, PageAllocator.DIRECT);
+    }
+
+    OffHeapTransactionStore(int expectedSessions, ToLongFunction<String> fingerprintFunction,
+                            PageAllocator pageAllocator) {
+        this.fingerprintFunction = fingerprintFunction;
+        this.pageAllocator = pageAllocator;
+        this.capacity = capacityFor(expectedSessions);
+        this.slotPages = allocateSlots(capacity);
+        this.arenaOffset = ARENA_PAGE_BYTES;
+    }
+
+    @Override
+    public boolean open(String sessionId, MessageType requestType, long openedAt) {
+        long fingerprint = fingerprintOf(sessionId);
+        int  slot        = find(sessionId, fingerprint);
+        if (slot >= 0) {
+            return false;
+        }
+
+        if (size + 1 > maxSize(capacity)) {
+            resize(capacity << 1);
+            slot = find(sessionId, fingerprint);
+        }
+
+        long address = appendKey(sessionId);
+        writeSlot(-slot - 1, fingerprint, (long) (requestType.ordinal() + 1) << TYPE_SHIFT | address, openedAt);
+        size++;
+        return true;
+    }
+
+    @Override
+    public MessageType getRequestType(String sessionId) {
+        int slot = find(sessionId, fingerprintOf(sessionId));
+        if (slot < 0) {
+            return null;
+        }
+
+        return MESSAGE_TYPES[(int) (meta(slot) >>> TYPE_SHIFT) - 1];
+    }
+
+    @Override
+    public long getOpenedAt(String sessionId) {
+        int slot = find(sessionId, fingerprintOf(sessionId));
+        return slot < 0 ? DiameterMessage.NO_TIMESTAMP : openedAt(slot);
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        int slot = find(sessionId, fingerprintOf(sessionId));
+        if (slot < 0) {
+            return false;
+        }
+
+        arenaGarbage += keyRecordBytes(meta(slot) & ADDRESS_MASK);
+        deleteSlot(slot);
+        size--;
+
+        if (arenaGarbage > arenaBytes / 2 && arenaPages.size() > 1) {
+            compactArena();
+        }
+
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(OpenTransactionVisitor visitor) {
+        for (int slot = 0; slot < capacity; slot++) {
+            if (fingerprint(slot) != 0) {
+                long meta = meta(slot);
+                visitor.visit(readKey(meta & ADDRESS_MASK), MESSAGE_TYPES[(int) (meta >>> TYPE_SHIFT) - 1],
+                              openedAt(slot));
+            }
+        }
+    }
+
+    public long getOffHeapBytes() {
+        return (long) slotPages.length * slotPages[0].capacity() + (long) arenaPages.size() * ARENA_PAGE_BYTES;
+    }
+
+    private long fingerprintOf(String sessionId) {
+        long value = fingerprintFunction.applyAsLong(sessionId);
+        return value == 0 ? 1 : value;
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the murmur3 mixer so the low bits are usable as an index.
+    static long defaultFingerprint(String sessionId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sessionId.length(); i++) {
+            hash = (hash ^ sessionId.charAt(i)) * 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Returns the slot holding the session, or {@code -(insertionSlot + 1)} if it is not in the table.
+     */
+    private int find(String sessionId, long fingerprint) {
+        int mask = capacity - 1;
+        int slot = (int) fingerprint & mask;
+
+        while (true) {
+            long stored = fingerprint(slot);
+            if (stored == 0) {
+                return -slot - 1;
+            }
+
+            if (stored == fingerprint && keyEquals(meta(slot) & ADDRESS_MASK, sessionId)) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        int next = slot;
+
+        while (true) {
+            next = (next + 1) & mask;
+            long stored = fingerprint(next);
+            if (stored == 0) {
+                break;
+            }
+
+            // The entry at next may fill the hole only if its home slot does not lie cyclically in (hole, next].
+            int     home    = (int) stored & mask;
+            boolean inRange = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!inRange) {
+                writeSlot(hole, stored, meta(next), openedAt(next));
+                hole = next;
+            }
+        }
+
+        writeSlot(hole, 0, 0, 0);
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer[] oldPages    = slotPages;
+        int          oldCapacity = capacity;
+
+        slotPages = allocateSlots(newCapacity);
+        capacity = newCapacity;
+
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            ByteBuffer page     = oldPages[i >>> SLOT_PAGE_SHIFT];
+            int        position = (i & (SLOTS_PER_PAGE - 1)) * SLOT_BYTES;
+            long       stored   = page.getLong(position);
+
+            if (stored != 0) {
+                int slot = (int) stored & mask;
+                while (fingerprint(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                writeSlot(slot, stored, page.getLong(position + Long.BYTES), page.getLong(position + 2 * Long.BYTES));
+            }
+        }
+
+        for (ByteBuffer page : oldPages) {
+            pageAllocator.release(page);
+        }
+    }
+
+    private void compactArena() {
+        List<ByteBuffer> oldPages = new ArrayList<>(arenaPages);
+        arenaPages.clear();
+        arenaOffset = ARENA_PAGE_BYTES;
+        arenaBytes = 0;
+        arenaGarbage = 0;
+
+        for (int slot = 0; slot < capacity; slot++) {
+            if (fingerprint(slot) != 0) {
+                long       meta    = meta(slot);
+                long       address = meta & ADDRESS_MASK;
+                ByteBuffer page    = oldPages.get((int) (address >>> ARENA_PAGE_SHIFT));
+                int        offset  = (int) (address & (ARENA_PAGE_BYTES - 1));
+                int        length  = keyRecordBytes(page, offset);
+
+                long       newAddress = reserveKey(length);
+                ByteBuffer target     = arenaPages.get(arenaPages.size() - 1);
+                target.put(arenaOffset - length, page, offset, length);
+                writeSlot(slot, fingerprint(slot), meta & ~ADDRESS_MASK | newAddress, openedAt(slot));
+            }
+        }
+
+        for (ByteBuffer page : oldPages) {
+            pageAllocator.release(page);
+        }
+    }
+
+    private long appendKey(String sessionId) {
+        int length = sessionId.length();
+        if (length > MAX_KEY_CHARS) {
+            throw new IllegalArgumentException("Session ID longer than " + MAX_KEY_CHARS + " characters: " + length);
+        }
+
+        boolean latin1 = true;
+        for (int i = 0; i < length && latin1; i++) {
+            latin1 = sessionId.charAt(i) < 0x100;
+        }
+
+        int        recordBytes = Short.BYTES + (latin1 ? length : length * 2);
+        long       address     = reserveKey(recordBytes);
+        ByteBuffer page        = arenaPages.get(arenaPages.size() - 1);
+        int        position    = arenaOffset - recordBytes;
+
+        page.putShort(position, (short) (latin1 ? length : length | UTF16_FLAG));
+        position += Short.BYTES;
+        for (int i = 0; i < length; i++) {
+            if (latin1) {
+                page.put(position++, (byte) sessionId.charAt(i));
+            }
+            else {
+                page.putChar(position, sessionId.charAt(i));
+                position += Character.BYTES;
+            }
+        }
+
+        return address;
+    }
+
+    // Reserves bytes in the current arena page (starting a new one when it does not fit) and returns their address.
+    private long reserveKey(int recordBytes) {
+        if (arenaOffset + recordBytes > ARENA_PAGE_BYTES) {
+            arenaPages.add(pageAllocator.allocate(ARENA_PAGE_BYTES));
+            arenaOffset = 0;
+        }
+
+        long address = (long) (arenaPages.size() - 1) << ARENA_PAGE_SHIFT | arenaOffset;
+        arenaOffset += recordBytes;
+        arenaBytes += recordBytes;
+        return address;
+    }
+
+    private String readKey(long address) {
+        ByteBuffer page     = arenaPages.get((int) (address >>> ARENA_PAGE_SHIFT));
+        int        offset   = (int) (address & (ARENA_PAGE_BYTES - 1));
+        int        header   = page.getShort(offset) & 0xFFFF;
+        int        length   = header & ~UTF16_FLAG;
+        int        position = offset + Short.BYTES;
+        char[]     chars    = new char[length];
+
+        for (int i = 0; i < length; i++) {
+            chars[i] = (header & UTF16_FLAG) == 0 ? (char) (page.get(position + i) & 0xFF)
+                                                  : page.getChar(position + i * 2);
+        }
+
+        return new String(chars);
+    }
+
+    private boolean keyEquals(long address, String sessionId) {
+        ByteBuffer page   = arenaPages.get((int) (address >>> ARENA_PAGE_SHIFT));
+        int        offset = (int) (address & (ARENA_PAGE_BYTES - 1));
+        int        header = page.getShort(offset) & 0xFFFF;
+        int        length = header & ~UTF16_FLAG;
+
+        if (length != sessionId.length()) {
+            return false;
+        }
+
+        int position = offset + Short.BYTES;
+        if ((header & UTF16_FLAG) == 0) {
+            for (int i = 0; i < length; i++) {
+                if ((page.get(position + i) & 0xFF) != sessionId.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+        else {
+            for (int i = 0; i < length; i++) {
+                if (page.getChar(position + i * 2) != sessionId.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private int keyRecordBytes(long address) {
+        return keyRecordBytes(arenaPages.get((int) (address >>> ARENA_PAGE_SHIFT)),
+                              (int) (address & (ARENA_PAGE_BYTES - 1)));
+    }
+
+    private static int keyRecordBytes(ByteBuffer page, int offset) {
+        int header = page.getShort(offset) & 0xFFFF;
+        int length = header & ~UTF16_FLAG;
+
+        return Short.BYTES + ((header & UTF16_FLAG) == 0 ? length : length * 2);
+    }
+
+    private long fingerprint(int slot) {
+        return slotPages[slot >>> SLOT_PAGE_SHIFT].getLong((slot & (SLOTS_PER_PAGE - 1)) * SLOT_BYTES);
+    }
+
+    private long meta(int slot) {
+        return slotPages[slot >>> SLOT_PAGE_SHIFT].getLong((slot & (SLOTS_PER_PAGE - 1)) * SLOT_BYTES + Long.BYTES);
+    }
+
+    private long openedAt(int slot) {
+        return slotPages[slot >>> SLOT_PAGE_SHIFT].getLong((slot & (SLOTS_PER_PAGE - 1)) * SLOT_BYTES + 2 * Long.BYTES);
+    }
+
+    private void writeSlot(int slot, long fingerprint, long meta, long openedAt) {
+        ByteBuffer page     = slotPages[slot >>> SLOT_PAGE_SHIFT];
+        int        position = (slot & (SLOTS_PER_PAGE - 1)) * SLOT_BYTES;
+
+        page.putLong(position, fingerprint);
+        page.putLong(position + Long.BYTES, meta);
+        page.putLong(position + 2 * Long.BYTES, openedAt);
+    }
+
+    private ByteBuffer[] allocateSlots(int capacity) {
+        int          pageSlots = Math.min(capacity, SLOTS_PER_PAGE);
+        ByteBuffer[] pages     = new ByteBuffer[capacity / pageSlots];
+
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = pageAllocator.allocate(pageSlots * SLOT_BYTES);
+        }
+
+        return pages;
+    }
+
+    private static int capacityFor(int expectedSessions) {
+        int capacity = MIN_CAPACITY;
+        while (maxSize(capacity) < expectedSessions) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static int maxSize(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+}
@@ -0,0 +1,19 @@
+package diameter.transaction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Supplies the fixed-size pages an {@link OffHeapTransactionStore} keeps its table and key arena in. Pages must
+ * come back zero-filled.
+ */
+interface PageAllocator {
+    PageAllocator DIRECT = ByteBuffer::allocateDirect;
+
+    ByteBuffer allocate(int bytes);
+
+    /**
+     * Hands back a page the store no longer uses; the allocator may reuse it for a later page of the same size.
+     */
+    default void release(ByteBuffer page) {
+    }
+}
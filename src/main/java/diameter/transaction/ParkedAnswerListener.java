@@ -0,0 +1,13 @@
+package diameter.transaction;
+
+import diameter.domain.message.DiameterMessage;
+
+/**
+ * Learns what became of every answer the transaction manager handled as {@link TransactionStatus#PARKED}: the status
+ * its request settled it with, or {@link TransactionStatus#UNEXPECTED_ANSWER} once it turns out to be an orphan.
+ * Sharded managers call it from their shard threads.
+ */
+@FunctionalInterface
+public interface ParkedAnswerListener {
+    void onParkedAnswerSettled(DiameterMessage answer, TransactionStatus status);
+}
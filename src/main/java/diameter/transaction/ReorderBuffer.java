@@ -0,0 +1,114 @@
+package diameter.transaction;
+
+import diameter.domain.message.DiameterMessage;
+import diameter.monitoring.TransactionEvictedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parks answers that arrive before their request, for at most {@code window} further messages. Every message
+ * handled advances the window by one; an answer still parked when it falls out of the window is evicted as an
+ * orphan. A ring of {@code window + 1} slots remembers which answer each position parked, so eviction is O(1) and
+ * memory is bounded by the window regardless of input size. Not thread-safe.
+ */
+final class ReorderBuffer {
+    private static final Logger LOG = LoggerFactory.getLogger(ReorderBuffer.class);
+
+    private final Map<String, ParkedAnswer> parkedBySessionId = new HashMap<>();
+    private final ParkedAnswer[]            ring;
+    private       long                      sequence          = 0;
+    private       int                       evicted           = 0;
+
+    ReorderBuffer(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Reorder window must be positive but was: " + window);
+        }
+
+        ring = new ParkedAnswer[window + 1];
+    }
+
+    /**
+     * Moves the window one message forward, evicting the answer that has now waited longer than the window.
+     *
+     * @return the evicted answer, or {@code null} if none fell out of the window
+     */
+    DiameterMessage advance() {
+        sequence++;
+
+        int          slot   = (int) (sequence % ring.length);
+        ParkedAnswer oldest = ring[slot];
+        if (oldest == null) {
+            return null;
+        }
+
+        ring[slot] = null;
+        // Only evict if the answer was not taken in the meantime.
+        if (!parkedBySessionId.remove(oldest.answer.getSessionId(), oldest)) {
+            return null;
+        }
+
+        evict(oldest.answer);
+        return oldest.answer;
+    }
+
+    /**
+     * Evicts every answer still parked, oldest first, as none of them can find its request any more.
+     */
+    void evictAll(Consumer<DiameterMessage> orphans) {
+        for (int i = 1; i <= ring.length; i++) {
+            ParkedAnswer parked = ring[(int) ((sequence + i) % ring.length)];
+            if (parked != null && parkedBySessionId.remove(parked.answer.getSessionId(), parked)) {
+                evict(parked.answer);
+                orphans.accept(parked.answer);
+            }
+        }
+
+        Arrays.fill(ring, null);
+    }
+
+    /**
+     * Parks an answer at the current position; returns {@code false} if an answer is already parked for the session.
+     */
+    boolean park(DiameterMessage answer) {
+        ParkedAnswer parked = new ParkedAnswer(answer);
+        if (parkedBySessionId.putIfAbsent(answer.getSessionId(), parked) != null) {
+            return false;
+        }
+
+        ring[(int) (sequence % ring.length)] = parked;
+        return true;
+    }
+
+    DiameterMessage take(String sessionId) {
+        ParkedAnswer parked = parkedBySessionId.remove(sessionId);
+        return parked == null ? null : parked.answer;
+    }
+
+    int size() {
+        return parkedBySessionId.size();
+    }
+
+    int getEvictedCount() {
+        return evicted;
+    }
+
+    private void evict(DiameterMessage answer) {
+        LOG.debug("Evicting orphan answer: sessionId = {}, type = {}", answer.getSessionId(), answer.getMessageType());
+        TransactionEvictedEvent.emit(TransactionEvictedEvent.ORPHAN_ANSWER, answer.getSessionId(),
+                                     answer.getMessageType());
+        evicted++;
+    }
+
+    private static final class ParkedAnswer {
+        private final DiameterMessage answer;
+
+        private ParkedAnswer(DiameterMessage answer) {
+            this.answer = answer;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package diameter.transaction;
+
+import java.util.Objects;
+
+/**
+ * How long the Session-Id of a completed transaction is remembered after the transaction itself has been evicted.
+ * A request for a remembered Session-Id is reported as a duplicate; once forgotten, the Session-Id may be reused.
+ */
+public final class RetentionPolicy {
+    public static final RetentionPolicy DEFAULT = lastN(100_000);
+
+    public enum Mode {
+        NONE,
+        LAST_N,
+        TIME_BOUNDED
+    }
+
+    private final Mode mode;
+    private final long limit;
+
+    private RetentionPolicy(Mode mode, long limit) {
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    public static RetentionPolicy none() {
+        return new RetentionPolicy(Mode.NONE, 0);
+    }
+
+    public static RetentionPolicy lastN(int completedSessions) {
+        if (completedSessions < 1) {
+            throw new IllegalArgumentException("Retained session count must be positive but was: " + completedSessions);
+        }
+
+        return new RetentionPolicy(Mode.LAST_N, completedSessions);
+    }
+
+    /**
+     * Remembers completed Session-Ids for {@code retentionMillis} of message time, the clock the answer timeouts run on.
+     * Rows without a timestamp do not advance it, so input without a {@code timestamp} column never forgets.
+     */
+    public static RetentionPolicy timeBounded(long retentionMillis) {
+        if (retentionMillis < 1) {
+            throw new IllegalArgumentException("Retention time must be positive but was: " + retentionMillis);
+        }
+
+        return new RetentionPolicy(Mode.TIME_BOUNDED, retentionMillis);
+    }
+
+    /**
+     * Parses {@code none}, {@code last:<count>} or {@code time:<millis>}.
+     */
+    public static RetentionPolicy parse(String value) {
+        Objects.requireNonNull(value, "value");
+
+        int    separator = value.indexOf(':');
+        String name      = separator < 0 ? value : value.substring(0, separator);
+        String argument  = separator < 0 ? null : value.substring(separator + 1);
+
+        try {
+            return switch (name) {
+                case "none" -> none();
+                case "last" -> lastN(Integer.parseInt(argument));
+                case "time" -> timeBounded(Long.parseLong(argument));
+                default -> throw new IllegalArgumentException("Unknown retention policy: " + value);
+            };
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid retention policy: " + value);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case NONE -> "none";
+            case LAST_N -> "last:" + limit;
+            case TIME_BOUNDED -> "time:" + limit;
+        };
+    }
+}
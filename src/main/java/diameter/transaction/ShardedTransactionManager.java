@@ -0,0 +1,239 @@
+package diameter.transaction;
+
+import diameter.domain.message.DiameterMessage;
+import diameter.monitoring.LiveMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Partitions sessions over N shards by Session-Id hash. Every shard owns a {@link TransactionManagerImpl} that is
+ * only ever touched by the shard's single thread, so messages of one session are correlated in arrival order while
+ * different shards run on different cores. Callers should prefer
+ * {@link #handleDiameterMessages(DiameterMessage[], int, int, TransactionStatus[])}, which hands each shard its
+ * slice of a batch in one task instead of one task per message.
+ */
+public class ShardedTransactionManager implements TransactionManager, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedTransactionManager.class);
+
+    private final TransactionManagerImpl[] shards;
+    private final ExecutorService[]        executors;
+    private final int[][]                  indicesByShard;
+    private final int[]                    countByShard;
+    private final AtomicLong               latestTimestamp = new AtomicLong(DiameterMessage.NO_TIMESTAMP);
+
+    public ShardedTransactionManager(int shardCount) {
+        this(shardCount, RetentionPolicy.DEFAULT);
+    }
+
+    public ShardedTransactionManager(int shardCount, RetentionPolicy retentionPolicy) {
+        this(shardCount, retentionPolicy, HeapTransactionStore::new);
+    }
+
+    public ShardedTransactionManager(int shardCount, RetentionPolicy retentionPolicy,
+                                     Supplier<TransactionStore> storeFactory) {
+        this(shardCount, retentionPolicy, storeFactory, AnswerTimeouts.NONE);
+    }
+
+    public ShardedTransactionManager(int shardCount, RetentionPolicy retentionPolicy,
+                                     Supplier<TransactionStore> storeFactory, AnswerTimeouts answerTimeouts) {
+        this(shardCount, retentionPolicy, storeFactory, answerTimeouts, 0);
+    }
+
+    /**
+     * @param reorderWindow per shard, counted in the messages that shard receives
+     */
+    public ShardedTransactionManager(int shardCount, RetentionPolicy retentionPolicy,
+                                     Supplier<TransactionStore> storeFactory, AnswerTimeouts answerTimeouts,
+                                     int reorderWindow) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive but was: " + shardCount);
+        }
+
+        shards = new TransactionManagerImpl[shardCount];
+        executors = new ExecutorService[shardCount];
+        indicesByShard = new int[shardCount][16];
+        countByShard = new int[shardCount];
+
+        for (int i = 0; i < shardCount; i++) {
+            String threadName = "transaction-shard-" + i;
+            shards[i] = new TransactionManagerImpl(retentionPolicy, storeFactory.get(), answerTimeouts, reorderWindow);
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        LOG.debug("Started {} transaction shards", shardCount);
+    }
+
+    @Override
+    public TransactionStatus handleDiameterMessage(DiameterMessage diameterMessage) {
+        if (diameterMessage == null || diameterMessage.getSessionId() == null) {
+            LOG.error("Invalid message: message or sessionId is null");
+            throw new IllegalArgumentException("Message and session ID cannot be null");
+        }
+
+        latestTimestamp.accumulateAndGet(diameterMessage.getTimestamp(), Math::max);
+        int shard = shardOf(diameterMessage.getSessionId());
+        return await(executors[shard].submit(() -> shards[shard].handleDiameterMessage(diameterMessage)));
+    }
+
+    @Override
+    public synchronized void handleDiameterMessages(DiameterMessage[] messages, int from, int to,
+                                                    TransactionStatus[] statuses) {
+        // Validate the whole batch first, so a bad message cannot leave the reused shard indices half filled.
+        for (int i = from; i < to; i++) {
+            if (messages[i] == null || messages[i].getSessionId() == null) {
+                LOG.error("Invalid message: message or sessionId is null");
+                throw new IllegalArgumentException("Message and session ID cannot be null");
+            }
+        }
+
+        long latest = DiameterMessage.NO_TIMESTAMP;
+        for (int i = from; i < to; i++) {
+            DiameterMessage message = messages[i];
+            latest = Math.max(latest, message.getTimestamp());
+            addIndex(shardOf(message.getSessionId()), i);
+        }
+
+        latestTimestamp.accumulateAndGet(latest, Math::max);
+
+        List<Future<?>> futures = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (countByShard[shard] > 0) {
+                TransactionManagerImpl target  = shards[shard];
+                int[]                  indices = indicesByShard[shard];
+                int                    count   = countByShard[shard];
+
+                futures.add(executors[shard].submit(() -> {
+                    for (int j = 0; j < count; j++) {
+                        statuses[indices[j]] = target.handleDiameterMessage(messages[indices[j]]);
+                    }
+                }));
+            }
+        }
+
+        Arrays.fill(countByShard, 0);
+        awaitAll(futures);
+    }
+
+    @Override
+    public TransactionResult getTransactionResult() {
+        // A shard only sees its own sessions' timestamps; bring every shard up to the latest time seen overall.
+        long                            now     = latestTimestamp.get();
+        List<Future<TransactionResult>> futures = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            TransactionManagerImpl target = shards[shard];
+            futures.add(executors[shard].submit(() -> {
+                if (now != DiameterMessage.NO_TIMESTAMP) {
+                    target.expireUpTo(now);
+                }
+
+                return target.getTransactionResult();
+            }));
+        }
+
+        int             complete   = 0;
+        int             incomplete = 0;
+        int             timedOut   = 0;
+        int             orphans    = 0;
+        AnswerLatencies latencies  = new AnswerLatencies();
+        for (Future<TransactionResult> future : futures) {
+            TransactionResult result = await(future);
+            complete += result.getNumberOfCompleteTransactions();
+            incomplete += result.getNumberOfIncompleteTransactions();
+            timedOut += result.getNumberOfTimedOutTransactions();
+            orphans += result.getNumberOfOrphanAnswers();
+            latencies.add(result.getAnswerLatencies());
+        }
+
+        return new TransactionResult(complete, incomplete, timedOut, orphans, latencies);
+    }
+
+    @Override
+    public void setLiveMetrics(LiveMetrics liveMetrics) {
+        for (TransactionManagerImpl shard : shards) {
+            shard.setLiveMetrics(liveMetrics);
+        }
+    }
+
+    @Override
+    public void setParkedAnswerListener(ParkedAnswerListener listener) {
+        for (TransactionManagerImpl shard : shards) {
+            shard.setParkedAnswerListener(listener);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    int shardOf(String sessionId) {
+        int hash = sessionId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    private void addIndex(int shard, int index) {
+        int[] indices = indicesByShard[shard];
+        if (countByShard[shard] == indices.length) {
+            indices = Arrays.copyOf(indices, indices.length * 2);
+            indicesByShard[shard] = indices;
+        }
+
+        indices[countByShard[shard]++] = index;
+    }
+
+    // Waits for every shard even if one fails, so no task still writes to the caller's arrays after we return.
+    private static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                await(future);
+            }
+            catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a transaction shard", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw new IllegalStateException("Transaction shard failed", e.getCause());
+        }
+    }
+}
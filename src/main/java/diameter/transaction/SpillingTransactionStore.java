@@ -0,0 +1,122 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+import diameter.monitoring.TransactionSpilledEvent;
+import diameter.transaction.HeapTransactionStore.OpenTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps up to a fixed number of open transactions on the heap and spills the coldest (longest open) ones to an
+ * {@link OffHeapTransactionStore} whose pages are memory-mapped from a temporary file. Answers look in the hot map
+ * first and then in the spill table, so correlation is unchanged; only the heap footprint is capped. Not
+ * thread-safe.
+ */
+public final class SpillingTransactionStore implements TransactionStore, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(SpillingTransactionStore.class);
+
+    private final Map<String, OpenTransaction> hotTransactions = new LinkedHashMap<>();
+    private final int                          maxHotSessions;
+    private final MappedPageAllocator          spillAllocator;
+    private final OffHeapTransactionStore      spilledTransactions;
+
+    public SpillingTransactionStore(int maxHotSessions, Path spillDirectory) {
+        if (maxHotSessions < 1) {
+            throw new IllegalArgumentException("Heap session budget must be positive but was: " + maxHotSessions);
+        }
+
+        this.maxHotSessions = maxHotSessions;
+        this.spillAllocator = new MappedPageAllocator(spillDirectory);
+        this.spilledTransactions =
+                new OffHeapTransactionStore(0, OffHeapTransactionStore::defaultFingerprint, spillAllocator);
+    }
+
+    @Override
+    public boolean open(String sessionId, MessageType requestType, long openedAt) {
+        if (hotTransactions.containsKey(sessionId) || isSpilled(sessionId)) {
+            return false;
+        }
+
+        hotTransactions.put(sessionId, new OpenTransaction(requestType, openedAt));
+        if (hotTransactions.size() > maxHotSessions) {
+            spillColdest();
+        }
+
+        return true;
+    }
+
+    @Override
+    public MessageType getRequestType(String sessionId) {
+        OpenTransaction transaction = hotTransactions.get(sessionId);
+        if (transaction != null) {
+            return transaction.requestType;
+        }
+
+        return spilledTransactions.size() == 0 ? null : spilledTransactions.getRequestType(sessionId);
+    }
+
+    @Override
+    public long getOpenedAt(String sessionId) {
+        OpenTransaction transaction = hotTransactions.get(sessionId);
+        if (transaction != null) {
+            return transaction.openedAt;
+        }
+
+        return spilledTransactions.size() == 0 ? DiameterMessage.NO_TIMESTAMP
+                                               : spilledTransactions.getOpenedAt(sessionId);
+    }
+
+    @Override
+    public boolean remove(String sessionId) {
+        return hotTransactions.remove(sessionId) != null
+               || spilledTransactions.size() > 0 && spilledTransactions.remove(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return hotTransactions.size() + spilledTransactions.size();
+    }
+
+    @Override
+    public void forEach(OpenTransactionVisitor visitor) {
+        hotTransactions.forEach(
+                (sessionId, transaction) -> visitor.visit(sessionId, transaction.requestType, transaction.openedAt));
+        spilledTransactions.forEach(visitor);
+    }
+
+    public int getSpilledCount() {
+        return spilledTransactions.size();
+    }
+
+    long getSpillFileBytes() {
+        return spillAllocator.getFileBytes();
+    }
+
+    @Override
+    public void close() {
+        spillAllocator.close();
+    }
+
+    private boolean isSpilled(String sessionId) {
+        return spilledTransactions.size() > 0 && spilledTransactions.getRequestType(sessionId) != null;
+    }
+
+    private void spillColdest() {
+        Iterator<Map.Entry<String, OpenTransaction>> coldest = hotTransactions.entrySet().iterator();
+        Map.Entry<String, OpenTransaction>           entry   = coldest.next();
+
+        if (spilledTransactions.size() == 0) {
+            LOG.info("Open transactions exceed the heap budget of {}; spilling the oldest to disk", maxHotSessions);
+        }
+
+        spilledTransactions.open(entry.getKey(), entry.getValue().requestType, entry.getValue().openedAt);
+        coldest.remove();
+        TransactionSpilledEvent.emit(entry.getKey(), entry.getValue().requestType, spilledTransactions.size());
+    }
+}
@@ -0,0 +1,127 @@
+package diameter.transaction;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A single-level hashed timer wheel. Scheduling is O(1); advancing visits only the buckets of the ticks that
+ * elapsed, so expiry costs O(1) amortized per timer. Timers further away than one revolution simply stay in their
+ * bucket until a later pass. A timer fires once time has moved past the tick holding its deadline, i.e. at most one
+ * tick late.
+ * <p>
+ * There is no cancellation: callers re-check the item when it fires and ignore timers that no longer apply.
+ */
+final class TimerWheel<T> {
+    private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+    private final long     tickMillis;
+    private final int      mask;
+    private final Bucket[] buckets;
+    private       long     currentTick = Long.MAX_VALUE;
+    private       boolean  started     = false;
+    private       int      size        = 0;
+
+    TimerWheel(long tickMillis, int wheelSize) {
+        if (tickMillis < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Tick must be positive and wheel size a power of two");
+        }
+
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Bucket[wheelSize];
+    }
+
+    void schedule(T item, long deadline) {
+        long tick = Math.floorDiv(deadline, tickMillis);
+        if (!started) {
+            currentTick = Math.min(currentTick, tick);
+        }
+        else if (tick < currentTick) {
+            // Already due: park it in the bucket the next advance visits first.
+            tick = currentTick;
+        }
+
+        int    index  = (int) (tick & mask);
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets[index] = bucket;
+        }
+
+        bucket.add(item, deadline);
+        size++;
+    }
+
+    /**
+     * Moves time forward to {@code now} and hands every timer whose tick has fully elapsed to {@code expired}
+     * together with its deadline. Moving time backwards is a no-op.
+     */
+    void advance(long now, ObjLongConsumer<T> expired) {
+        long nowTick = Math.floorDiv(now, tickMillis);
+        if (!started) {
+            started = true;
+            currentTick = Math.min(currentTick, nowTick);
+        }
+
+        if (nowTick <= currentTick) {
+            return;
+        }
+
+        long limit = nowTick * tickMillis;
+        long ticks = Math.min(nowTick - currentTick, buckets.length);
+        for (long tick = currentTick; tick < currentTick + ticks; tick++) {
+            Bucket bucket = buckets[(int) (tick & mask)];
+            if (bucket != null) {
+                size -= bucket.expire(limit, expired);
+            }
+        }
+
+        currentTick = nowTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static final class Bucket {
+        private Object[] items     = new Object[INITIAL_BUCKET_CAPACITY];
+        private long[]   deadlines = new long[INITIAL_BUCKET_CAPACITY];
+        private int      size      = 0;
+
+        private void add(Object item, long deadline) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+
+            items[size] = item;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> int expire(long limit, ObjLongConsumer<T> expired) {
+            int fired = 0;
+            int i     = 0;
+            while (i < size) {
+                if (deadlines[i] < limit) {
+                    T    item     = (T) items[i];
+                    long deadline = deadlines[i];
+
+                    size--;
+                    items[i] = items[size];
+                    deadlines[i] = deadlines[size];
+                    items[size] = null;
+                    fired++;
+
+                    expired.accept(item, deadline);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            return fired;
+        }
+    }
+}
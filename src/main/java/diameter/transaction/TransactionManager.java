@@ -1,10 +1,55 @@
 package diameter.transaction;
 
 import diameter.domain.message.DiameterMessage;
+import diameter.exception.transaction.DuplicateTransactionException;
 import diameter.exception.transaction.TransactionException;
+import diameter.exception.transaction.UnexpectedTransactionAnswerException;
+import diameter.monitoring.LiveMetrics;
 
 public interface TransactionManager {
-    void processDiameterMessage(DiameterMessage diameterMessage) throws TransactionException;
+    /**
+     * Correlates a message and reports the outcome as a status; duplicates and unmatched answers are ordinary
+     * outcomes here and do not throw.
+     */
+    TransactionStatus handleDiameterMessage(DiameterMessage diameterMessage);
+
+    default void processDiameterMessage(DiameterMessage diameterMessage) throws TransactionException {
+        TransactionStatus status = handleDiameterMessage(diameterMessage);
+
+        if (status == TransactionStatus.DUPLICATE) {
+            throw new DuplicateTransactionException(diameterMessage.getSessionId());
+        }
+        else if (status == TransactionStatus.UNEXPECTED_ANSWER) {
+            throw new UnexpectedTransactionAnswerException(diameterMessage.getSessionId());
+        }
+    }
+
+    /**
+     * Handles {@code messages[from, to)} in order and writes each outcome to the same index of {@code statuses}.
+     * Implementations may process different sessions concurrently, but messages of one session keep their order.
+     * When a message throws, the outcome of every message already handled is still written; the slots of the others
+     * are left untouched, so a caller passing cleared slots can tell which messages remain.
+     */
+    default void handleDiameterMessages(DiameterMessage[] messages, int from, int to, TransactionStatus[] statuses) {
+        for (int i = from; i < to; i++) {
+            statuses[i] = handleDiameterMessage(messages[i]);
+        }
+    }
 
     TransactionResult getTransactionResult();
+
+    /**
+     * Counts opened, completed and timed-out transactions and mismatched answers into {@code liveMetrics} as they
+     * happen. Must be called before the first message; managers that do not support it ignore it.
+     */
+    default void setLiveMetrics(LiveMetrics liveMetrics) {
+    }
+
+    /**
+     * Tells {@code listener} what became of every answer handled as {@link TransactionStatus#PARKED}; answers still
+     * parked when {@link #getTransactionResult()} is called are settled as orphans then. Must be called before the
+     * first message; managers without a reorder window never park and ignore it.
+     */
+    default void setParkedAnswerListener(ParkedAnswerListener listener) {
+    }
 }
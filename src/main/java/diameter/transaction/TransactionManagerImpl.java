@@ -1,26 +1,86 @@
 package diameter.transaction;
 
+import diameter.checkpoint.Checkpointable;
 import diameter.domain.message.DiameterMessage;
 import diameter.domain.MessageType;
-import diameter.exception.transaction.DuplicateTransactionException;
-import diameter.exception.transaction.UnexpectedTransactionAnswerException;
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.logging.RateLimitedLogger;
+import diameter.monitoring.LiveMetrics;
+import diameter.monitoring.TransactionCompletedEvent;
+import diameter.monitoring.TransactionEvictedEvent;
+import diameter.monitoring.TransactionMismatchEvent;
+import diameter.monitoring.TransactionOpenedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.function.ObjLongConsumer;
 
-public class TransactionManagerImpl implements TransactionManager {
-    private static final Logger LOG = LoggerFactory.getLogger(TransactionManagerImpl.class);
+public class TransactionManagerImpl implements TransactionManager, Checkpointable {
+    private static final Logger            LOG               = LoggerFactory.getLogger(TransactionManagerImpl.class);
+    private static final RateLimitedLogger TYPE_MISMATCH     = RateLimitedLogger.create(LOG, "Type mismatch");
+    private static final long              TIMER_TICK_MILLIS = 10;
+    private static final int               TIMER_WHEEL_SIZE  = 4096;
+    private static final int               NO_REORDER_WINDOW = 0;
+
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
 
     private static volatile TransactionManagerImpl        instance;
     private                 int                           numberOfCompleteTransactions   = 0;
     private                 int                           numberOfIncompleteTransactions = 0;
-    private final           Map<String, Transaction>      transactionsBySessionId        = new HashMap<>();
+    private                 int                           numberOfTimedOutTransactions   = 0;
+    private final           TransactionStore              openTransactions;
+    private final           CompletedSessions             completedSessions;
+    private final           AnswerTimeouts                answerTimeouts;
+    private final           TimerWheel<String>            answerTimers;
+    private final           ObjLongConsumer<String>       expireTransaction              = this::expire;
+    private final           AnswerLatencies               answerLatencies                = new AnswerLatencies();
+    private final           ReorderBuffer                 earlyAnswers;
+    private                 LiveMetrics                   liveMetrics;
+    private                 ParkedAnswerListener          parkedAnswerListener;
+    private                 long                          messageTime                    = DiameterMessage.NO_TIMESTAMP;
     private static final    Map<MessageType, MessageType> answerByRequest                =
             Map.of(MessageType.AIR, MessageType.AIA, MessageType.ULR, MessageType.ULA);
 
-    private TransactionManagerImpl() {}
+    TransactionManagerImpl() {
+        this(RetentionPolicy.DEFAULT);
+    }
+
+    public TransactionManagerImpl(RetentionPolicy retentionPolicy) {
+        this(retentionPolicy, new HeapTransactionStore());
+    }
+
+    public TransactionManagerImpl(RetentionPolicy retentionPolicy, TransactionStore openTransactions) {
+        this(retentionPolicy, openTransactions, AnswerTimeouts.NONE);
+    }
+
+    public TransactionManagerImpl(RetentionPolicy retentionPolicy, TransactionStore openTransactions,
+                                  AnswerTimeouts answerTimeouts) {
+        this(retentionPolicy, openTransactions, answerTimeouts, NO_REORDER_WINDOW);
+    }
+
+    /**
+     * @param reorderWindow how many further messages an answer that arrives before its request is kept waiting for
+     *                      it; {@code 0} reports such answers as unexpected right away
+     */
+    public TransactionManagerImpl(RetentionPolicy retentionPolicy, TransactionStore openTransactions,
+                                  AnswerTimeouts answerTimeouts, int reorderWindow) {
+        if (reorderWindow < 0) {
+            throw new IllegalArgumentException("Reorder window must not be negative but was: " + reorderWindow);
+        }
+
+        this.openTransactions = openTransactions;
+        // Time-bounded retention runs on message time, the clock of the answer timeouts, so a replayed capture forgets
+        // Session-Ids at the pace of its traffic.
+        this.completedSessions = new CompletedSessions(retentionPolicy, () -> messageTime);
+        this.answerTimeouts = answerTimeouts;
+        this.answerTimers = answerTimeouts.isEmpty() ? null : new TimerWheel<>(TIMER_TICK_MILLIS, TIMER_WHEEL_SIZE);
+        this.earlyAnswers = reorderWindow == NO_REORDER_WINDOW ? null : new ReorderBuffer(reorderWindow);
+    }
 
     public static TransactionManagerImpl getInstance() {
         if (instance == null) {
@@ -35,63 +95,250 @@ public class TransactionManagerImpl implements TransactionManager {
     }
 
     @Override
-    public void processDiameterMessage(DiameterMessage diameterMessage) {
+    public TransactionStatus handleDiameterMessage(DiameterMessage diameterMessage) {
         if (diameterMessage == null || diameterMessage.getSessionId() == null) {
             LOG.error("Invalid message: message or sessionId is null");
             throw new IllegalArgumentException("Message and session ID cannot be null");
         }
 
+        if (diameterMessage.hasTimestamp()) {
+            expireUpTo(diameterMessage.getTimestamp());
+        }
+
+        if (earlyAnswers != null) {
+            DiameterMessage orphan = earlyAnswers.advance();
+            if (orphan != null) {
+                settleParkedAnswer(orphan, TransactionStatus.UNEXPECTED_ANSWER);
+            }
+        }
+
+        TransactionStatus retVal;
         if (diameterMessage.getIsRequest()) {
-            handleRequestMessage(diameterMessage);
+            retVal = handleRequestMessage(diameterMessage);
         }
         else {
-            handleAnswerMessage(diameterMessage);
+            retVal = handleAnswerMessage(diameterMessage);
         }
+
+        return retVal;
+    }
+
+    @Override
+    public void setLiveMetrics(LiveMetrics liveMetrics) {
+        this.liveMetrics = liveMetrics;
+    }
+
+    @Override
+    public void setParkedAnswerListener(ParkedAnswerListener parkedAnswerListener) {
+        this.parkedAnswerListener = parkedAnswerListener;
     }
 
     @Override
     public TransactionResult getTransactionResult() {
-        return new TransactionResult(numberOfCompleteTransactions, numberOfIncompleteTransactions);
+        int orphanAnswers = 0;
+        if (earlyAnswers != null) {
+            // Answers still parked at this point will not find their request either.
+            earlyAnswers.evictAll(orphan -> settleParkedAnswer(orphan, TransactionStatus.UNEXPECTED_ANSWER));
+            orphanAnswers = earlyAnswers.getEvictedCount();
+        }
+
+        return new TransactionResult(numberOfCompleteTransactions, numberOfIncompleteTransactions,
+                                     numberOfTimedOutTransactions, orphanAnswers, answerLatencies.copy());
+    }
+
+    /**
+     * Saves the counters, message time, open transactions, remembered Session-Ids and latency histograms. Answer
+     * timers are not saved; they are rebuilt from the open transactions on restore.
+     */
+    @Override
+    public void writeCheckpoint(DataOutput out) throws IOException {
+        if (earlyAnswers != null) {
+            throw new CheckpointException("Checkpoints are not supported with a reorder window");
+        }
+
+        out.writeInt(numberOfCompleteTransactions);
+        out.writeInt(numberOfIncompleteTransactions);
+        out.writeInt(numberOfTimedOutTransactions);
+        out.writeLong(messageTime);
+
+        out.writeInt(openTransactions.size());
+        try {
+            openTransactions.forEach((sessionId, requestType, openedAt) -> {
+                try {
+                    out.writeUTF(sessionId);
+                    out.writeByte(requestType.ordinal());
+                    out.writeLong(openedAt);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        completedSessions.writeTo(out);
+        answerLatencies.writeTo(out);
+    }
+
+    @Override
+    public void restoreCheckpoint(DataInput in) throws IOException {
+        if (openTransactions.size() > 0 || numberOfCompleteTransactions > 0) {
+            throw new IllegalStateException("Checkpoints can only be restored into an unused transaction manager");
+        }
+
+        numberOfCompleteTransactions = in.readInt();
+        numberOfIncompleteTransactions = in.readInt();
+        numberOfTimedOutTransactions = in.readInt();
+        messageTime = in.readLong();
+
+        for (int open = in.readInt(); open > 0; open--) {
+            String      sessionId   = in.readUTF();
+            MessageType requestType = MESSAGE_TYPES[in.readByte()];
+            long        openedAt    = in.readLong();
+
+            openTransactions.open(sessionId, requestType, openedAt);
+            scheduleTimeout(sessionId, requestType, openedAt);
+        }
+
+        completedSessions.readFrom(in);
+        answerLatencies.readFrom(in);
+    }
+
+    /**
+     * Advances message time to {@code now} and times out every open transaction whose answer was due before it.
+     * Message time only moves forward; timestamps are taken from the messages themselves, and a message without one
+     * leaves it where it is.
+     */
+    void expireUpTo(long now) {
+        messageTime = Math.max(messageTime, now);
+        if (answerTimers != null) {
+            answerTimers.advance(now, expireTransaction);
+        }
+    }
+
+    private void expire(String sessionId, long deadline) {
+        MessageType requestType = openTransactions.getRequestType(sessionId);
+        // The timer is stale if the transaction completed, or if the session was reopened with another deadline.
+        if (requestType == null
+                || openTransactions.getOpenedAt(sessionId) + answerTimeouts.getTimeoutMillis(requestType) != deadline) {
+            return;
+        }
+
+        LOG.debug("Transaction timed out: sessionId = {}, requestType = {}", sessionId, requestType);
+        TransactionEvictedEvent.emit(TransactionEvictedEvent.TIMED_OUT, sessionId, requestType);
+        openTransactions.remove(sessionId);
+        completedSessions.add(sessionId);
+        numberOfIncompleteTransactions--;
+        numberOfTimedOutTransactions++;
+        if (liveMetrics != null) {
+            liveMetrics.transactionTimedOut();
+        }
     }
 
-    private void handleRequestMessage(DiameterMessage message) {
-        String sessionId = message.getSessionId();
-        if (transactionsBySessionId.containsKey(sessionId)) {
-            throw new DuplicateTransactionException(sessionId);
+    private TransactionStatus handleRequestMessage(DiameterMessage message) {
+        String      sessionId   = message.getSessionId();
+        MessageType requestType = message.getMessageType();
+        if (completedSessions.contains(sessionId)
+                || !openTransactions.open(sessionId, requestType, message.getTimestamp())) {
+            return TransactionStatus.DUPLICATE;
         }
 
+        scheduleTimeout(sessionId, requestType, message.getTimestamp());
         incrementIncompleteTransactions();
-        transactionsBySessionId.put(sessionId, new Transaction(message));
+        TransactionOpenedEvent.emit(sessionId, requestType);
+
+        DiameterMessage earlyAnswer = earlyAnswers == null ? null : earlyAnswers.take(sessionId);
+        if (earlyAnswer != null) {
+            settleParkedAnswer(earlyAnswer, handleAnswerMessage(earlyAnswer));
+        }
+
+        return TransactionStatus.OPENED;
     }
 
-    private void handleAnswerMessage(DiameterMessage message) {
-        String sessionId = message.getSessionId();
-        Transaction transaction = transactionsBySessionId.get(sessionId);
-        if (transaction == null) {
-            throw new UnexpectedTransactionAnswerException(sessionId);
+    private TransactionStatus handleAnswerMessage(DiameterMessage message) {
+        String      sessionId   = message.getSessionId();
+        MessageType requestType = openTransactions.getRequestType(sessionId);
+        if (requestType == null) {
+            return parkEarlyAnswer(message);
         }
 
-        if (isMessageTypeMatch(transaction.getRequest(), message)) {
-            transaction.setAnswer(message);
+        if (answerByRequest.get(requestType) == message.getMessageType()) {
+            long openedAt = openTransactions.getOpenedAt(sessionId);
+            recordLatency(requestType, message, openedAt);
+            openTransactions.remove(sessionId);
+            completedSessions.add(sessionId);
             incrementCompleteTransactions();
+            TransactionCompletedEvent.emit(sessionId, requestType, message, openedAt);
+            return TransactionStatus.COMPLETED;
         }
-        else {
-            LOG.warn("Transaction type mismatch: sessionId = {}, expectedAnswer = {}, actualAnswer = {}",
-                    sessionId, answerByRequest.get(transaction.getRequest().getMessageType()), message.getMessageType());
+
+        TYPE_MISMATCH.warn("Transaction type mismatch: sessionId = {}, expectedAnswer = {}, actualAnswer = {}",
+                sessionId, answerByRequest.get(requestType), message.getMessageType());
+        TransactionMismatchEvent.emit(sessionId, answerByRequest.get(requestType), message.getMessageType());
+        if (liveMetrics != null) {
+            liveMetrics.answerMismatched();
         }
+        return TransactionStatus.TYPE_MISMATCH;
     }
 
-    private boolean isMessageTypeMatch(DiameterMessage request, DiameterMessage message) {
-        return answerByRequest.get(request.getMessageType()) == message.getMessageType();
+    int getOpenTransactionCount() {
+        return openTransactions.size();
+    }
+
+    private void scheduleTimeout(String sessionId, MessageType requestType, long openedAt) {
+        if (answerTimers == null || openedAt == DiameterMessage.NO_TIMESTAMP
+                || !answerTimeouts.hasTimeout(requestType)) {
+            return;
+        }
+
+        answerTimers.schedule(sessionId, openedAt + answerTimeouts.getTimeoutMillis(requestType));
+    }
+
+    private TransactionStatus parkEarlyAnswer(DiameterMessage message) {
+        // A Session-Id that already completed cannot be opened again, so its answer can never match.
+        if (earlyAnswers == null || completedSessions.contains(message.getSessionId()) || !earlyAnswers.park(message)) {
+            return TransactionStatus.UNEXPECTED_ANSWER;
+        }
+
+        LOG.debug("Parking early answer: sessionId = {}, type = {}", message.getSessionId(), message.getMessageType());
+        return TransactionStatus.PARKED;
+    }
+
+    private void settleParkedAnswer(DiameterMessage answer, TransactionStatus status) {
+        if (parkedAnswerListener != null) {
+            parkedAnswerListener.onParkedAnswerSettled(answer, status);
+        }
+    }
+
+    private void recordLatency(MessageType requestType, DiameterMessage answer, long openedAt) {
+        if (answer.hasTimestamp() && openedAt != DiameterMessage.NO_TIMESTAMP) {
+            answerLatencies.record(requestType, answer.getOriginHost(), answer.getTimestamp() - openedAt);
+        }
+    }
+
+    int getPendingTimerCount() {
+        return answerTimers == null ? 0 : answerTimers.size();
+    }
+
+    int getRetainedSessionCount() {
+        return completedSessions.size();
     }
 
     private void incrementCompleteTransactions() {
         numberOfCompleteTransactions++;
         numberOfIncompleteTransactions--;
+        if (liveMetrics != null) {
+            liveMetrics.transactionCompleted();
+        }
     }
 
     private void incrementIncompleteTransactions() {
         numberOfIncompleteTransactions++;
+        if (liveMetrics != null) {
+            liveMetrics.transactionOpened();
+        }
     }
 }
 
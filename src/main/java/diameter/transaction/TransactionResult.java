@@ -1,12 +1,30 @@
 package diameter.transaction;
 
 public class TransactionResult {
-    private final int numberOfCompleteTransactions;
-    private final int numberOfIncompleteTransactions;
+    private final int             numberOfCompleteTransactions;
+    private final int             numberOfIncompleteTransactions;
+    private final int             numberOfTimedOutTransactions;
+    private final int             numberOfOrphanAnswers;
+    private final AnswerLatencies answerLatencies;
 
     public TransactionResult(int numberOfCompleteTransactions, int numberOfIncompleteTransactions) {
+        this(numberOfCompleteTransactions, numberOfIncompleteTransactions, 0);
+    }
+
+    public TransactionResult(int numberOfCompleteTransactions, int numberOfIncompleteTransactions,
+                             int numberOfTimedOutTransactions) {
+        this(numberOfCompleteTransactions, numberOfIncompleteTransactions, numberOfTimedOutTransactions, 0,
+             new AnswerLatencies());
+    }
+
+    public TransactionResult(int numberOfCompleteTransactions, int numberOfIncompleteTransactions,
+                             int numberOfTimedOutTransactions, int numberOfOrphanAnswers,
+                             AnswerLatencies answerLatencies) {
         this.numberOfCompleteTransactions = numberOfCompleteTransactions;
         this.numberOfIncompleteTransactions = numberOfIncompleteTransactions;
+        this.numberOfTimedOutTransactions = numberOfTimedOutTransactions;
+        this.numberOfOrphanAnswers = numberOfOrphanAnswers;
+        this.answerLatencies = answerLatencies;
     }
 
     public int getNumberOfCompleteTransactions() {
@@ -16,4 +34,27 @@ public class TransactionResult {
     public int getNumberOfIncompleteTransactions() {
         return numberOfIncompleteTransactions;
     }
+
+    /**
+     * Requests whose answer did not arrive within the configured {@link AnswerTimeouts}; these are not counted as
+     * incomplete.
+     */
+    public int getNumberOfTimedOutTransactions() {
+        return numberOfTimedOutTransactions;
+    }
+
+    /**
+     * Answers parked in the reorder window whose request never arrived in time. They were handled as parked and
+     * settled as unexpected answers once evicted; see {@link ParkedAnswerListener}.
+     */
+    public int getNumberOfOrphanAnswers() {
+        return numberOfOrphanAnswers;
+    }
+
+    /**
+     * Latencies of completed transactions whose request and answer both carried a timestamp.
+     */
+    public AnswerLatencies getAnswerLatencies() {
+        return answerLatencies;
+    }
 }
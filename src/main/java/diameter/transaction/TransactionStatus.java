@@ -0,0 +1,18 @@
+package diameter.transaction;
+
+public enum TransactionStatus {
+    OPENED,
+    COMPLETED,
+    TYPE_MISMATCH,
+    DUPLICATE,
+    UNEXPECTED_ANSWER,
+    /**
+     * An answer that arrived before its request and is held in the reorder window; it completes the transaction if
+     * the request follows in time and is counted as an orphan answer otherwise.
+     */
+    PARKED;
+
+    public boolean isError() {
+        return this == DUPLICATE || this == UNEXPECTED_ANSWER;
+    }
+}
@@ -0,0 +1,44 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+
+/**
+ * The open transactions of a single-threaded {@link TransactionManagerImpl}, reduced to what correlation needs: the
+ * request type and request timestamp per Session-Id. Implementations are not thread-safe.
+ */
+public interface TransactionStore {
+    default boolean open(String sessionId, MessageType requestType) {
+        return open(sessionId, requestType, DiameterMessage.NO_TIMESTAMP);
+    }
+
+    /**
+     * Opens a transaction; returns {@code false} and changes nothing if one is already open for the session.
+     */
+    boolean open(String sessionId, MessageType requestType, long openedAt);
+
+    /**
+     * Returns the request type of the open transaction, or {@code null} if none is open for the session.
+     */
+    MessageType getRequestType(String sessionId);
+
+    /**
+     * Returns the request timestamp of the open transaction, or {@link DiameterMessage#NO_TIMESTAMP} if none is open
+     * for the session or the request had no timestamp.
+     */
+    long getOpenedAt(String sessionId);
+
+    boolean remove(String sessionId);
+
+    int size();
+
+    /**
+     * Visits every open transaction, in no particular order. The store must not be modified during the visit.
+     */
+    void forEach(OpenTransactionVisitor visitor);
+
+    @FunctionalInterface
+    interface OpenTransactionVisitor {
+        void visit(String sessionId, MessageType requestType, long openedAt);
+    }
+}
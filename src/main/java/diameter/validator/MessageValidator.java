@@ -4,4 +4,20 @@ import diameter.domain.message.DiameterMessage;
 
 public interface MessageValidator {
     ValidationResult validate(DiameterMessage message);
+
+    /**
+     * Batch form of {@link #validate(DiameterMessage)} over {@code messages[from, to)}: writes {@code null} to the
+     * same index of {@code failures} for a valid message and the failed result for an invalid one, and returns the
+     * number of invalid messages. {@code null} messages are skipped.
+     */
+    default int validate(DiameterMessage[] messages, int from, int to, ValidationResult[] failures) {
+        int invalid = 0;
+        for (int i = from; i < to; i++) {
+            ValidationResult result = messages[i] == null ? null : validate(messages[i]);
+            failures[i] = result == null || result.isValid() ? null : result;
+            invalid += failures[i] == null ? 0 : 1;
+        }
+
+        return invalid;
+    }
 }
@@ -9,4 +9,26 @@ public class MessageValidatorImpl implements MessageValidator {
         message.validate(result);
         return result;
     }
+
+    @Override
+    public int validate(DiameterMessage[] messages, int from, int to, ValidationResult[] failures) {
+        // Valid messages leave the result empty, so one instance serves until a message fails.
+        ValidationResult result  = new ValidationResult();
+        int              invalid = 0;
+        for (int i = from; i < to; i++) {
+            failures[i] = null;
+            if (messages[i] == null) {
+                continue;
+            }
+
+            messages[i].validate(result);
+            if (!result.isValid()) {
+                failures[i] = result;
+                result = new ValidationResult();
+                invalid++;
+            }
+        }
+
+        return invalid;
+    }
 }
\ No newline at end of file
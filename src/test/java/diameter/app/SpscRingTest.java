@@ -0,0 +1,72 @@
+package diameter.app;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SpscRing Tests")
+class SpscRingTest {
+
+    @Test
+    @DisplayName("Should hand items back in FIFO order and report full and empty")
+    void shouldBeFifoAndBounded() {
+        SpscRing<Integer> ring = new SpscRing<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+
+        assertEquals(Integer.valueOf(0), ring.poll());
+        assertTrue(ring.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), ring.poll());
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    @DisplayName("Should reject a capacity that is not a power of two")
+    void shouldRejectInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpscRing<>(3));
+        assertThrows(IllegalArgumentException.class, () -> new SpscRing<>(0));
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should pass every item exactly once and in order between two threads")
+    void shouldPassItemsBetweenThreads() throws Exception {
+        SpscRing<Integer>          ring     = new SpscRing<>(8);
+        int                        count    = 200_000;
+        AtomicReference<Throwable> failure  = new AtomicReference<>();
+        Thread                     consumer = new Thread(() -> {
+            try {
+                for (int expected = 0; expected < count; expected++) {
+                    Integer item;
+                    while ((item = ring.poll()) == null) {
+                        Thread.yield();
+                    }
+                    assertEquals(expected, item.intValue());
+                }
+            }
+            catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < count; i++) {
+            while (!ring.offer(i)) {
+                Thread.yield();
+            }
+        }
+
+        consumer.join();
+        assertNull(failure.get());
+        assertNull(ring.poll());
+    }
+}
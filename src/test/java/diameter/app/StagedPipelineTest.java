@@ -0,0 +1,176 @@
+package diameter.app;
+
+import diameter.csv.model.CsvRow;
+import diameter.domain.MessageType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StagedPipeline Tests")
+class StagedPipelineTest {
+    private static final int BATCH_SIZE = 16;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3})
+    @Timeout(60)
+    @DisplayName("Should correlate every row once and in input order")
+    void shouldCorrelateRowsInInputOrder(int workers) {
+        List<String> correlated = new ArrayList<>();
+        Set<String>  threads    = ConcurrentHashMap.newKeySet();
+
+        StagedPipeline pipeline = new StagedPipeline(workers, BATCH_SIZE,
+                                                     batch -> threads.add(Thread.currentThread().getName()),
+                                                     batch -> {
+                                                         for (int i = 0; i < batch.size; i++) {
+                                                             correlated.add(batch.rows[i].getSessionId());
+                                                         }
+                                                     });
+        pipeline.run(source(1_000));
+
+        assertEquals(sessionIds(1_000), correlated);
+        if (workers == 0) {
+            assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        }
+        else {
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("pipeline-worker-")), threads.toString());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should rethrow a reading failure after the rows read before it")
+    void shouldRethrowReadingFailure() {
+        List<String>   correlated = new ArrayList<>();
+        StagedPipeline pipeline   = new StagedPipeline(2, BATCH_SIZE, batch -> {}, batch -> {
+            for (int i = 0; i < batch.size; i++) {
+                correlated.add(batch.rows[i].getSessionId());
+            }
+        });
+
+        StagedPipeline.BatchSource failingSource = (first, handoff) -> {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                first.rows[first.size++] = row("sess-" + i);
+            }
+            handoff.apply(first);
+            throw new IllegalStateException("broken input");
+        };
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> pipeline.run(failingSource));
+
+        assertEquals("broken input", thrown.getMessage());
+        assertEquals(sessionIds(BATCH_SIZE), correlated);
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should stop every stage and rethrow when a worker fails")
+    void shouldRethrowWorkerFailure() {
+        StagedPipeline pipeline = new StagedPipeline(2, BATCH_SIZE, batch -> {
+            throw new IllegalArgumentException("bad batch");
+        }, batch -> {});
+
+        IllegalArgumentException thrown =
+                assertThrows(IllegalArgumentException.class, () -> pipeline.run(source(10_000)));
+
+        assertEquals("bad batch", thrown.getMessage());
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should stop every stage and rethrow when correlation fails")
+    void shouldRethrowCorrelationFailure() {
+        StagedPipeline pipeline = new StagedPipeline(2, BATCH_SIZE, batch -> {}, batch -> {
+            throw new IllegalStateException("correlation failed");
+        });
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> pipeline.run(source(10_000)));
+
+        assertEquals("correlation failed", thrown.getMessage());
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should hold the reader back until a checkpoint batch is correlated")
+    void shouldHoldReaderAtCheckpoint() {
+        AtomicInteger  correlated  = new AtomicInteger();
+        List<Integer>  checkpoints = new ArrayList<>();
+        List<Integer>  expected    = new ArrayList<>();
+        StagedPipeline pipeline    = new StagedPipeline(3, BATCH_SIZE, batch -> {},
+                                                        batch -> correlated.incrementAndGet());
+
+        pipeline.run((first, handoff) -> {
+            MessageBatch batch = first;
+            for (int i = 1; i <= 40; i++) {
+                batch.rows[batch.size++] = row("sess-" + i);
+                batch.checkpoint = i % 5 == 0;
+                batch = handoff.apply(batch);
+                if (i % 5 == 0) {
+                    checkpoints.add(correlated.get());
+                    expected.add(i);
+                }
+            }
+        });
+
+        assertEquals(expected, checkpoints);
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("Should release a reader held at a checkpoint when correlation fails")
+    void shouldReleaseReaderAtCheckpointWhenCorrelationFails() {
+        StagedPipeline pipeline = new StagedPipeline(2, BATCH_SIZE, batch -> {}, batch -> {
+            throw new IllegalStateException("correlation failed");
+        });
+
+        StagedPipeline.BatchSource checkpointSource = (first, handoff) -> {
+            first.rows[first.size++] = row("sess-1");
+            first.checkpoint = true;
+            handoff.apply(first);
+        };
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                                                    () -> pipeline.run(checkpointSource));
+
+        assertEquals("correlation failed", thrown.getMessage());
+    }
+
+    private static StagedPipeline.BatchSource source(int rows) {
+        return (first, handoff) -> {
+            MessageBatch batch = first;
+            for (int i = 0; i < rows; i++) {
+                batch.rows[batch.size++] = row("sess-" + i);
+                if (batch.isFull()) {
+                    batch = handoff.apply(batch);
+                }
+            }
+
+            if (batch.size > 0) {
+                handoff.apply(batch);
+            }
+        };
+    }
+
+    private static List<String> sessionIds(int rows) {
+        List<String> sessionIds = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            sessionIds.add("sess-" + i);
+        }
+
+        return sessionIds;
+    }
+
+    private static CsvRow row(String sessionId) {
+        return new CsvRow(MessageType.AIR, true, sessionId, "mme1.example.com", "example.com", "001010123456789",
+                          null, null);
+    }
+}
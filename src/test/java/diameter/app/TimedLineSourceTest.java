@@ -0,0 +1,102 @@
+package diameter.app;
+
+import diameter.io.ChunkedLineSource;
+import diameter.io.LineSource;
+import diameter.reporter.StageTimings;
+import diameter.reporter.StageTimings.Stage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimedLineSource Tests")
+class TimedLineSourceTest {
+
+    @Test
+    @DisplayName("Should pass every line through and split the pass between reading and parsing")
+    void shouldTimeReadingAndParsing() {
+        StageTimings timings = new StageTimings();
+        List<String> seen    = new ArrayList<>();
+
+        TimedLineSource.wrap(LineSource.fromLines(lines(1000)), timings, () -> 0)
+                       .forEachLine((buffer, offset, length) -> seen.add(new String(buffer, offset, length)));
+
+        assertEquals(lines(1000), seen);
+        assertEquals(1000, timings.getRows(Stage.READ));
+        assertEquals(1000, timings.getRows(Stage.PARSE));
+        assertTrue(timings.getNanos(Stage.READ) >= 0);
+        assertTrue(timings.getNanos(Stage.PARSE) > 0);
+    }
+
+    @Test
+    @DisplayName("Should leave time spent handing off batches out of both stages")
+    void shouldExcludeHandoffTime() {
+        StageTimings timings = new StageTimings();
+        long[]       handoff = {0};
+
+        TimedLineSource.wrap(LineSource.fromLines(lines(128)), timings, () -> handoff[0])
+                       .forEachLine((buffer, offset, length) -> handoff[0] += sleep());
+
+        long measured = timings.getNanos(Stage.READ) + timings.getNanos(Stage.PARSE);
+        assertTrue(measured < handoff[0] / 4, "measured " + measured + "ns of " + handoff[0] + "ns handing off");
+    }
+
+    @Test
+    @DisplayName("Should keep a chunked source chunked and time each chunk")
+    void shouldWrapChunks() {
+        StageTimings      timings = new StageTimings();
+        ChunkedLineSource chunked = () -> List.of(LineSource.fromLines(lines(1)), LineSource.fromLines(lines(300)));
+
+        LineSource wrapped = TimedLineSource.wrap(chunked, timings, () -> 0);
+        int[]      count   = {0};
+        assertInstanceOf(ChunkedLineSource.class, wrapped);
+        ((ChunkedLineSource) wrapped).getChunks().forEach(chunk -> chunk.forEachLine((buffer, offset, length) -> {
+            count[0]++;
+        }));
+
+        assertEquals(301, count[0]);
+        assertEquals(301, timings.getRows(Stage.READ));
+    }
+
+    @Test
+    @DisplayName("Should record a long pass as it goes rather than only at the end")
+    void shouldRecordLongPassWhileRunning() {
+        StageTimings timings   = new StageTimings();
+        long[]       midPass   = {-1};
+        int[]        lineCount = {0};
+
+        TimedLineSource.wrap(LineSource.fromLines(lines(200_000)), timings, () -> 0)
+                       .forEachLine((buffer, offset, length) -> {
+                           if (++lineCount[0] == 150_000) {
+                               midPass[0] = timings.getRows(Stage.READ);
+                           }
+                       });
+
+        assertEquals(131_072, midPass[0]);
+        assertEquals(200_000, timings.getRows(Stage.READ));
+        assertEquals(200_000, timings.getRows(Stage.PARSE));
+    }
+
+    private static long sleep() {
+        long startTime = System.nanoTime();
+        try {
+            Thread.sleep(1);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return System.nanoTime() - startTime;
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(Collections.nCopies(count, "AIR,true,sess,mme1,example.com,user,,"));
+        lines.set(0, "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id");
+
+        return lines;
+    }
+}
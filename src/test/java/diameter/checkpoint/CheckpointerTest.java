@@ -0,0 +1,121 @@
+package diameter.checkpoint;
+
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.io.InputPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Checkpointer Tests")
+class CheckpointerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should restore the input position and every section in order")
+    void shouldRestorePositionAndSections() {
+        Checkpointer checkpointer = new Checkpointer(tempDir.resolve("run.ckpt"), 10);
+        checkpointer.write(new InputPosition(12_345L, 321L), new Section(7, "first"), new Section(-1, "second"));
+
+        Section first  = new Section(0, null);
+        Section second = new Section(0, null);
+
+        InputPosition restored = checkpointer.restore(first, second);
+        assertEquals(12_345L, restored.getOffset());
+        assertEquals(321L, restored.getLineNumber());
+        assertTrue(first.restored);
+        assertTrue(second.restored);
+        assertEquals(7, first.number);
+        assertEquals("first", first.text);
+        assertEquals(-1, second.number);
+        assertEquals("second", second.text);
+    }
+
+    @Test
+    @DisplayName("Should replace the previous checkpoint without leaving a temporary file")
+    void shouldReplacePreviousCheckpoint() throws IOException {
+        Checkpointer checkpointer = new Checkpointer(tempDir.resolve("run.ckpt"), 10);
+        checkpointer.write(new InputPosition(1L, 2L), new Section(1, "old"));
+        checkpointer.write(new InputPosition(2L, 3L), new Section(2, "new"));
+
+        Section section = new Section(0, null);
+
+        assertEquals(2L, checkpointer.restore(section).getOffset());
+        assertEquals("new", section.text);
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a checkpoint whose checksum does not match")
+    void shouldRejectCorruptCheckpoint() throws IOException {
+        Path         path         = tempDir.resolve("run.ckpt");
+        Checkpointer checkpointer = new Checkpointer(path, 10);
+        checkpointer.write(new InputPosition(99L, 5L), new Section(42, "payload"));
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 12] ^= 0x01;
+        Files.write(path, bytes);
+
+        Section section = new Section(0, null);
+
+        assertThrows(CheckpointException.class, () -> checkpointer.restore(section));
+        assertFalse(section.restored);
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is not a checkpoint")
+    void shouldRejectNonCheckpointFile() throws IOException {
+        Path path = tempDir.resolve("run.ckpt");
+        Files.writeString(path, "message_type,is_request,session_id\n");
+
+        Checkpointer checkpointer = new Checkpointer(path, 10);
+
+        assertTrue(checkpointer.exists());
+        assertThrows(CheckpointException.class, () -> checkpointer.restore(new Section(0, null)));
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive interval")
+    void shouldRejectNonPositiveInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(tempDir.resolve("run.ckpt"), 0));
+    }
+
+    private static final class Section implements Checkpointable {
+        private int     number;
+        private String  text;
+        private boolean restored = false;
+
+        private Section(int number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+
+        @Override
+        public void writeCheckpoint(DataOutput out) throws IOException {
+            out.writeInt(number);
+            out.writeUTF(text);
+        }
+
+        @Override
+        public void restoreCheckpoint(DataInput in) throws IOException {
+            number = in.readInt();
+            text = in.readUTF();
+        }
+
+        @Override
+        public void checkpointRestored() {
+            restored = true;
+        }
+    }
+}
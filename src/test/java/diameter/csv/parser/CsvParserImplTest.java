@@ -2,7 +2,10 @@ package diameter.csv.parser;
 
 import diameter.csv.model.CsvRow;
 import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
 import diameter.exception.csv.CsvValidationException;
+import diameter.io.DeadLetterWriter;
+import diameter.io.LineSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,6 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -60,15 +65,63 @@ class CsvParserImplTest {
         }
 
         @Test
-        @DisplayName("Should throw exception for unknown column")
-        void shouldThrowExceptionForUnknownColumn() {
-            String       invalidHeader =
+        @DisplayName("Should ignore unknown trailing column")
+        void shouldIgnoreUnknownTrailingColumn() {
+            String       header =
                     "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code,unknown_column";
 
-            List<String> lines         = List.of(invalidHeader);
+            List<String> lines  = List.of(header, "AIR,true,sess-1,mme1.example.com,example.com,user1,,,extra");
+            List<CsvRow> result = parser.parse(lines);
 
-            CsvValidationException exception = assertThrows(CsvValidationException.class, () -> parser.parse(lines));
-            assertTrue(exception.getMessage().contains("Unknown CSV column"));
+            assertEquals(1, result.size());
+            assertEquals("sess-1", result.getFirst().getSessionId());
+            assertNull(result.getFirst().getResultCode());
+        }
+
+        @Test
+        @DisplayName("Should ignore unknown columns between known columns")
+        void shouldIgnoreUnknownColumnsBetweenKnownColumns() {
+            String header =
+                    "capture_id,message_type,is_request,probe_id,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code";
+
+            List<String> lines  =
+                    List.of(header, "cap-1,AIA,false,probe-7,sess-1,hss1.example.com,example.com,user1,,2001");
+            List<CsvRow> result = parser.parse(lines);
+
+            assertEquals(1, result.size());
+            CsvRow row = result.getFirst();
+            assertEquals(MessageType.AIA, row.getMessageType());
+            assertFalse(row.getIsRequest());
+            assertEquals("sess-1", row.getSessionId());
+            assertEquals("hss1.example.com", row.getOriginHost());
+            assertEquals("2001", row.getResultCode());
+        }
+
+        @Test
+        @DisplayName("Should accept lines that omit unknown trailing columns")
+        void shouldAcceptLinesOmittingUnknownTrailingColumns() {
+            String header =
+                    "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code,note,probe";
+
+            List<String> lines  = List.of(header, "AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                          "AIR,true,sess-2,mme1.example.com,example.com,user2,,,note");
+            List<CsvRow> result = parser.parse(lines);
+
+            assertEquals(2, result.size());
+        }
+
+        @Test
+        @DisplayName("Should still skip lines missing a known column after an unknown one")
+        void shouldSkipLinesMissingKnownColumnAfterUnknownOne() {
+            String header =
+                    "message_type,note,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code";
+
+            List<String> lines  = List.of(header, "AIR,n,true,sess-1,mme1.example.com,example.com,user1,",
+                                          "AIR,n,true,sess-2,mme1.example.com,example.com,user2,,");
+            List<CsvRow> result = parser.parse(lines);
+
+            assertEquals(1, result.size());
+            assertEquals("sess-2", result.getFirst().getSessionId());
         }
 
         @Test
@@ -111,6 +164,29 @@ class CsvParserImplTest {
             assertNull(row.getResultCode());
         }
 
+        @Test
+        @DisplayName("Should parse the optional timestamp column")
+        void shouldParseTimestampColumn() {
+            List<String> lines = List.of("timestamp," + VALID_HEADER,
+                                         "1700000000123,AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                         ",AIR,true,sess-2,mme1.example.com,example.com,user1,,",
+                                         "yesterday,AIR,true,sess-3,mme1.example.com,example.com,user1,,");
+
+            List<CsvRow> result = parser.parse(lines);
+
+            assertEquals(2, result.size());
+            assertEquals(1_700_000_000_123L, result.get(0).getTimestamp());
+            assertEquals(DiameterMessage.NO_TIMESTAMP, result.get(1).getTimestamp());
+        }
+
+        @Test
+        @DisplayName("Should leave rows without a timestamp column untimed")
+        void shouldLeaveRowsUntimedWithoutTimestampColumn() {
+            List<String> lines = List.of(VALID_HEADER, "AIR,true,sess-1,mme1.example.com,example.com,user1,,");
+
+            assertEquals(DiameterMessage.NO_TIMESTAMP, parser.parse(lines).getFirst().getTimestamp());
+        }
+
         @Test
         @DisplayName("Should parse valid ULR message with visited PLMN ID")
         void shouldParseValidUlrMessage() {
@@ -245,6 +321,83 @@ class CsvParserImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Streaming Parsing")
+    class StreamingParsing {
+
+        @Test
+        @DisplayName("Should deliver rows to the consumer in line order")
+        void shouldDeliverRowsInLineOrder() {
+            List<String> lines = List.of(VALID_HEADER, "AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                         "INVALID,true,sess-2,mme1.example.com,example.com,user2,,",
+                                         "AIA,false,sess-1,hss1.example.com,example.com,,,2001");
+
+            List<CsvRow> rows = new ArrayList<>();
+            parser.parse(LineSource.fromLines(lines), rows::add);
+
+            assertEquals(2, rows.size());
+            assertEquals(MessageType.AIR, rows.get(0).getMessageType());
+            assertEquals(MessageType.AIA, rows.get(1).getMessageType());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when line source is empty")
+        void shouldThrowExceptionWhenLineSourceIsEmpty() {
+            assertThrows(CsvValidationException.class,
+                         () -> parser.parse(LineSource.fromLines(List.of()), row -> fail("Unexpected row")));
+        }
+
+        @Test
+        @DisplayName("Should validate header before delivering any row")
+        void shouldValidateHeaderBeforeDeliveringRows() {
+            List<String> lines = List.of("message_type,is_request", "AIR,true");
+
+            assertThrows(CsvValidationException.class,
+                         () -> parser.parse(LineSource.fromLines(lines), row -> fail("Unexpected row")));
+        }
+
+        @Test
+        @DisplayName("Should hand rejected lines to the dead-letter writer with line number and reason")
+        void shouldWriteRejectedLinesToDeadLetters() {
+            List<String> rejected = new ArrayList<>();
+            DeadLetterWriter deadLetters = new DeadLetterWriter() {
+                @Override
+                public void write(long lineNumber, String reason, byte[] buffer, int offset, int length) {
+                    rejected.add(lineNumber + "|" + reason + "|"
+                                 + new String(buffer, offset, length, StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            List<String> lines = List.of(VALID_HEADER, "AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                         "INVALID,true,sess-2,mme1.example.com,example.com,user2,,",
+                                         "AIA,false");
+
+            List<CsvRow> rows = new ArrayList<>();
+            new CsvParserImpl(deadLetters).parse(LineSource.fromLines(lines), rows::add);
+
+            assertEquals(1, rows.size());
+            assertEquals(List.of("3|Invalid message_type: INVALID|" + lines.get(2),
+                                 "4|Line has fewer columns than expected|AIA,false"), rejected);
+        }
+
+        @Test
+        @DisplayName("Should hand every row over with its line number and line")
+        void shouldNumberRowsByLine() {
+            List<String> lines = List.of(VALID_HEADER, "AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                         "INVALID,true,sess-2,mme1.example.com,example.com,user2,,",
+                                         "AIA,false,sess-1,hss1.example.com,example.com,,,2001");
+
+            List<String> rows = new ArrayList<>();
+            parser.parse(LineSource.fromLines(lines), (row, lineNumber, buffer, offset, length) ->
+                    rows.add(lineNumber + "|" + new String(buffer, offset, length, StandardCharsets.UTF_8)));
+
+            assertEquals(List.of("2|" + lines.get(1), "4|" + lines.get(3)), rows);
+        }
+    }
+
     @Nested
     @DisplayName("Edge Cases")
     class EdgeCases {
@@ -0,0 +1,159 @@
+package diameter.csv.parser;
+
+import diameter.domain.MessageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CsvTokenizer Tests")
+class CsvTokenizerTest {
+    private CsvTokenizer tokenizer;
+
+    @BeforeEach
+    void setUp() {
+        tokenizer = new CsvTokenizer();
+    }
+
+    @Nested
+    @DisplayName("Field Splitting")
+    class FieldSplitting {
+
+        @Test
+        @DisplayName("Should count trailing empty fields like split with negative limit")
+        void shouldCountTrailingEmptyFields() {
+            assertEquals(8, tokenize("AIR,true,sess-1,host,realm,user,,"));
+            assertEquals(1, tokenize(""));
+        }
+
+        @Test
+        @DisplayName("Should trim surrounding whitespace from fields")
+        void shouldTrimFields() {
+            tokenize("  AIR , true ,\tsess-1\t");
+
+            assertEquals("AIR", tokenizer.getString(0));
+            assertEquals("true", tokenizer.getString(1));
+            assertEquals("sess-1", tokenizer.getString(2));
+        }
+
+        @Test
+        @DisplayName("Should return null for empty and whitespace-only fields")
+        void shouldReturnNullForEmptyFields() {
+            tokenize("a,,   ,b");
+
+            assertNull(tokenizer.getStringOrNull(1));
+            assertNull(tokenizer.getStringOrNull(2));
+            assertEquals("b", tokenizer.getStringOrNull(3));
+            assertNull(tokenizer.getStringOrNull(10));
+        }
+
+        @Test
+        @DisplayName("Should only tokenize the given slice of the buffer")
+        void shouldOnlyTokenizeGivenSlice() {
+            byte[] buffer = "xxAIR,true,sess-1yy".getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(3, tokenizer.tokenize(buffer, 2, buffer.length - 4));
+            assertEquals("sess-1", tokenizer.getString(2));
+        }
+
+        @Test
+        @DisplayName("Should stop after the requested number of fields")
+        void shouldStopAfterMaxFields() {
+            byte[] buffer = "AIR,true,sess-1,ignored,ignöred".getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(3, tokenizer.tokenize(buffer, 0, buffer.length, 3));
+            assertEquals(3, tokenizer.getFieldCount());
+            assertEquals("sess-1", tokenizer.getString(2));
+            assertNull(tokenizer.getStringOrNull(3));
+        }
+
+        @Test
+        @DisplayName("Should return fewer fields than requested for short lines")
+        void shouldReturnFewerFieldsForShortLines() {
+            byte[] buffer = "AIR,true".getBytes(StandardCharsets.UTF_8);
+
+            assertEquals(2, tokenizer.tokenize(buffer, 0, buffer.length, 8));
+            assertEquals("true", tokenizer.getString(1));
+        }
+
+        @Test
+        @DisplayName("Should keep multi-byte UTF-8 characters intact")
+        void shouldKeepMultiByteCharacters() {
+            tokenize("ULR,true,séss-ü,höst");
+
+            assertEquals("séss-ü", tokenizer.getString(2));
+            assertEquals("höst", tokenizer.getString(3));
+        }
+
+        @Test
+        @DisplayName("Should grow beyond the initial field capacity")
+        void shouldGrowBeyondInitialCapacity() {
+            tokenize("0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25,26,27,28,29");
+
+            assertEquals(30, tokenizer.getFieldCount());
+            assertEquals("29", tokenizer.getString(29));
+        }
+    }
+
+    @Nested
+    @DisplayName("Typed Fields")
+    class TypedFields {
+
+        @ParameterizedTest
+        @DisplayName("Should match message types exactly")
+        @CsvSource({"AIR, AIR", "AIA, AIA", "ULR, ULR", "ULA, ULA"})
+        void shouldMatchMessageTypes(String field, MessageType expected) {
+            tokenize(field + ",true");
+
+            assertEquals(expected, tokenizer.getMessageType(0));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown or differently cased message types")
+        void shouldRejectUnknownMessageTypes() {
+            tokenize("air,AIRX,,AI");
+
+            assertNull(tokenizer.getMessageType(0));
+            assertNull(tokenizer.getMessageType(1));
+            assertNull(tokenizer.getMessageType(2));
+            assertNull(tokenizer.getMessageType(3));
+        }
+
+        @Test
+        @DisplayName("Should parse non-negative longs and reject anything else")
+        void shouldParseLongs() {
+            tokenize("1700000000123, 0 ,,-5,12a,1234567890123456789");
+
+            assertEquals(1_700_000_000_123L, tokenizer.getLong(0, -1));
+            assertEquals(0, tokenizer.getLong(1, -1));
+            assertEquals(-1, tokenizer.getLong(2, -1));
+            assertEquals(CsvTokenizer.INVALID_LONG, tokenizer.getLong(3, -1));
+            assertEquals(CsvTokenizer.INVALID_LONG, tokenizer.getLong(4, -1));
+            assertEquals(CsvTokenizer.INVALID_LONG, tokenizer.getLong(5, -1));
+            assertEquals(-1, tokenizer.getLong(6, -1));
+        }
+
+        @Test
+        @DisplayName("Should parse booleans ignoring case")
+        void shouldParseBooleansIgnoringCase() {
+            tokenize("true,FALSE,True,maybe,");
+
+            assertEquals(Boolean.TRUE, tokenizer.getBoolean(0));
+            assertEquals(Boolean.FALSE, tokenizer.getBoolean(1));
+            assertEquals(Boolean.TRUE, tokenizer.getBoolean(2));
+            assertNull(tokenizer.getBoolean(3));
+            assertNull(tokenizer.getBoolean(4));
+        }
+    }
+
+    private int tokenize(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return tokenizer.tokenize(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,199 @@
+package diameter.csv.parser;
+
+import diameter.csv.model.CsvRow;
+import diameter.exception.csv.CsvValidationException;
+import diameter.io.DeadLetterWriterImpl;
+import diameter.io.LineSource;
+import diameter.io.MappedFileReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParallelCsvParser Tests")
+class ParallelCsvParserTest {
+    private static final String VALID_HEADER =
+            "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code";
+
+    @TempDir
+    Path tempDir;
+
+    private ForkJoinPool      pool;
+    private ParallelCsvParser parser;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        parser = new ParallelCsvParser(new CsvParserImpl(), pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Nested
+    @DisplayName("Chunked Input")
+    class ChunkedInput {
+
+        @Test
+        @DisplayName("Should deliver rows from all chunks in file order")
+        void shouldDeliverRowsInFileOrder() throws IOException {
+            List<String> lines = new ArrayList<>(List.of(VALID_HEADER));
+            for (int i = 0; i < 2_000; i++) {
+                lines.add("AIR,true,sess-" + i + ",mme1.example.com,example.com,user1,,");
+                if (i % 7 == 0) {
+                    lines.add("INVALID,true,bad-" + i + ",mme1.example.com,example.com,user1,,");
+                }
+            }
+            Path file = tempDir.resolve("input.csv");
+            Files.write(file, lines);
+
+            List<CsvRow> rows = new ArrayList<>();
+            parser.parse(new MappedFileReader(256).getLineSource(new String[]{file.toString()}), rows::add);
+
+            assertEquals(2_000, rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                assertEquals("sess-" + i, rows.get(i).getSessionId());
+            }
+        }
+
+        @Test
+        @DisplayName("Should number rows from all chunks by their line in the file")
+        void shouldNumberRowsByLineInFile() throws IOException {
+            List<String> lines         = new ArrayList<>(List.of(VALID_HEADER));
+            List<String> expectedLines = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                lines.add("AIR,true,sess-" + i + ",mme1.example.com,example.com,user1,,");
+                expectedLines.add(lines.size() + "|");
+                if (i % 7 == 0) {
+                    lines.add("INVALID,true,bad-" + i + ",mme1.example.com,example.com,user1,,");
+                }
+            }
+            Path file = tempDir.resolve("input.csv");
+            Files.write(file, lines);
+
+            assertEquals(expectedLines, parseLines(parser, file));
+        }
+
+        @Test
+        @DisplayName("Should hand over the line of every row while writing dead letters")
+        void shouldHandOverLinesWhileDeadLettering() throws IOException {
+            List<String> lines         = new ArrayList<>(List.of(VALID_HEADER));
+            List<String> expectedLines = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                lines.add("AIR,true,sess-" + i + ",mme1.example.com,example.com,user1,,");
+                expectedLines.add(lines.size() + "|" + lines.getLast());
+                if (i % 7 == 0) {
+                    lines.add("INVALID,true,bad-" + i + ",mme1.example.com,example.com,user1,,");
+                }
+            }
+            Path file = tempDir.resolve("input.csv");
+            Files.write(file, lines);
+
+            try (DeadLetterWriterImpl deadLetters = new DeadLetterWriterImpl(tempDir.resolve("rejected.csv"))) {
+                ParallelCsvParser deadLetteringParser = new ParallelCsvParser(new CsvParserImpl(deadLetters), pool);
+
+                assertEquals(expectedLines, parseLines(deadLetteringParser, file));
+            }
+        }
+
+        @Test
+        @DisplayName("Should throw exception for an empty file")
+        void shouldThrowExceptionForEmptyFile() throws IOException {
+            Path file = tempDir.resolve("empty.csv");
+            Files.writeString(file, "");
+
+            assertThrows(CsvValidationException.class,
+                         () -> parser.parse(new MappedFileReader().getLineSource(new String[]{file.toString()}),
+                                            row -> fail("Unexpected row")));
+        }
+
+        @Test
+        @DisplayName("Should validate the header before parsing chunks")
+        void shouldValidateHeaderBeforeParsingChunks() throws IOException {
+            Path file = tempDir.resolve("bad_header.csv");
+            Files.writeString(file, "message_type,is_request\nAIR,true\n");
+
+            assertThrows(CsvValidationException.class,
+                         () -> parser.parse(new MappedFileReader().getLineSource(new String[]{file.toString()}),
+                                            row -> fail("Unexpected row")));
+        }
+
+        @Test
+        @DisplayName("Should write rejected lines from all chunks in file order")
+        void shouldWriteRejectedLinesInFileOrder() throws IOException {
+            List<String> lines    = new ArrayList<>(List.of(VALID_HEADER));
+            List<String> expected = new ArrayList<>(List.of("line_number,reason,line"));
+            for (int i = 0; i < 500; i++) {
+                lines.add("AIR,true,sess-" + i + ",mme1.example.com,example.com,user1,,");
+                if (i % 7 == 0) {
+                    lines.add("BAD,true,bad-" + i + ",mme1.example.com,example.com,user1,,");
+                    expected.add(lines.size() + ",\"Invalid message_type: BAD\",\"" + lines.getLast() + "\"");
+                }
+            }
+            Path file       = tempDir.resolve("input.csv");
+            Path deadLetter = tempDir.resolve("rejected.csv");
+            Files.write(file, lines);
+
+            try (DeadLetterWriterImpl deadLetters = new DeadLetterWriterImpl(deadLetter)) {
+                new ParallelCsvParser(new CsvParserImpl(deadLetters), pool)
+                        .parse(new MappedFileReader(256).getLineSource(new String[]{file.toString()}), row -> {
+                        });
+            }
+
+            assertEquals(expected, Files.readAllLines(deadLetter));
+        }
+    }
+
+    @Nested
+    @DisplayName("Sequential Fallback")
+    class SequentialFallback {
+
+        @Test
+        @DisplayName("Should parse non-chunked line sources sequentially")
+        void shouldParseNonChunkedSourcesSequentially() {
+            List<String> lines = List.of(VALID_HEADER, "AIR,true,sess-1,mme1.example.com,example.com,user1,,",
+                                         "AIA,false,sess-1,hss1.example.com,example.com,,,2001");
+
+            List<CsvRow> rows = new ArrayList<>();
+            parser.parse(LineSource.fromLines(lines), rows::add);
+
+            assertEquals(2, rows.size());
+            assertEquals(2, parser.parse(lines).size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Lifecycle")
+    class Lifecycle {
+
+        @Test
+        @DisplayName("Should shut its pool down when closed")
+        void shouldShutPoolDownWhenClosed() {
+            parser.close();
+
+            assertTrue(pool.isShutdown());
+        }
+    }
+
+    private static List<String> parseLines(ParallelCsvParser parser, Path file) {
+        List<String> rowLines = new ArrayList<>();
+        parser.parse(new MappedFileReader(256).getLineSource(new String[]{file.toString()}),
+                     (row, lineNumber, buffer, offset, length) -> rowLines.add(
+                             lineNumber + "|" + new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        return rowLines;
+    }
+}
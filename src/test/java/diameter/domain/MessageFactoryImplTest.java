@@ -166,6 +166,37 @@ class MessageFactoryImplTest {
                 () -> messageFactory.createDiameterMessage(row)
             );
         }
+
+        @Test
+        @DisplayName("Should return null from tryCreate on request/answer mismatch")
+        void shouldReturnNullFromTryCreateOnTypeMismatch() {
+            CsvRow row = createCsvRow(MessageType.ULA, true, "sess-1", "hss1.example.com",
+                    "example.com", null, null, "2001");
+
+            assertNull(messageFactory.tryCreateDiameterMessage(row));
+        }
+
+        @Test
+        @DisplayName("Should create message from tryCreate when flags match")
+        void shouldCreateMessageFromTryCreate() {
+            CsvRow row = createCsvRow(MessageType.ULR, true, "sess-1", "mme1.example.com",
+                    "example.com", "user1", "00101", null);
+
+            assertInstanceOf(ULR.class, messageFactory.tryCreateDiameterMessage(row));
+        }
+
+        @Test
+        @DisplayName("Should report expected is_request in mismatch message")
+        void shouldReportExpectedIsRequestInMismatchMessage() {
+            CsvRow row = createCsvRow(MessageType.AIA, true, "sess-1", "hss1.example.com",
+                    "example.com", null, null, "2001");
+
+            DiameterMessageValidationException exception = assertThrows(
+                DiameterMessageValidationException.class,
+                () -> messageFactory.createDiameterMessage(row)
+            );
+            assertEquals("Type mismatch: AIA expected is_request=false", exception.getMessage());
+        }
     }
 
     @Nested
@@ -200,6 +231,50 @@ class MessageFactoryImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Creation")
+    class BatchCreation {
+
+        @Test
+        @DisplayName("Should fill the slice with the same messages as single-row creation")
+        void shouldFillSliceLikeSingleRowCreation() {
+            CsvRow[] rows = {
+                    createCsvRow(MessageType.AIR, true, "sess-0", "mme1.example.com", "example.com", "user1", null,
+                                 null),
+                    createCsvRow(MessageType.AIR, true, "sess-1", "mme1.example.com", "example.com", "user1", null,
+                                 null),
+                    createCsvRow(MessageType.ULA, true, "sess-2", "hss1.example.com", "example.com", null, null,
+                                 "2001"),
+                    createCsvRow(MessageType.ULA, false, "sess-3", "hss1.example.com", "example.com", null, null,
+                                 "2001")
+            };
+            DiameterMessage[] messages = new DiameterMessage[rows.length];
+
+            messageFactory.tryCreateDiameterMessages(rows, 1, rows.length, messages);
+
+            assertNull(messages[0]);
+            assertInstanceOf(AIR.class, messages[1]);
+            assertEquals("sess-1", messages[1].getSessionId());
+            assertNull(messages[2]);
+            assertInstanceOf(ULA.class, messages[3]);
+            assertEquals("sess-3", messages[3].getSessionId());
+        }
+
+        @Test
+        @DisplayName("Should throw when a row in the slice has no message type")
+        void shouldThrowWhenRowHasNoMessageType() {
+            CsvRow[] rows = {
+                    createCsvRow(MessageType.AIR, true, "sess-0", "mme1.example.com", "example.com", "user1", null,
+                                 null),
+                    createCsvRow(null, true, "sess-1", "mme1.example.com", "example.com", "user1", null, null)
+            };
+
+            assertThrows(IllegalArgumentException.class,
+                () -> messageFactory.tryCreateDiameterMessages(rows, 0, rows.length, new DiameterMessage[2])
+            );
+        }
+    }
+
     private CsvRow createCsvRow(MessageType messageType, boolean isRequest, String sessionId,
                                  String originHost, String originRealm, String userName,
                                  String visitedPlmnId, String resultCode) {
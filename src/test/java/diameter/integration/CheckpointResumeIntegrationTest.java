@@ -0,0 +1,245 @@
+package diameter.integration;
+
+import diameter.app.AppManager;
+import diameter.app.RunOptions;
+import diameter.checkpoint.Checkpointer;
+import diameter.csv.parser.CsvParserImpl;
+import diameter.domain.factory.MessageFactoryImpl;
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.io.DeadLetterWriterImpl;
+import diameter.io.FileReaderImpl;
+import diameter.io.MappedFileReader;
+import diameter.monitoring.LiveMetrics;
+import diameter.reporter.ProcessingAccumulator;
+import diameter.reporter.ReportFormat;
+import diameter.reporter.StreamingReporter;
+import diameter.reporter.SummaryReporter;
+import diameter.transaction.AnswerTimeouts;
+import diameter.transaction.HeapTransactionStore;
+import diameter.transaction.RetentionPolicy;
+import diameter.transaction.TransactionManagerImpl;
+import diameter.transaction.TransactionResult;
+import diameter.validator.MessageValidatorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Checkpoint and Resume Integration Tests")
+class CheckpointResumeIntegrationTest {
+    private static final String HEADER =
+            "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code,"
+                    + "timestamp";
+
+    @TempDir
+    Path tempDir;
+
+    private Path         input;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 0; i < 40; i++) {
+            long time = i * 20L;
+            lines.add("AIR,true,air-" + i + ",mme1.example.com,example.com,00101012345678" + (i % 10) + ",,," + time);
+            lines.add("ULR,true,ulr-" + i + ",mme1.example.com,example.com,00101012345678" + (i % 10) + ",00101,,"
+                              + time);
+            if (i % 4 != 0) {
+                lines.add("AIA,false,air-" + (i - 1) + ",hss.example.com,example.com,,,2001," + (time + 5));
+            }
+            if (i % 3 == 0) {
+                lines.add("ULA,false,ulr-" + i + ",hss.example.com,example.com,,,2001," + (time + 7));
+                lines.add("ULA,false,ulr-" + i + ",hss.example.com,example.com,,,2001," + (time + 8));
+            }
+            if (i % 7 == 0) {
+                lines.add("AIR,true,,mme1.example.com,example.com,001010123456789,,," + time);
+                lines.add("AIR,true,air-" + i + ",mme1.example.com,example.com,001010123456789,,," + time);
+            }
+            if (i % 9 == 0) {
+                lines.add("ULR,true,ulr-" + i + ",mme1.example.com");
+            }
+        }
+
+        input = tempDir.resolve("input.csv");
+        Files.write(input, lines);
+    }
+
+    @Test
+    @DisplayName("Should produce the same summary after resuming from a checkpoint as an uninterrupted run")
+    void shouldProduceSameSummaryAfterResuming() throws IOException {
+        String uninterrupted = run(input, null, false);
+
+        Path prefix = tempDir.resolve("prefix.csv");
+        Files.write(prefix, lines.subList(0, lines.size() * 2 / 3));
+        Path checkpoint = tempDir.resolve("run.ckpt");
+        run(prefix, new Checkpointer(checkpoint, 7), false);
+
+        assertTrue(Files.exists(checkpoint));
+        assertEquals(uninterrupted, run(input, new Checkpointer(checkpoint, 7), true));
+    }
+
+    @Test
+    @DisplayName("Should match an uninterrupted sequential run when checkpointing through the staged pipeline")
+    void shouldMatchSequentialRunThroughPipeline() throws IOException {
+        String uninterrupted = run(input, null, false);
+
+        Path prefix = tempDir.resolve("prefix.csv");
+        Files.write(prefix, lines.subList(0, lines.size() / 2));
+        Path checkpoint = tempDir.resolve("run.ckpt");
+        run(prefix, new Checkpointer(checkpoint, 5), false, 3);
+
+        assertEquals(uninterrupted, run(input, new Checkpointer(checkpoint, 5), true, 2));
+    }
+
+    @Test
+    @DisplayName("Should process from the start when resuming without a checkpoint")
+    void shouldProcessFromStartWithoutCheckpoint() {
+        String uninterrupted = run(input, null, false);
+
+        assertEquals(uninterrupted, run(input, new Checkpointer(tempDir.resolve("missing.ckpt"), 1_000), true));
+    }
+
+    @Test
+    @DisplayName("Should start the open transactions gauge from the transactions open at the checkpoint")
+    void shouldSeedOpenTransactionsGaugeOnResume() throws IOException {
+        LiveMetrics uninterrupted = new LiveMetrics();
+        run(input, null, false, 0, uninterrupted);
+
+        Path prefix = tempDir.resolve("prefix.csv");
+        Files.write(prefix, lines.subList(0, lines.size() / 2));
+        Path checkpoint = tempDir.resolve("run.ckpt");
+        run(prefix, new Checkpointer(checkpoint, 5), false);
+        LiveMetrics resumed = new LiveMetrics();
+        run(input, new Checkpointer(checkpoint, 5), true, 0, resumed);
+
+        assertTrue(openTransactions(uninterrupted) > 0);
+        assertEquals(openTransactions(uninterrupted), openTransactions(resumed));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    @DisplayName("Should continue the dead-letter and report files of the interrupted run")
+    void shouldContinueOutputFilesAfterResuming(int pipelineWorkers) throws IOException {
+        Path deadLetters = tempDir.resolve("uninterrupted.csv.gz");
+        Path report      = tempDir.resolve("uninterrupted.jsonl");
+        run(input, null, false, pipelineWorkers, deadLetters, report);
+
+        Path prefix = tempDir.resolve("prefix.csv");
+        Files.write(prefix, lines.subList(0, lines.size() / 2));
+        Path checkpoint         = tempDir.resolve("run.ckpt");
+        Path resumedDeadLetters = tempDir.resolve("resumed.csv.gz");
+        Path resumedReport      = tempDir.resolve("resumed.jsonl");
+        run(prefix, new Checkpointer(checkpoint, 5), false, pipelineWorkers, resumedDeadLetters, resumedReport);
+        run(input, new Checkpointer(checkpoint, 5), true, pipelineWorkers, resumedDeadLetters, resumedReport);
+
+        // The parser and the correlating stage write rejects independently, so only the set of entries is fixed.
+        List<String> rejected   = sortedLines(resumedDeadLetters);
+        long         lateReject = lines.indexOf("ULR,true,ulr-36,mme1.example.com") + 1;
+        assertTrue(rejected.stream().anyMatch(line -> line.startsWith(lateReject + ",")), rejected.toString());
+        assertEquals(sortedLines(deadLetters), rejected);
+        assertEquals(Files.readAllLines(report), Files.readAllLines(resumedReport));
+    }
+
+    @Test
+    @DisplayName("Should refuse to checkpoint with a file reader that cannot resume")
+    void shouldRejectReaderThatCannotResume() {
+        Checkpointer checkpointer = new Checkpointer(tempDir.resolve("run.ckpt"), 5);
+        RunOptions   options      = RunOptions.DEFAULT.withCheckpoints(checkpointer, false);
+
+        assertThrows(CheckpointException.class,
+                     () -> new AppManager(new MappedFileReader(), new CsvParserImpl(), new MessageFactoryImpl(),
+                                          TransactionManagerImpl.getInstance(), new MessageValidatorImpl(),
+                                          new CapturingSummaryReporter(), options));
+    }
+
+    private static String run(Path file, Checkpointer checkpointer, boolean resume) {
+        return run(file, checkpointer, resume, 0);
+    }
+
+    private static String run(Path file, Checkpointer checkpointer, boolean resume, int pipelineWorkers) {
+        return run(file, checkpointer, resume, pipelineWorkers, null);
+    }
+
+    private static String run(Path file, Checkpointer checkpointer, boolean resume, int pipelineWorkers,
+                              LiveMetrics liveMetrics) {
+        TransactionManagerImpl transactionManager =
+                new TransactionManagerImpl(RetentionPolicy.lastN(5), new HeapTransactionStore(),
+                                           AnswerTimeouts.parse("AIR:100"), 0);
+        CapturingSummaryReporter reporter = new CapturingSummaryReporter();
+
+        new AppManager(new FileReaderImpl(), new CsvParserImpl(), new MessageFactoryImpl(), transactionManager,
+                       new MessageValidatorImpl(), reporter,
+                       RunOptions.DEFAULT.withCheckpoints(checkpointer, resume).withPipelineWorkers(pipelineWorkers)
+                                         .withLiveMetrics(liveMetrics))
+                .run(new String[]{file.toString()});
+
+        return reporter.summary;
+    }
+
+    private static void run(Path file, Checkpointer checkpointer, boolean resume, int pipelineWorkers,
+                            Path deadLetters, Path report) {
+        TransactionManagerImpl transactionManager =
+                new TransactionManagerImpl(RetentionPolicy.lastN(5), new HeapTransactionStore(),
+                                           AnswerTimeouts.parse("AIR:100"), 0);
+        DeadLetterWriterImpl deadLetterWriter = new DeadLetterWriterImpl(deadLetters, resume);
+        StreamingReporter    reporter         = StreamingReporter.open(new CapturingSummaryReporter(),
+                                                                       report.toString(), ReportFormat.JSON_LINES,
+                                                                       true, resume);
+
+        new AppManager(new FileReaderImpl(), new CsvParserImpl(deadLetterWriter), new MessageFactoryImpl(),
+                       transactionManager, new MessageValidatorImpl(), reporter,
+                       RunOptions.DEFAULT.withCheckpoints(checkpointer, resume).withPipelineWorkers(pipelineWorkers)
+                                         .withDeadLetters(deadLetterWriter))
+                .run(new String[]{file.toString()});
+        deadLetterWriter.close();
+        reporter.close();
+    }
+
+    private static List<String> sortedLines(Path gzipped) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzipped))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().sorted().toList();
+        }
+    }
+
+    private static long openTransactions(LiveMetrics liveMetrics) {
+        String gauge = "diameter_transactions_open ";
+        return liveMetrics.format().lines().filter(line -> line.startsWith(gauge))
+                          .mapToLong(line -> Long.parseLong(line.substring(gauge.length())))
+                          .findFirst().orElseThrow();
+    }
+
+    private static final class CapturingSummaryReporter implements SummaryReporter {
+        private String summary;
+
+        @Override
+        public void report(ProcessingAccumulator accumulator, TransactionResult transactionResult) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("total=").append(accumulator.getTotal())
+                   .append(", valid=").append(accumulator.getValid())
+                   .append(", errors=").append(accumulator.getErrorSample()).append('\n');
+
+            builder.append("complete=").append(transactionResult.getNumberOfCompleteTransactions())
+                   .append(", incomplete=").append(transactionResult.getNumberOfIncompleteTransactions())
+                   .append(", timedOut=").append(transactionResult.getNumberOfTimedOutTransactions());
+            transactionResult.getAnswerLatencies().getByRequestType().forEach(
+                    (type, histogram) -> builder.append(", ").append(type).append('=').append(histogram.getCount())
+                                                .append('/').append(histogram.getValueAtPercentile(50)));
+            summary = builder.toString();
+        }
+    }
+}
@@ -1,26 +1,56 @@
 package diameter.integration;
 
 import diameter.app.AppManager;
+import diameter.app.RunOptions;
 import diameter.csv.parser.CsvParser;
 import diameter.csv.parser.CsvParserImpl;
 import diameter.domain.factory.MessageFactory;
 import diameter.domain.factory.MessageFactoryImpl;
+import diameter.domain.message.DiameterMessage;
+import diameter.io.DeadLetterWriter;
+import diameter.io.DeadLetterWriterImpl;
 import diameter.io.FileReader;
-import diameter.reporter.ProcessingResult;
+import diameter.monitoring.LiveMetrics;
+import diameter.reporter.ProcessingAccumulator;
+import diameter.reporter.StageTimings;
+import diameter.reporter.StageTimings.Stage;
 import diameter.reporter.SummaryReporter;
+import diameter.transaction.AnswerTimeouts;
+import diameter.transaction.HeapTransactionStore;
+import diameter.transaction.RetentionPolicy;
+import diameter.transaction.SpillingTransactionStore;
 import diameter.transaction.TransactionManagerImpl;
 import diameter.transaction.TransactionResult;
+import diameter.transaction.TransactionStatus;
 import diameter.validator.MessageValidator;
 import diameter.validator.MessageValidatorImpl;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("End-to-End Integration Tests")
 class EndToEndIntegrationTest {
+    private static final List<String> EVENT_NAMES = List.of(
+            "diameter.BatchRead", "diameter.BatchPrepare", "diameter.BatchCorrelate", "diameter.ValidationFailure",
+            "diameter.TransactionOpened", "diameter.TransactionCompleted", "diameter.TransactionMismatch",
+            "diameter.TransactionSpilled", "diameter.TransactionEvicted");
+
     private StubFileReader   fileReader;
 
     private CapturingSummaryReporter summaryReporter;
@@ -352,6 +382,330 @@ class EndToEndIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Stage Timing Scenarios")
+    class StageTimingScenarios {
+        private final List<String> csvLines = List.of(
+                "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code",
+                "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                "BAD,true,sess-2,mme1.example.com,example.com,001010123456789,,",
+                "ULR,true,sess-3,,example.com,001010123456789,00101,",
+                "AIA,false,sess-1,hss1.example.com,example.com,,,2001"
+        );
+
+        @Test
+        @DisplayName("Should not report stage timings unless enabled")
+        void shouldNotReportStageTimingsByDefault() {
+            runAppWithCsv(csvLines);
+
+            assertNull(summaryReporter.lastStageTimings);
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should report the rows and time of every stage when enabled")
+        void shouldReportStageTimings(int pipelineWorkers) {
+            fileReader.stubLines = csvLines;
+            new AppManager(fileReader, new CsvParserImpl(), new MessageFactoryImpl(),
+                           TransactionManagerImpl.getInstance(), new MessageValidatorImpl(), summaryReporter,
+                           RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withStageTimings(true))
+                    .run(new String[]{"/tmp/fake.csv"});
+
+            StageTimings timings = summaryReporter.lastStageTimings;
+            assertNotNull(timings);
+            assertEquals(5, timings.getRows(Stage.READ));
+            assertEquals(5, timings.getRows(Stage.PARSE));
+            assertEquals(3, timings.getRows(Stage.CREATE));
+            assertEquals(3, timings.getRows(Stage.VALIDATE));
+            assertEquals(3, timings.getRows(Stage.CORRELATE));
+            assertTrue(timings.getNanos(Stage.CORRELATE) > 0);
+            assertTrue(timings.getWallClockNanos() >= timings.getNanos(Stage.CORRELATE));
+            assertEquals(1, summaryReporter.toStats().completedTransactions);
+        }
+    }
+
+    @Nested
+    @DisplayName("Flight Recorder Scenarios")
+    class FlightRecorderScenarios {
+        private final List<String> csvLines = List.of(
+                "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code,"
+                        + "timestamp",
+                "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,,0",
+                "BAD,true,sess-2,mme1.example.com,example.com,001010123456789,,,0",
+                "ULR,true,sess-3,,example.com,001010123456789,00101,,0",
+                "AIR,true,sess-4,mme1.example.com,example.com,001010123456789,,,10",
+                "AIA,false,sess-1,hss1.example.com,example.com,,,2001,50",
+                "ULA,false,sess-5,hss1.example.com,example.com,,,2001,60",
+                "AIR,true,sess-6,mme1.example.com,example.com,001010123456789,,,300",
+                "ULR,true,sess-7,mme1.example.com,example.com,001010123456789,00101,,300",
+                "AIA,false,sess-7,hss1.example.com,example.com,,,2001,310"
+        );
+
+        @TempDir
+        Path spillDirectory;
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should emit pipeline, validation and transaction events when enabled")
+        void shouldEmitEventsWhenEnabled(int pipelineWorkers) throws IOException {
+            List<RecordedEvent> events;
+            try (Recording recording = new Recording()) {
+                for (String name : EVENT_NAMES) {
+                    recording.enable(name).withoutThreshold();
+                }
+
+                events = record(recording, () -> run(pipelineWorkers));
+            }
+
+            assertEquals(List.of(8), rows(events, "diameter.BatchRead"));
+            assertEquals(List.of(8), rows(events, "diameter.BatchPrepare"));
+            assertEquals(List.of(8), rows(events, "diameter.BatchCorrelate"));
+
+            List<RecordedEvent> failures = named(events, "diameter.ValidationFailure");
+            assertEquals(2, failures.size());
+            assertTrue(failures.stream().anyMatch(event -> event.getString("component").equals("CsvParser")
+                                                           && event.getLong("lineNumber") == 3));
+            assertTrue(failures.stream().anyMatch(event -> event.getString("component").equals("MessageValidator")
+                                                           && event.getString("sessionId").equals("sess-3")));
+
+            assertEquals(List.of("sess-1", "sess-4", "sess-6", "sess-7"),
+                         sessionIds(events, "diameter.TransactionOpened"));
+            RecordedEvent completed = named(events, "diameter.TransactionCompleted").getFirst();
+            assertEquals("sess-1", completed.getString("sessionId"));
+            assertEquals(Duration.ofMillis(50), completed.getDuration("latency"));
+            assertEquals(List.of("sess-7"), sessionIds(events, "diameter.TransactionMismatch"));
+            assertEquals(List.of("sess-4", "sess-5"), sessionIds(events, "diameter.TransactionEvicted"));
+            assertEquals("sess-1", named(events, "diameter.TransactionSpilled").getFirst().getString("sessionId"));
+        }
+
+        @Test
+        @DisplayName("Should leave per-message events off under the default settings")
+        void shouldLeavePerMessageEventsOffByDefault() throws IOException, ParseException {
+            List<RecordedEvent> events;
+            try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+                events = record(recording, () -> run(0));
+            }
+
+            List<String> perMessage = events.stream()
+                                            .map(event -> event.getEventType().getName())
+                                            .filter(name -> name.startsWith("diameter.")
+                                                            && !name.startsWith("diameter.Batch"))
+                                            .toList();
+            assertEquals(List.of(), perMessage);
+        }
+
+        private void run(int pipelineWorkers) {
+            fileReader.stubLines = csvLines;
+            try (SpillingTransactionStore store = new SpillingTransactionStore(1, spillDirectory)) {
+                TransactionManagerImpl transactionManager =
+                        new TransactionManagerImpl(RetentionPolicy.DEFAULT, store, AnswerTimeouts.parse("AIR:100"), 1);
+                new AppManager(fileReader, new CsvParserImpl(), new MessageFactoryImpl(), transactionManager,
+                               new MessageValidatorImpl(), summaryReporter,
+                               RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers))
+                        .run(new String[]{"/tmp/fake.csv"});
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Live Metrics Scenarios")
+    class LiveMetricsScenarios {
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should count rows, messages and transactions into the live metrics")
+        void shouldCountIntoLiveMetrics(int pipelineWorkers) {
+            fileReader.stubLines = List.of(
+                    "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code",
+                    "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                    "BAD,true,sess-2,mme1.example.com,example.com,001010123456789,,",
+                    "ULR,true,sess-3,,example.com,001010123456789,00101,",
+                    "AIA,false,sess-1,hss1.example.com,example.com,,,2001",
+                    "ULR,true,sess-4,mme1.example.com,example.com,001010123456789,00101,",
+                    "AIA,false,sess-4,hss1.example.com,example.com,,,2001"
+            );
+            LiveMetrics liveMetrics = new LiveMetrics();
+
+            new AppManager(fileReader, new CsvParserImpl(liveMetrics.countingRejects(DeadLetterWriter.NONE)),
+                           new MessageFactoryImpl(), TransactionManagerImpl.getInstance(), new MessageValidatorImpl(),
+                           summaryReporter,
+                           RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withLiveMetrics(liveMetrics))
+                    .run(new String[]{"/tmp/fake.csv"});
+
+            List<String> metrics = liveMetrics.format().lines().toList();
+            assertTrue(metrics.contains("diameter_rows_read_total 6"));
+            assertTrue(metrics.contains("diameter_rows_parsed_total 5"));
+            assertTrue(metrics.contains("diameter_rows_rejected_total 1"));
+            assertTrue(metrics.contains("diameter_messages_total{type=\"AIR\"} 1"));
+            assertTrue(metrics.contains("diameter_messages_total{type=\"ULR\"} 2"));
+            assertTrue(metrics.contains("diameter_messages_total{type=\"AIA\"} 2"));
+            assertTrue(metrics.contains("diameter_messages_invalid_total 1"));
+            assertTrue(metrics.contains("diameter_transactions_total{event=\"opened\"} 2"));
+            assertTrue(metrics.contains("diameter_transactions_total{event=\"completed\"} 1"));
+            assertTrue(metrics.contains("diameter_transactions_open 1"));
+            assertTrue(metrics.contains("diameter_answers_mismatched_total 1"));
+            assertTrue(metrics.contains("diameter_stage_rows_total{stage=\"TransactionManager\"} 5"));
+            assertNull(summaryReporter.lastStageTimings);
+        }
+    }
+
+    @Nested
+    @DisplayName("Correlation Failure Scenarios")
+    class CorrelationFailureScenarios {
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should settle only the message that throws as an error")
+        void shouldSettleOnlyFailingMessage(int pipelineWorkers) {
+            fileReader.stubLines = List.of(
+                    "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code",
+                    "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                    "AIR,true,sess-boom,mme1.example.com,example.com,001010123456789,,",
+                    "AIA,false,sess-1,hss1.example.com,example.com,,,2001",
+                    "AIR,true,sess-2,mme1.example.com,example.com,001010123456789,,",
+                    "AIA,false,sess-2,hss1.example.com,example.com,,,2001"
+            );
+
+            new AppManager(fileReader, new CsvParserImpl(), new MessageFactoryImpl(),
+                           new FailingTransactionManager("sess-boom"), new MessageValidatorImpl(), summaryReporter,
+                           RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers))
+                    .run(new String[]{"/tmp/fake.csv"});
+
+            ProcessingAccumulator accumulator = summaryReporter.lastAccumulator;
+            assertEquals(5, accumulator.getTotal());
+            assertEquals(1, accumulator.getErrorCount());
+            assertEquals(List.of("Unexpected error: Transaction store unavailable"), accumulator.getErrorSample());
+            assertEquals(2, summaryReporter.lastTransactionResult.getNumberOfCompleteTransactions());
+            assertEquals(0, summaryReporter.lastTransactionResult.getNumberOfIncompleteTransactions());
+        }
+    }
+
+    @Nested
+    @DisplayName("Reorder Window Scenarios")
+    class ReorderWindowScenarios {
+
+        @TempDir
+        Path tempDir;
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should settle orphan answers as errors and dead-letter their lines")
+        void shouldSettleOrphanAnswersAsErrors(int pipelineWorkers) throws IOException {
+            fileReader.stubLines = List.of(
+                    "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code",
+                    "AIA,false,sess-1,hss1.example.com,example.com,,,2001",
+                    "AIR,true,sess-2,mme1.example.com,example.com,001010123456789,,",
+                    "AIA,false,sess-2,hss1.example.com,example.com,,,2001",
+                    "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                    "ULA,false,sess-3,hss1.example.com,example.com,,,2001",
+                    "AIA,false,sess-5,hss1.example.com,example.com,,,2001",
+                    "AIR,true,sess-5,mme1.example.com,example.com,001010123456789,,"
+            );
+            Path deadLetter = tempDir.resolve("rejected.csv");
+
+            try (DeadLetterWriterImpl deadLetters = new DeadLetterWriterImpl(deadLetter)) {
+                new AppManager(fileReader, new CsvParserImpl(deadLetters), new MessageFactoryImpl(),
+                               new TransactionManagerImpl(RetentionPolicy.DEFAULT, new HeapTransactionStore(),
+                                                          AnswerTimeouts.NONE, 2),
+                               new MessageValidatorImpl(), summaryReporter,
+                               RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withDeadLetters(deadLetters))
+                        .run(new String[]{"/tmp/fake.csv"});
+            }
+
+            ProcessingAccumulator accumulator = summaryReporter.lastAccumulator;
+            TransactionResult     result      = summaryReporter.lastTransactionResult;
+            assertEquals(7, accumulator.getTotal());
+            assertEquals(5, accumulator.getValid());
+            assertEquals(List.of("No existing transaction for session ID sess-1",
+                                 "No existing transaction for session ID sess-3"), accumulator.getErrorSample());
+            assertEquals(1, accumulator.getStatusCount(TransactionStatus.PARKED));
+            assertEquals(2, accumulator.getStatusCount(TransactionStatus.UNEXPECTED_ANSWER));
+            assertEquals(2, result.getNumberOfCompleteTransactions());
+            assertEquals(1, result.getNumberOfIncompleteTransactions());
+            assertEquals(2, result.getNumberOfOrphanAnswers());
+
+            List<String> lines = fileReader.stubLines;
+            assertEquals(List.of("line_number,reason,line",
+                                 deadLetter(2, "No existing transaction for session ID sess-1", lines.get(1)),
+                                 deadLetter(6, "No existing transaction for session ID sess-3", lines.get(5))),
+                         Files.readAllLines(deadLetter));
+        }
+    }
+
+    @Nested
+    @DisplayName("Dead Letter Scenarios")
+    class DeadLetterScenarios {
+
+        @TempDir
+        Path tempDir;
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should dead-letter rows rejected by the parser, the validator and the transaction manager")
+        void shouldDeadLetterEveryRejectedRow(int pipelineWorkers) throws IOException {
+            fileReader.stubLines = List.of(
+                    "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code",
+                    "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                    "BAD,true,sess-2,mme1.example.com,example.com,001010123456789,,",
+                    "ULR,true,sess-3,,example.com,001010123456789,00101,",
+                    "AIR,false,sess-4,hss1.example.com,example.com,,,2001",
+                    "AIA,false,sess-1,hss1.example.com,example.com,,,2001",
+                    "AIR,true,sess-1,mme1.example.com,example.com,001010123456789,,",
+                    "AIA,false,sess-9,hss1.example.com,example.com,,,2001"
+            );
+            Path deadLetter = tempDir.resolve("rejected.csv");
+
+            try (DeadLetterWriterImpl deadLetters = new DeadLetterWriterImpl(deadLetter)) {
+                new AppManager(fileReader, new CsvParserImpl(deadLetters), new MessageFactoryImpl(),
+                               new TransactionManagerImpl(RetentionPolicy.DEFAULT), new MessageValidatorImpl(),
+                               summaryReporter,
+                               RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withDeadLetters(deadLetters))
+                        .run(new String[]{"/tmp/fake.csv"});
+            }
+
+            // The parser and the correlating stage write independently, so only the line numbers give the order.
+            List<String> lines    = fileReader.stubLines;
+            List<String> rejected = Files.readAllLines(deadLetter);
+            assertEquals("line_number,reason,line", rejected.getFirst());
+            assertEquals(List.of(deadLetter(3, "Invalid message_type: BAD", lines.get(2)),
+                                 deadLetter(4, "Origin-Host is mandatory", lines.get(3)),
+                                 deadLetter(5, "Type mismatch: AIR expected is_request=true", lines.get(4)),
+                                 deadLetter(7, "Transaction with session ID sess-1 already exists", lines.get(6)),
+                                 deadLetter(8, "No existing transaction for session ID sess-9", lines.get(7))),
+                         rejected.subList(1, rejected.size()).stream()
+                                 .sorted(Comparator.comparingLong(line -> Long.parseLong(line.split(",")[0])))
+                                 .toList());
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {0, 2})
+        @DisplayName("Should dead-letter rejected rows as they were read, whatever the columns")
+        void shouldDeadLetterOriginalLines(int pipelineWorkers) throws IOException {
+            fileReader.stubLines = List.of(
+                    "session_id,message_type,is_request,origin_host,origin_realm,user_name,visited_plmn_id,"
+                    + "result_code,note",
+                    "sess-1,AIR,true,mme1.example.com,example.com,001010123456789,,,first",
+                    "sess-1,AIR,true,mme1.example.com,example.com,001010123456789,,,again",
+                    "sess-2,ULR,true,,example.com,001010123456789,00101,,no host"
+            );
+            Path deadLetter = tempDir.resolve("rejected.csv");
+
+            try (DeadLetterWriterImpl deadLetters = new DeadLetterWriterImpl(deadLetter)) {
+                new AppManager(fileReader, new CsvParserImpl(deadLetters), new MessageFactoryImpl(),
+                               new TransactionManagerImpl(RetentionPolicy.DEFAULT), new MessageValidatorImpl(),
+                               summaryReporter,
+                               RunOptions.DEFAULT.withPipelineWorkers(pipelineWorkers).withDeadLetters(deadLetters))
+                        .run(new String[]{"/tmp/fake.csv"});
+            }
+
+            List<String> lines = fileReader.stubLines;
+            assertEquals(List.of("line_number,reason,line",
+                                 deadLetter(3, "Transaction with session ID sess-1 already exists", lines.get(2)),
+                                 deadLetter(4, "Origin-Host is mandatory", lines.get(3))),
+                         Files.readAllLines(deadLetter));
+        }
+    }
+
     private ProcessingStats runAppWithCsv(List<String> csvLines) {
         String fakePath = "/tmp/fake.csv";
 
@@ -365,6 +719,55 @@ class EndToEndIntegrationTest {
         return summaryReporter.toStats();
     }
 
+    private static List<RecordedEvent> record(Recording recording, Runnable run) throws IOException {
+        recording.start();
+        run.run();
+        recording.stop();
+
+        Path file = Files.createTempFile("diameter-events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    private static List<Integer> rows(List<RecordedEvent> events, String name) {
+        return named(events, name).stream().map(event -> event.getInt("rows")).toList();
+    }
+
+    private static List<String> sessionIds(List<RecordedEvent> events, String name) {
+        return named(events, name).stream().map(event -> event.getString("sessionId")).sorted().toList();
+    }
+
+    private static String deadLetter(long lineNumber, String reason, String line) {
+        return lineNumber + ",\"" + reason + "\",\"" + line + "\"";
+    }
+
+    private static final class FailingTransactionManager extends TransactionManagerImpl {
+        private final String failingSessionId;
+
+        private FailingTransactionManager(String failingSessionId) {
+            super(RetentionPolicy.DEFAULT);
+            this.failingSessionId = failingSessionId;
+        }
+
+        @Override
+        public TransactionStatus handleDiameterMessage(DiameterMessage diameterMessage) {
+            if (failingSessionId.equals(diameterMessage.getSessionId())) {
+                throw new IllegalStateException("Transaction store unavailable");
+            }
+
+            return super.handleDiameterMessage(diameterMessage);
+        }
+    }
+
     private static final class StubFileReader implements FileReader {
         private List<String> stubLines = List.of();
         private int          calls     = 0;
@@ -377,21 +780,28 @@ class EndToEndIntegrationTest {
     }
 
     private static final class CapturingSummaryReporter implements SummaryReporter {
-        private List<ProcessingResult> lastResults;
-        private TransactionResult      lastTransactionResult;
+        private ProcessingAccumulator lastAccumulator;
+        private TransactionResult     lastTransactionResult;
+        private StageTimings          lastStageTimings;
 
         @Override
-        public void report(List<ProcessingResult> results, TransactionResult transactionResult) {
-            this.lastResults = results;
+        public void report(ProcessingAccumulator accumulator, TransactionResult transactionResult) {
+            this.lastAccumulator = accumulator;
             this.lastTransactionResult = transactionResult;
         }
 
+        @Override
+        public void reportStageTimings(StageTimings stageTimings) {
+            this.lastStageTimings = stageTimings;
+        }
+
         ProcessingStats toStats() {
-            List<ProcessingResult> results = lastResults == null ? List.of() : lastResults;
+            ProcessingAccumulator accumulator =
+                    lastAccumulator == null ? new ProcessingAccumulator() : lastAccumulator;
             TransactionResult tx = lastTransactionResult == null ? new TransactionResult(0, 0) : lastTransactionResult;
 
-            int total = results.size();
-            int valid = (int) results.stream().filter(ProcessingResult::isValid).count();
+            int total = (int) accumulator.getTotal();
+            int valid = (int) accumulator.getValid();
             int invalid = total - valid;
 
             return new ProcessingStats(
@@ -0,0 +1,168 @@
+package diameter.io;
+
+import diameter.checkpoint.Checkpointable;
+import diameter.exception.checkpoint.CheckpointException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DeadLetterWriterImpl Tests")
+class DeadLetterWriterImplTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should write a header and one quoted entry per rejected line")
+    void shouldWriteEntries() throws IOException {
+        Path file = tempDir.resolve("rejected.csv");
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file)) {
+            write(writer, 7, "Line has fewer columns than expected", "AIR,true");
+            write(writer, 12, "Invalid message_type: XYZ", "XYZ,true,sess-1,,,,,");
+            assertEquals(2, writer.getCount());
+        }
+
+        assertEquals(List.of("line_number,reason,line",
+                             "7,\"Line has fewer columns than expected\",\"AIR,true\"",
+                             "12,\"Invalid message_type: XYZ\",\"XYZ,true,sess-1,,,,,\""), Files.readAllLines(file));
+    }
+
+    @Test
+    @DisplayName("Should double quotes inside the reason and the line")
+    void shouldEscapeQuotes() throws IOException {
+        Path file = tempDir.resolve("rejected.csv");
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file)) {
+            write(writer, 2, "Invalid is_request value: \"yes\"", "\"AIR\",\"yes\"");
+        }
+
+        assertEquals("2,\"Invalid is_request value: \"\"yes\"\"\",\"\"\"AIR\"\",\"\"yes\"\"\"",
+                     Files.readAllLines(file).get(1));
+    }
+
+    @Test
+    @DisplayName("Should write only the given slice of the buffer")
+    void shouldWriteBufferSlice() throws IOException {
+        Path   file   = tempDir.resolve("rejected.csv");
+        byte[] buffer = "AIR,true\nAIA,false\n".getBytes(StandardCharsets.UTF_8);
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file)) {
+            writer.write(3, "Line has fewer columns than expected", buffer, 9, 9);
+        }
+
+        assertEquals("3,\"Line has fewer columns than expected\",\"AIA,false\"", Files.readAllLines(file).get(1));
+    }
+
+    @Test
+    @DisplayName("Should gzip the output when the file name ends with .gz")
+    void shouldGzipOutput() throws IOException {
+        Path file = tempDir.resolve("rejected.csv.gz");
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file)) {
+            write(writer, 5, "Invalid timestamp: soon", "AIR,true,sess-1,,,,,,soon");
+        }
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals("line_number,reason,line\n5,\"Invalid timestamp: soon\",\"AIR,true,sess-1,,,,,,soon\"\n",
+                         new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail when the file cannot be created")
+    void shouldFailWhenFileCannotBeCreated() {
+        Path file = tempDir.resolve("missing").resolve("rejected.csv");
+
+        assertThrows(UncheckedIOException.class, () -> new DeadLetterWriterImpl(file));
+    }
+
+    @Test
+    @DisplayName("Should cut the file back to the checkpoint and continue it when resuming")
+    void shouldContinueFromCheckpoint() throws IOException {
+        Path file = tempDir.resolve("rejected.csv");
+
+        resumeAfterCheckpoint(file);
+
+        assertEquals(List.of("line_number,reason,line", "3,\"Too short\",\"AIR\"", "9,\"Too long\",\"AIA,1,2\""),
+                     Files.readAllLines(file));
+    }
+
+    @Test
+    @DisplayName("Should end a gzip member at each checkpoint so that a gzipped file can be resumed")
+    void shouldContinueGzippedFileFromCheckpoint() throws IOException {
+        Path file = tempDir.resolve("rejected.csv.gz");
+
+        resumeAfterCheckpoint(file);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals("line_number,reason,line\n3,\"Too short\",\"AIR\"\n9,\"Too long\",\"AIA,1,2\"\n",
+                         new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to resume from a checkpoint written without a dead-letter file")
+    void shouldRejectCheckpointWithoutFile() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeLong(-1);
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(tempDir.resolve("rejected.csv"), true)) {
+            assertThrows(CheckpointException.class, () -> restore(writer, bytes.toByteArray()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to write while waiting for its checkpoint to be restored")
+    void shouldRejectWritesBeforeRestore() {
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(tempDir.resolve("rejected.csv"), true)) {
+            assertThrows(IllegalStateException.class, () -> write(writer, 3, "Too short", "AIR"));
+        }
+    }
+
+    // Writes a line, checkpoints, writes a line the checkpoint does not cover, then resumes and writes another.
+    private static void resumeAfterCheckpoint(Path file) throws IOException {
+        byte[] checkpoint;
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file)) {
+            write(writer, 3, "Too short", "AIR");
+            checkpoint = checkpoint(writer);
+            write(writer, 5, "Lost on resume", "ULR");
+        }
+
+        try (DeadLetterWriterImpl writer = new DeadLetterWriterImpl(file, true)) {
+            restore(writer, checkpoint);
+            write(writer, 9, "Too long", "AIA,1,2");
+        }
+    }
+
+    private static byte[] checkpoint(Checkpointable section) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        section.writeCheckpoint(new DataOutputStream(bytes));
+
+        return bytes.toByteArray();
+    }
+
+    private static void restore(Checkpointable section, byte[] checkpoint) throws IOException {
+        section.restoreCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+        section.checkpointRestored();
+    }
+
+    private static void write(DeadLetterWriter writer, long lineNumber, String reason, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        writer.write(lineNumber, reason, bytes, 0, bytes.length);
+    }
+}
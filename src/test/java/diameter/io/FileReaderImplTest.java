@@ -0,0 +1,191 @@
+package diameter.io;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileReaderImpl Tests")
+class FileReaderImplTest {
+    @TempDir
+    Path tempDir;
+
+    private ResumableFileReader fileReader;
+
+    @BeforeEach
+    void setUp() {
+        fileReader = new FileReaderImpl();
+    }
+
+    @Nested
+    @DisplayName("Streaming Line Source")
+    class StreamingLineSource {
+
+        @Test
+        @DisplayName("Should stream the same lines as readAllLines")
+        void shouldStreamSameLinesAsReadAllLines() throws IOException {
+            Path file = write("header\nAIR,true,sess-1\n\nAIA,false,sess-1\n");
+
+            assertEquals(Files.readAllLines(file), streamLines(file));
+        }
+
+        @Test
+        @DisplayName("Should strip carriage returns from CRLF line endings")
+        void shouldStripCarriageReturns() throws IOException {
+            Path file = write("header\r\nrow-1\r\nrow-2\r\n");
+
+            assertEquals(List.of("header", "row-1", "row-2"), streamLines(file));
+        }
+
+        @Test
+        @DisplayName("Should emit last line without trailing newline")
+        void shouldEmitLastLineWithoutTrailingNewline() throws IOException {
+            Path file = write("header\nrow-1");
+
+            assertEquals(List.of("header", "row-1"), streamLines(file));
+        }
+
+        @Test
+        @DisplayName("Should handle lines longer than the read buffer")
+        void shouldHandleLinesLongerThanReadBuffer() throws IOException {
+            String longLine = "x".repeat(3 * (1 << 20) + 17);
+            Path   file     = write("header\n" + longLine + "\nrow-2\n");
+
+            assertEquals(List.of("header", longLine, "row-2"), streamLines(file));
+        }
+
+        @Test
+        @DisplayName("Should stream nothing for an empty file")
+        void shouldStreamNothingForEmptyFile() throws IOException {
+            Path file = write("");
+
+            assertTrue(streamLines(file).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should throw when file does not exist")
+        void shouldThrowWhenFileDoesNotExist() {
+            LineSource source = fileReader.getLineSource(new String[]{tempDir.resolve("missing.csv").toString()});
+
+            assertThrows(RuntimeException.class, () -> source.forEachLine((buffer, offset, length) -> {}));
+        }
+    }
+
+    @Nested
+    @DisplayName("Resumable Line Source")
+    class ResumableLineSourceTests {
+
+        @Test
+        @DisplayName("Should report the offset just past each line while it is consumed")
+        void shouldReportOffsetPastEachLine() throws IOException {
+            Path                file   = write("header\r\nrow-1\nrow-22");
+            ResumableLineSource source = fileReader.getResumableLineSource(new String[]{file.toString()},
+                                                                           InputPosition.START);
+            List<Long>          seen   = new ArrayList<>();
+
+            source.forEachLine((buffer, offset, length) -> seen.add(source.getPosition()));
+
+            assertEquals(List.of(8L, 14L, 20L), seen);
+        }
+
+        @Test
+        @DisplayName("Should emit the header and then the lines from the resume offset")
+        void shouldEmitHeaderThenLinesFromResumeOffset() throws IOException {
+            Path file = write("header\nrow-1\nrow-2\nrow-3\n");
+
+            assertEquals(List.of("header", "row-2", "row-3"), streamLines(file, new InputPosition(13, 2)));
+        }
+
+        @Test
+        @DisplayName("Should keep reporting absolute offsets after resuming")
+        void shouldReportAbsoluteOffsetsAfterResuming() throws IOException {
+            Path                file   = write("header\nrow-1\nrow-2\n");
+            ResumableLineSource source = fileReader.getResumableLineSource(new String[]{file.toString()},
+                                                                           new InputPosition(13, 2));
+            List<Long>          seen   = new ArrayList<>();
+
+            source.forEachLine((buffer, offset, length) -> seen.add(source.getPosition()));
+
+            assertEquals(List.of(7L, 19L), seen);
+        }
+
+        @Test
+        @DisplayName("Should emit only the header when resuming at the end of the file")
+        void shouldEmitOnlyHeaderWhenResumingAtEnd() throws IOException {
+            Path file = write("header\nrow-1\n");
+
+            assertEquals(List.of("header"), streamLines(file, new InputPosition(13, 2)));
+        }
+
+        @Test
+        @DisplayName("Should number every line from the start of the file")
+        void shouldNumberLinesFromStart() throws IOException {
+            Path                file   = write("header\nrow-1\nrow-2");
+            ResumableLineSource source = fileReader.getResumableLineSource(new String[]{file.toString()},
+                                                                           InputPosition.START);
+            List<Long>          seen   = new ArrayList<>();
+
+            source.forEachLine((buffer, offset, length) -> seen.add(source.getLineNumber()));
+
+            assertEquals(List.of(1L, 2L, 3L), seen);
+            assertEquals(0, source.getSkippedLines());
+        }
+
+        @Test
+        @DisplayName("Should continue line numbers from the resume position and report the lines it skips")
+        void shouldContinueLineNumbersAfterResuming() throws IOException {
+            Path                file   = write("header\nrow-1\nrow-2\nrow-3\n");
+            ResumableLineSource source = fileReader.getResumableLineSource(new String[]{file.toString()},
+                                                                           new InputPosition(13, 2));
+            List<Long>          seen   = new ArrayList<>();
+
+            source.forEachLine((buffer, offset, length) -> seen.add(source.getLineNumber()));
+
+            assertEquals(List.of(1L, 3L, 4L), seen);
+            assertEquals(1, source.getSkippedLines());
+            assertEquals(new InputPosition(25, 4).toString(), source.getInputPosition().toString());
+        }
+
+        @Test
+        @DisplayName("Should reject a resume position that does not count the header line")
+        void shouldRejectResumePositionWithoutLineNumber() throws IOException {
+            Path file = write("header\nrow-1\n");
+
+            assertThrows(IllegalArgumentException.class,
+                         () -> fileReader.getResumableLineSource(new String[]{file.toString()},
+                                                                 new InputPosition(13, 0)));
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private List<String> streamLines(Path file) {
+        List<String> lines = new ArrayList<>();
+        fileReader.getLineSource(new String[]{file.toString()})
+                  .forEachLine((buffer, offset, length) ->
+                                       lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        return lines;
+    }
+
+    private List<String> streamLines(Path file, InputPosition resumeAt) {
+        List<String> lines = new ArrayList<>();
+        fileReader.getResumableLineSource(new String[]{file.toString()}, resumeAt)
+                  .forEachLine((buffer, offset, length) ->
+                                       lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        return lines;
+    }
+}
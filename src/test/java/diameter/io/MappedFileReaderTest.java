@@ -0,0 +1,100 @@
+package diameter.io;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MappedFileReader Tests")
+class MappedFileReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Chunking")
+    class Chunking {
+
+        @Test
+        @DisplayName("Should put only the first line in the first chunk")
+        void shouldPutOnlyFirstLineInFirstChunk() throws IOException {
+            Path file = write("header\nrow-1\nrow-2\n");
+
+            List<LineSource> chunks = new MappedFileReader(4).getLineSource(args(file)).getChunks();
+
+            assertEquals(List.of("header"), linesOf(chunks.getFirst()));
+        }
+
+        @Test
+        @DisplayName("Should split chunks on line boundaries")
+        void shouldSplitChunksOnLineBoundaries() throws IOException {
+            StringBuilder content = new StringBuilder("header\n");
+            for (int i = 0; i < 100; i++) {
+                content.append("row-").append(i).append('\n');
+            }
+            Path file = write(content.toString());
+
+            List<LineSource> chunks = new MappedFileReader(16).getLineSource(args(file)).getChunks();
+
+            assertTrue(chunks.size() > 2);
+            List<String> lines = new ArrayList<>();
+            chunks.forEach(chunk -> lines.addAll(linesOf(chunk)));
+            assertEquals(Files.readAllLines(file), lines);
+        }
+
+        @Test
+        @DisplayName("Should return no chunks for an empty file")
+        void shouldReturnNoChunksForEmptyFile() throws IOException {
+            Path file = write("");
+
+            assertTrue(new MappedFileReader().getLineSource(args(file)).getChunks().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive chunk size")
+        void shouldRejectNonPositiveChunkSize() {
+            assertThrows(IllegalArgumentException.class, () -> new MappedFileReader(0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Sequential Reading")
+    class SequentialReading {
+
+        @Test
+        @DisplayName("Should read the same lines as the streaming reader")
+        void shouldReadSameLinesAsStreamingReader() throws IOException {
+            Path file = write("header\r\nrow-1\r\n\r\nrow-3");
+
+            List<String> mapped    = linesOf(new MappedFileReader(3).getLineSource(args(file)));
+            List<String> streaming = linesOf(new FileReaderImpl().getLineSource(args(file)));
+
+            assertEquals(streaming, mapped);
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("input.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String[] args(Path file) {
+        return new String[]{file.toString()};
+    }
+
+    private static List<String> linesOf(LineSource source) {
+        List<String> lines = new ArrayList<>();
+        source.forEachLine((buffer, offset, length) ->
+                                   lines.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        return lines;
+    }
+}
@@ -0,0 +1,167 @@
+package diameter.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.LegacyAbstractLogger;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RateLimitedLogger Tests")
+class RateLimitedLoggerTest {
+
+    private final CapturingLogger logger = new CapturingLogger();
+    private final AtomicLong      clock  = new AtomicLong();
+
+    @Test
+    @DisplayName("Should let messages through up to the budget of the window")
+    void shouldAllowBurstWithinBudget() {
+        RateLimitedLogger limiter = limiter(3, 0);
+        for (int i = 0; i < 3; i++) {
+            limiter.warn("Row {}", i);
+        }
+
+        assertEquals(List.of("Row 0", "Row 1", "Row 2"), logger.lines);
+    }
+
+    @Test
+    @DisplayName("Should roll suppressed messages up before the next one that gets through")
+    void shouldRollUpSuppressedMessages() {
+        RateLimitedLogger limiter = limiter(1, 0);
+        for (int i = 0; i < 12_346; i++) {
+            limiter.warn("Row {}", i);
+        }
+
+        assertEquals(List.of("Row 0"), logger.lines);
+
+        advanceWindow();
+        limiter.warn("Row {}", "next");
+
+        assertEquals(List.of("Row 0", "Bad row: 12,345 similar suppressed", "Row next"), logger.lines);
+    }
+
+    @Test
+    @DisplayName("Should log every sampled message beyond the budget")
+    void shouldSampleBeyondBudget() {
+        RateLimitedLogger limiter = limiter(2, 10);
+        for (int i = 0; i < 32; i++) {
+            limiter.warn("Row {}", i);
+        }
+
+        assertEquals(List.of("Row 0", "Row 1",
+                "Bad row: 9 similar suppressed", "Row 11",
+                "Bad row: 9 similar suppressed", "Row 21",
+                "Bad row: 9 similar suppressed", "Row 31"), logger.lines);
+    }
+
+    @Test
+    @DisplayName("Should restore the budget when the window rolls over")
+    void shouldResetBudgetWithWindow() {
+        RateLimitedLogger limiter = limiter(1, 0);
+        limiter.warn("Row {}", 1);
+        limiter.warn("Row {}", 2);
+        advanceWindow();
+        limiter.warn("Row {}", 3);
+        limiter.warn("Row {}", 4);
+
+        assertEquals(List.of("Row 1", "Bad row: 1 similar suppressed", "Row 3"), logger.lines);
+    }
+
+    @Test
+    @DisplayName("Should write the pending rollup on flush only once")
+    void shouldFlushPendingRollup() {
+        RateLimitedLogger limiter = limiter(0, 0);
+        limiter.warn("Row {}", 1, 2);
+        limiter.warn("Row {}", 3, 4, 5);
+
+        limiter.flush();
+        limiter.flush();
+
+        assertEquals(List.of("Bad row: 2 similar suppressed"), logger.lines);
+    }
+
+    @Test
+    @DisplayName("Should count nothing while warnings are disabled")
+    void shouldSkipWhenWarnDisabled() {
+        logger.warnEnabled = false;
+        RateLimitedLogger limiter = limiter(0, 0);
+        limiter.warn("Row {}", 1);
+        logger.warnEnabled = true;
+
+        limiter.flush();
+
+        assertTrue(logger.lines.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject negative limits and empty windows")
+    void shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimitedLogger(logger, "Bad row", -1, 1_000, 0, clock::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimitedLogger(logger, "Bad row", 1, 0, 0, clock::get));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimitedLogger(logger, "Bad row", 1, 1_000, -1, clock::get));
+    }
+
+    private RateLimitedLogger limiter(int maxPerWindow, int sampleEvery) {
+        return new RateLimitedLogger(logger, "Bad row", maxPerWindow, 1_000, sampleEvery, clock::get);
+    }
+
+    private void advanceWindow() {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static final class CapturingLogger extends LegacyAbstractLogger {
+        private final List<String> lines       = new ArrayList<>();
+        private       boolean      warnEnabled = true;
+
+        @Override
+        protected void handleNormalizedLoggingCall(Level level, Marker marker, String messagePattern,
+                                                   Object[] arguments, Throwable throwable) {
+            lines.add(MessageFormatter.basicArrayFormat(messagePattern, arguments));
+        }
+
+        @Override
+        protected String getFullyQualifiedCallerName() {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return "capturing";
+        }
+
+        @Override
+        public boolean isTraceEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return false;
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return warnEnabled;
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return false;
+        }
+    }
+}
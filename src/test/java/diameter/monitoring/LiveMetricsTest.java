@@ -0,0 +1,97 @@
+package diameter.monitoring;
+
+import diameter.domain.MessageType;
+import diameter.io.DeadLetterWriter;
+import diameter.reporter.StageTimings.Stage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LiveMetrics Tests")
+class LiveMetricsTest {
+
+    @Test
+    @DisplayName("Should format every counter and the open transactions gauge in the Prometheus text format")
+    void shouldFormatCounters() {
+        LiveMetrics metrics = new LiveMetrics();
+        metrics.addParsedRows(4096);
+        metrics.addMessages(MessageType.AIR, 3000);
+        metrics.addMessages(MessageType.AIA, 1096);
+        metrics.addInvalidMessages(7);
+        metrics.transactionOpened();
+        metrics.transactionOpened();
+        metrics.transactionOpened();
+        metrics.transactionCompleted();
+        metrics.transactionTimedOut();
+        metrics.answerMismatched();
+        metrics.getStageTimings().record(Stage.CORRELATE, 1_500_000_000L, 4096);
+
+        List<String> lines = metrics.format().lines().toList();
+
+        assertTrue(lines.contains("# TYPE diameter_rows_parsed_total counter"));
+        assertTrue(lines.contains("diameter_rows_read_total 4096"));
+        assertTrue(lines.contains("diameter_rows_parsed_total 4096"));
+        assertTrue(lines.contains("diameter_rows_rejected_total 0"));
+        assertTrue(lines.contains("diameter_messages_total{type=\"AIR\"} 3000"));
+        assertTrue(lines.contains("diameter_messages_total{type=\"ULA\"} 0"));
+        assertTrue(lines.contains("diameter_messages_invalid_total 7"));
+        assertTrue(lines.contains("diameter_transactions_total{event=\"opened\"} 3"));
+        assertTrue(lines.contains("diameter_transactions_total{event=\"completed\"} 1"));
+        assertTrue(lines.contains("diameter_transactions_total{event=\"timed_out\"} 1"));
+        assertTrue(lines.contains("# TYPE diameter_transactions_open gauge"));
+        assertTrue(lines.contains("diameter_transactions_open 1"));
+        assertTrue(lines.contains("diameter_answers_mismatched_total 1"));
+        assertTrue(lines.contains("diameter_stage_seconds_total{stage=\"TransactionManager\"} 1.500000"));
+        assertTrue(lines.contains("diameter_stage_rows_total{stage=\"TransactionManager\"} 4096"));
+    }
+
+    @Test
+    @DisplayName("Should declare each metric family once, before its samples")
+    void shouldDeclareFamiliesOnce() {
+        List<String> lines = new LiveMetrics().format().lines().toList();
+
+        List<String> declared = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("# TYPE ")) {
+                String name = line.split(" ")[2];
+                assertFalse(declared.contains(name), name + " is declared twice");
+                declared.add(name);
+            }
+            else if (!line.startsWith("#")) {
+                String name = line.split("[{ ]")[0];
+                assertEquals(declared.getLast(), name);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should count rejected rows and still pass them to the dead-letter writer")
+    void shouldCountRejects() {
+        LiveMetrics  metrics = new LiveMetrics();
+        List<String> written = new ArrayList<>();
+        boolean[]    closed  = {false};
+
+        DeadLetterWriter counting = metrics.countingRejects(new DeadLetterWriter() {
+            @Override
+            public void write(long lineNumber, String reason, byte[] buffer, int offset, int length) {
+                written.add(lineNumber + ":" + reason);
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        });
+        counting.write(3, "Line has fewer columns than expected", new byte[0], 0, 0);
+        counting.close();
+
+        assertEquals(List.of("3:Line has fewer columns than expected"), written);
+        assertTrue(closed[0]);
+        assertTrue(metrics.format().contains("\ndiameter_rows_rejected_total 1\n"));
+        assertTrue(metrics.format().contains("\ndiameter_rows_read_total 1\n"));
+    }
+}
@@ -0,0 +1,75 @@
+package diameter.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MetricsServer Tests")
+class MetricsServerTest {
+
+    @Test
+    @DisplayName("Should serve the current metrics at /metrics")
+    void shouldServeMetrics() throws Exception {
+        LiveMetrics metrics = new LiveMetrics();
+        try (MetricsServer server = MetricsServer.start(0, metrics)) {
+            metrics.addParsedRows(10);
+            HttpResponse<String> response = send(server, "GET");
+
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain"));
+            assertTrue(response.body().contains("\ndiameter_rows_parsed_total 10\n"));
+
+            metrics.addParsedRows(5);
+            assertTrue(send(server, "GET").body().contains("\ndiameter_rows_parsed_total 15\n"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject methods other than GET")
+    void shouldRejectOtherMethods() throws Exception {
+        try (MetricsServer server = MetricsServer.start(0, new LiveMetrics())) {
+            assertEquals(405, send(server, "DELETE").statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only listen on the loopback interface by default")
+    void shouldBindLoopbackByDefault() {
+        try (MetricsServer server = MetricsServer.start(0, new LiveMetrics())) {
+            assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+        }
+    }
+
+    @Test
+    @DisplayName("Should listen on every interface when asked to")
+    void shouldBindGivenAddress() throws Exception {
+        try (MetricsServer server = MetricsServer.start("0.0.0.0", 0, new LiveMetrics())) {
+            assertTrue(server.getAddress().getAddress().isAnyLocalAddress());
+            assertEquals(200, send(server, "GET").statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid port")
+    void shouldRejectInvalidPort() {
+        assertThrows(IllegalArgumentException.class, () -> MetricsServer.start(70000, new LiveMetrics()));
+    }
+
+    private static HttpResponse<String> send(MetricsServer server, String method) throws Exception {
+        URI         uri     = URI.create("http://" + MetricsServer.DEFAULT_ADDRESS + ":" + server.getPort()
+                                             + "/metrics");
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                                         .method(method, HttpRequest.BodyPublishers.noBody())
+                                         .build();
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package diameter.reporter;
+
+import diameter.domain.MessageType;
+import diameter.transaction.TransactionStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProcessingAccumulator Tests")
+class ProcessingAccumulatorTest {
+
+    @Test
+    @DisplayName("Should count outcomes like the per-row results they replace")
+    void shouldCountOutcomes() {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator();
+        accumulator.record(ProcessingResult.success());
+        accumulator.record(ProcessingResult.validationFailure());
+        accumulator.record(ProcessingResult.error("Error 1"));
+        accumulator.recordSuccess();
+
+        assertEquals(4, accumulator.getTotal());
+        assertEquals(2, accumulator.getValid());
+        assertEquals(2, accumulator.getInvalid());
+        assertEquals(1, accumulator.getErrorCount());
+        assertEquals(List.of("Error 1"), accumulator.getErrorSample());
+    }
+
+    @Test
+    @DisplayName("Should keep only the first errors once the sample is full")
+    void shouldBoundErrorSample() {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator(2);
+        accumulator.recordError("Error 1");
+        assertFalse(accumulator.isErrorSampleFull());
+        accumulator.recordError("Error 2");
+        assertTrue(accumulator.isErrorSampleFull());
+        accumulator.recordError(null);
+
+        assertEquals(3, accumulator.getErrorCount());
+        assertEquals(List.of("Error 1", "Error 2"), accumulator.getErrorSample());
+    }
+
+    @Test
+    @DisplayName("Should merge totals and append the other sample up to the bound")
+    void shouldMerge() {
+        ProcessingAccumulator first  = new ProcessingAccumulator(3);
+        ProcessingAccumulator second = new ProcessingAccumulator(3);
+        first.recordSuccess();
+        first.recordError("Error 1");
+        second.recordValidationFailure();
+        second.recordError("Error 2");
+        second.recordError("Error 3");
+
+        first.merge(second);
+
+        assertEquals(5, first.getTotal());
+        assertEquals(1, first.getValid());
+        assertEquals(3, first.getErrorCount());
+        assertEquals(List.of("Error 1", "Error 2", "Error 3"), first.getErrorSample());
+    }
+
+    @Test
+    @DisplayName("Should count handled messages by type and status, including merged ones")
+    void shouldCountTransactionsByTypeAndStatus() {
+        ProcessingAccumulator first  = new ProcessingAccumulator();
+        ProcessingAccumulator second = new ProcessingAccumulator();
+        first.recordTransaction(MessageType.AIR, TransactionStatus.OPENED);
+        first.recordTransaction(MessageType.AIA, TransactionStatus.COMPLETED);
+        second.recordTransaction(MessageType.AIR, TransactionStatus.DUPLICATE);
+
+        first.merge(second);
+
+        assertEquals(2, first.getMessageCount(MessageType.AIR));
+        assertEquals(1, first.getMessageCount(MessageType.AIA));
+        assertEquals(0, first.getMessageCount(MessageType.ULR));
+        assertEquals(1, first.getStatusCount(TransactionStatus.OPENED));
+        assertEquals(1, first.getStatusCount(TransactionStatus.COMPLETED));
+        assertEquals(1, first.getStatusCount(TransactionStatus.DUPLICATE));
+    }
+
+    @Test
+    @DisplayName("Should turn a parked answer into an error once it is an orphan")
+    void shouldRecordOrphanAnswerAsError() {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator();
+        accumulator.recordTransaction(MessageType.AIA, TransactionStatus.PARKED);
+        accumulator.recordSuccess();
+        accumulator.recordTransaction(MessageType.ULA, TransactionStatus.PARKED);
+        accumulator.recordSuccess();
+
+        accumulator.recordOrphanAnswer("Orphan");
+
+        assertEquals(2, accumulator.getTotal());
+        assertEquals(1, accumulator.getValid());
+        assertEquals(1, accumulator.getErrorCount());
+        assertEquals(List.of("Orphan"), accumulator.getErrorSample());
+        assertEquals(1, accumulator.getStatusCount(TransactionStatus.PARKED));
+        assertEquals(1, accumulator.getStatusCount(TransactionStatus.UNEXPECTED_ANSWER));
+    }
+
+    @Test
+    @DisplayName("Should restore the same totals and error sample from a checkpoint")
+    void shouldRoundTripThroughCheckpoint() throws IOException {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator();
+        accumulator.recordSuccess();
+        accumulator.recordValidationFailure();
+        accumulator.recordError("No existing transaction for session ID sess-1");
+        accumulator.recordTransaction(MessageType.ULR, TransactionStatus.OPENED);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        accumulator.writeCheckpoint(new DataOutputStream(bytes));
+        ProcessingAccumulator restored = new ProcessingAccumulator();
+        restored.restoreCheckpoint(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(accumulator.getTotal(), restored.getTotal());
+        assertEquals(accumulator.getValid(), restored.getValid());
+        assertEquals(accumulator.getErrorCount(), restored.getErrorCount());
+        assertEquals(accumulator.getErrorSample(), restored.getErrorSample());
+        assertEquals(1, restored.getMessageCount(MessageType.ULR));
+        assertEquals(1, restored.getStatusCount(TransactionStatus.OPENED));
+    }
+}
@@ -0,0 +1,60 @@
+package diameter.reporter;
+
+import diameter.reporter.StageTimings.Stage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StageTimings Tests")
+class StageTimingsTest {
+
+    @Test
+    @DisplayName("Should add up the time and rows of every batch per stage")
+    void shouldAccumulatePerStage() {
+        StageTimings timings = new StageTimings();
+        timings.record(Stage.CREATE, 1_000_000, 4096);
+        timings.record(Stage.CREATE, 3_000_000, 4096);
+        timings.record(Stage.CORRELATE, 500_000, 10);
+
+        assertEquals(4_000_000, timings.getNanos(Stage.CREATE));
+        assertEquals(8192, timings.getRows(Stage.CREATE));
+        assertEquals(500_000, timings.getNanos(Stage.CORRELATE));
+        assertEquals(0, timings.getNanos(Stage.READ));
+    }
+
+    @Test
+    @DisplayName("Should count a negative elapsed time as zero so totals never go down")
+    void shouldClampNegativeTime() {
+        StageTimings timings = new StageTimings();
+        timings.record(Stage.CREATE, 2_000_000, 4096);
+        timings.record(Stage.CREATE, -400_000, 4096);
+
+        assertEquals(2_000_000, timings.getNanos(Stage.CREATE));
+        assertEquals(8192, timings.getRows(Stage.CREATE));
+    }
+
+    @Test
+    @DisplayName("Should derive rows per second and the share of wall-clock time")
+    void shouldDeriveRatesAndShares() {
+        StageTimings timings = new StageTimings();
+        timings.record(Stage.PARSE, 250_000_000, 1_000_000);
+        timings.setWallClockNanos(1_000_000_000);
+        timings.setGcPauseNanos(50_000_000);
+
+        assertEquals(4_000_000, timings.getRowsPerSecond(Stage.PARSE));
+        assertEquals(25.0, timings.getShare(Stage.PARSE), 1e-9);
+        assertEquals(5.0, timings.getGcPauseShare(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should report zero rates for stages that never ran and before the wall clock is known")
+    void shouldReportZeroWithoutTime() {
+        StageTimings timings = new StageTimings();
+        timings.record(Stage.VALIDATE, 1_000, 0);
+
+        assertEquals(0, timings.getRowsPerSecond(Stage.READ));
+        assertEquals(0, timings.getRowsPerSecond(Stage.VALIDATE));
+        assertEquals(0.0, timings.getShare(Stage.VALIDATE));
+    }
+}
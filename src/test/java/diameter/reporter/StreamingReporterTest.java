@@ -0,0 +1,232 @@
+package diameter.reporter;
+
+import diameter.checkpoint.Checkpointable;
+import diameter.domain.MessageType;
+import diameter.domain.message.AIA;
+import diameter.domain.message.AIR;
+import diameter.exception.checkpoint.CheckpointException;
+import diameter.transaction.AnswerLatencies;
+import diameter.transaction.TransactionResult;
+import diameter.transaction.TransactionStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StreamingReporter Tests")
+class StreamingReporterTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Nested
+    @DisplayName("JSON Lines")
+    class JsonLines {
+
+        @Test
+        @DisplayName("Should stream transaction records and end with the summary records")
+        void shouldWriteTransactionsAndSummary() {
+            StreamingReporter reporter = reporter(ReportFormat.JSON_LINES, true);
+            reporter.onTransaction(new AIR("sess-1", "mme1", "example.com", "user1"), TransactionStatus.OPENED);
+            reporter.onTransaction(new AIA("sess-1", "hss1", "example.com", "user1", "2001"),
+                                   TransactionStatus.COMPLETED);
+            reporter.report(accumulator(), transactionResult());
+            reporter.close();
+
+            List<String> lines = lines();
+            assertEquals("{\"record\":\"transaction\",\"session_id\":\"sess-1\",\"message_type\":\"AIR\","
+                         + "\"peer\":\"mme1\",\"result_code\":null,\"status\":\"OPENED\"}", lines.get(0));
+            assertEquals("{\"record\":\"transaction\",\"session_id\":\"sess-1\",\"message_type\":\"AIA\","
+                         + "\"peer\":\"hss1\",\"result_code\":\"2001\",\"status\":\"COMPLETED\"}", lines.get(1));
+            assertEquals("{\"record\":\"summary\",\"total_messages\":3,\"valid_messages\":2,\"invalid_messages\":1,"
+                         + "\"completed_transactions\":1,\"incomplete_transactions\":0,\"timed_out_transactions\":0,"
+                         + "\"orphan_answers\":0,\"processing_errors\":1}", lines.get(2));
+            assertTrue(lines.contains("{\"record\":\"message_type\",\"message_type\":\"AIR\",\"messages\":1}"));
+            assertTrue(lines.contains("{\"record\":\"transaction_status\",\"status\":\"COMPLETED\",\"count\":1}"));
+            assertTrue(lines.contains(
+                    "{\"record\":\"latency\",\"message_type\":\"AIR\",\"count\":1,\"p50\":40,\"p99\":40,"
+                    + "\"p99.9\":40,\"max\":40}"));
+            assertTrue(lines.contains(
+                    "{\"record\":\"latency\",\"peer\":\"hss1\",\"count\":1,\"p50\":40,\"p99\":40,\"p99.9\":40,"
+                    + "\"max\":40}"));
+        }
+
+        @Test
+        @DisplayName("Should escape quotes, backslashes and control characters")
+        void shouldEscapeStrings() {
+            StreamingReporter reporter = reporter(ReportFormat.JSON_LINES, true);
+            reporter.onTransaction(new AIR("a\"b\\c\n\u0001", "mme1", "example.com", "user1"),
+                                   TransactionStatus.OPENED);
+            reporter.close();
+
+            assertTrue(lines().getFirst().contains("\"session_id\":\"a\\\"b\\\\c\\n\\u0001\""));
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class Csv {
+
+        @Test
+        @DisplayName("Should write a header, transaction rows and one row per summary counter")
+        void shouldWriteRows() {
+            StreamingReporter reporter = reporter(ReportFormat.CSV, true);
+            reporter.onTransaction(new AIA("sess,1", "hss1", "example.com", "user1", "2001"),
+                                   TransactionStatus.UNEXPECTED_ANSWER);
+            reporter.report(accumulator(), transactionResult());
+            reporter.close();
+
+            List<String> lines = lines();
+            assertEquals("record,session_id,message_type,peer,result_code,status,name,value", lines.get(0));
+            assertEquals("transaction,\"sess,1\",AIA,hss1,2001,UNEXPECTED_ANSWER,,", lines.get(1));
+            assertEquals("summary,,,,,,total_messages,3", lines.get(2));
+            assertEquals("summary,,,,,,processing_errors,1", lines.get(9));
+            assertTrue(lines.contains("message_type,,AIA,,,,messages,1"));
+            assertTrue(lines.contains("transaction_status,,,,,OPENED,count,1"));
+            assertTrue(lines.contains("latency,,,hss1,,,p99,40"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Checkpoints")
+    class Checkpoints {
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("Should cut a report file back to the checkpoint and continue it when resuming")
+        void shouldContinueReportFileFromCheckpoint() throws IOException {
+            Path              file     = tempDir.resolve("report.csv");
+            StreamingReporter reporter = StreamingReporter.open((accumulator, result) -> {}, file.toString(),
+                                                                ReportFormat.CSV, true);
+            reporter.onTransaction(new AIR("sess-1", "mme1", "example.com", "user1"), TransactionStatus.OPENED);
+            byte[] checkpoint = checkpoint(reporter);
+            reporter.onTransaction(new AIR("sess-2", "mme1", "example.com", "user1"), TransactionStatus.OPENED);
+            reporter.close();
+
+            StreamingReporter resumed = StreamingReporter.open((accumulator, result) -> {}, file.toString(),
+                                                               ReportFormat.CSV, true, true);
+            restore(resumed, checkpoint);
+            resumed.onTransaction(new AIR("sess-3", "mme1", "example.com", "user1"), TransactionStatus.OPENED);
+            resumed.close();
+
+            assertEquals(List.of("record,session_id,message_type,peer,result_code,status,name,value",
+                                 "transaction,sess-1,AIR,mme1,,OPENED,,",
+                                 "transaction,sess-3,AIR,mme1,,OPENED,,"), Files.readAllLines(file));
+        }
+
+        @Test
+        @DisplayName("Should refuse to resume a report file from a checkpoint written without one")
+        void shouldRejectCheckpointWithoutReportFile() throws IOException {
+            StreamingReporter standardOutput = reporter(ReportFormat.JSON_LINES, false);
+            byte[]            checkpoint     = checkpoint(standardOutput);
+            StreamingReporter resumed        = StreamingReporter.open((accumulator, result) -> {},
+                                                                      tempDir.resolve("report.jsonl").toString(),
+                                                                      ReportFormat.JSON_LINES, false, true);
+
+            assertThrows(CheckpointException.class, () -> restore(resumed, checkpoint));
+            resumed.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should omit transaction records unless requested but still hand the summary to the delegate")
+    void shouldOmitTransactionsUnlessRequested() {
+        List<ProcessingAccumulator> delegated = new ArrayList<>();
+        StreamingReporter reporter = new StreamingReporter((accumulator, result) -> delegated.add(accumulator),
+                                                           output, true, ReportFormat.JSON_LINES, false);
+        ProcessingAccumulator accumulator = accumulator();
+        reporter.onTransaction(new AIR("sess-1", "mme1", "example.com", "user1"), TransactionStatus.OPENED);
+        reporter.report(accumulator, transactionResult());
+        reporter.close();
+
+        assertEquals(List.of(accumulator), delegated);
+        assertTrue(lines().getFirst().startsWith("{\"record\":\"summary\""));
+    }
+
+    @Test
+    @DisplayName("Should write the stage timings as one record after handing them to the delegate")
+    void shouldWriteStageTimings() {
+        List<StageTimings> delegated = new ArrayList<>();
+        StreamingReporter reporter = new StreamingReporter(new SummaryReporter() {
+            @Override
+            public void report(ProcessingAccumulator accumulator, TransactionResult transactionResult) {
+            }
+
+            @Override
+            public void reportStageTimings(StageTimings stageTimings) {
+                delegated.add(stageTimings);
+            }
+        }, output, true, ReportFormat.JSON_LINES, false);
+        StageTimings timings = new StageTimings();
+        timings.record(StageTimings.Stage.PARSE, 2_000, 5);
+        timings.setWallClockNanos(9_000);
+        timings.setGcPauseNanos(1_000);
+        reporter.reportStageTimings(timings);
+        reporter.close();
+
+        assertEquals(List.of(timings), delegated);
+        assertEquals("{\"record\":\"stage_timings\",\"wall_clock_ns\":9000,\"gc_pause_ns\":1000,\"read_ns\":0,\"read_rows\":0,"
+                     + "\"parse_ns\":2000,\"parse_rows\":5,\"create_ns\":0,\"create_rows\":0,\"validate_ns\":0,"
+                     + "\"validate_rows\":0,\"correlate_ns\":0,\"correlate_rows\":0}", lines().getFirst());
+    }
+
+    @Test
+    @DisplayName("Should parse report formats by their option value")
+    void shouldParseFormats() {
+        assertEquals(ReportFormat.JSON_LINES, ReportFormat.parse("jsonl"));
+        assertEquals(ReportFormat.CSV, ReportFormat.parse("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> ReportFormat.parse("xml"));
+    }
+
+    private StreamingReporter reporter(ReportFormat format, boolean includeTransactions) {
+        return new StreamingReporter((accumulator, result) -> {
+        }, output, true, format, includeTransactions);
+    }
+
+    private List<String> lines() {
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static byte[] checkpoint(Checkpointable section) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        section.writeCheckpoint(new DataOutputStream(bytes));
+
+        return bytes.toByteArray();
+    }
+
+    private static void restore(Checkpointable section, byte[] checkpoint) throws IOException {
+        section.restoreCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+        section.checkpointRestored();
+    }
+
+    private static ProcessingAccumulator accumulator() {
+        ProcessingAccumulator accumulator = new ProcessingAccumulator();
+        accumulator.recordSuccess();
+        accumulator.recordTransaction(MessageType.AIR, TransactionStatus.OPENED);
+        accumulator.recordSuccess();
+        accumulator.recordTransaction(MessageType.AIA, TransactionStatus.COMPLETED);
+        accumulator.recordError("No existing transaction for session ID sess-2");
+
+        return accumulator;
+    }
+
+    private static TransactionResult transactionResult() {
+        AnswerLatencies latencies = new AnswerLatencies();
+        latencies.record(MessageType.AIR, "hss1", 40);
+
+        return new TransactionResult(1, 0, 0, 0, latencies);
+    }
+}
@@ -1,5 +1,7 @@
 package diameter.reporter;
 
+import diameter.domain.MessageType;
+import diameter.transaction.AnswerLatencies;
 import diameter.transaction.TransactionResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -112,6 +114,65 @@ class SummaryReporterImplTest {
             assertTrue(output.contains("Valid messages: 0"));
             assertTrue(output.contains("Invalid messages: 3"));
         }
+
+        @Test
+        @DisplayName("Should report timed-out transactions and answer latency percentiles")
+        void shouldReportTimeoutsAndLatencies() {
+            AnswerLatencies latencies = new AnswerLatencies();
+            for (int i = 1; i <= 1_000; i++) {
+                latencies.record(MessageType.AIR, "hss1.example.com", i);
+            }
+
+            reporter.report(List.of(ProcessingResult.success()), new TransactionResult(1_000, 0, 2, 0, latencies));
+
+            String output = outputStream.toString();
+            assertTrue(output.contains("Timed-out transactions: 2"));
+            assertTrue(output.contains("AIR: count=1000, p50=503, p99=991, p99.9=999, max=1000"));
+            assertTrue(output.contains("peer hss1.example.com: count=1000"));
+        }
+
+        @Test
+        @DisplayName("Should take orphan answers settled as errors for invalid messages")
+        void shouldCountOrphanAnswersAsInvalid() {
+            List<ProcessingResult> results = List.of(ProcessingResult.success(), ProcessingResult.error("Orphan"));
+
+            reporter.report(results, new TransactionResult(0, 1, 0, 1, new AnswerLatencies()));
+
+            String output = outputStream.toString();
+            assertTrue(output.contains("Valid messages: 1"));
+            assertTrue(output.contains("Invalid messages: 1"));
+            assertTrue(output.contains("Orphan answers: 1"));
+        }
+
+        @Test
+        @DisplayName("Should report accumulated counts and note a truncated error sample")
+        void shouldReportAccumulatedCountsWithTruncatedErrorSample() {
+            ProcessingAccumulator accumulator = new ProcessingAccumulator(2);
+            accumulator.recordSuccess();
+            accumulator.recordValidationFailure();
+            accumulator.recordError("Error 1");
+            accumulator.recordError("Error 2");
+            accumulator.recordError(null);
+
+            reporter.report(accumulator, new TransactionResult(1, 0));
+
+            String output = outputStream.toString();
+            assertTrue(output.contains("Total messages: 5"));
+            assertTrue(output.contains("Valid messages: 1"));
+            assertTrue(output.contains("Invalid messages: 4"));
+            assertTrue(output.contains("Processing errors (first 2 of 3):"));
+            assertTrue(output.contains("- Error 2"));
+        }
+
+        @Test
+        @DisplayName("Should omit timeout and latency lines when there is nothing to report")
+        void shouldOmitEmptyTimeoutAndLatencyLines() {
+            reporter.report(List.of(ProcessingResult.success()), new TransactionResult(1, 0));
+
+            String output = outputStream.toString();
+            assertFalse(output.contains("Timed-out transactions"));
+            assertFalse(output.contains("Answer latency"));
+        }
     }
 
     @Nested
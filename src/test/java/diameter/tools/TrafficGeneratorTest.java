@@ -0,0 +1,150 @@
+package diameter.tools;
+
+import diameter.app.AppOptions;
+import diameter.csv.model.CsvRow;
+import diameter.csv.parser.CsvParserImpl;
+import diameter.domain.factory.MessageFactoryImpl;
+import diameter.domain.message.DiameterMessage;
+import diameter.transaction.RetentionPolicy;
+import diameter.transaction.TransactionManagerImpl;
+import diameter.transaction.TransactionStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TrafficGenerator Tests")
+class TrafficGeneratorTest {
+    private static final String HEADER =
+            "message_type,is_request,session_id,origin_host,origin_realm,user_name,visited_plmn_id,result_code";
+
+    @Nested
+    @DisplayName("Output Shape")
+    class OutputShape {
+
+        @Test
+        @DisplayName("Should write the header and exactly the requested number of rows")
+        void shouldWriteHeaderAndRows() throws IOException {
+            List<String> lines = generate("--rows=1000");
+
+            assertEquals(HEADER, lines.getFirst());
+            assertEquals(1001, lines.size());
+        }
+
+        @Test
+        @DisplayName("Should write the same bytes for the same seed and different bytes for another seed")
+        void shouldBeDeterministicPerSeed() throws IOException {
+            assertEquals(generate("--rows=5000", "--seed=7"), generate("--rows=5000", "--seed=7"));
+            assertNotEquals(generate("--rows=5000", "--seed=7"), generate("--rows=5000", "--seed=8"));
+        }
+
+        @Test
+        @DisplayName("Should write only requests when no request gets an answer")
+        void shouldWriteOnlyRequestsWithoutAnswers() throws IOException {
+            List<String> lines = generate("--rows=1000", "--answer-ratio=0");
+
+            assertTrue(lines.stream().skip(1).allMatch(line -> line.contains(",true,")));
+        }
+
+        @Test
+        @DisplayName("Should add an increasing timestamp column when requested")
+        void shouldWriteTimestamps() throws IOException {
+            List<String> lines = generate("--rows=3", "--timestamps");
+
+            assertEquals(HEADER + ",timestamp", lines.get(0));
+            assertTrue(lines.get(1).endsWith("," + TrafficProfile.DEFAULT_START_MILLIS));
+            assertTrue(lines.get(3).endsWith("," + (TrafficProfile.DEFAULT_START_MILLIS + 2)));
+        }
+
+        @Test
+        @DisplayName("Should keep hosts and realms within the configured cardinalities")
+        void shouldLimitHostsAndRealms() throws IOException {
+            List<String> lines = generate("--rows=1000", "--hosts=2", "--realms=1");
+
+            assertTrue(lines.stream().skip(1).allMatch(line -> line.contains(".realm0.example.com,")));
+            assertTrue(lines.stream().skip(1).noneMatch(line -> line.contains("mme2.") || line.contains("hss2.")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Processing the Output")
+    class ProcessingOutput {
+
+        @Test
+        @DisplayName("Should complete every answered transaction except those cut off at the end")
+        void shouldCorrelateGeneratedTraffic() throws IOException {
+            List<CsvRow> rows = new CsvParserImpl().parse(generate("--rows=10000", "--reorder-distance=8"));
+
+            assertEquals(10000, rows.size());
+            long completed = correlate(rows);
+            assertTrue(completed > 4500 && completed <= 5000, "completed: " + completed);
+        }
+
+        @Test
+        @DisplayName("Should produce rows the parser rejects when every row is invalid")
+        void shouldWriteInvalidRows() throws IOException {
+            List<String> lines = generate("--rows=1000", "--invalid-ratio=1");
+            List<CsvRow> rows  = new CsvParserImpl().parse(lines);
+
+            assertTrue(rows.size() < 500, "parsed: " + rows.size());
+            assertTrue(rows.stream().allMatch(row -> row.getOriginHost() == null || row.getOriginHost().isEmpty()));
+        }
+
+        @Test
+        @DisplayName("Should report reused Session-Ids as duplicates")
+        void shouldWriteDuplicates() throws IOException {
+            List<CsvRow>           rows    = new CsvParserImpl().parse(generate("--rows=1000", "--answer-ratio=0",
+                                                                                "--duplicate-ratio=0.5"));
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT);
+            MessageFactoryImpl     factory = new MessageFactoryImpl();
+
+            long duplicates = rows.stream()
+                                  .map(factory::createDiameterMessage)
+                                  .map(manager::handleDiameterMessage)
+                                  .filter(status -> status == TransactionStatus.DUPLICATE)
+                                  .count();
+
+            assertTrue(duplicates > 400, "duplicates: " + duplicates);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject ratios outside 0 to 1 and non-positive cardinalities")
+    void shouldRejectInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> profile("--answer-ratio=1.5"));
+        assertThrows(IllegalArgumentException.class, () -> profile("--invalid-ratio=-0.1"));
+        assertThrows(IllegalArgumentException.class, () -> profile("--ulr-ratio=half"));
+        assertThrows(IllegalArgumentException.class, () -> profile("--hosts=0"));
+        assertThrows(IllegalArgumentException.class, () -> profile("--rows=-1"));
+    }
+
+    private static List<String> generate(String... args) throws IOException {
+        ByteArrayOutputStream out   = new ByteArrayOutputStream();
+        long                  bytes = new TrafficGenerator(profile(args)).generate(out);
+
+        assertEquals(out.size(), bytes);
+
+        return out.toString(StandardCharsets.US_ASCII).lines().toList();
+    }
+
+    private static TrafficProfile profile(String... args) {
+        return TrafficProfile.from(AppOptions.parse(args));
+    }
+
+    private static long correlate(List<CsvRow> rows) {
+        TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT);
+        MessageFactoryImpl     factory = new MessageFactoryImpl();
+        for (CsvRow row : rows) {
+            DiameterMessage message = factory.createDiameterMessage(row);
+            manager.handleDiameterMessage(message);
+        }
+
+        return manager.getTransactionResult().getNumberOfCompleteTransactions();
+    }
+}
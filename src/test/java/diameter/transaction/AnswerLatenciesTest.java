@@ -0,0 +1,45 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AnswerLatencies Tests")
+class AnswerLatenciesTest {
+
+    @Test
+    @DisplayName("Should share one histogram among the peers beyond the cap")
+    void shouldCapTrackedPeers() {
+        AnswerLatencies latencies = new AnswerLatencies();
+        for (int i = 0; i < AnswerLatencies.MAX_PEERS + 100; i++) {
+            latencies.record(MessageType.AIR, "hss" + i + ".example.com", 10);
+        }
+        latencies.record(MessageType.AIR, "hss0.example.com", 20);
+
+        Map<String, LatencyHistogram> byPeer = latencies.getByPeer();
+        assertEquals(AnswerLatencies.MAX_PEERS + 1, byPeer.size());
+        assertEquals(2, byPeer.get("hss0.example.com").getCount());
+        assertEquals(100, byPeer.get(AnswerLatencies.OTHER_PEERS).getCount());
+        assertEquals(AnswerLatencies.MAX_PEERS + 101, latencies.getByRequestType().get(MessageType.AIR).getCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the cap when merging the latencies of several shards")
+    void shouldCapPeersWhenMerging() {
+        AnswerLatencies first  = new AnswerLatencies();
+        AnswerLatencies second = new AnswerLatencies();
+        for (int i = 0; i < AnswerLatencies.MAX_PEERS; i++) {
+            first.record(MessageType.ULR, "a" + i, 5);
+            second.record(MessageType.ULR, "b" + i, 5);
+        }
+
+        first.add(second);
+
+        assertEquals(AnswerLatencies.MAX_PEERS + 1, first.getByPeer().size());
+        assertEquals(AnswerLatencies.MAX_PEERS, first.getByPeer().get(AnswerLatencies.OTHER_PEERS).getCount());
+    }
+}
@@ -0,0 +1,260 @@
+package diameter.transaction;
+
+import diameter.domain.message.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConcurrentTransactionManager Tests")
+class ConcurrentTransactionManagerTest {
+    private static final int THREADS = 8;
+
+    private ConcurrentTransactionManager transactionManager;
+    private ExecutorService              executor;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new ConcurrentTransactionManager();
+        executor = Executors.newFixedThreadPool(THREADS + 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Nested
+    @DisplayName("Correlation")
+    class Correlation {
+
+        @Test
+        @DisplayName("Should open and complete a transaction")
+        void shouldOpenAndComplete() {
+            assertEquals(TransactionStatus.OPENED, transactionManager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.COMPLETED, transactionManager.handleDiameterMessage(createAia("sess-1")));
+
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should report duplicates, orphans and type mismatches")
+        void shouldReportErrorOutcomes() {
+            transactionManager.handleDiameterMessage(createUlr("sess-1"));
+
+            assertEquals(TransactionStatus.DUPLICATE, transactionManager.handleDiameterMessage(createUlr("sess-1")));
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER,
+                         transactionManager.handleDiameterMessage(createUla("sess-2")));
+            assertEquals(TransactionStatus.TYPE_MISMATCH, transactionManager.handleDiameterMessage(createAia("sess-1")));
+            assertEquals(1, transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should forget a completed transaction so a repeated answer is unexpected")
+        void shouldForgetCompletedTransaction() {
+            transactionManager.handleDiameterMessage(createAir("sess-1"));
+            transactionManager.handleDiameterMessage(createAia("sess-1"));
+
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER,
+                         transactionManager.handleDiameterMessage(createAia("sess-1")));
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when session ID is null")
+        void shouldThrowExceptionWhenSessionIdIsNull() {
+            assertThrows(IllegalArgumentException.class,
+                () -> transactionManager.handleDiameterMessage(createAir(null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Stress")
+    class Stress {
+
+        @Test
+        @Timeout(60)
+        @DisplayName("Should keep counts exact with disjoint sessions and a concurrent reader")
+        void shouldKeepCountsExactWithConcurrentReader() throws Exception {
+            int             sessionsPerThread = 20_000;
+            CountDownLatch  start             = new CountDownLatch(1);
+            AtomicBoolean   writing           = new AtomicBoolean(true);
+            List<Future<?>> writers           = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                String prefix = "t" + t + "-";
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < sessionsPerThread; i++) {
+                        String sessionId = prefix + i;
+                        transactionManager.handleDiameterMessage(createAir(sessionId));
+                        if (i % 4 != 0) {
+                            transactionManager.handleDiameterMessage(createAia(sessionId));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            Future<?> reader = executor.submit(() -> {
+                int lastComplete = 0;
+                while (writing.get()) {
+                    TransactionResult snapshot = transactionManager.getTransactionResult();
+                    assertTrue(snapshot.getNumberOfIncompleteTransactions() >= 0, "negative incomplete count");
+                    assertTrue(snapshot.getNumberOfCompleteTransactions() >= lastComplete, "complete count went back");
+                    lastComplete = snapshot.getNumberOfCompleteTransactions();
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(60, TimeUnit.SECONDS);
+
+            int               total  = THREADS * sessionsPerThread;
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(total - total / 4, result.getNumberOfCompleteTransactions());
+            assertEquals(total / 4, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @Timeout(60)
+        @DisplayName("Should open each contended session exactly once")
+        void shouldOpenContendedSessionsExactlyOnce() throws Exception {
+            int             sessions   = 5_000;
+            CountDownLatch  start      = new CountDownLatch(1);
+            AtomicInteger   opened     = new AtomicInteger();
+            AtomicInteger   duplicates = new AtomicInteger();
+            List<Future<?>> writers    = new ArrayList<>();
+
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < sessions; i++) {
+                        TransactionStatus status = transactionManager.handleDiameterMessage(createUlr("sess-" + i));
+                        (status == TransactionStatus.OPENED ? opened : duplicates).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals(sessions, opened.get());
+            assertEquals(sessions * (THREADS - 1), duplicates.get());
+            assertEquals(sessions, transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @Timeout(60)
+        @DisplayName("Should count every completion when answers race their requests")
+        void shouldCountCompletionsWhenAnswersRaceRequests() throws Exception {
+            int            sessions  = 50_000;
+            CountDownLatch start     = new CountDownLatch(1);
+            AtomicInteger  completed = new AtomicInteger();
+            AtomicInteger  orphaned  = new AtomicInteger();
+
+            Future<?> requests = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < sessions; i++) {
+                    transactionManager.handleDiameterMessage(createAir("sess-" + i));
+                }
+                return null;
+            });
+            Future<?> answers = executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < sessions; i++) {
+                    TransactionStatus status = transactionManager.handleDiameterMessage(createAia("sess-" + i));
+                    (status == TransactionStatus.COMPLETED ? completed : orphaned).incrementAndGet();
+                }
+                return null;
+            });
+
+            start.countDown();
+            requests.get(60, TimeUnit.SECONDS);
+            answers.get(60, TimeUnit.SECONDS);
+
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(sessions, completed.get() + orphaned.get());
+            assertEquals(completed.get(), result.getNumberOfCompleteTransactions());
+            assertEquals(orphaned.get(), result.getNumberOfIncompleteTransactions());
+        }
+        @Test
+        @Timeout(60)
+        @DisplayName("Should complete each transaction once when duplicate answers race each other")
+        void shouldCompleteOnceWithRacingDuplicateAnswers() throws Exception {
+            int             sessions  = 5_000;
+            CountDownLatch  start     = new CountDownLatch(1);
+            AtomicInteger   completed = new AtomicInteger();
+            AtomicInteger   rejected  = new AtomicInteger();
+            List<Future<?>> writers   = new ArrayList<>();
+
+            for (int i = 0; i < sessions; i++) {
+                transactionManager.handleDiameterMessage(createAir("sess-" + i));
+            }
+
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < sessions; i++) {
+                        TransactionStatus status = transactionManager.handleDiameterMessage(createAia("sess-" + i));
+                        if (status == TransactionStatus.COMPLETED) {
+                            completed.incrementAndGet();
+                        }
+                        else {
+                            assertEquals(TransactionStatus.UNEXPECTED_ANSWER, status);
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(sessions, completed.get());
+            assertEquals(sessions * (THREADS - 1), rejected.get());
+            assertEquals(sessions, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfIncompleteTransactions());
+        }
+    }
+
+    private AIR createAir(String sessionId) {
+        return new AIR(sessionId, "mme1.example.com", "example.com", "user1");
+    }
+
+    private AIA createAia(String sessionId) {
+        return new AIA(sessionId, "hss1.example.com", "example.com", null, "2001");
+    }
+
+    private ULR createUlr(String sessionId) {
+        return new ULR(sessionId, "mme1.example.com", "example.com", "user1", "00101");
+    }
+
+    private ULA createUla(String sessionId) {
+        return new ULA(sessionId, "hss1.example.com", "example.com", null, "2001");
+    }
+}
@@ -0,0 +1,84 @@
+package diameter.transaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    @DisplayName("Should report exact percentiles for small values")
+    void shouldReportExactSmallValues() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(99.9));
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    @DisplayName("Should stay within the sub-bucket precision for large values")
+    void shouldStayWithinPrecision() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(value);
+
+            long reported = LatencyHistogram.highestEquivalentValue(LatencyHistogram.indexOf(value));
+            assertTrue(reported >= value && reported - value <= value / 64, "value " + value + " -> " + reported);
+        }
+    }
+
+    @Test
+    @DisplayName("Should map bucket boundaries to contiguous indices")
+    void shouldMapBoundariesContiguously() {
+        assertEquals(127, LatencyHistogram.indexOf(127));
+        assertEquals(128, LatencyHistogram.indexOf(128));
+        assertEquals(128, LatencyHistogram.indexOf(129));
+        assertEquals(191, LatencyHistogram.indexOf(255));
+        assertEquals(192, LatencyHistogram.indexOf(256));
+        assertEquals(129, LatencyHistogram.highestEquivalentValue(128));
+        assertDoesNotThrow(() -> histogram.record(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should record negative latencies as zero")
+    void shouldClampNegativeLatencies() {
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    @DisplayName("Should merge counts and maximum")
+    void shouldMergeHistograms() {
+        LatencyHistogram other = new LatencyHistogram();
+        histogram.record(10);
+        other.record(20);
+        other.record(3_000);
+
+        histogram.add(other);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(3_000, histogram.getMax());
+        assertEquals(20, histogram.getValueAtPercentile(50));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,170 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.DiameterMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapTransactionStore Tests")
+class OffHeapTransactionStoreTest {
+
+    private OffHeapTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OffHeapTransactionStore();
+    }
+
+    @Nested
+    @DisplayName("Basic Operations")
+    class BasicOperations {
+
+        @Test
+        @DisplayName("Should open, look up and remove a session")
+        void shouldOpenLookUpAndRemove() {
+            assertTrue(store.open("sess-1", MessageType.AIR));
+            assertEquals(MessageType.AIR, store.getRequestType("sess-1"));
+            assertEquals(1, store.size());
+
+            assertTrue(store.remove("sess-1"));
+            assertNull(store.getRequestType("sess-1"));
+            assertFalse(store.remove("sess-1"));
+            assertEquals(0, store.size());
+        }
+
+        @Test
+        @DisplayName("Should not replace an open session")
+        void shouldNotReplaceOpenSession() {
+            store.open("sess-1", MessageType.ULR);
+
+            assertFalse(store.open("sess-1", MessageType.AIR));
+            assertEquals(MessageType.ULR, store.getRequestType("sess-1"));
+        }
+
+        @Test
+        @DisplayName("Should keep the request timestamp of an open session")
+        void shouldKeepOpenedAt() {
+            store.open("sess-1", MessageType.AIR, 1_700_000_000_123L);
+            store.open("sess-2", MessageType.ULR);
+
+            assertEquals(1_700_000_000_123L, store.getOpenedAt("sess-1"));
+            assertEquals(DiameterMessage.NO_TIMESTAMP, store.getOpenedAt("sess-2"));
+            assertEquals(DiameterMessage.NO_TIMESTAMP, store.getOpenedAt("sess-3"));
+        }
+
+        @Test
+        @DisplayName("Should keep non-Latin-1 and empty Session-Ids exact")
+        void shouldKeepNonLatin1SessionIds() {
+            store.open("sess-€-1", MessageType.AIR);
+            store.open("", MessageType.ULR);
+
+            assertEquals(MessageType.AIR, store.getRequestType("sess-€-1"));
+            assertNull(store.getRequestType("sess-¤-1"));
+            assertEquals(MessageType.ULR, store.getRequestType(""));
+        }
+
+        @Test
+        @DisplayName("Should reject Session-Ids that do not fit a key record")
+        void shouldRejectOversizedSessionIds() {
+            assertThrows(IllegalArgumentException.class,
+                () -> store.open("s".repeat(Short.MAX_VALUE + 1), MessageType.AIR));
+        }
+    }
+
+    @Nested
+    @DisplayName("Collisions and Growth")
+    class CollisionsAndGrowth {
+
+        @Test
+        @DisplayName("Should keep sessions apart when all fingerprints collide")
+        void shouldVerifyKeysOnFingerprintCollision() {
+            OffHeapTransactionStore colliding = new OffHeapTransactionStore(16, sessionId -> 42L);
+
+            for (int i = 0; i < 100; i++) {
+                assertTrue(colliding.open("sess-" + i, i % 2 == 0 ? MessageType.AIR : MessageType.ULR));
+            }
+
+            assertTrue(colliding.remove("sess-50"));
+            assertNull(colliding.getRequestType("sess-50"));
+            assertEquals(MessageType.ULR, colliding.getRequestType("sess-99"));
+            assertEquals(MessageType.AIR, colliding.getRequestType("sess-0"));
+            assertEquals(99, colliding.size());
+        }
+
+        @Test
+        @DisplayName("Should move request timestamps along with their slots")
+        void shouldMoveOpenedAtWithSlots() {
+            OffHeapTransactionStore colliding = new OffHeapTransactionStore(16, sessionId -> 42L);
+
+            for (int i = 0; i < 100; i++) {
+                colliding.open("sess-" + i, MessageType.AIR, 1_000 + i);
+            }
+
+            for (int i = 0; i < 100; i += 3) {
+                colliding.remove("sess-" + i);
+            }
+
+            for (int i = 1; i < 100; i += 3) {
+                assertEquals(1_000 + i, colliding.getOpenedAt("sess-" + i));
+            }
+        }
+
+        @Test
+        @DisplayName("Should match a HashMap under random opens and removes")
+        void shouldMatchHashMapUnderRandomOperations() {
+            Map<String, MessageType> reference = new HashMap<>();
+            Random                   random    = new Random(7);
+
+            for (int i = 0; i < 200_000; i++) {
+                String sessionId = "sess-" + random.nextInt(50_000);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(reference.remove(sessionId) != null, store.remove(sessionId));
+                }
+                else {
+                    MessageType type = random.nextBoolean() ? MessageType.AIR : MessageType.ULR;
+                    assertEquals(reference.putIfAbsent(sessionId, type) == null, store.open(sessionId, type));
+                }
+            }
+
+            assertEquals(reference.size(), store.size());
+            for (int i = 0; i < 50_000; i++) {
+                String sessionId = "sess-" + i;
+                assertEquals(reference.get(sessionId), store.getRequestType(sessionId));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep remaining keys intact after arena compaction")
+        void shouldKeepKeysAfterCompaction() {
+            String       padding   = "x".repeat(200);
+            List<String> remaining = new ArrayList<>();
+
+            for (int i = 0; i < 40_000; i++) {
+                String sessionId = padding + i;
+                store.open(sessionId, MessageType.ULR);
+                if (i % 10 == 0) {
+                    remaining.add(sessionId);
+                }
+                else {
+                    store.remove(sessionId);
+                }
+            }
+
+            assertEquals(remaining.size(), store.size());
+            assertTrue(store.getOffHeapBytes() < 8L << 20, "arena was not compacted: " + store.getOffHeapBytes());
+            for (String sessionId : remaining) {
+                assertEquals(MessageType.ULR, store.getRequestType(sessionId));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package diameter.transaction;
+
+import diameter.domain.message.AIA;
+import diameter.domain.message.DiameterMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReorderBuffer Tests")
+class ReorderBufferTest {
+
+    @Test
+    @DisplayName("Should hand back a parked answer within the window")
+    void shouldTakeParkedAnswer() {
+        ReorderBuffer   buffer = new ReorderBuffer(2);
+        DiameterMessage answer = createAia("sess-1");
+
+        buffer.advance();
+        assertTrue(buffer.park(answer));
+        buffer.advance();
+        buffer.advance();
+
+        assertSame(answer, buffer.take("sess-1"));
+        assertNull(buffer.take("sess-1"));
+        assertEquals(0, buffer.getEvictedCount());
+    }
+
+    @Test
+    @DisplayName("Should evict an answer once more messages than the window have passed")
+    void shouldEvictAfterWindow() {
+        ReorderBuffer buffer = new ReorderBuffer(2);
+
+        buffer.advance();
+        buffer.park(createAia("sess-1"));
+        buffer.advance();
+        buffer.advance();
+        buffer.advance();
+
+        assertNull(buffer.take("sess-1"));
+        assertEquals(1, buffer.getEvictedCount());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should keep the first answer parked for a session")
+    void shouldRejectSecondAnswerForSession() {
+        ReorderBuffer   buffer = new ReorderBuffer(4);
+        DiameterMessage first  = createAia("sess-1");
+
+        buffer.advance();
+        buffer.park(first);
+        buffer.advance();
+
+        assertFalse(buffer.park(createAia("sess-1")));
+        assertSame(first, buffer.take("sess-1"));
+    }
+
+    @Test
+    @DisplayName("Should not evict an answer parked again after its predecessor was taken")
+    void shouldNotEvictReparkedSession() {
+        ReorderBuffer buffer = new ReorderBuffer(1);
+
+        buffer.advance();
+        buffer.park(createAia("sess-1"));
+        buffer.take("sess-1");
+        buffer.advance();
+        buffer.park(createAia("sess-1"));
+        buffer.advance();
+
+        assertEquals(0, buffer.getEvictedCount());
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive window")
+    void shouldRejectNonPositiveWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new ReorderBuffer(0));
+    }
+
+    private AIA createAia(String sessionId) {
+        return new AIA(sessionId, "hss1.example.com", "example.com", null, "2001");
+    }
+}
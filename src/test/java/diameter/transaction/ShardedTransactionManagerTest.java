@@ -0,0 +1,224 @@
+package diameter.transaction;
+
+import diameter.domain.message.*;
+import diameter.exception.transaction.DuplicateTransactionException;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedTransactionManager Tests")
+class ShardedTransactionManagerTest {
+
+    private ShardedTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = new ShardedTransactionManager(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionManager.close();
+    }
+
+    @Nested
+    @DisplayName("Single Message Processing")
+    class SingleMessageProcessing {
+
+        @Test
+        @DisplayName("Should complete transaction when matching answer is received")
+        void shouldCompleteTransaction() {
+            assertEquals(TransactionStatus.OPENED, transactionManager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.COMPLETED, transactionManager.handleDiameterMessage(createAia("sess-1")));
+
+            TransactionResult result = transactionManager.getTransactionResult();
+
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should throw duplicate exception through the default processDiameterMessage")
+        void shouldThrowDuplicateException() {
+            transactionManager.processDiameterMessage(createUlr("sess-1"));
+
+            assertThrows(DuplicateTransactionException.class,
+                () -> transactionManager.processDiameterMessage(createUlr("sess-1")));
+        }
+
+        @Test
+        @DisplayName("Should throw exception when session ID is null")
+        void shouldThrowExceptionWhenSessionIdIsNull() {
+            assertThrows(IllegalArgumentException.class,
+                () -> transactionManager.handleDiameterMessage(createAir(null)));
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive shard count")
+        void shouldRejectNonPositiveShardCount() {
+            assertThrows(IllegalArgumentException.class, () -> new ShardedTransactionManager(0));
+        }
+
+        @Test
+        @DisplayName("Should time out idle shards using the latest timestamp seen by any shard")
+        void shouldTimeOutIdleShards() {
+            try (ShardedTransactionManager timed = new ShardedTransactionManager(
+                    4, RetentionPolicy.DEFAULT, HeapTransactionStore::new, AnswerTimeouts.parse("AIR:5000"))) {
+                for (int i = 0; i < 20; i++) {
+                    timed.handleDiameterMessage(new AIR("sess-" + i, "mme1.example.com", "example.com", "user1",
+                                                        1_000));
+                }
+
+                timed.handleDiameterMessage(new ULR("late", "mme1.example.com", "example.com", "user1", "00101",
+                                                    9_000));
+
+                TransactionResult result = timed.getTransactionResult();
+                assertEquals(20, result.getNumberOfTimedOutTransactions());
+                assertEquals(1, result.getNumberOfIncompleteTransactions());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Processing")
+    class BatchProcessing {
+
+        @Test
+        @DisplayName("Should write statuses to the matching indices")
+        void shouldWriteStatusesToMatchingIndices() {
+            DiameterMessage[]   messages = {createAia("orphan"), createAir("sess-1"), createAir("sess-1"),
+                                            createAia("sess-1"), createUlr("sess-2"), createAia("sess-2")};
+            TransactionStatus[] statuses = new TransactionStatus[messages.length];
+
+            transactionManager.handleDiameterMessages(messages, 0, messages.length, statuses);
+
+            assertArrayEquals(new TransactionStatus[] {
+                    TransactionStatus.UNEXPECTED_ANSWER, TransactionStatus.OPENED, TransactionStatus.DUPLICATE,
+                    TransactionStatus.COMPLETED, TransactionStatus.OPENED, TransactionStatus.TYPE_MISMATCH
+            }, statuses);
+        }
+
+        @Test
+        @DisplayName("Should only touch the requested range")
+        void shouldOnlyTouchRequestedRange() {
+            DiameterMessage[]   messages = {createAir("sess-1"), createAir("sess-2"), createAir("sess-3")};
+            TransactionStatus[] statuses = new TransactionStatus[messages.length];
+
+            transactionManager.handleDiameterMessages(messages, 1, 2, statuses);
+
+            assertNull(statuses[0]);
+            assertEquals(TransactionStatus.OPENED, statuses[1]);
+            assertNull(statuses[2]);
+            assertEquals(1, transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should match the single-threaded manager on mixed traffic")
+        void shouldMatchSingleThreadedManager() {
+            List<DiameterMessage> traffic  = randomTraffic(5_000, 1_000, 42);
+            DiameterMessage[]     messages = traffic.toArray(new DiameterMessage[0]);
+            TransactionStatus[]   sharded  = new TransactionStatus[messages.length];
+
+            for (int from = 0; from < messages.length; from += 512) {
+                transactionManager.handleDiameterMessages(messages, from, Math.min(from + 512, messages.length),
+                                                          sharded);
+            }
+
+            TransactionManagerImpl reference = new TransactionManagerImpl();
+            for (int i = 0; i < messages.length; i++) {
+                assertEquals(reference.handleDiameterMessage(messages[i]), sharded[i], "status at index " + i);
+            }
+
+            TransactionResult expected = reference.getTransactionResult();
+            TransactionResult actual   = transactionManager.getTransactionResult();
+            assertEquals(expected.getNumberOfCompleteTransactions(), actual.getNumberOfCompleteTransactions());
+            assertEquals(expected.getNumberOfIncompleteTransactions(), actual.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should reject a batch containing a null session ID")
+        void shouldRejectBatchWithNullSessionId() {
+            DiameterMessage[]   messages = {createAir("sess-1"), createAir(null)};
+            TransactionStatus[] statuses = new TransactionStatus[messages.length];
+
+            assertThrows(IllegalArgumentException.class,
+                () -> transactionManager.handleDiameterMessages(messages, 0, messages.length, statuses));
+        }
+
+        @Test
+        @DisplayName("Should handle the next batch cleanly after rejecting one")
+        void shouldRecoverAfterRejectedBatch() {
+            DiameterMessage[]   rejected = {createAir("sess-1"), createAir("sess-2"), createAir(null)};
+            DiameterMessage[]   next     = {createAir("sess-3")};
+            TransactionStatus[] statuses = new TransactionStatus[rejected.length];
+
+            assertThrows(IllegalArgumentException.class,
+                () -> transactionManager.handleDiameterMessages(rejected, 0, rejected.length, statuses));
+            transactionManager.handleDiameterMessages(next, 0, next.length, statuses);
+
+            assertEquals(TransactionStatus.OPENED, statuses[0]);
+            assertNull(statuses[1]);
+            assertEquals(1, transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should report orphan answers from every shard to the listener")
+        void shouldReportOrphanAnswersFromEveryShard() {
+            List<String> orphans = Collections.synchronizedList(new ArrayList<>());
+            try (ShardedTransactionManager manager = new ShardedTransactionManager(
+                    4, RetentionPolicy.DEFAULT, HeapTransactionStore::new, AnswerTimeouts.NONE, 100)) {
+                manager.setParkedAnswerListener((answer, status) -> orphans.add(answer.getSessionId() + ":" + status));
+                DiameterMessage[]   messages = new DiameterMessage[16];
+                TransactionStatus[] statuses = new TransactionStatus[messages.length];
+                for (int i = 0; i < messages.length; i++) {
+                    messages[i] = createAia("sess-" + i);
+                }
+
+                manager.handleDiameterMessages(messages, 0, messages.length, statuses);
+
+                assertEquals(16, manager.getTransactionResult().getNumberOfOrphanAnswers());
+            }
+
+            assertEquals(16, orphans.size());
+            assertTrue(orphans.stream().allMatch(orphan -> orphan.endsWith(":UNEXPECTED_ANSWER")));
+        }
+    }
+
+    private List<DiameterMessage> randomTraffic(int count, int sessions, long seed) {
+        Random                random  = new Random(seed);
+        List<DiameterMessage> traffic = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            String sessionId = "sess-" + random.nextInt(sessions);
+            switch (random.nextInt(4)) {
+                case 0 -> traffic.add(createAir(sessionId));
+                case 1 -> traffic.add(createAia(sessionId));
+                case 2 -> traffic.add(createUlr(sessionId));
+                default -> traffic.add(createUla(sessionId));
+            }
+        }
+
+        return traffic;
+    }
+
+    private AIR createAir(String sessionId) {
+        return new AIR(sessionId, "mme1.example.com", "example.com", "user1");
+    }
+
+    private AIA createAia(String sessionId) {
+        return new AIA(sessionId, "hss1.example.com", "example.com", null, "2001");
+    }
+
+    private ULR createUlr(String sessionId) {
+        return new ULR(sessionId, "mme1.example.com", "example.com", "user1", "00101");
+    }
+
+    private ULA createUla(String sessionId) {
+        return new ULA(sessionId, "hss1.example.com", "example.com", null, "2001");
+    }
+}
@@ -0,0 +1,120 @@
+package diameter.transaction;
+
+import diameter.domain.MessageType;
+import diameter.domain.message.AIA;
+import diameter.domain.message.AIR;
+import diameter.domain.message.DiameterMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SpillingTransactionStore Tests")
+class SpillingTransactionStoreTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private SpillingTransactionStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should spill the oldest sessions once the heap budget is exceeded")
+    void shouldSpillOldestSessions() {
+        store = new SpillingTransactionStore(2, spillDirectory);
+
+        store.open("sess-1", MessageType.AIR, 100);
+        store.open("sess-2", MessageType.ULR, 200);
+        store.open("sess-3", MessageType.AIR, 300);
+
+        assertEquals(1, store.getSpilledCount());
+        assertEquals(3, store.size());
+        assertEquals(MessageType.AIR, store.getRequestType("sess-1"));
+        assertEquals(100, store.getOpenedAt("sess-1"));
+        assertEquals(MessageType.ULR, store.getRequestType("sess-2"));
+    }
+
+    @Test
+    @DisplayName("Should find and remove spilled sessions")
+    void shouldRemoveSpilledSessions() {
+        store = new SpillingTransactionStore(1, spillDirectory);
+
+        store.open("sess-1", MessageType.AIR);
+        store.open("sess-2", MessageType.AIR);
+
+        assertFalse(store.open("sess-1", MessageType.ULR));
+        assertTrue(store.remove("sess-1"));
+        assertFalse(store.remove("sess-1"));
+        assertNull(store.getRequestType("sess-1"));
+        assertEquals(DiameterMessage.NO_TIMESTAMP, store.getOpenedAt("sess-1"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Should match a HashMap when most sessions are spilled")
+    void shouldMatchHashMapWhenSpilling() {
+        store = new SpillingTransactionStore(100, spillDirectory);
+        Map<String, MessageType> expected = new HashMap<>();
+        Random                   random   = new Random(11);
+
+        for (int i = 0; i < 50_000; i++) {
+            String sessionId = "sess-" + random.nextInt(20_000);
+            if (random.nextBoolean()) {
+                MessageType type = random.nextBoolean() ? MessageType.AIR : MessageType.ULR;
+                assertEquals(expected.putIfAbsent(sessionId, type) == null, store.open(sessionId, type));
+            }
+            else {
+                assertEquals(expected.remove(sessionId) != null, store.remove(sessionId));
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        expected.forEach((sessionId, type) -> assertEquals(type, store.getRequestType(sessionId)));
+        assertTrue(store.getSpillFileBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should delete the spill file on close")
+    void shouldDeleteSpillFileOnClose() throws IOException {
+        store = new SpillingTransactionStore(1, spillDirectory);
+        store.open("sess-1", MessageType.AIR);
+        store.open("sess-2", MessageType.AIR);
+
+        store.close();
+        store = null;
+
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should correlate through a transaction manager while spilling")
+    void shouldCorrelateWhileSpilling() {
+        store = new SpillingTransactionStore(1, spillDirectory);
+        TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT, store);
+
+        manager.handleDiameterMessage(new AIR("sess-1", "mme1", "example.com", "user1"));
+        manager.handleDiameterMessage(new AIR("sess-2", "mme1", "example.com", "user1"));
+
+        assertEquals(TransactionStatus.COMPLETED,
+                     manager.handleDiameterMessage(new AIA("sess-1", "hss1", "example.com", null, "2001")));
+        assertEquals(0, store.getSpilledCount());
+    }
+}
@@ -0,0 +1,100 @@
+package diameter.transaction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimerWheel Tests")
+class TimerWheelTest {
+
+    private TimerWheel<String> wheel;
+    private List<String>       fired;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimerWheel<>(10, 8);
+        fired = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("Should fire timers only once their tick has elapsed")
+    void shouldFireOnceTickElapsed() {
+        wheel.schedule("a", 1_005);
+        wheel.schedule("b", 1_025);
+
+        advance(1_009);
+        assertEquals(List.of(), fired);
+
+        advance(1_010);
+        assertEquals(List.of("a"), fired);
+
+        advance(1_040);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should pass each timer's deadline to the callback")
+    void shouldPassDeadline() {
+        List<Long> deadlines = new ArrayList<>();
+        wheel.schedule("a", 1_234);
+
+        wheel.advance(2_000, (item, deadline) -> deadlines.add(deadline));
+
+        assertEquals(List.of(1_234L), deadlines);
+    }
+
+    @Test
+    @DisplayName("Should keep timers beyond one revolution for a later pass")
+    void shouldKeepTimersBeyondOneRevolution() {
+        wheel.schedule("near", 1_000);
+        wheel.schedule("far", 1_000 + 8 * 10 * 3);
+
+        advance(1_100);
+        assertEquals(List.of("near"), fired);
+        assertEquals(1, wheel.size());
+
+        advance(1_250);
+        assertEquals(List.of("near", "far"), fired);
+    }
+
+    @Test
+    @DisplayName("Should fire overdue timers on the next advance")
+    void shouldFireOverdueTimers() {
+        advance(5_000);
+        wheel.schedule("late", 4_000);
+
+        advance(5_010);
+
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    @DisplayName("Should ignore time moving backwards")
+    void shouldIgnoreTimeMovingBackwards() {
+        wheel.schedule("a", 1_050);
+        advance(1_000);
+
+        advance(900);
+        assertEquals(List.of(), fired);
+
+        advance(1_060);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    @DisplayName("Should reject a wheel size that is not a power of two")
+    void shouldRejectInvalidWheelSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(10, 6));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 8));
+    }
+
+    private void advance(long now) {
+        wheel.advance(now, (item, deadline) -> fired.add(item));
+    }
+}
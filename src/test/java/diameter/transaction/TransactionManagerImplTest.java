@@ -1,11 +1,19 @@
 package diameter.transaction;
 
+import diameter.domain.MessageType;
 import diameter.domain.message.*;
 import diameter.exception.transaction.DuplicateTransactionException;
 import diameter.exception.transaction.UnexpectedTransactionAnswerException;
 import org.junit.jupiter.api.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -285,6 +293,444 @@ class TransactionManagerImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Status Codes")
+    class StatusCodes {
+
+        @Test
+        @DisplayName("Should report opened and completed transactions")
+        void shouldReportOpenedAndCompleted() {
+            assertEquals(TransactionStatus.OPENED, transactionManager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.COMPLETED, transactionManager.handleDiameterMessage(createAia("sess-1")));
+        }
+
+        @Test
+        @DisplayName("Should report duplicate request without throwing")
+        void shouldReportDuplicate() {
+            transactionManager.handleDiameterMessage(createUlr("sess-1"));
+
+            TransactionStatus status = transactionManager.handleDiameterMessage(createUlr("sess-1"));
+
+            assertEquals(TransactionStatus.DUPLICATE, status);
+            assertTrue(status.isError());
+            assertEquals(1, transactionManager.getTransactionResult().getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should report unexpected answer without throwing")
+        void shouldReportUnexpectedAnswer() {
+            TransactionStatus status = transactionManager.handleDiameterMessage(createUla("sess-unknown"));
+
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER, status);
+            assertTrue(status.isError());
+        }
+
+        @Test
+        @DisplayName("Should report type mismatch as a non-error outcome")
+        void shouldReportTypeMismatch() {
+            transactionManager.handleDiameterMessage(createAir("sess-1"));
+
+            TransactionStatus status = transactionManager.handleDiameterMessage(createUla("sess-1"));
+
+            assertEquals(TransactionStatus.TYPE_MISMATCH, status);
+            assertFalse(status.isError());
+        }
+    }
+
+    @Nested
+    @DisplayName("Completed Transaction Retention")
+    class CompletedTransactionRetention {
+
+        @Test
+        @DisplayName("Should evict completed transactions from the open map")
+        void shouldEvictCompletedTransactions() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.none());
+
+            manager.handleDiameterMessage(createAir("sess-1"));
+            manager.handleDiameterMessage(createUlr("sess-2"));
+            manager.handleDiameterMessage(createAia("sess-1"));
+
+            assertEquals(1, manager.getOpenTransactionCount());
+            assertEquals(0, manager.getRetainedSessionCount());
+        }
+
+        @Test
+        @DisplayName("Should allow Session-Id reuse after completion without retention")
+        void shouldAllowReuseWithoutRetention() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.none());
+
+            manager.handleDiameterMessage(createAir("sess-1"));
+            manager.handleDiameterMessage(createAia("sess-1"));
+
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.COMPLETED, manager.handleDiameterMessage(createAia("sess-1")));
+            assertEquals(2, manager.getTransactionResult().getNumberOfCompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should not count a repeated answer twice")
+        void shouldNotCountRepeatedAnswerTwice() {
+            transactionManager.handleDiameterMessage(createAir("sess-1"));
+            transactionManager.handleDiameterMessage(createAia("sess-1"));
+
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER,
+                         transactionManager.handleDiameterMessage(createAia("sess-1")));
+
+            TransactionResult result = transactionManager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should flag reuse of the last N completed Session-Ids as duplicates")
+        void shouldFlagReuseOfLastNCompleted() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.lastN(2));
+
+            for (String sessionId : new String[] {"sess-1", "sess-2", "sess-3"}) {
+                manager.handleDiameterMessage(createAir(sessionId));
+                manager.handleDiameterMessage(createAia(sessionId));
+            }
+
+            assertEquals(2, manager.getRetainedSessionCount());
+            assertEquals(TransactionStatus.DUPLICATE, manager.handleDiameterMessage(createAir("sess-3")));
+            assertEquals(TransactionStatus.DUPLICATE, manager.handleDiameterMessage(createAir("sess-2")));
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createAir("sess-1")));
+        }
+
+        @Test
+        @DisplayName("Should forget completed Session-Ids after the retention time in message time")
+        void shouldForgetCompletedAfterRetentionTime() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.timeBounded(500));
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            manager.handleDiameterMessage(createAia("sess-1", 1_100));
+
+            assertEquals(TransactionStatus.DUPLICATE, manager.handleDiameterMessage(createAir("sess-1", 1_599)));
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createAir("sess-1", 1_600)));
+            assertEquals(0, manager.getRetainedSessionCount());
+        }
+
+        @Test
+        @DisplayName("Should not advance the retention time on rows without a timestamp")
+        void shouldNotAdvanceRetentionTimeWithoutTimestamp() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.timeBounded(500));
+
+            manager.handleDiameterMessage(createAir("sess-0"));
+            manager.handleDiameterMessage(createAia("sess-0"));
+            manager.handleDiameterMessage(createAir("sess-1", 400));
+            manager.handleDiameterMessage(createAia("sess-1", 450));
+
+            assertEquals(2, manager.getRetainedSessionCount());
+            assertEquals(TransactionStatus.DUPLICATE, manager.handleDiameterMessage(createAir("sess-1")));
+
+            // Session-Ids completed before the first timestamp expire with the rest rather than blocking them.
+            manager.handleDiameterMessage(createAir("sess-2", 1_000));
+            assertEquals(0, manager.getRetainedSessionCount());
+        }
+
+        @Test
+        @DisplayName("Should keep message time across a checkpoint")
+        void shouldKeepMessageTimeAcrossCheckpoint() throws IOException {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.timeBounded(500));
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            manager.handleDiameterMessage(createAia("sess-1", 1_100));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            manager.writeCheckpoint(new DataOutputStream(bytes));
+            TransactionManagerImpl restored = new TransactionManagerImpl(RetentionPolicy.timeBounded(500));
+            restored.restoreCheckpoint(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            assertEquals(TransactionStatus.DUPLICATE, restored.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.OPENED, restored.handleDiameterMessage(createAir("sess-1", 1_600)));
+        }
+
+        @Test
+        @DisplayName("Should correlate the same way with the off-heap store")
+        void shouldCorrelateWithOffHeapStore() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT,
+                                                                        new OffHeapTransactionStore());
+
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createUlr("sess-2")));
+            assertEquals(TransactionStatus.TYPE_MISMATCH, manager.handleDiameterMessage(createUla("sess-1")));
+            assertEquals(TransactionStatus.COMPLETED, manager.handleDiameterMessage(createAia("sess-1")));
+            assertEquals(TransactionStatus.DUPLICATE, manager.handleDiameterMessage(createAir("sess-1")));
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER, manager.handleDiameterMessage(createUla("sess-3")));
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(1, result.getNumberOfIncompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should parse retention policies")
+        void shouldParseRetentionPolicies() {
+            assertEquals(RetentionPolicy.Mode.NONE, RetentionPolicy.parse("none").getMode());
+            assertEquals(250, RetentionPolicy.parse("last:250").getLimit());
+            assertEquals(RetentionPolicy.Mode.TIME_BOUNDED, RetentionPolicy.parse("time:60000").getMode());
+            assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("last"));
+            assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("forever"));
+            assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.parse("last:0"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Answer Timeouts")
+    class AnswerTimeoutHandling {
+
+        private final AnswerTimeouts timeouts = AnswerTimeouts.parse("AIR:5000,ULR:10000");
+
+        @Test
+        @DisplayName("Should time out requests unanswered past their type's timeout")
+        void shouldTimeOutUnansweredRequests() {
+            TransactionManagerImpl manager = createTimedManager();
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            manager.handleDiameterMessage(createUlr("sess-2", 1_000));
+            manager.handleDiameterMessage(createAir("sess-3", 7_000));
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(1, result.getNumberOfTimedOutTransactions());
+            assertEquals(2, result.getNumberOfIncompleteTransactions());
+            assertEquals(2, manager.getOpenTransactionCount());
+        }
+
+        @Test
+        @DisplayName("Should report a late answer as unexpected")
+        void shouldReportLateAnswerAsUnexpected() {
+            TransactionManagerImpl manager = createTimedManager();
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER,
+                         manager.handleDiameterMessage(createAia("sess-1", 6_100)));
+            assertEquals(0, manager.getTransactionResult().getNumberOfCompleteTransactions());
+        }
+
+        @Test
+        @DisplayName("Should not time out a transaction answered in time")
+        void shouldNotTimeOutAnsweredTransaction() {
+            TransactionManagerImpl manager = createTimedManager();
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            assertEquals(TransactionStatus.COMPLETED,
+                         manager.handleDiameterMessage(createAia("sess-1", 5_900)));
+            manager.expireUpTo(60_000);
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(0, result.getNumberOfTimedOutTransactions());
+            assertEquals(0, manager.getPendingTimerCount());
+        }
+
+        @Test
+        @DisplayName("Should ignore the stale timer of a reused Session-Id")
+        void shouldIgnoreStaleTimerOfReusedSession() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.none(),
+                                                                        new HeapTransactionStore(), timeouts);
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            manager.handleDiameterMessage(createAia("sess-1", 2_000));
+            manager.handleDiameterMessage(createAir("sess-1", 3_000));
+            manager.expireUpTo(7_000);
+
+            assertEquals(0, manager.getTransactionResult().getNumberOfTimedOutTransactions());
+
+            manager.expireUpTo(8_100);
+            assertEquals(1, manager.getTransactionResult().getNumberOfTimedOutTransactions());
+        }
+
+        @Test
+        @DisplayName("Should leave messages without timestamps and untimed types open")
+        void shouldLeaveUntimedTransactionsOpen() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT,
+                                                                        new HeapTransactionStore(),
+                                                                        AnswerTimeouts.parse("AIR:5000"));
+
+            manager.handleDiameterMessage(createAir("sess-1"));
+            manager.handleDiameterMessage(createUlr("sess-2", 1_000));
+            manager.expireUpTo(1_000_000);
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(2, result.getNumberOfIncompleteTransactions());
+            assertEquals(0, result.getNumberOfTimedOutTransactions());
+        }
+
+        @Test
+        @DisplayName("Should time out transactions with the off-heap store")
+        void shouldTimeOutWithOffHeapStore() {
+            TransactionManagerImpl manager = new TransactionManagerImpl(RetentionPolicy.DEFAULT,
+                                                                        new OffHeapTransactionStore(), timeouts);
+
+            manager.handleDiameterMessage(createAir("sess-1", 1_000));
+            manager.expireUpTo(6_010);
+
+            assertEquals(1, manager.getTransactionResult().getNumberOfTimedOutTransactions());
+            assertEquals(0, manager.getOpenTransactionCount());
+        }
+
+        @Test
+        @DisplayName("Should parse answer timeouts")
+        void shouldParseAnswerTimeouts() {
+            assertEquals(5_000, timeouts.getTimeoutMillis(MessageType.AIR));
+            assertEquals(10_000, timeouts.getTimeoutMillis(MessageType.ULR));
+            assertFalse(timeouts.hasTimeout(MessageType.AIA));
+            assertTrue(AnswerTimeouts.NONE.isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> AnswerTimeouts.parse("AIR"));
+            assertThrows(IllegalArgumentException.class, () -> AnswerTimeouts.parse("XYZ:100"));
+            assertThrows(IllegalArgumentException.class, () -> AnswerTimeouts.parse("AIR:0"));
+        }
+
+        private TransactionManagerImpl createTimedManager() {
+            return new TransactionManagerImpl(RetentionPolicy.DEFAULT, new HeapTransactionStore(), timeouts);
+        }
+    }
+
+    @Nested
+    @DisplayName("Answer Latency")
+    class AnswerLatency {
+
+        @Test
+        @DisplayName("Should record latency per request type and answering peer")
+        void shouldRecordLatencyPerTypeAndPeer() {
+            transactionManager.handleDiameterMessage(createAir("sess-1", 1_000));
+            transactionManager.handleDiameterMessage(createUlr("sess-2", 1_000));
+            transactionManager.handleDiameterMessage(createAia("sess-1", 1_040));
+            transactionManager.handleDiameterMessage(new ULA("sess-2", "hss2.example.com", "example.com", null, "2001",
+                                                             1_300));
+
+            AnswerLatencies latencies = transactionManager.getTransactionResult().getAnswerLatencies();
+            assertEquals(40, latencies.getByRequestType().get(MessageType.AIR).getMax());
+            assertEquals(300, latencies.getByRequestType().get(MessageType.ULR).getMax());
+            assertEquals(1, latencies.getByPeer().get("hss1.example.com").getCount());
+            assertEquals(300, latencies.getByPeer().get("hss2.example.com").getValueAtPercentile(50));
+        }
+
+        @Test
+        @DisplayName("Should not record latency when either side has no timestamp")
+        void shouldSkipUntimedPairs() {
+            transactionManager.handleDiameterMessage(createAir("sess-1"));
+            transactionManager.handleDiameterMessage(createAia("sess-1", 1_040));
+            transactionManager.handleDiameterMessage(createAir("sess-2", 1_000));
+            transactionManager.handleDiameterMessage(createAia("sess-2"));
+
+            assertTrue(transactionManager.getTransactionResult().getAnswerLatencies().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not record latency for mismatched answers")
+        void shouldSkipMismatchedAnswers() {
+            transactionManager.handleDiameterMessage(createAir("sess-1", 1_000));
+            transactionManager.handleDiameterMessage(new ULA("sess-1", "hss1.example.com", "example.com", null, "2001",
+                                                             1_040));
+
+            assertTrue(transactionManager.getTransactionResult().getAnswerLatencies().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Reorder Window")
+    class ReorderWindow {
+
+        @Test
+        @DisplayName("Should complete a transaction whose answer arrived first")
+        void shouldCompleteWithEarlyAnswer() {
+            TransactionManagerImpl manager = createReorderingManager(3);
+
+            assertEquals(TransactionStatus.PARKED, manager.handleDiameterMessage(createAia("sess-1")));
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createUlr("sess-2")));
+            assertEquals(TransactionStatus.OPENED, manager.handleDiameterMessage(createAir("sess-1")));
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(1, result.getNumberOfCompleteTransactions());
+            assertEquals(1, result.getNumberOfIncompleteTransactions());
+            assertEquals(0, result.getNumberOfOrphanAnswers());
+            assertEquals(1, manager.getOpenTransactionCount());
+        }
+
+        @Test
+        @DisplayName("Should count an answer whose request comes too late as an orphan")
+        void shouldEvictAnswerOutsideWindow() {
+            TransactionManagerImpl manager = createReorderingManager(1);
+
+            manager.handleDiameterMessage(createAia("sess-1"));
+            manager.handleDiameterMessage(createUlr("sess-2"));
+            manager.handleDiameterMessage(createAir("sess-1"));
+
+            TransactionResult result = manager.getTransactionResult();
+            assertEquals(0, result.getNumberOfCompleteTransactions());
+            assertEquals(2, result.getNumberOfIncompleteTransactions());
+            assertEquals(1, result.getNumberOfOrphanAnswers());
+        }
+
+        @Test
+        @DisplayName("Should count answers still parked at the end as orphans")
+        void shouldCountLeftoverAnswersAsOrphans() {
+            TransactionManagerImpl manager = createReorderingManager(100);
+
+            manager.handleDiameterMessage(createAia("sess-1"));
+            manager.handleDiameterMessage(createUla("sess-2"));
+
+            assertEquals(2, manager.getTransactionResult().getNumberOfOrphanAnswers());
+        }
+
+        @Test
+        @DisplayName("Should tell the listener what became of every parked answer")
+        void shouldReportSettledParkedAnswers() {
+            TransactionManagerImpl manager = createReorderingManager(1);
+            List<String>           settled = new ArrayList<>();
+            manager.setParkedAnswerListener((answer, status) -> settled.add(answer.getSessionId() + ":" + status));
+
+            manager.handleDiameterMessage(createAia("sess-1"));
+            manager.handleDiameterMessage(createAir("sess-1"));
+            manager.handleDiameterMessage(createAia("sess-2"));
+            manager.handleDiameterMessage(createUlr("sess-3"));
+            manager.handleDiameterMessage(createUlr("sess-4"));
+            manager.handleDiameterMessage(createUla("sess-5"));
+            assertEquals(List.of("sess-1:COMPLETED", "sess-2:UNEXPECTED_ANSWER"), settled);
+
+            assertEquals(2, manager.getTransactionResult().getNumberOfOrphanAnswers());
+            assertEquals(List.of("sess-1:COMPLETED", "sess-2:UNEXPECTED_ANSWER", "sess-5:UNEXPECTED_ANSWER"),
+                         settled);
+            assertEquals(2, manager.getTransactionResult().getNumberOfOrphanAnswers());
+        }
+
+        @Test
+        @DisplayName("Should leave the transaction open when the early answer has the wrong type")
+        void shouldKeepTypeMismatchOpen() {
+            TransactionManagerImpl manager = createReorderingManager(3);
+
+            manager.handleDiameterMessage(createUla("sess-1"));
+            manager.handleDiameterMessage(createAir("sess-1"));
+
+            assertEquals(TransactionStatus.COMPLETED, manager.handleDiameterMessage(createAia("sess-1")));
+        }
+
+        @Test
+        @DisplayName("Should report an answer for a completed session as unexpected")
+        void shouldNotParkAnswerForCompletedSession() {
+            TransactionManagerImpl manager = createReorderingManager(3);
+
+            manager.handleDiameterMessage(createAir("sess-1"));
+            manager.handleDiameterMessage(createAia("sess-1"));
+
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER, manager.handleDiameterMessage(createAia("sess-1")));
+        }
+
+        @Test
+        @DisplayName("Should report early answers as unexpected when the window is disabled")
+        void shouldNotParkWithoutWindow() {
+            assertEquals(TransactionStatus.UNEXPECTED_ANSWER,
+                         transactionManager.handleDiameterMessage(createAia("sess-1")));
+            assertEquals(0, transactionManager.getTransactionResult().getNumberOfOrphanAnswers());
+        }
+
+        private TransactionManagerImpl createReorderingManager(int window) {
+            return new TransactionManagerImpl(RetentionPolicy.DEFAULT, new HeapTransactionStore(), AnswerTimeouts.NONE,
+                                              window);
+        }
+    }
+
     // Helper methods to create test messages
     private AIR createAir(String sessionId) {
         return new AIR(sessionId, "mme1.example.com", "example.com", "user1");
@@ -301,4 +747,16 @@ class TransactionManagerImplTest {
     private ULA createUla(String sessionId) {
         return new ULA(sessionId, "hss1.example.com", "example.com", null, "2001");
     }
+
+    private AIR createAir(String sessionId, long timestamp) {
+        return new AIR(sessionId, "mme1.example.com", "example.com", "user1", timestamp);
+    }
+
+    private AIA createAia(String sessionId, long timestamp) {
+        return new AIA(sessionId, "hss1.example.com", "example.com", null, "2001", timestamp);
+    }
+
+    private ULR createUlr(String sessionId, long timestamp) {
+        return new ULR(sessionId, "mme1.example.com", "example.com", "user1", "00101", timestamp);
+    }
 }
@@ -225,6 +225,48 @@ class MessageValidatorImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Validation")
+    class BatchValidation {
+
+        @Test
+        @DisplayName("Should report only the invalid messages of the slice")
+        void shouldReportOnlyInvalidMessages() {
+            DiameterMessage[] messages = {
+                    new AIR(null, "host", "realm", "user"),
+                    new AIR("sess-1", "mme1.example.com", "example.com", "user1"),
+                    null,
+                    new ULR("sess-3", "mme1.example.com", "example.com", "user1", null),
+                    new AIR("sess-4", "mme1.example.com", "example.com", "user1")
+            };
+            ValidationResult[] failures = new ValidationResult[messages.length];
+
+            int invalid = validator.validate(messages, 1, messages.length, failures);
+
+            assertEquals(1, invalid);
+            assertNull(failures[0]);
+            assertNull(failures[1]);
+            assertNull(failures[2]);
+            assertEquals(validator.validate(messages[3]).getErrors(), failures[3].getErrors());
+            assertNull(failures[4]);
+        }
+
+        @Test
+        @DisplayName("Should give each invalid message its own result")
+        void shouldGiveEachInvalidMessageItsOwnResult() {
+            DiameterMessage[] messages = {
+                    new AIR(null, "host", "realm", "user"),
+                    new AIR("sess-1", null, "realm", "user")
+            };
+            ValidationResult[] failures = new ValidationResult[messages.length];
+
+            assertEquals(2, validator.validate(messages, 0, messages.length, failures));
+            assertNotSame(failures[0], failures[1]);
+            assertEquals(1, failures[0].getErrors().size());
+            assertEquals(1, failures[1].getErrors().size());
+        }
+    }
+
     @Nested
     @DisplayName("ValidationResult Behavior")
     class ValidationResultBehavior {